@@ -0,0 +1,53 @@
+package com.torontocodingcollective;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark the rounding used when displaying values on the dashboard.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TUtilBenchmark {
+
+    private static final int VALUE_COUNT = 1024;
+
+    @Param({ "0", "2", "4" })
+    public int               decimals;
+
+    private double []        values;
+    private int              index       = 0;
+
+    @Setup
+    public void setup() {
+
+        Random random = new Random(854);
+
+        values = new double[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values[i] = random.nextDouble() * 2000 - 1000;
+        }
+    }
+
+    @Benchmark
+    public double round() {
+        index = (index + 1) & (VALUE_COUNT - 1);
+        return TUtil.round(values[index], decimals);
+    }
+}
@@ -0,0 +1,100 @@
+package com.torontocodingcollective.commands;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.torontocodingcollective.oi.TStickPosition;
+import com.torontocodingcollective.speedcontroller.TSpeeds;
+
+/**
+ * Benchmark the differential drive calculations used by the default drive
+ * command on every loop.
+ * <p>
+ * The stick positions are built in the setup so that only the allocations made
+ * by the drive calculations are measured.
+ * <p>
+ * The benchmarks that pass in the motor speeds use the allocation free
+ * overloads and must report a normalized allocation rate (gc.alloc.rate.norm)
+ * of 0 bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TDifferentialDriveBenchmark {
+
+    private static final int       POSITION_COUNT = 1024;
+
+    private final TDifferentialDrive differentialDrive = new TDifferentialDrive();
+    private final TSpeeds          motorSpeeds    = new TSpeeds();
+
+    private TStickPosition []      leftPositions;
+    private TStickPosition []      rightPositions;
+    private int                    index          = 0;
+
+    @Setup
+    public void setup() {
+
+        Random random = new Random(854);
+
+        leftPositions  = new TStickPosition[POSITION_COUNT];
+        rightPositions = new TStickPosition[POSITION_COUNT];
+
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            leftPositions[i]  = new TStickPosition(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+            rightPositions[i] = new TStickPosition(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (POSITION_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public TSpeeds arcadeDriveSingleStick() {
+        return differentialDrive.arcadeDrive(leftPositions[nextIndex()]);
+    }
+
+    @Benchmark
+    public TSpeeds arcadeDriveDualStick() {
+        int i = nextIndex();
+        return differentialDrive.arcadeDrive(leftPositions[i], rightPositions[i]);
+    }
+
+    @Benchmark
+    public TSpeeds tankDrive() {
+        int i = nextIndex();
+        return differentialDrive.tankDrive(leftPositions[i], rightPositions[i]);
+    }
+
+    @Benchmark
+    public TSpeeds arcadeDriveSingleStickIntoSpeeds() {
+        return differentialDrive.arcadeDrive(leftPositions[nextIndex()], motorSpeeds);
+    }
+
+    @Benchmark
+    public TSpeeds arcadeDriveDualStickIntoSpeeds() {
+        int i = nextIndex();
+        return differentialDrive.arcadeDrive(leftPositions[i], rightPositions[i], motorSpeeds);
+    }
+
+    @Benchmark
+    public TSpeeds tankDriveIntoSpeeds() {
+        int i = nextIndex();
+        return differentialDrive.tankDrive(leftPositions[i], rightPositions[i], motorSpeeds);
+    }
+}
@@ -0,0 +1,78 @@
+package com.torontocodingcollective.pid;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark the gyro PID calculation and heading error normalization used
+ * when driving on a heading.
+ * <p>
+ * The angles cover several turns in both directions so that all of the
+ * normalization branches are exercised.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TGyroPIDBenchmark {
+
+    private static final int ANGLE_COUNT = 1024;
+
+    private TGyroPID         gyroPid;
+    private double []        angles;
+    private int              index       = 0;
+    private double           time        = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        gyroPid = new TGyroPID(.0015, .0005);
+        // Step the PID time by one loop on each calculation
+        gyroPid.setTimeSource(() -> time);
+        gyroPid.enable();
+        gyroPid.setSetpoint(90);
+
+        Random random = new Random(854);
+
+        angles = new double[ANGLE_COUNT];
+        for (int i = 0; i < ANGLE_COUNT; i++) {
+            angles[i] = random.nextDouble() * 1440 - 720;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        gyroPid.disable();
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (ANGLE_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double calculate() {
+        time += TPID.NOMINAL_PERIOD;
+        return gyroPid.calculate(angles[nextIndex()]);
+    }
+
+    @Benchmark
+    public double getError() {
+        return gyroPid.getError(angles[nextIndex()]);
+    }
+}
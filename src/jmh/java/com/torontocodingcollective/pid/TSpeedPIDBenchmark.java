@@ -0,0 +1,66 @@
+package com.torontocodingcollective.pid;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark the speed PID calculation that runs for each side of the drive on
+ * every loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TSpeedPIDBenchmark {
+
+    private static final int RATE_COUNT = 1024;
+
+    private TSpeedPID        speedPid;
+    private double []        normalizedRates;
+    private int              index      = 0;
+    private double           time       = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        speedPid = new TSpeedPID(0.75, 0.0375);
+        // Step the PID time by one loop on each calculation
+        speedPid.setTimeSource(() -> time);
+        speedPid.enable();
+        speedPid.setSetpoint(0.5);
+
+        Random random = new Random(854);
+
+        normalizedRates = new double[RATE_COUNT];
+        for (int i = 0; i < RATE_COUNT; i++) {
+            normalizedRates[i] = random.nextDouble() * 2 - 1;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        speedPid.disable();
+    }
+
+    @Benchmark
+    public double calculate() {
+        index = (index + 1) & (RATE_COUNT - 1);
+        time += TPID.NOMINAL_PERIOD;
+        return speedPid.calculate(normalizedRates[index]);
+    }
+}
@@ -0,0 +1,57 @@
+package com.torontocodingcollective.sensors.gyro;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.torontocodingcollective.replay.TReplayGyro;
+
+/**
+ * Benchmark the gyro angle normalization (inversion, offset and the 0 to 360
+ * degree range) applied on every read of the gyro angle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TGyroBenchmark {
+
+    private static final int ANGLE_COUNT = 1024;
+
+    private final TReplayGyro gyro       = new TReplayGyro();
+    private double []        rawAngles;
+    private int              index       = 0;
+
+    @Setup
+    public void setup() {
+
+        // Use an offset so that the offset is applied before the normalization
+        gyro.setGyroAngle(45);
+
+        Random random = new Random(854);
+
+        rawAngles = new double[ANGLE_COUNT];
+        for (int i = 0; i < ANGLE_COUNT; i++) {
+            rawAngles[i] = random.nextDouble() * 1440 - 720;
+        }
+    }
+
+    @Benchmark
+    public double getAngle() {
+        index = (index + 1) & (ANGLE_COUNT - 1);
+        gyro.setReplayValues(rawAngles[index], 0);
+        return gyro.getAngle();
+    }
+}
@@ -0,0 +1,131 @@
+package com.torontocodingcollective.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.torontocodingcollective.commands.gyroDrive.TDriveOnHeadingDistanceCommand;
+import com.torontocodingcollective.commands.gyroDrive.TRotateToHeadingCommand;
+import com.torontocodingcollective.oi.TOi;
+import com.torontocodingcollective.oi.TStick;
+import com.torontocodingcollective.oi.TStickPosition;
+import com.torontocodingcollective.subsystem.TSubsystem;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Scheduler;
+
+/**
+ * Benchmark one simulated robot loop with a gyro drive command running.
+ * <p>
+ * The simulation runs one 20ms robot loop per step, so the real time factor
+ * is 20000us divided by the average time of a step. The simulation should
+ * run at least 100 times faster than real time (200us per step) so that the
+ * autonomous routines can be checked quickly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TDriveSimulatorBenchmark {
+
+    private static final double LOOP_PERIOD  = 0.02;
+
+    private TSimDriveSubsystem  drive;
+    private TDriveSimulator     simulator;
+    private TOi                 oi           = new SimOi();
+
+    private Command []          commands;
+    private int                 commandIndex = 0;
+
+    /** OI with no driver input */
+    private static class SimOi extends TOi {
+
+        @Override
+        public boolean getCancelCommand() {
+            return false;
+        }
+
+        @Override
+        public TStickPosition getDriveStickPosition(TStick stick) {
+            return new TStickPosition(0, 0);
+        }
+
+        @Override
+        public boolean getReset() {
+            return false;
+        }
+
+        @Override
+        public boolean getSpeedPidEnabled() {
+            return true;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        HAL.initialize(500, 0);
+
+        TSimClock clock = new TSimClock(LOOP_PERIOD);
+        clock.start();
+
+        // Production robot constants (TalonSRX encoder rates in counts/100ms)
+        drive = new TSimDriveSubsystem(
+                new TDifferentialDriveModel(925 / 0.1 / 54 * 1.1, 0.3, 0.2, 24.0, 0.15),
+                54, 0.1,
+                0.75, 0.0375, 925,
+                .0015, .0005, 0.45);
+
+        List<TSubsystem> subsystemLs = new ArrayList<>();
+        subsystemLs.add(drive);
+
+        drive.init();
+
+        simulator = new TDriveSimulator(clock, drive, subsystemLs, oi);
+        simulator.setEnabled(true, true);
+
+        // Drive out and back, turning around at each end
+        commands = new Command[] {
+                new TDriveOnHeadingDistanceCommand(120, 0, .6, 5, true, oi, drive),
+                new TRotateToHeadingCommand(180, oi, drive),
+                new TDriveOnHeadingDistanceCommand(120, 180, .6, 5, true, oi, drive),
+                new TRotateToHeadingCommand(0, oi, drive) };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulator.setEnabled(false, true);
+        Scheduler.getInstance().removeAll();
+    }
+
+    @Benchmark
+    public double step() {
+
+        // Start the next command when the last one ends
+        Command command = commands[commandIndex];
+        if (!command.isRunning()) {
+            commandIndex = (commandIndex + 1) % commands.length;
+            commands[commandIndex].start();
+        }
+
+        simulator.step();
+
+        return drive.getModel().getX();
+    }
+}
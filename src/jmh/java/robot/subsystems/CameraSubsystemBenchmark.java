@@ -0,0 +1,95 @@
+package robot.subsystems;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import robot.subsystems.CameraSubsystem.Camera;
+
+/**
+ * Benchmark the vision target selection that runs on every loop.
+ * <p>
+ * The target arrays are generated in the same range as the GRIP contour
+ * report (0 to 640 pixels) with the number of contours found in a frame as a
+ * parameter. The original boxed list filter is benchmarked as the baseline.
+ * <p>
+ * The check that the target selection returns the same targets as the
+ * original filter is in CameraSubsystemTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraSubsystemBenchmark {
+
+    private static final int         FRAME_COUNT = 256;
+
+    @Param({ "2", "4", "8" })
+    public int               targetCount;
+
+    private double [][]      centerXFrames;
+    private double [][]      centerYFrames;
+    private final double []  targets     = new double[2];
+    private int              index       = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        Random random = new Random(854);
+
+        centerXFrames = new double[FRAME_COUNT][targetCount];
+        centerYFrames = new double[FRAME_COUNT][targetCount];
+
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            for (int i = 0; i < targetCount; i++) {
+                // Round some of the targets to whole pixels to generate ties
+                double x = random.nextDouble() * 640;
+                centerXFrames[frame][i] = random.nextBoolean() ? Math.rint(x) : x;
+                centerYFrames[frame][i] = random.nextDouble() * 480;
+            }
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (FRAME_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double[] legacyFilterFront() {
+        int i = nextIndex();
+        return LegacyTargetFilter.filterCenterX(centerXFrames[i], centerYFrames[i], Camera.FRONT);
+    }
+
+    @Benchmark
+    public double[] legacyFilterRear() {
+        int i = nextIndex();
+        return LegacyTargetFilter.filterCenterX(centerXFrames[i], centerYFrames[i], Camera.REAR);
+    }
+
+    @Benchmark
+    public boolean selectTargetsFront() {
+        int i = nextIndex();
+        return CameraSubsystem.selectTargets(centerXFrames[i], centerYFrames[i], Camera.FRONT, targets);
+    }
+
+    @Benchmark
+    public boolean selectTargetsRear() {
+        int i = nextIndex();
+        return CameraSubsystem.selectTargets(centerXFrames[i], centerYFrames[i], Camera.REAR, targets);
+    }
+}
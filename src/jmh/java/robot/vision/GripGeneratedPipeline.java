@@ -0,0 +1,125 @@
+package robot.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * GRIP Generated Pipeline
+ * <p>
+ * The reflective tape pipeline as generated by GRIP (Java code generation),
+ * with the parameters from GRIP/reflective_tape_windows.grip. The generated
+ * code allocates new contour lists and images on every frame and calculates
+ * every filter. Kept in the benchmarks as the baseline for the benchmark, and
+ * as the reference used to check that {@link ReflectiveTapePipeline} finds the
+ * same targets.
+ */
+class GripGeneratedPipeline {
+
+    private Mat                    resizeImageOutput         = new Mat();
+    private Mat                    hsvThresholdOutput        = new Mat();
+    private ArrayList<MatOfPoint>  findContoursOutput        = new ArrayList<MatOfPoint>();
+    private ArrayList<MatOfPoint>  filterContoursOutput      = new ArrayList<MatOfPoint>();
+
+    /**
+     * Run the pipeline and return the contours report center X and Y values
+     * (centerX followed by centerY)
+     */
+    double[][] process(Mat source0) {
+
+        // Step Resize_Image0:
+        resizeImage(source0, 640.0, 480.0, Imgproc.INTER_CUBIC, resizeImageOutput);
+
+        // Step HSV_Threshold0:
+        double[] hsvThresholdHue = { 0.0, 176.93175074183978 };
+        double[] hsvThresholdSaturation = { 0.0, 74.40867003627264 };
+        double[] hsvThresholdValue = { 252.24820143884895, 255.0 };
+        hsvThreshold(resizeImageOutput, hsvThresholdHue, hsvThresholdSaturation, hsvThresholdValue,
+                hsvThresholdOutput);
+
+        // Step Find_Contours0:
+        findContours(hsvThresholdOutput, false, findContoursOutput);
+
+        // Step Filter_Contours0:
+        double[] filterContoursSolidity = { 0, 100 };
+        filterContours(findContoursOutput, 500.0, 0.0, 0.0, 100.0, 0.0, 1000.0, filterContoursSolidity,
+                1000000.0, 0.0, 0.0, 1000.0, filterContoursOutput);
+
+        // NTPublish ContoursReport (center of the bounding box)
+        double[] centerX = new double[filterContoursOutput.size()];
+        double[] centerY = new double[filterContoursOutput.size()];
+
+        for (int i = 0; i < filterContoursOutput.size(); i++) {
+            Rect bb = Imgproc.boundingRect(filterContoursOutput.get(i));
+            centerX[i] = bb.x + bb.width / 2.0;
+            centerY[i] = bb.y + bb.height / 2.0;
+        }
+
+        return new double[][] { centerX, centerY };
+    }
+
+    private void resizeImage(Mat input, double width, double height, int interpolation, Mat output) {
+        Imgproc.resize(input, output, new Size(width, height), 0.0, 0.0, interpolation);
+    }
+
+    private void hsvThreshold(Mat input, double[] hue, double[] sat, double[] val, Mat out) {
+        Imgproc.cvtColor(input, out, Imgproc.COLOR_BGR2HSV);
+        Core.inRange(out, new Scalar(hue[0], sat[0], val[0]), new Scalar(hue[1], sat[1], val[1]), out);
+    }
+
+    private void findContours(Mat input, boolean externalOnly, List<MatOfPoint> contours) {
+        Mat hierarchy = new Mat();
+        contours.clear();
+        int mode;
+        if (externalOnly) {
+            mode = Imgproc.RETR_EXTERNAL;
+        }
+        else {
+            mode = Imgproc.RETR_LIST;
+        }
+        int method = Imgproc.CHAIN_APPROX_SIMPLE;
+        Imgproc.findContours(input, contours, hierarchy, mode, method);
+    }
+
+    private void filterContours(List<MatOfPoint> inputContours, double minArea, double minPerimeter,
+            double minWidth, double maxWidth, double minHeight, double maxHeight, double[] solidity,
+            double maxVertexCount, double minVertexCount, double minRatio, double maxRatio,
+            List<MatOfPoint> output) {
+        final MatOfInt hull = new MatOfInt();
+        output.clear();
+        // operation
+        for (int i = 0; i < inputContours.size(); i++) {
+            final MatOfPoint contour = inputContours.get(i);
+            final Rect bb = Imgproc.boundingRect(contour);
+            if (bb.width < minWidth || bb.width > maxWidth) continue;
+            if (bb.height < minHeight || bb.height > maxHeight) continue;
+            final double area = Imgproc.contourArea(contour);
+            if (area < minArea) continue;
+            if (Imgproc.arcLength(new MatOfPoint2f(contour.toArray()), true) < minPerimeter) continue;
+            Imgproc.convexHull(contour, hull);
+            MatOfPoint mopHull = new MatOfPoint();
+            mopHull.create((int) hull.size().height, 1, CvType.CV_32SC2);
+            for (int j = 0; j < hull.size().height; j++) {
+                int index = (int) hull.get(j, 0)[0];
+                double[] point = new double[] { contour.get(index, 0)[0], contour.get(index, 0)[1] };
+                mopHull.put(j, 0, point);
+            }
+            final double solid = 100 * area / Imgproc.contourArea(mopHull);
+            if (solid < solidity[0] || solid > solidity[1]) continue;
+            if (contour.rows() < minVertexCount || contour.rows() > maxVertexCount) continue;
+            final double ratio = bb.width / (double) bb.height;
+            if (ratio < minRatio || ratio > maxRatio) continue;
+            output.add(contour);
+        }
+    }
+}
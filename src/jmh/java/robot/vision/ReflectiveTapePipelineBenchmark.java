@@ -0,0 +1,200 @@
+package robot.vision;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.torontocodingcollective.vision.TCvVisionSource;
+
+import robot.subsystems.CameraSubsystem;
+
+/**
+ * Benchmark the reflective tape pipeline by replaying camera frames.
+ * <p>
+ * The frames are read from the images (.jpg or .png) in the frame directory,
+ * for example images saved from the camera stream on the practice field. Use
+ * -Pjmh.frames=&lt;directory&gt; to set the directory. If no directory is
+ * set, frames are generated at the camera resolution (160x120) with pairs of
+ * bright targets on a dark background.
+ * <p>
+ * The GRIP generated pipeline is benchmarked as the baseline. Before the
+ * benchmark runs, the setup checks that both pipelines find exactly the same
+ * targets in every frame. The benchmark fails if any result is different.
+ * <p>
+ * The OpenCV natives are loaded from the java.library.path set by the jmh
+ * task.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectiveTapePipelineBenchmark {
+
+    private static final int        GENERATED_FRAME_COUNT = 32;
+    private static final int        FRAME_WIDTH           = CameraSubsystem.CAPTURE_WIDTH;
+    private static final int        FRAME_HEIGHT          = CameraSubsystem.CAPTURE_HEIGHT;
+
+    /** Directory of recorded frames, or empty to generate the frames */
+    @Param({ "" })
+    public String                   frameDirectory;
+
+    private final List<Mat>         frames         = new ArrayList<Mat>();
+
+    private ReflectiveTapePipeline  pipeline;
+    private GripGeneratedPipeline   gripPipeline;
+
+    private final double []         centerX        = new double[TCvVisionSource.MAX_TARGETS];
+    private final double []         centerY        = new double[TCvVisionSource.MAX_TARGETS];
+    private int                     index          = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+        if (frameDirectory.isEmpty()) {
+            generateFrames();
+        }
+        else {
+            loadFrames(new File(frameDirectory));
+        }
+
+        if (frames.isEmpty()) {
+            throw new IllegalStateException("No frames found in " + frameDirectory);
+        }
+
+        pipeline     = new ReflectiveTapePipeline();
+        gripPipeline = new GripGeneratedPipeline();
+
+        for (int i = 0; i < frames.size(); i++) {
+            checkEquivalent(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Mat frame : frames) {
+            frame.release();
+        }
+        frames.clear();
+    }
+
+    private void loadFrames(File directory) {
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files);
+
+        for (File file : files) {
+
+            String name = file.getName().toLowerCase();
+
+            if (name.endsWith(".jpg") || name.endsWith(".png")) {
+                Mat frame = Imgcodecs.imread(file.getPath());
+                if (!frame.empty()) {
+                    frames.add(frame);
+                }
+            }
+        }
+    }
+
+    private void generateFrames() {
+
+        Random random = new Random(854);
+
+        byte[] pixels = new byte[FRAME_WIDTH * FRAME_HEIGHT * 3];
+
+        for (int f = 0; f < GENERATED_FRAME_COUNT; f++) {
+
+            // Dark background with some noise
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = (byte) random.nextInt(64);
+            }
+
+            // A pair of tall bright targets, and sometimes a second pair
+            int pairs = 1 + random.nextInt(2);
+
+            for (int p = 0; p < pairs; p++) {
+
+                int x      = random.nextInt(FRAME_WIDTH - 40);
+                int y      = random.nextInt(FRAME_HEIGHT - 30);
+                int width  = 4 + random.nextInt(4);
+                int height = 12 + random.nextInt(12);
+
+                fillRect(pixels, x, y, width, height);
+                fillRect(pixels, x + 20 + random.nextInt(10), y, width, height);
+            }
+
+            Mat frame = new Mat(FRAME_HEIGHT, FRAME_WIDTH, CvType.CV_8UC3);
+            frame.put(0, 0, pixels);
+            frames.add(frame);
+        }
+    }
+
+    private static void fillRect(byte[] pixels, int x, int y, int width, int height) {
+
+        for (int row = y; row < Math.min(y + height, FRAME_HEIGHT); row++) {
+            for (int col = x; col < Math.min(x + width, FRAME_WIDTH); col++) {
+                int offset = (row * FRAME_WIDTH + col) * 3;
+                pixels[offset]     = (byte) 255;
+                pixels[offset + 1] = (byte) 255;
+                pixels[offset + 2] = (byte) 255;
+            }
+        }
+    }
+
+    private void checkEquivalent(int frame) {
+
+        double[][] expected = gripPipeline.process(frames.get(frame));
+
+        int count = pipeline.process(frames.get(frame), centerX, centerY);
+
+        if (!Arrays.equals(expected[0], Arrays.copyOf(centerX, count))
+                || !Arrays.equals(expected[1], Arrays.copyOf(centerY, count))) {
+            throw new IllegalStateException("Frame " + frame + " found targets "
+                    + Arrays.toString(Arrays.copyOf(centerX, count))
+                    + ", expected " + Arrays.toString(expected[0]));
+        }
+    }
+
+    private Mat nextFrame() {
+        index = (index + 1) % frames.size();
+        return frames.get(index);
+    }
+
+    @Benchmark
+    public double[][] gripGenerated() {
+        return gripPipeline.process(nextFrame());
+    }
+
+    @Benchmark
+    public int reflectiveTapePipeline() {
+        return pipeline.process(nextFrame(), centerX, centerY);
+    }
+}
@@ -0,0 +1,89 @@
+package com.torontocodingcollective.commands;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.command.Command;
+
+/**
+ * Command Registry
+ * <p>
+ * Holds command instances that are started from buttons or other triggers so
+ * that the same instance is reused each time the command is started instead
+ * of building a new command (and a new command group) on every trigger.
+ * <p>
+ * A command is created the first time it is requested for a key, and the same
+ * instance is returned for all later requests. Reused commands must reset all
+ * of their state in {@code initialize()}, because the constructor is only run
+ * once.
+ * <p>
+ * A command that is already running is not started again. Parameters of a
+ * reused command (for example a heading) should only be changed when the
+ * command is not running.
+ */
+public class TCommandRegistry {
+
+    private final Map<String, Command> commandMap = new HashMap<String, Command>();
+
+    /**
+     * Get the command registered for the key
+     * <p>
+     * If no command is registered for the key, the command is built using the
+     * factory and registered.
+     * 
+     * @param key
+     *            unique name for the command instance
+     * @param factory
+     *            builds the command if it is not registered
+     * @return the registered command
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Command> T get(String key, Supplier<T> factory) {
+
+        Command command = commandMap.get(key);
+
+        if (command == null) {
+            command = factory.get();
+            commandMap.put(key, command);
+        }
+
+        return (T) command;
+    }
+
+    /**
+     * Start the command registered for the key
+     * 
+     * @param key
+     *            unique name for the command instance
+     * @param factory
+     *            builds the command if it is not registered
+     * @return {@code true} if the command was started, {@code false} if the
+     *         command is already running
+     */
+    public boolean start(String key, Supplier<? extends Command> factory) {
+        return start(get(key, factory));
+    }
+
+    /**
+     * Start the command if it is not already running
+     * <p>
+     * Commands that are added to the scheduler are running after the next
+     * scheduler run.
+     * 
+     * @param command
+     *            to start
+     * @return {@code true} if the command was started, {@code false} if the
+     *         command is already running
+     */
+    public boolean start(Command command) {
+
+        if (command.isRunning()) {
+            return false;
+        }
+
+        command.start();
+
+        return true;
+    }
+}
@@ -5,7 +5,6 @@ import com.torontocodingcollective.commands.gyroDrive.TRotateToHeadingCommand;
 import com.torontocodingcollective.oi.TOi;
 import com.torontocodingcollective.subsystem.TDriveSubsystem;
 import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
-import edu.wpi.first.wpilibj.command.Scheduler;
 
 /**
  * Default Drive Command for Game Controllers
@@ -27,6 +26,9 @@ public class TDefaultDriveCommand extends TSafeCommand {
     private final TDriveSubsystem     driveSubsystem;
     private final TGyroDriveSubsystem gyroDriveSubsystem;
 
+    // Commands started from the driver buttons are reused on each press
+    private final TCommandRegistry    commandRegistry = new TCommandRegistry();
+
     public TDefaultDriveCommand(TOi oi, TDriveSubsystem driveSubsystem) {
 
         super(TConst.NO_COMMAND_TIMEOUT, oi);
@@ -43,6 +45,17 @@ public class TDefaultDriveCommand extends TSafeCommand {
         }
     }
 
+    /**
+     * Get the registry used for the commands started by this command
+     * <p>
+     * Subclasses should start their button commands through this registry.
+     * 
+     * @return TCommandRegistry
+     */
+    protected TCommandRegistry getCommandRegistry() {
+        return commandRegistry;
+    }
+
     @Override
     protected String getCommandName() { return COMMAND_NAME; }
     
@@ -77,8 +90,11 @@ public class TDefaultDriveCommand extends TSafeCommand {
             }
         }
 
-        // Enable or disable PID controllers on the
+        // Select where the drive speed PIDs are run, and
+        // enable or disable PID controllers on the
         // drive motors
+        driveSubsystem.setSpeedPidMode(oi.getSpeedPidMode());
+
         if (oi.getSpeedPidEnabled()) {
             driveSubsystem.enableSpeedPids();
         } else {
@@ -86,11 +102,18 @@ public class TDefaultDriveCommand extends TSafeCommand {
         }
 
         // If this is a gyro subsystem,
-        // then rotate to the heading
+        // then rotate to the heading.
+        // The rotate command requires the drive subsystem and interrupts
+        // this command, so a POV press is only seen when no rotation is
+        // running.
         if (gyroDriveSubsystem != null) {
             int heading = oi.getRotateToHeading();
             if (heading != -1) {
-                Scheduler.getInstance().add(new TRotateToHeadingCommand(heading, oi, gyroDriveSubsystem));
+                TRotateToHeadingCommand rotateToHeadingCommand = commandRegistry.get(
+                        TRotateToHeadingCommand.class.getSimpleName(),
+                        () -> new TRotateToHeadingCommand(0, oi, gyroDriveSubsystem));
+                rotateToHeadingCommand.setHeading(heading);
+                commandRegistry.start(rotateToHeadingCommand);
             }
         }
     }
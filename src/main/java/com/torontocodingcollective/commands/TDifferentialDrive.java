@@ -44,13 +44,11 @@ public class TDifferentialDrive {
         setMotorDeadband(motorSpeedDeadband);
     }
 
-    private TSpeeds arcadeDrive(double speed, double rotation) {
-
-        TSpeeds motorSpeeds = new TSpeeds();
+    private TSpeeds arcadeDrive(double speed, double rotation, TSpeeds motorSpeeds) {
 
         // Check for a speed or rotation greater than the deadband
         if (!(Math.abs(speed) > inputDeadband || Math.abs(rotation) > inputDeadband)) {
-            return motorSpeeds;
+            return motorSpeeds.set(0, 0);
         }
 
         double scaledSpeed = scale(speed);
@@ -125,10 +123,7 @@ public class TDifferentialDrive {
             rightSpeed = 0;
         }
 
-        motorSpeeds.left = leftSpeed;
-        motorSpeeds.right = rightSpeed;
-
-        return motorSpeeds;
+        return motorSpeeds.set(leftSpeed, rightSpeed);
     }
 
     /**
@@ -148,9 +143,29 @@ public class TDifferentialDrive {
      *         speeds.
      */
     public TSpeeds arcadeDrive(TStickPosition singleStickPosition) {
+        return arcadeDrive(singleStickPosition, new TSpeeds());
+    }
+
+    /**
+     * Arcade Drive
+     * <p>
+     * Calculate the motor speeds required for arcade feel into the passed in
+     * motor speeds. This routine does not allocate any objects and should be
+     * used when it is called on every loop.
+     * 
+     * @param singleStickPostion
+     *            for the stick position to be used in the calculation. If the
+     *            single stick position is {@code null}, then the calculated motor
+     *            speeds will be zero.
+     * @param motorSpeeds
+     *            TSpeeds object that is set to the calculated left and right
+     *            motor speeds.
+     * @return the passed in motorSpeeds object
+     */
+    public TSpeeds arcadeDrive(TStickPosition singleStickPosition, TSpeeds motorSpeeds) {
 
         if (singleStickPosition == null) {
-            return new TSpeeds();
+            return motorSpeeds.set(0, 0);
         }
         
         // When driving using a single stick, an axis value of 1, 1 cannot be
@@ -178,7 +193,7 @@ public class TDifferentialDrive {
                 scaledX = magnitude * Math.abs(x/y) * Math.signum(x);
             }
         }
-        return arcadeDrive(scaledY, scaledX);
+        return arcadeDrive(scaledY, scaledX, motorSpeeds);
     }
 
     /**
@@ -205,13 +220,38 @@ public class TDifferentialDrive {
      *         speeds.
      */
     public TSpeeds arcadeDrive(TStickPosition leftStickPosition, TStickPosition rightStickPosition) {
+        return arcadeDrive(leftStickPosition, rightStickPosition, new TSpeeds());
+    }
+
+    /**
+     * Arcade Drive
+     * <p>
+     * Calculate the motor speeds required for arcade feel into the passed in
+     * motor speeds. This routine does not allocate any objects and should be
+     * used when it is called on every loop.
+     * 
+     * @param leftStickPostion
+     *            for the stick position to be used for the speed calculation. If
+     *            the leftStickPosition is {@code null}, then the calculated motor
+     *            speeds will be zero.
+     * @param rightStickPostion
+     *            for the stick position to be used for the rotational calculation.
+     *            If the rightStickPosition is {@code null}, then the calculated
+     *            motor speeds will be zero.
+     * @param motorSpeeds
+     *            TSpeeds object that is set to the calculated left and right
+     *            motor speeds.
+     * @return the passed in motorSpeeds object
+     */
+    public TSpeeds arcadeDrive(TStickPosition leftStickPosition, TStickPosition rightStickPosition,
+            TSpeeds motorSpeeds) {
 
         if (leftStickPosition == null || rightStickPosition == null) {
-            return new TSpeeds();
+            return motorSpeeds.set(0, 0);
         }
 
         // By convention the y axis of a joystick is inverted
-        return arcadeDrive(-leftStickPosition.y, rightStickPosition.x);
+        return arcadeDrive(-leftStickPosition.y, rightStickPosition.x, motorSpeeds);
     }
 
     /**
@@ -237,9 +277,34 @@ public class TDifferentialDrive {
      *         speeds.
      */
     public TSpeeds tankDrive(TStickPosition leftStickPosition, TStickPosition rightStickPosition) {
+        return tankDrive(leftStickPosition, rightStickPosition, new TSpeeds());
+    }
+
+    /**
+     * Tank Drive
+     * <p>
+     * Calculate the motor speeds required for tank feel into the passed in
+     * motor speeds. This routine does not allocate any objects and should be
+     * used when it is called on every loop.
+     * 
+     * @param leftStickPostion
+     *            for the stick position to be used for the left side speed
+     *            calculation. If the leftStickPosition is {@code null}, then the
+     *            calculated motor speeds will be zero.
+     * @param rightStickPostion
+     *            for the stick position to be used for the right side speed
+     *            calculation. If the rightStickPosition is {@code null}, then the
+     *            calculated motor speeds will be zero.
+     * @param motorSpeeds
+     *            TSpeeds object that is set to the calculated left and right
+     *            motor speeds.
+     * @return the passed in motorSpeeds object
+     */
+    public TSpeeds tankDrive(TStickPosition leftStickPosition, TStickPosition rightStickPosition,
+            TSpeeds motorSpeeds) {
 
         if (leftStickPosition == null || rightStickPosition == null) {
-            return new TSpeeds();
+            return motorSpeeds.set(0, 0);
         }
 
         double leftSpeed = -leftStickPosition.y;
@@ -253,7 +318,7 @@ public class TDifferentialDrive {
             rightSpeed = 0;
         }
 
-        return new TSpeeds(leftSpeed, rightSpeed);
+        return motorSpeeds.set(leftSpeed, rightSpeed);
     }
 
     // This routine scales a joystick value to make the
@@ -0,0 +1,134 @@
+package com.torontocodingcollective.commands.gyroDrive;
+
+import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.oi.TOi;
+import com.torontocodingcollective.profile.TMotionProfile;
+import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
+
+/**
+ * Drive on a specified heading for a specified distance following a motion
+ * profile
+ * <p>
+ * On each loop, the speed is set from the profile velocity (as a fraction of
+ * the max drive speed) plus a correction for the distance error from the
+ * profile position. The robot accelerates and decelerates with the limits of
+ * the profile and comes to rest at the distance, so a settling delay is not
+ * required after this command.
+ * <p>
+ * The profile distance must be positive (the robot drives forward on the
+ * heading).
+ */
+public class TProfiledDriveDistanceCommand extends TDriveOnHeadingCommand {
+
+    private static final String COMMAND_NAME =
+            TProfiledDriveDistanceCommand.class.getSimpleName();
+
+    /** Speed correction for each inch of distance error */
+    private static final double       POSITION_GAIN      = 0.02;
+
+    /** The command ends when the robot is within this distance of the end */
+    private static final double       DISTANCE_TOLERANCE = 1.0;
+
+    /** Time allowed after the end of the profile to reach the distance */
+    private static final double       MAX_SETTLE_TIME    = 0.5;
+
+    private final TMotionProfile      profile;
+    private final double              maxSpeedInchesPerSecond;
+    private final TGyroDriveSubsystem driveSubsystem;
+
+    /**
+     * Construct a new ProfiledDriveDistanceCommand
+     *
+     * @param profile
+     *            the precomputed motion profile in inches
+     * @param heading
+     *            in the range 0 <= heading < 360. If the heading is not in this
+     *            range, then the command will end immediately and print an error to
+     *            the DriverStation
+     * @param maxSpeedInchesPerSecond
+     *            the speed of the robot in inches/second when the drive speed is
+     *            set to 1.0
+     * @param timeout
+     *            the time after which this command will end automatically. A value
+     *            of {@link TConst#NO_COMMAND_TIMEOUT} will be used as an infinite
+     *            timeout.
+     * @param brakeWhenFinished
+     *            {@code true} to brake when the command finishes {@code false} to
+     *            coast into the next command.
+     * @param oi
+     *            that extend the TOi operator input class
+     * @param driveSubsystem
+     *            that extends the TGyroDriveSubsystem
+     */
+    public TProfiledDriveDistanceCommand(TMotionProfile profile, double heading, double maxSpeedInchesPerSecond,
+            double timeout, boolean brakeWhenFinished, TOi oi, TGyroDriveSubsystem driveSubsystem) {
+
+        super(heading, 0, timeout, brakeWhenFinished, oi, driveSubsystem);
+
+        this.profile                 = profile;
+        this.maxSpeedInchesPerSecond = maxSpeedInchesPerSecond;
+        this.driveSubsystem          = driveSubsystem;
+    }
+
+    @Override
+    protected String getCommandName() { return COMMAND_NAME; }
+
+    @Override
+    protected String getParmDesc() {
+        return "profile " + profile
+                + ", " + super.getParmDesc();
+    }
+
+    @Override
+    protected void initialize() {
+
+        // Only print the command start message
+        // if this command was not subclassed
+        if (getCommandName().equals(COMMAND_NAME)) {
+            logMessage(getParmDesc() + " starting");
+        }
+
+        setSpeed(0);
+
+        super.initialize();
+        driveSubsystem.resetEncoders();
+    }
+
+    @Override
+    protected void execute() {
+
+        int index = profile.getIndex(timeSinceInitialized());
+
+        double positionError = profile.getPosition(index) - driveSubsystem.getDistanceInches();
+
+        setSpeed(profile.getVelocity(index) / maxSpeedInchesPerSecond
+                + positionError * POSITION_GAIN);
+
+        super.execute();
+    }
+
+    @Override
+    protected boolean isFinished() {
+
+        if (super.isFinished()) {
+            logMessage("Command ending at distance " +
+                    driveSubsystem.getDistanceInches() + "inches");
+            return true;
+        }
+
+        double profileTime = timeSinceInitialized() - profile.getDuration();
+
+        if (profileTime < 0) {
+            return false;
+        }
+
+        if (   driveSubsystem.getDistanceInches() > profile.getDistance() - DISTANCE_TOLERANCE
+            || profileTime > MAX_SETTLE_TIME) {
+            logMessage("Command ending at distance " +
+                    driveSubsystem.getDistanceInches() + "inches");
+            return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,286 @@
+package com.torontocodingcollective.commands.gyroDrive;
+
+import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.commands.TSafeCommand;
+import com.torontocodingcollective.odometry.TPose;
+import com.torontocodingcollective.oi.TOi;
+import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
+import com.torontocodingcollective.trajectory.TTrajectory;
+
+/**
+ * Follow a trajectory using a pure pursuit controller
+ * <p>
+ * On each loop, the robot pose from the drive odometry is used to find the
+ * closest point on the path, and a look ahead point further along the path.
+ * The robot drives on the arc that passes through the look ahead point, at the
+ * trajectory velocity of the closest point. The robot does not stop to turn
+ * at the waypoints.
+ * <p>
+ * The trajectory positions are relative to the position of the robot when the
+ * command starts. The trajectory headings are gyro headings. If the robot
+ * heading at the start is not the start heading of the trajectory, the path is
+ * rotated about the start position by the difference so that the path starts
+ * in the direction the robot is facing.
+ * <p>
+ * The command ends when the robot reaches the end of the path.
+ */
+public class TPurePursuitCommand extends TSafeCommand {
+
+    private static final String       COMMAND_NAME =
+            TPurePursuitCommand.class.getSimpleName();
+
+    /** The command ends when the robot is within this distance of the end */
+    private static final double       END_TOLERANCE   = 2.0;
+
+    /** Number of points after the last closest point searched on each loop */
+    private static final int          SEARCH_POINTS   = 50;
+
+    private final TTrajectory         trajectory;
+    private final double              lookahead;
+    private final double              maxSpeedInchesPerSecond;
+    private final double              trackWidth;
+    private final boolean             brakeWhenFinished;
+    private final TGyroDriveSubsystem driveSubsystem;
+
+    private final TPose               pose         = new TPose();
+
+    // The position of the robot when the command started, and the rotation
+    // from the robot heading to the trajectory heading
+    private double                    startX       = 0;
+    private double                    startY       = 0;
+    private double                    rotation     = 0;
+    private double                    rotationCos  = 1;
+    private double                    rotationSin  = 0;
+
+    // The robot pose in the trajectory coordinates
+    private double                    x            = 0;
+    private double                    y            = 0;
+    private double                    heading      = 0;
+
+    private int                       closestIndex = 0;
+    private boolean                   poseValid    = false;
+
+    /**
+     * Construct a new PurePursuitCommand
+     *
+     * @param trajectory
+     *            the path to follow
+     * @param lookahead
+     *            the distance along the path from the closest point to the
+     *            look ahead point in inches. A longer look ahead follows the path
+     *            more smoothly, a shorter look ahead follows the path more
+     *            closely.
+     * @param maxSpeedInchesPerSecond
+     *            the speed of the robot in inches/second when the drive speed is
+     *            set to 1.0
+     * @param trackWidth
+     *            distance between the left and right wheels in inches
+     * @param timeout
+     *            the time after which this command will end automatically. A value
+     *            of {@link TConst#NO_COMMAND_TIMEOUT} will be used as an infinite
+     *            timeout.
+     * @param brakeWhenFinished
+     *            {@code true} to brake when the command finishes {@code false} to
+     *            coast into the next command.
+     * @param oi
+     *            that extend the TOi operator input class
+     * @param driveSubsystem
+     *            that extends the TGyroDriveSubsystem
+     */
+    public TPurePursuitCommand(TTrajectory trajectory, double lookahead, double maxSpeedInchesPerSecond,
+            double trackWidth, double timeout, boolean brakeWhenFinished, TOi oi,
+            TGyroDriveSubsystem driveSubsystem) {
+
+        super(timeout, oi);
+
+        this.trajectory              = trajectory;
+        this.lookahead               = lookahead;
+        this.maxSpeedInchesPerSecond = maxSpeedInchesPerSecond;
+        this.trackWidth              = trackWidth;
+        this.brakeWhenFinished       = brakeWhenFinished;
+        this.driveSubsystem          = driveSubsystem;
+
+        requires(driveSubsystem);
+    }
+
+    @Override
+    protected String getCommandName() { return COMMAND_NAME; }
+
+    @Override
+    protected String getParmDesc() {
+        return "trajectory " + trajectory
+                + ", lookahead " + lookahead
+                + ", brake " + brakeWhenFinished
+                + ", " + super.getParmDesc();
+    }
+
+    @Override
+    protected void initialize() {
+
+        // Only print the command start message
+        // if this command was not subclassed
+        if (getCommandName().equals(COMMAND_NAME)) {
+            logMessage(getParmDesc() + " starting");
+        }
+
+        // The wheel speeds are set directly
+        driveSubsystem.disableGyroPid();
+
+        poseValid = driveSubsystem.getPose(pose);
+
+        if (!poseValid) {
+            logMessage("No odometry pose. Command ending immediately");
+            return;
+        }
+
+        startX       = pose.x;
+        startY       = pose.y;
+        closestIndex = 0;
+
+        // Rotate the path to start on the robot heading
+        double rotationDegrees = pose.heading - trajectory.getHeading(0);
+
+        rotationDegrees %= 360;
+        if (rotationDegrees > 180) {
+            rotationDegrees -= 360;
+        }
+        if (rotationDegrees <= -180) {
+            rotationDegrees += 360;
+        }
+
+        if (Math.abs(rotationDegrees) >= 1.0) {
+            logMessage("Robot heading " + Math.round(pose.heading)
+                    + " rotating the path by " + Math.round(rotationDegrees) + " degrees");
+        }
+
+        rotation      = Math.toRadians(rotationDegrees);
+        rotationCos   = Math.cos(rotation);
+        rotationSin   = Math.sin(rotation);
+    }
+
+    /**
+     * Convert the robot pose to the trajectory coordinates
+     * <p>
+     * The robot movement since the start is rotated back by the path rotation
+     * and added to the start of the trajectory.
+     */
+    private void updatePathPose() {
+
+        double dx = pose.x - startX;
+        double dy = pose.y - startY;
+
+        x = trajectory.getX(0) + dx * rotationCos + dy * rotationSin;
+        y = trajectory.getY(0) - dx * rotationSin + dy * rotationCos;
+
+        heading = Math.toRadians(pose.heading) - rotation;
+    }
+
+    @Override
+    protected void execute() {
+
+        if (!poseValid || !driveSubsystem.getPose(pose)) {
+            return;
+        }
+
+        updatePathPose();
+
+        // Find the closest point, searching forward from the last closest point
+        // so that the robot never goes back along the path
+        int    last        = Math.min(closestIndex + SEARCH_POINTS, trajectory.getLength() - 1);
+        double minDistance = Double.MAX_VALUE;
+
+        for (int i = closestIndex; i <= last; i++) {
+
+            double dx = trajectory.getX(i) - x;
+            double dy = trajectory.getY(i) - y;
+            double distance = dx * dx + dy * dy;
+
+            if (distance < minDistance) {
+                minDistance  = distance;
+                closestIndex = i;
+            }
+        }
+
+        // Find the look ahead point along the path
+        int    end               = trajectory.getLength() - 1;
+        double lookaheadDistance = trajectory.getDistance(closestIndex) + lookahead;
+        int    lookaheadIndex    = closestIndex;
+
+        while (lookaheadIndex < end
+                && trajectory.getDistance(lookaheadIndex) < lookaheadDistance) {
+            lookaheadIndex++;
+        }
+
+        double lookaheadX = trajectory.getX(lookaheadIndex);
+        double lookaheadY = trajectory.getY(lookaheadIndex);
+
+        // Near the end of the path, extend the path along the end heading
+        // so that the robot finishes on the end heading
+        double extension = lookaheadDistance - trajectory.getDistance(end);
+        if (extension > 0) {
+            double endHeading = Math.toRadians(trajectory.getHeading(end));
+            lookaheadX += extension * Math.cos(endHeading);
+            lookaheadY += extension * Math.sin(endHeading);
+        }
+
+        // The look ahead point relative to the robot (forward, and lateral
+        // to the right of the robot)
+        double dx      = lookaheadX - x;
+        double dy      = lookaheadY - y;
+
+        double lateral  = -dx * Math.sin(heading) + dy * Math.cos(heading);
+        double distance = dx * dx + dy * dy;
+
+        // Curvature of the arc to the look ahead point (clockwise is positive)
+        double curvature = distance > 0 ? 2 * lateral / distance : 0;
+
+        // Use the velocity of the next point so that the robot
+        // starts moving at the start of the path
+        double velocity = trajectory.getVelocity(Math.min(closestIndex + 1, end));
+
+        double leftSpeed  = velocity * (1 + curvature * trackWidth / 2) / maxSpeedInchesPerSecond;
+        double rightSpeed = velocity * (1 - curvature * trackWidth / 2) / maxSpeedInchesPerSecond;
+
+        // Keep the ratio of the wheel speeds if either side is over full speed
+        double maxSpeed = Math.max(Math.abs(leftSpeed), Math.abs(rightSpeed));
+        if (maxSpeed > 1.0) {
+            leftSpeed  /= maxSpeed;
+            rightSpeed /= maxSpeed;
+        }
+
+        driveSubsystem.setSpeed(leftSpeed, rightSpeed);
+    }
+
+    @Override
+    protected boolean isFinished() {
+
+        if (!poseValid) {
+            return true;
+        }
+
+        if (super.isFinished()) {
+            logMessage("Command ending at point " + closestIndex + " of " + trajectory.getLength());
+            return true;
+        }
+
+        int end = trajectory.getLength() - 1;
+
+        double dx = trajectory.getX(end) - x;
+        double dy = trajectory.getY(end) - y;
+
+        // Reached the end, or passed the end of the path
+        if (closestIndex >= end || Math.hypot(dx, dy) < END_TOLERANCE) {
+            logMessage("Command ending " + Math.round(Math.hypot(dx, dy)) + " inches from the end");
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    protected void end() {
+        if (brakeWhenFinished) {
+            driveSubsystem.setSpeed(0, 0);
+        }
+    }
+}
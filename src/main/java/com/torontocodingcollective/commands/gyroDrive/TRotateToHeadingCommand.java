@@ -22,7 +22,7 @@ public class TRotateToHeadingCommand extends TSafeCommand {
     
     public static final double        DEFAULT_TIMEOUT = 5.0;
 
-    private final double              heading;
+    private double                    heading;
     private final double              maxRotationOutput;
 
     private final TGyroDriveSubsystem driveSubsystem;
@@ -113,6 +113,27 @@ public class TRotateToHeadingCommand extends TSafeCommand {
         this(heading, -1, DEFAULT_TIMEOUT, oi, driveSubsystem);
     }
 
+    /**
+     * Set the heading to rotate to
+     * <p>
+     * The command can be reused for a new heading. The heading is used the
+     * next time the command starts; it does not change a running rotation.
+     * 
+     * @param heading
+     *            0 <= heading < 360
+     */
+    public void setHeading(double heading) {
+
+        if (heading < 0 || heading >= 360) {
+            logMessage(
+                    "Heading on RotateToHeadingCommand must be >= 0 or < 360 degrees. " + heading
+                            + " is invalid.  Heading not changed");
+            return;
+        }
+
+        this.heading = heading;
+    }
+
     @Override
     protected String getCommandName() { return COMMAND_NAME; }
     
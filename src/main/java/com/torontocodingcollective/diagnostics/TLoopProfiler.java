@@ -0,0 +1,279 @@
+package com.torontocodingcollective.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Loop Profiler
+ * <p>
+ * Times each phase of the robot periodic loop (OI update, scheduler run, each
+ * subsystem updatePeriodic) and keeps a histogram of the elapsed times for
+ * each phase.
+ * <p>
+ * Usage:
+ * <ul>
+ * <li>register all phases with {@link #addPhase(String)} during robot
+ * initialization</li>
+ * <li>call {@link #startLoop()} at the start of each periodic loop</li>
+ * <li>call {@link #endPhase(int)} after each phase completes. The time
+ * assigned to the phase is the time since the previous phase ended (or the
+ * loop started)</li>
+ * <li>call {@link #endLoop()} at the end of the periodic loop</li>
+ * </ul>
+ * <p>
+ * The p50, p99 and max for each phase and for the whole loop are published to
+ * the SmartDashboard at a low rate. When the loop takes longer than the loop
+ * period, the overrun is counted and reported along with the phase that took
+ * the longest in the overrun loop.
+ * <p>
+ * Only the phases that were ended in a loop are recorded for that loop, so
+ * that phases that only run in some robot modes are not recorded as 0 in the
+ * other modes.
+ * <p>
+ * Nothing is allocated in the loop methods, so the profiler does not add any
+ * garbage collection load to the loop being measured.
+ */
+public class TLoopProfiler {
+
+    /** Histogram bucket resolution (0.1 ms) */
+    private static final long  BUCKET_WIDTH_NANOS     = 100000;
+    /** Histogram range (50 ms) */
+    private static final int   BUCKET_COUNT           = 500;
+
+    /** Default time between SmartDashboard summaries */
+    private static final double DEFAULT_PUBLISH_PERIOD = 1.0;
+
+    private class Phase {
+
+        final String             name;
+        final TLoopTimeHistogram histogram = new TLoopTimeHistogram(BUCKET_WIDTH_NANOS, BUCKET_COUNT);
+
+        // Pre-build the dashboard keys so publishing does not build strings
+        final String             p50Key;
+        final String             p99Key;
+        final String             maxKey;
+
+        long                     loopNanos = 0;
+        boolean                  ran       = false;
+
+        Phase(String name) {
+            this.name   = name;
+            this.p50Key = prefix + name + " p50";
+            this.p99Key = prefix + name + " p99";
+            this.maxKey = prefix + name + " max";
+        }
+    }
+
+    private final String      prefix;
+    private final long        loopPeriodNanos;
+    private final long        publishPeriodNanos;
+
+    private final List<Phase> phaseLs            = new ArrayList<Phase>();
+    private final Phase       loopPhase;
+
+    private boolean           enabled            = true;
+
+    private long              loopStartNanos     = 0;
+    private long              phaseStartNanos    = 0;
+    private long              lastPublishNanos   = 0;
+    private boolean           loopStarted        = false;
+
+    private int               overrunCount       = 0;
+    private int               windowOverrunCount = 0;
+    private Phase             lastOverrunPhase   = null;
+    private double            lastOverrunMs      = 0;
+    private double            lastOverrunPhaseMs = 0;
+
+    /**
+     * Loop Profiler publishing summaries once per second
+     *
+     * @param name
+     *            name used as the prefix for all SmartDashboard keys
+     * @param loopPeriodSeconds
+     *            loop period used to detect overruns (typically 0.02 seconds)
+     */
+    public TLoopProfiler(String name, double loopPeriodSeconds) {
+        this(name, loopPeriodSeconds, DEFAULT_PUBLISH_PERIOD);
+    }
+
+    /**
+     * Loop Profiler
+     *
+     * @param name
+     *            name used as the prefix for all SmartDashboard keys
+     * @param loopPeriodSeconds
+     *            loop period used to detect overruns (typically 0.02 seconds)
+     * @param publishPeriodSeconds
+     *            time between SmartDashboard summaries
+     */
+    public TLoopProfiler(String name, double loopPeriodSeconds, double publishPeriodSeconds) {
+        this.prefix             = name + " ";
+        this.loopPeriodNanos    = (long) (loopPeriodSeconds * 1000000000L);
+        this.publishPeriodNanos = (long) (publishPeriodSeconds * 1000000000L);
+        this.loopPhase          = new Phase("Total");
+    }
+
+    /**
+     * Add a phase to the profiler
+     * <p>
+     * All phases should be added during initialization.
+     *
+     * @param phaseName
+     *            name of the phase
+     * @return the phase id to be used when calling {@link #endPhase(int)}
+     */
+    public int addPhase(String phaseName) {
+        phaseLs.add(new Phase(phaseName));
+        return phaseLs.size() - 1;
+    }
+
+    /**
+     * Enable or disable the profiler
+     * <p>
+     * When disabled, the loop methods return immediately.
+     *
+     * @param enabled
+     *            {@code true} to enable profiling, {@code false} otherwise
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        this.loopStarted = false;
+    }
+
+    /**
+     * Get the total number of loop overruns since the profiler was created
+     *
+     * @return number of overruns
+     */
+    public int getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Mark the start of a periodic loop
+     */
+    public void startLoop() {
+
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        loopStartNanos  = now;
+        phaseStartNanos = now;
+        loopStarted     = true;
+
+        for (int i = 0; i < phaseLs.size(); i++) {
+            Phase phase = phaseLs.get(i);
+            phase.loopNanos = 0;
+            phase.ran       = false;
+        }
+    }
+
+    /**
+     * Mark the end of a phase
+     * <p>
+     * The time since the previous phase ended (or the loop started) is
+     * recorded against this phase. If a phase is ended more than once in a
+     * loop, the times are added together.
+     *
+     * @param phaseId
+     *            the phase id returned from {@link #addPhase(String)}
+     */
+    public void endPhase(int phaseId) {
+
+        if (!enabled || !loopStarted) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        Phase phase = phaseLs.get(phaseId);
+        phase.loopNanos += now - phaseStartNanos;
+        phase.ran        = true;
+        phaseStartNanos  = now;
+    }
+
+    /**
+     * Mark the end of a periodic loop
+     * <p>
+     * Record the times of the phases that ran in this loop, check for an overrun, and publish the summaries
+     * if the publish period has expired.
+     */
+    public void endLoop() {
+
+        if (!enabled || !loopStarted) {
+            return;
+        }
+
+        loopStarted = false;
+
+        long now       = System.nanoTime();
+        long loopNanos = now - loopStartNanos;
+
+        loopPhase.histogram.record(loopNanos);
+
+        Phase longestPhase = null;
+        for (int i = 0; i < phaseLs.size(); i++) {
+            Phase phase = phaseLs.get(i);
+            if (!phase.ran) {
+                continue;
+            }
+            phase.histogram.record(phase.loopNanos);
+            if (longestPhase == null || phase.loopNanos > longestPhase.loopNanos) {
+                longestPhase = phase;
+            }
+        }
+
+        if (loopNanos > loopPeriodNanos) {
+            overrunCount++;
+            windowOverrunCount++;
+            lastOverrunMs = loopNanos / 1000000.0;
+            lastOverrunPhase = longestPhase;
+            lastOverrunPhaseMs = longestPhase == null ? 0 : longestPhase.loopNanos / 1000000.0;
+        }
+
+        if (now - lastPublishNanos >= publishPeriodNanos) {
+            publish();
+            lastPublishNanos = now;
+        }
+    }
+
+    private void publish() {
+
+        publishPhase(loopPhase);
+        for (int i = 0; i < phaseLs.size(); i++) {
+            publishPhase(phaseLs.get(i));
+        }
+
+        SmartDashboard.putNumber(prefix + "Overruns", overrunCount);
+
+        // Report the overruns once per publish period so that the
+        // console is not flooded when the loop is consistently slow.
+        if (windowOverrunCount > 0) {
+
+            String phaseName = lastOverrunPhase == null ? "none" : lastOverrunPhase.name;
+
+            SmartDashboard.putString(prefix + "Overrun Phase", phaseName);
+
+            System.out.println(prefix + "overrun: " + windowOverrunCount
+                    + " loop(s) over " + (loopPeriodNanos / 1000000.0) + "ms, last loop "
+                    + lastOverrunMs + "ms, longest phase " + phaseName
+                    + " " + lastOverrunPhaseMs + "ms");
+
+            windowOverrunCount = 0;
+        }
+    }
+
+    private void publishPhase(Phase phase) {
+
+        SmartDashboard.putNumber(phase.p50Key, phase.histogram.getPercentileMs(50));
+        SmartDashboard.putNumber(phase.p99Key, phase.histogram.getPercentileMs(99));
+        SmartDashboard.putNumber(phase.maxKey, phase.histogram.getMaxMs());
+
+        phase.histogram.reset();
+    }
+}
@@ -0,0 +1,123 @@
+package com.torontocodingcollective.diagnostics;
+
+/**
+ * Loop Time Histogram
+ * <p>
+ * Fixed bucket histogram of elapsed times used to calculate percentile
+ * summaries (p50, p99, max) of a loop phase.
+ * <p>
+ * All storage is allocated in the constructor so that recording a sample in
+ * the robot loop never allocates memory. Samples larger than the histogram
+ * range are counted in the last bucket, but the max value is always tracked
+ * exactly.
+ */
+public class TLoopTimeHistogram {
+
+    private final long   bucketWidthNanos;
+    private final int [] buckets;
+
+    private int          sampleCount = 0;
+    private long         maxNanos    = 0;
+
+    /**
+     * Histogram with the specified bucket resolution and range
+     *
+     * @param bucketWidthNanos
+     *            width of each bucket in nanoseconds
+     * @param bucketCount
+     *            number of buckets. The range of the histogram is
+     *            {@code bucketWidthNanos * bucketCount}
+     */
+    public TLoopTimeHistogram(long bucketWidthNanos, int bucketCount) {
+        this.bucketWidthNanos = bucketWidthNanos;
+        this.buckets          = new int[bucketCount];
+    }
+
+    /**
+     * Record an elapsed time in the histogram
+     *
+     * @param elapsedNanos
+     *            elapsed time in nanoseconds
+     */
+    public void record(long elapsedNanos) {
+
+        if (elapsedNanos < 0) {
+            elapsedNanos = 0;
+        }
+
+        long bucket = elapsedNanos / bucketWidthNanos;
+        if (bucket >= buckets.length) {
+            bucket = buckets.length - 1;
+        }
+
+        buckets[(int) bucket]++;
+        sampleCount++;
+
+        if (elapsedNanos > maxNanos) {
+            maxNanos = elapsedNanos;
+        }
+    }
+
+    /**
+     * Get the number of samples recorded since the last reset
+     *
+     * @return sample count
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Get the maximum elapsed time recorded since the last reset
+     *
+     * @return max time in milliseconds
+     */
+    public double getMaxMs() {
+        return maxNanos / 1000000.0;
+    }
+
+    /**
+     * Get the elapsed time at the given percentile
+     * <p>
+     * The value returned is the upper edge of the bucket containing the
+     * percentile, limited to the max value recorded.
+     *
+     * @param percentile
+     *            percentile in the range 0 to 100
+     * @return elapsed time in milliseconds, or 0 if there are no samples
+     */
+    public double getPercentileMs(double percentile) {
+
+        if (sampleCount == 0) {
+            return 0;
+        }
+
+        // Rank of the sample at this percentile (1 based)
+        long rank = (long) Math.ceil(sampleCount * percentile / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i];
+            if (count >= rank) {
+                long upperEdgeNanos = (i + 1) * bucketWidthNanos;
+                return Math.min(upperEdgeNanos, maxNanos) / 1000000.0;
+            }
+        }
+
+        return getMaxMs();
+    }
+
+    /**
+     * Clear all samples from the histogram
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+        sampleCount = 0;
+        maxNanos    = 0;
+    }
+}
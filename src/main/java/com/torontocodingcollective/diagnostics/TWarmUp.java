@@ -0,0 +1,148 @@
+package com.torontocodingcollective.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.torontocodingcollective.telemetry.TTelemetry;
+import com.torontocodingcollective.telemetry.TTelemetryBoolean;
+import com.torontocodingcollective.telemetry.TTelemetryNumber;
+import com.torontocodingcollective.telemetry.TTelemetryRate;
+
+/**
+ * JIT Warm Up
+ * <p>
+ * Runs the robot control calculations many times while the robot is disabled
+ * so that they are compiled by the JIT before the match starts. Without a warm
+ * up, the first autonomous run after the robot boots is run in the
+ * interpreter and the loop is slower.
+ * <p>
+ * Each task is a {@link Runnable} that runs one iteration of a calculation.
+ * Tasks must only use their own objects and simulated outputs, and must never
+ * set a speed controller or any other hardware output.
+ * <p>
+ * Call {@link #update()} from disabledPeriodic. The tasks are run for at most
+ * the loop budget on each call so that the disabled loop does not overrun.
+ * When all of the tasks have run the required iterations, the warm up reports
+ * that it is complete and does nothing on later calls.
+ */
+public class TWarmUp {
+
+    private class Task {
+
+        final String   name;
+        final int      iterations;
+        final Runnable task;
+
+        int            count = 0;
+
+        Task(String name, int iterations, Runnable task) {
+            this.name       = name;
+            this.iterations = iterations;
+            this.task       = task;
+        }
+    }
+
+    /** Iterations run between checks of the loop budget */
+    private static final int        BLOCK_ITERATIONS = 10;
+
+    private final List<Task>        taskLs          = new ArrayList<Task>();
+    private final long              loopBudgetNanos;
+
+    private int                     taskIndex       = 0;
+    private int                     totalIterations = 0;
+    private int                     iterationCount  = 0;
+    private long                    runNanos        = 0;
+    private boolean                 complete        = false;
+
+    private final TTelemetryNumber  progressTelemetry = TTelemetry.addNumber("Warm Up %",       TTelemetryRate.DIAGNOSTIC, 1);
+    private final TTelemetryBoolean completeTelemetry = TTelemetry.addBoolean("Warm Up Complete", TTelemetryRate.CONTROL);
+
+    /**
+     * JIT Warm Up
+     *
+     * @param loopBudgetSeconds
+     *            the maximum time to run the tasks on each call to
+     *            {@link #update()}
+     */
+    public TWarmUp(double loopBudgetSeconds) {
+        this.loopBudgetNanos = Math.round(loopBudgetSeconds * 1000000000.0);
+    }
+
+    /**
+     * Add a warm up task
+     * <p>
+     * The tasks are run in the order they are added.
+     *
+     * @param name
+     *            task name used in the warm up messages
+     * @param iterations
+     *            the number of times to run the task. The JIT compiles a method
+     *            after about 10000 calls or loop iterations.
+     * @param task
+     *            runs one iteration of the calculation
+     */
+    public void addTask(String name, int iterations, Runnable task) {
+        taskLs.add(new Task(name, iterations, task));
+        totalIterations += iterations;
+        complete = false;
+    }
+
+    /**
+     * Check if all of the tasks have completed
+     *
+     * @return {@code true} if the warm up is complete
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Run the warm up tasks for up to the loop budget
+     * <p>
+     * This routine should be called on each disabled loop.
+     */
+    public void update() {
+
+        if (complete) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        long endNanos   = startNanos + loopBudgetNanos;
+
+        while (taskIndex < taskLs.size()) {
+
+            Task task = taskLs.get(taskIndex);
+
+            // Run a block of iterations between time checks
+            int block = Math.min(BLOCK_ITERATIONS, task.iterations - task.count);
+
+            for (int i = 0; i < block; i++) {
+                task.task.run();
+            }
+
+            task.count     += block;
+            iterationCount += block;
+
+            if (task.count >= task.iterations) {
+                System.out.println("Warm up " + task.name + " complete");
+                taskIndex++;
+            }
+
+            if (System.nanoTime() - endNanos >= 0) {
+                break;
+            }
+        }
+
+        runNanos += System.nanoTime() - startNanos;
+
+        if (taskIndex >= taskLs.size()) {
+            complete = true;
+            System.out.println("Warm up complete: " + iterationCount + " iterations in " 
+                    + runNanos / 1000000 + "ms");
+        }
+
+        progressTelemetry.set(totalIterations == 0 ? 100 : iterationCount * 100.0 / totalIterations);
+        completeTelemetry.set(complete);
+    }
+}
@@ -0,0 +1,98 @@
+package com.torontocodingcollective.odometry;
+
+/**
+ * Differential Drive Odometry
+ * <p>
+ * Tracks the position of the robot on the field by combining the distance
+ * travelled by the left and right sides of the drive with the gyro heading.
+ * <p>
+ * The odometry must be updated on one thread only (the thread that owns the
+ * drive PIDs). Each update is added to a {@link TPoseHistory} that can be read
+ * from any thread.
+ */
+public class TOdometry {
+
+    private final TPoseHistory history;
+
+    private double             x              = 0;
+    private double             y              = 0;
+    private double             lastHeading    = 0;
+    private boolean            headingValid   = false;
+
+    /**
+     * Odometry
+     *
+     * @param historyCapacity
+     *            the minimum number of poses to keep in the pose history
+     */
+    public TOdometry(int historyCapacity) {
+        history = new TPoseHistory(historyCapacity);
+    }
+
+    /**
+     * Get the history of the poses calculated by this odometry
+     *
+     * @return TPoseHistory
+     */
+    public TPoseHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Set the position of the robot
+     * <p>
+     * This routine must be called on the thread that updates the odometry. The
+     * poses already in the history are not changed.
+     *
+     * @param x
+     *            in inches
+     * @param y
+     *            in inches
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Update the odometry with the distance travelled since the last update.
+     * <p>
+     * The robot is assumed to travel along the average of the last heading and
+     * the current heading.
+     *
+     * @param timestamp
+     *            time of the sensor readings in seconds
+     * @param leftDistance
+     *            distance travelled by the left side since the last update in
+     *            inches
+     * @param rightDistance
+     *            distance travelled by the right side since the last update in
+     *            inches
+     * @param heading
+     *            gyro heading in degrees
+     */
+    public void update(double timestamp, double leftDistance, double rightDistance, double heading) {
+
+        double distance = (leftDistance + rightDistance) / 2.0;
+
+        // Use the heading half way through the move. The first update
+        // has no previous heading.
+        double headingChange = headingValid ? heading - lastHeading : 0;
+        if (headingChange > 180) {
+            headingChange -= 360;
+        }
+        if (headingChange < -180) {
+            headingChange += 360;
+        }
+
+        double travelHeading = Math.toRadians(heading - headingChange / 2.0);
+
+        x += distance * Math.cos(travelHeading);
+        y += distance * Math.sin(travelHeading);
+
+        lastHeading  = heading;
+        headingValid = true;
+
+        history.add(timestamp, x, y, heading);
+    }
+}
@@ -0,0 +1,58 @@
+package com.torontocodingcollective.odometry;
+
+/**
+ * Robot Pose
+ * <p>
+ * The position of the robot on the field in inches, and the heading of the
+ * robot in degrees at a point in time.
+ * <p>
+ * The x axis is along the gyro heading of 0 degrees and the y axis is along the
+ * gyro heading of 90 degrees.
+ * <p>
+ * A TPose is filled in by the routines that return a pose so that a single
+ * TPose object can be reused on each loop.
+ */
+public class TPose {
+
+    public double x         = 0.0;
+    public double y         = 0.0;
+
+    /** Heading in degrees 0 <= heading < 360 */
+    public double heading   = 0.0;
+
+    /** FPGA timestamp in seconds */
+    public double timestamp = 0.0;
+
+    public TPose() {
+    }
+
+    public TPose(double x, double y, double heading) {
+        set(x, y, heading, 0);
+    }
+
+    /**
+     * Set the pose values
+     *
+     * @param x
+     *            in inches
+     * @param y
+     *            in inches
+     * @param heading
+     *            in degrees
+     * @param timestamp
+     *            in seconds
+     * @return this TPose object
+     */
+    public TPose set(double x, double y, double heading, double timestamp) {
+        this.x         = x;
+        this.y         = y;
+        this.heading   = heading;
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ", " + heading + ") at " + timestamp;
+    }
+}
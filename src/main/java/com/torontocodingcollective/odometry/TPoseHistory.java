@@ -0,0 +1,239 @@
+package com.torontocodingcollective.odometry;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Pose History
+ * <p>
+ * A fixed size ring buffer of timestamped poses used to find where the robot
+ * was at a time in the past (for example, when a camera image was captured).
+ * <p>
+ * The poses are held in primitive arrays, and nothing is allocated after
+ * construction.
+ * <p>
+ * One thread adds the poses, and any thread can read the poses without
+ * locking. The writer never waits for a reader. A reader copies the poses it
+ * needs and then checks that the writer has not overwritten them, and retries
+ * if they were overwritten.
+ */
+public class TPoseHistory {
+
+    private final int         capacity;
+    private final int         mask;
+
+    private final double []   timestamp;
+    private final double []   x;
+    private final double []   y;
+    private final double []   heading;
+
+    /** The number of poses added. The newest pose is at (count - 1) */
+    private volatile long     count = 0;
+
+    /**
+     * Pose History
+     *
+     * @param minCapacity
+     *            the minimum number of poses to hold. The capacity is rounded up
+     *            to a power of two.
+     */
+    public TPoseHistory(int minCapacity) {
+
+        int capacity = 2;
+        while (capacity < minCapacity) {
+            capacity *= 2;
+        }
+
+        this.capacity = capacity;
+        this.mask     = capacity - 1;
+
+        timestamp = new double[capacity];
+        x         = new double[capacity];
+        y         = new double[capacity];
+        heading   = new double[capacity];
+    }
+
+    /**
+     * Add a pose to the history
+     * <p>
+     * This routine must only be called from the single writer thread, and the
+     * poses must be added in time order.
+     *
+     * @param timestamp
+     *            in seconds
+     * @param x
+     *            in inches
+     * @param y
+     *            in inches
+     * @param heading
+     *            in degrees
+     */
+    public void add(double timestamp, double x, double y, double heading) {
+
+        long next  = count;
+        int  index = (int) (next & mask);
+
+        this.timestamp[index] = timestamp;
+        this.x        [index] = x;
+        this.y        [index] = y;
+        this.heading  [index] = heading;
+
+        // Publish the pose
+        count = next + 1;
+    }
+
+    /**
+     * Get the number of poses that can be held in the history
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of poses added to the history since it was constructed
+     *
+     * @return pose count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the newest pose
+     *
+     * @param pose
+     *            filled in with the newest pose
+     * @return {@code true} if the pose was filled in, {@code false} if the
+     *         history is empty
+     */
+    public boolean getLatest(TPose pose) {
+
+        while (true) {
+
+            long c = count;
+
+            if (c == 0) {
+                return false;
+            }
+
+            int index = (int) ((c - 1) & mask);
+
+            double t = timestamp[index];
+            double px = x[index];
+            double py = y[index];
+            double ph = heading[index];
+
+            // The copy must complete before the count is checked
+            VarHandle.loadLoadFence();
+
+            // The newest pose can only be overwritten after the writer
+            // has wrapped around the whole ring
+            if (count - capacity < c - 1) {
+                pose.set(px, py, ph, t);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Get the pose at the given time
+     * <p>
+     * The pose is interpolated between the two poses either side of the
+     * timestamp. The history is searched from the newest pose, so recent times
+     * are found the fastest.
+     *
+     * @param time
+     *            timestamp in seconds
+     * @param pose
+     *            filled in with the pose at the time. If the time is after the
+     *            newest pose, the newest pose is used. If the time is before the
+     *            oldest pose, the oldest pose is used.
+     * @return {@code true} if the pose was filled in, {@code false} if the
+     *         history is empty or the time is older than the oldest pose in the
+     *         history
+     */
+    public boolean getPose(double time, TPose pose) {
+
+        while (true) {
+
+            long c = count;
+
+            if (c == 0) {
+                return false;
+            }
+
+            // The oldest pose that cannot be overwritten while it is read
+            long oldest = Math.max(0, c - capacity + 1);
+
+            // Find the newest pose at or before the time
+            long i = c - 1;
+            while (i > oldest && timestamp[(int) (i & mask)] > time) {
+                i--;
+            }
+
+            int index = (int) (i & mask);
+
+            double t0 = timestamp[index];
+            double x0 = x[index];
+            double y0 = y[index];
+            double h0 = heading[index];
+
+            // Copy the next pose if the time is between two poses
+            boolean interpolate = i < c - 1 && t0 <= time;
+
+            double t1 = t0;
+            double x1 = x0;
+            double y1 = y0;
+            double h1 = h0;
+
+            if (interpolate) {
+                int nextIndex = (int) ((i + 1) & mask);
+                t1 = timestamp[nextIndex];
+                x1 = x[nextIndex];
+                y1 = y[nextIndex];
+                h1 = heading[nextIndex];
+            }
+
+            // The copy must complete before the count is checked
+            VarHandle.loadLoadFence();
+
+            // Retry if the writer overwrote the poses that were copied
+            if (count - capacity >= i) {
+                continue;
+            }
+
+            if (!interpolate || t1 <= t0) {
+                pose.set(x0, y0, h0, t0);
+                return t0 <= time;
+            }
+
+            double fraction = (time - t0) / (t1 - t0);
+
+            // Interpolate the heading the short way around the circle
+            double headingChange = h1 - h0;
+            if (headingChange > 180) {
+                headingChange -= 360;
+            }
+            if (headingChange < -180) {
+                headingChange += 360;
+            }
+
+            double h = h0 + headingChange * fraction;
+            if (h < 0) {
+                h += 360;
+            }
+            if (h >= 360) {
+                h -= 360;
+            }
+
+            pose.set(
+                    x0 + (x1 - x0) * fraction,
+                    y0 + (y1 - y0) * fraction,
+                    h,
+                    time);
+
+            return true;
+        }
+    }
+}
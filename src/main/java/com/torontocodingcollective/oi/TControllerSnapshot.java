@@ -0,0 +1,105 @@
+package com.torontocodingcollective.oi;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Controller Snapshot
+ * <p>
+ * The raw inputs (axes, buttons and POV) of one controller captured at a
+ * single point in time. The snapshot is captured once at the start of each
+ * loop so that all readers of the controller in that loop see the same
+ * consistent inputs, and the driver station is only read once per loop.
+ * <p>
+ * All values are stored in primitive fields that are allocated when the
+ * snapshot is created, so capturing a snapshot does not allocate memory.
+ */
+public class TControllerSnapshot {
+
+    /** Maximum number of axes supported by the driver station */
+    public static final int MAX_AXES = 12;
+
+    private final double [] axes      = new double[MAX_AXES];
+    private int             axisCount = 0;
+    private int             buttons   = 0;
+    private int             pov       = -1;
+
+    private boolean         captured  = false;
+
+    /**
+     * Capture the current inputs of the controller on the given port
+     * 
+     * @param port
+     *            the driver station port of the controller
+     */
+    public void capture(int port) {
+
+        DriverStation driverStation = DriverStation.getInstance();
+
+        axisCount = Math.min(driverStation.getStickAxisCount(port), MAX_AXES);
+
+        for (int i = 0; i < axisCount; i++) {
+            axes[i] = driverStation.getStickAxis(port, i);
+        }
+
+        buttons  = driverStation.getStickButtons(port);
+        pov      = driverStation.getStickPOV(port, 0);
+        captured = true;
+    }
+
+    /**
+     * Indicates whether a snapshot has been captured
+     * 
+     * @return {@code true} if the snapshot was captured, {@code false} otherwise
+     */
+    public boolean isCaptured() {
+        return captured;
+    }
+
+    /**
+     * Get the raw axis value
+     * 
+     * @param axis
+     *            the axis index (starting at 0)
+     * @return the axis value or 0 if the axis is not available
+     */
+    public double getAxis(int axis) {
+        if (axis < 0 || axis >= axisCount) {
+            return 0;
+        }
+        return axes[axis];
+    }
+
+    /**
+     * Get the raw button value
+     * 
+     * @param button
+     *            the button number (starting at 1)
+     * @return {@code true} if the button is pressed, {@code false} otherwise
+     */
+    public boolean getButton(int button) {
+        if (button < 1 || button > 32) {
+            return false;
+        }
+        return (buttons & (1 << (button - 1))) != 0;
+    }
+
+    /**
+     * Get all of the buttons as a bitmask
+     * <p>
+     * Button 1 is bit 0.
+     * 
+     * @return buttons bitmask
+     */
+    public int getButtons() {
+        return buttons;
+    }
+
+    /**
+     * Get the POV angle
+     * 
+     * @return POV angle in degrees, or -1 if the POV is not pressed
+     */
+    public int getPOV() {
+        return pov;
+    }
+}
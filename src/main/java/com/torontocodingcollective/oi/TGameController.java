@@ -37,6 +37,12 @@ public abstract class TGameController extends Joystick {
      */
     public double axisDeadband = 0.07;
 
+    // Inputs captured at the start of each loop
+    private final TControllerSnapshot snapshot           = new TControllerSnapshot();
+    private final TStickPosition      leftStickPosition  = new TStickPosition(0, 0);
+    private final TStickPosition      rightStickPosition = new TStickPosition(0, 0);
+    private boolean                   userActive         = false;
+
     /**
      * Construct an instance of a GameController.
      * <p>
@@ -49,6 +55,54 @@ public abstract class TGameController extends Joystick {
         super(port);
     }
 
+    /**
+     * Capture a snapshot of the controller inputs
+     * <p>
+     * This routine should be called once at the start of each loop (typically
+     * in the OI updatePeriodic). Once a snapshot is captured, all of the axis,
+     * button, trigger and POV values, the stick positions and the user active
+     * state returned by this controller come from the snapshot, so that all
+     * readers of the controller in the loop see the same inputs.
+     * <p>
+     * If a snapshot is never captured, the values are read directly from the
+     * driver station.
+     */
+    public void updateSnapshot() {
+
+        snapshot.capture(getPort());
+
+        leftStickPosition.x  = getAxis(TStick.LEFT,  TAxis.X);
+        leftStickPosition.y  = getAxis(TStick.LEFT,  TAxis.Y);
+        rightStickPosition.x = getAxis(TStick.RIGHT, TAxis.X);
+        rightStickPosition.y = getAxis(TStick.RIGHT, TAxis.Y);
+
+        userActive = calculateUserActive();
+    }
+
+    @Override
+    public double getRawAxis(int axis) {
+        if (snapshot.isCaptured()) {
+            return snapshot.getAxis(axis);
+        }
+        return super.getRawAxis(axis);
+    }
+
+    @Override
+    public boolean getRawButton(int button) {
+        if (snapshot.isCaptured()) {
+            return snapshot.getButton(button);
+        }
+        return super.getRawButton(button);
+    }
+
+    @Override
+    public int getPOV(int pov) {
+        if (snapshot.isCaptured() && pov == 0) {
+            return snapshot.getPOV();
+        }
+        return super.getPOV(pov);
+    }
+
     /**
      * Get the axis of the GameController stick
      * 
@@ -124,7 +178,7 @@ public abstract class TGameController extends Joystick {
     protected double getFilteredRawAxis(int axisNumber) {
 
         // Round to the nearest 100th
-        double axisValue = Math.round(super.getRawAxis(axisNumber) * 100.0) / 100.0;
+        double axisValue = Math.round(getRawAxis(axisNumber) * 100.0) / 100.0;
 
         if (Math.abs(axisValue) <= axisDeadband) {
             return 0;
@@ -138,6 +192,10 @@ public abstract class TGameController extends Joystick {
      * <p>
      * The TStickPostion object contains the (x,y) coordinates of the stick. Only
      * TStick values of {@link TStick#LEFT} or {@link TStick#RIGHT} are suppported.
+     * <p>
+     * NOTE: When a snapshot is captured (see {@link #updateSnapshot()}), the
+     * stick position returned is owned by this controller and is updated on
+     * each snapshot. It must not be modified or kept past the current loop.
      * 
      * @param stick
      *            {@link TStick#LEFT} or {@link TStick#RIGHT}
@@ -147,7 +205,14 @@ public abstract class TGameController extends Joystick {
     public TStickPosition getStickPosition(TStick stick) {
         switch (stick) {
         case LEFT:
+            if (snapshot.isCaptured()) {
+                return leftStickPosition;
+            }
+            return new TStickPosition(getAxis(stick, TAxis.X), getAxis(stick, TAxis.Y));
         case RIGHT:
+            if (snapshot.isCaptured()) {
+                return rightStickPosition;
+            }
             return new TStickPosition(getAxis(stick, TAxis.X), getAxis(stick, TAxis.Y));
         default:
             System.out.println("Unsupported stick type " + stick + " for TGameController.getStickPosition()");
@@ -200,6 +265,15 @@ public abstract class TGameController extends Joystick {
      */
     public boolean isUserActive() {
 
+        if (snapshot.isCaptured()) {
+            return userActive;
+        }
+
+        return calculateUserActive();
+    }
+
+    private boolean calculateUserActive() {
+
         // If one of the sticks is active, then the user is active
         if (isStickActive(TStick.LEFT) || isStickActive(TStick.RIGHT)) {
             return true;
@@ -1,5 +1,7 @@
 package com.torontocodingcollective.oi;
 
+import com.torontocodingcollective.subsystem.TDriveSubsystem.SpeedPidMode;
+
 /**
  * This class is the glue that binds the controls on the physical operator
  * interface to the commands and command groups that allow control of the robot.
@@ -54,9 +56,11 @@ public abstract class TOi {
      * Return the heading to rotate to from the Driver controller
      * <p>
      * Robots that use a gyro should override this method in order to test the gyro
-     * PID
+     * PID. The heading should only be returned once for each press (see
+     * {@link TPOVPressDetector}).
      * 
-     * @return an angle between {@code 0} and {@code 360} degrees
+     * @return an angle between {@code 0} and {@code 360} degrees, or {@code -1}
+     *         if there is no new press
      */
     public int getRotateToHeading() {
         return -1;
@@ -69,6 +73,19 @@ public abstract class TOi {
      */
     public abstract boolean getSpeedPidEnabled();
 
+    /**
+     * Get Speed PID Mode
+     * <p>
+     * Robots that can run the speed PIDs on the speed controllers should
+     * override this method to select the mode
+     * 
+     * @return {@link SpeedPidMode} where the speed PIDs are run. The default is
+     *         {@link SpeedPidMode#ROBORIO}
+     */
+    public SpeedPidMode getSpeedPidMode() {
+        return SpeedPidMode.ROBORIO;
+    }
+
     /**
      * Update the elements of the OI that need updating and put data to the
      * SmartDashboard
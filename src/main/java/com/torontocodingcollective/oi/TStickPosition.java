@@ -4,7 +4,8 @@ package com.torontocodingcollective.oi;
  * The TStickPosition class is used to represent the x,y coordinates (position)
  * of a stick.
  * <p>
- * The stick position is immutable.
+ * The stick positions returned by a {@link TGameController} with a captured
+ * snapshot are reused on each loop, and must not be modified.
  */
 public class TStickPosition {
 
@@ -15,8 +16,6 @@ public class TStickPosition {
 
     /**
      * Construct a stick position based on the passed in x and y
-     * <p>
-     * Stick positions are immutable
      * 
      * @param x
      * @param y
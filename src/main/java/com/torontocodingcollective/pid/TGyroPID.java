@@ -1,47 +1,39 @@
 package com.torontocodingcollective.pid;
 
-import edu.wpi.first.wpilibj.PIDController;
-
 /**
  * Proportional (PID) Control Loop for heading (gyro angle) control.
  * <p>
- * The PID controller calculate routine must be called at a consistent rate
- * (every control loop is good enough) when the PID is enabled.
+ * The PID controller calculate routine must be called periodically (every
+ * control loop) when the PID is enabled. The loop rate does not need to be
+ * 50Hz because the integral uses the measured time between calculations.
+ * <p>
+ * The output is the steering value to apply to the motor speed.
  * <p>
- * This PID controller uses the Smartdashboard communications features of the
- * wpiLib PID controller, but does not use its control loop functionality.
+ * The PID can be displayed on the SmartDashboard using a {@link TPIDSendable}.
  */
-public class TGyroPID extends PIDController {
-
-    /** Output is the steering value to apply to the motor speed */
-    private double output;
-    private double error;
-    private double totalError;
+public class TGyroPID extends TPID {
 
     /**
      * Construct a TGyroPid using the supplied proportional gain
      */
     public TGyroPID(double kP) {
-        // The super class is used in order to
-        // support a SmartDashboard pid object
-        super(kP, 0.0d, 0.0d, 0.0d, new NullPIDSource(), new NullPIDOutput());
-        reset();
+        this(kP, 0.0d);
     }
 
     /**
      * Construct a TGyroPid using the supplied proportional and integral gain
      */
     public TGyroPID(double kP, double kI) {
-        super(kP, kI, 0.0d, 0.0d, new NullPIDSource(), new NullPIDOutput());
+        super(kP, kI, 0.0d, 0.0d);
         reset();
     }
 
     /**
      * Calculate the PID output.
      * <p>
-     * In order to generate proper PID behaviour, this routine must be called at a
-     * consistent periodic rate. Calling this routine anywhere in the main robot
-     * periodic loops is sufficient.
+     * The integral and derivative terms use the measured time since the last
+     * calculation, so this routine can be called at any periodic rate. The gains
+     * are tuned for the 20ms robot loop.
      * <p>
      * NOTE: If the PID is disabled, this routine returns 0.
      * 
@@ -49,12 +41,20 @@ public class TGyroPID extends PIDController {
      * @return the calculated result. This result can also be retrieved with
      *         subsequent calls to {@link #get()}.
      */
+    @Override
     public double calculate(double currentGyroAngle) {
 
+        // Use the same gains for the whole calculation
+        TPIDGains gains = getGains();
+
+        // Time since the last calculation normalized to the 20ms loop
+        double timeStep = updateTimeStep();
+
         error = getError(currentGyroAngle);
 
-        // Add the proportional output
-        double proportionalOutput = super.getP() * error;
+        // Add the proportional and derivative output
+        double proportionalOutput = gains.kP * error 
+                + calculateDerivative(gains.kD, timeStep);
 
         // The output cannot steer more than 1.0
         if (proportionalOutput > 1.0) {
@@ -73,11 +73,13 @@ public class TGyroPID extends PIDController {
         // and "wind-up". In order to avoid "wind-up",
         // do not allow the integral error total to exceed
         // the total required to saturate the output (-1.0 or 1.0).
-        double kI = super.getI();
+        double kI = gains.kI;
 
         if (kI != 0) {
 
-            totalError += error; // sum of all errors
+            // Sum of all errors over time. Integrating over the time step
+            // keeps the integral gain independent of the loop rate.
+            totalError += error * timeStep;
 
             double integralOutput = totalError * kI;
 
@@ -134,7 +136,7 @@ public class TGyroPID extends PIDController {
         // Calculate the error
         // Normalize the error for the shortest path.
         // The normalized error should be -180 and +180.
-        error = super.getSetpoint() - normalizedGyroAngle;
+        error = getSetpoint() - normalizedGyroAngle;
 
         if (error > 180) {
             error = error - 360.0;
@@ -146,28 +148,11 @@ public class TGyroPID extends PIDController {
         return error;
     }
 
-    @Override
-    public void disable() {
-        super.disable();
-        reset();
-    }
-
     @Override
     public void reset() {
         if (!isEnabled()) {
             error = 0;
         }
-        totalError = 0;
-        output = 0;
-    }
-
-    @Override
-    public double get() {
-        return output;
-    }
-
-    @Override
-    public double getError() {
-        return error;
+        super.reset();
     }
 }
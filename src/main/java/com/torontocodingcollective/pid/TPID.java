@@ -0,0 +1,315 @@
+package com.torontocodingcollective.pid;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * PID Controller core
+ * <p>
+ * Base class for the TorontoCodingCollective PID controllers. Unlike the
+ * wpilib PIDController, this class does not start a control loop thread and
+ * does not use any locks. The PID calculation is run by calling
+ * {@link #calculate(double)} at a consistent periodic rate from the thread that
+ * owns the PID (the robot loop or a drive control loop).
+ * <p>
+ * The gains are held in an immutable {@link TPIDGains} object that is replaced
+ * atomically, so the gains can be changed from another thread (for example the
+ * SmartDashboard through a {@link TPIDSendable}) and each calculation always
+ * sees a consistent set of gains.
+ * <p>
+ * The setpoint and enabled state can be read from any thread. All other state
+ * is owned by the thread that calls {@link #calculate(double)}.
+ * <p>
+ * The integral and derivative terms use the measured time between calculations
+ * from a monotonic time source (the FPGA timestamp by default). The time step
+ * is normalized to the {@link #NOMINAL_PERIOD} so that gains tuned for the 20ms
+ * robot loop give the same response at any loop rate, or when a loop overruns.
+ */
+public abstract class TPID {
+
+    /** The loop period that the integral and derivative gains are tuned for */
+    public static final double NOMINAL_PERIOD = 0.02;
+
+    /**
+     * Largest normalized time step used in a calculation. A long pause (for
+     * example a stalled loop) must not wind up the integral.
+     */
+    private static final double MAX_TIME_STEP = 5.0;
+
+    private final AtomicReference<TPIDGains> gains;
+
+    private volatile double  setpoint = 0;
+    private volatile boolean enabled  = false;
+
+    protected double         output   = 0;
+    protected double         error    = 0;
+    protected double         totalError = 0;
+    protected double         lastError  = 0;
+
+    private DoubleSupplier   timeSource = Timer::getFPGATimestamp;
+    private double           lastCalculateTime = -1;
+
+    /**
+     * PID Controller
+     *
+     * @param kP
+     *            proportional gain
+     * @param kI
+     *            integral gain
+     * @param kD
+     *            derivative gain
+     * @param kF
+     *            feed forward gain
+     */
+    protected TPID(double kP, double kI, double kD, double kF) {
+        gains = new AtomicReference<TPIDGains>(new TPIDGains(kP, kI, kD, kF));
+    }
+
+    /**
+     * Calculate the PID output.
+     * <p>
+     * In order to generate proper PID behaviour, this routine must be called at a
+     * consistent periodic rate.
+     *
+     * @param input
+     *            the process variable (feedback) for the PID
+     * @return the calculated result. This result can also be retrieved with
+     *         subsequent calls to {@link #get()}.
+     */
+    public abstract double calculate(double input);
+
+    /**
+     * Disable the PID
+     * <p>
+     * The integral error and the output are reset.
+     */
+    public void disable() {
+        enabled = false;
+        reset();
+    }
+
+    /**
+     * Enable the PID
+     * <p>
+     * The time step of the first calculation after the PID is enabled is the
+     * {@link #NOMINAL_PERIOD}.
+     */
+    public void enable() {
+        if (!enabled) {
+            lastCalculateTime = -1;
+        }
+        enabled = true;
+    }
+
+    /**
+     * Get the output from the last call to {@link #calculate(double)}
+     *
+     * @return PID output
+     */
+    public double get() {
+        return output;
+    }
+
+    /**
+     * Get the error from the last call to {@link #calculate(double)}
+     *
+     * @return error between the setpoint and the input
+     */
+    public double getError() {
+        return error;
+    }
+
+    /**
+     * Get the current gains
+     * <p>
+     * The gains object is immutable. Calculations should get the gains once so
+     * that all of the terms use the same gains.
+     *
+     * @return PID gains
+     */
+    public TPIDGains getGains() {
+        return gains.get();
+    }
+
+    public double getP() {
+        return gains.get().kP;
+    }
+
+    public double getI() {
+        return gains.get().kI;
+    }
+
+    public double getD() {
+        return gains.get().kD;
+    }
+
+    public double getF() {
+        return gains.get().kF;
+    }
+
+    public double getSetpoint() {
+        return setpoint;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reset the integral error and the output
+     */
+    public void reset() {
+        totalError = 0;
+        output     = 0;
+        lastError  = 0;
+    }
+
+    /**
+     * Enable or disable the PID
+     *
+     * @param enabled
+     *            {@code true} to enable the PID, {@code false} to disable
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            enable();
+        }
+        else {
+            disable();
+        }
+    }
+
+    /**
+     * Replace all of the gains
+     *
+     * @param newGains
+     *            the new gains
+     */
+    public void setGains(TPIDGains newGains) {
+        gains.set(newGains);
+    }
+
+    public void setP(double kP) {
+        TPIDGains current;
+        do {
+            current = gains.get();
+        } while (!gains.compareAndSet(current, current.withP(kP)));
+    }
+
+    public void setI(double kI) {
+        TPIDGains current;
+        do {
+            current = gains.get();
+        } while (!gains.compareAndSet(current, current.withI(kI)));
+    }
+
+    public void setD(double kD) {
+        TPIDGains current;
+        do {
+            current = gains.get();
+        } while (!gains.compareAndSet(current, current.withD(kD)));
+    }
+
+    public void setF(double kF) {
+        TPIDGains current;
+        do {
+            current = gains.get();
+        } while (!gains.compareAndSet(current, current.withF(kF)));
+    }
+
+    /**
+     * Set the time source used to measure the time between calculations.
+     * <p>
+     * The default time source is the FPGA timestamp, which follows the
+     * simulation clock when running in the simulator. A replay or a benchmark
+     * can supply its own time.
+     *
+     * @param timeSource
+     *            monotonic time in seconds
+     */
+    public void setTimeSource(DoubleSupplier timeSource) {
+        this.timeSource   = timeSource;
+        lastCalculateTime = -1;
+    }
+
+    /**
+     * Measure the time since the last calculation
+     * <p>
+     * This routine must be called once at the start of each calculation.
+     *
+     * @return the time since the last calculation as a multiple of the
+     *         {@link #NOMINAL_PERIOD}, or 1.0 if this is the first calculation.
+     *         A value of zero indicates that no time has passed since the last
+     *         calculation.
+     */
+    protected double updateTimeStep() {
+
+        double now = timeSource.getAsDouble();
+
+        double timeStep = 1.0;
+
+        if (lastCalculateTime >= 0) {
+
+            timeStep = (now - lastCalculateTime) / NOMINAL_PERIOD;
+
+            if (timeStep < 0) {
+                timeStep = 0;
+            }
+
+            if (timeStep > MAX_TIME_STEP) {
+                timeStep = MAX_TIME_STEP;
+            }
+        }
+
+        lastCalculateTime = now;
+
+        return timeStep;
+    }
+
+    /**
+     * Calculate the derivative contribution to the output
+     *
+     * @param kD
+     *            derivative gain
+     * @param timeStep
+     *            the normalized time step from {@link #updateTimeStep()}
+     * @return the derivative output, or 0 if there is no derivative gain or no
+     *         time has passed
+     */
+    protected double calculateDerivative(double kD, double timeStep) {
+
+        double derivativeOutput = 0;
+
+        if (kD != 0 && timeStep > 0) {
+            derivativeOutput = kD * (error - lastError) / timeStep;
+        }
+
+        lastError = error;
+
+        return derivativeOutput;
+    }
+
+    /**
+     * Set the proportional and integral gains together
+     * <p>
+     * Both gains are changed in a single update so that a calculation never
+     * uses the new proportional gain with the old integral gain.
+     *
+     * @param kP
+     *            proportional gain
+     * @param kI
+     *            integral gain
+     */
+    public void setPI(double kP, double kI) {
+        TPIDGains current;
+        do {
+            current = gains.get();
+        } while (!gains.compareAndSet(current, new TPIDGains(kP, kI, current.kD, current.kF)));
+    }
+
+    public void setSetpoint(double setpoint) {
+        this.setpoint = setpoint;
+    }
+}
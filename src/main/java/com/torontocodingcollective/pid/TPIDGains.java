@@ -0,0 +1,56 @@
+package com.torontocodingcollective.pid;
+
+/**
+ * PID Gains
+ * <p>
+ * An immutable set of PID gains. The gains of a {@link TPID} are replaced as a
+ * whole so that a PID calculation always uses a consistent set of gains, even
+ * when the gains are changed from another thread.
+ */
+public final class TPIDGains {
+
+    public final double kP;
+    public final double kI;
+    public final double kD;
+    public final double kF;
+
+    /**
+     * PID Gains
+     *
+     * @param kP
+     *            proportional gain
+     * @param kI
+     *            integral gain
+     * @param kD
+     *            derivative gain
+     * @param kF
+     *            feed forward gain
+     */
+    public TPIDGains(double kP, double kI, double kD, double kF) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.kF = kF;
+    }
+
+    public TPIDGains withP(double kP) {
+        return new TPIDGains(kP, kI, kD, kF);
+    }
+
+    public TPIDGains withI(double kI) {
+        return new TPIDGains(kP, kI, kD, kF);
+    }
+
+    public TPIDGains withD(double kD) {
+        return new TPIDGains(kP, kI, kD, kF);
+    }
+
+    public TPIDGains withF(double kF) {
+        return new TPIDGains(kP, kI, kD, kF);
+    }
+
+    @Override
+    public String toString() {
+        return "kP " + kP + " kI " + kI + " kD " + kD + " kF " + kF;
+    }
+}
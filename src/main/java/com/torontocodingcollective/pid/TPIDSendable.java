@@ -0,0 +1,46 @@
+package com.torontocodingcollective.pid;
+
+import edu.wpi.first.wpilibj.SendableBase;
+import edu.wpi.first.wpilibj.smartdashboard.SendableBuilder;
+
+/**
+ * PID Dashboard adapter
+ * <p>
+ * Displays a {@link TPID} on the SmartDashboard using the standard
+ * PIDController widget.
+ * <p>
+ * The gains can be tuned from the dashboard, and are published to the PID
+ * atomically. The setpoint and enabled state are displayed, but cannot be
+ * changed from the dashboard because they are owned by the subsystem using the
+ * PID.
+ * <p>
+ * The adapter is optional. A PID that is not on the dashboard has no
+ * dashboard overhead.
+ */
+public class TPIDSendable extends SendableBase {
+
+    private final TPID pid;
+
+    /**
+     * PID Dashboard adapter
+     *
+     * @param pid
+     *            the PID to display
+     */
+    public TPIDSendable(TPID pid) {
+        // Do not add the PID to the LiveWindow
+        super(false);
+        this.pid = pid;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("PIDController");
+        builder.addDoubleProperty("p",        pid::getP,        pid::setP);
+        builder.addDoubleProperty("i",        pid::getI,        pid::setI);
+        builder.addDoubleProperty("d",        pid::getD,        pid::setD);
+        builder.addDoubleProperty("f",        pid::getF,        pid::setF);
+        builder.addDoubleProperty("setpoint", pid::getSetpoint, null);
+        builder.addBooleanProperty("enabled", pid::isEnabled,   null);
+    }
+}
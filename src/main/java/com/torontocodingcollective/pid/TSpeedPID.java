@@ -1,37 +1,31 @@
 package com.torontocodingcollective.pid;
 
-import edu.wpi.first.wpilibj.PIDController;
-
 /**
  * Class implements a Proportional (PID) Control Loop for motor speed control.
  * <p>
- * The PID controller calculate routine must be called at a consistent rate
- * (every control loop) when the PID is enabled.
+ * The PID controller calculate routine must be called periodically (every
+ * control loop) when the PID is enabled. The loop rate does not need to be
+ * 50Hz because the integral uses the measured time between calculations.
  * <p>
- * This PID controller uses the Smartdashboard communications features of the
- * wpiLib PID controller, but does not use its control loop functionality.
+ * The PID can be displayed on the SmartDashboard using a {@link TPIDSendable}.
  */
-public class TSpeedPID extends PIDController {
-
-    private double output;
-    private double totalError;
+public class TSpeedPID extends TPID {
 
     public TSpeedPID(double kP) {
-        super(kP, 0.0d, 0.0d, 1.0d, new NullPIDSource(), new NullPIDOutput());
-        this.totalError = 0;
+        this(kP, 0.0d);
     }
 
     public TSpeedPID(double kP, double kI) {
-        super(kP, kI, 0.0d, 1.0d, new NullPIDSource(), new NullPIDOutput());
-        this.totalError = 0;
+        // In a speed controller the feed forward term is always 1.0
+        super(kP, kI, 0.0d, 1.0d);
     }
 
     /**
      * Calculate the PID output.
      * <p>
-     * In order to generate proper PID behaviour, this routine must be called at a
-     * consistent periodic rate. Calling this routine anywhere in the main robot
-     * periodic loops is sufficient.
+     * The integral and derivative terms use the measured time since the last
+     * calculation, so this routine can be called at any periodic rate. The gains
+     * are tuned for the 20ms robot loop.
      * <p>
      * NOTE: If the PID is disabled, this routine returns 0.
      * 
@@ -41,6 +35,7 @@ public class TSpeedPID extends PIDController {
      * @return the calculated result. This result can also be retrieved with
      *         subsequent calls to {@link #get()}.
      */
+    @Override
     public double calculate(double normalizedRate) {
 
         // If the PID is not enabled, this routine does nothing.
@@ -48,9 +43,16 @@ public class TSpeedPID extends PIDController {
             return 0;
         }
 
+        // Use the same gains and setpoint for the whole calculation
+        TPIDGains gains    = getGains();
+        double    setpoint = getSetpoint();
+
+        // Time since the last calculation normalized to the 20ms loop
+        double    timeStep = updateTimeStep();
+
         // XXX: test this value
         // Don't use PID to go stop - controllers should be set to brake instead
-        /*if (Math.abs(super.getSetpoint()) < 0.05) {
+        /*if (Math.abs(setpoint) < 0.05) {
             return 0;
         }*/
 
@@ -63,12 +65,15 @@ public class TSpeedPID extends PIDController {
         }
 
         // Calculate the error
-        double error = super.getSetpoint() - normalizedRate;
+        error = setpoint - normalizedRate;
 
         // Get proportional output
-        double proportionalOutput = getP() * error;
+        double proportionalOutput = gains.kP * error;
 
-        // Calculate the total output for the proportional
+        // Get derivative output
+        double derivativeOutput = calculateDerivative(gains.kD, timeStep);
+
+        // Calculate the total output for the proportional, derivative
         // and feed forward terms. In a speed controller
         // the feed forward term is always 1.0 (the speed
         // setpoint is used as the feed forward term).
@@ -78,7 +83,7 @@ public class TSpeedPID extends PIDController {
         // and assign the value to the output variable at the
         // end in order to prevent reads of intermediary
         // output results.
-        double totalOutput = super.getSetpoint() + proportionalOutput;
+        double totalOutput = setpoint + proportionalOutput + derivativeOutput;
 
         // The output cannot drive more than 1.0
         if (totalOutput > 1.0) {
@@ -95,17 +100,19 @@ public class TSpeedPID extends PIDController {
         // and "wind-up". In order to avoid "wind-up",
         // do not allow the integral error total to exceed
         // the total required to saturate the output (-1.0 or 1.0).
-        double kI = super.getI();
+        double kI = gains.kI;
 
         if (kI != 0) {
 
             // If the setpoint is zero, then disable the 
             // integral PID.
-            if (super.getSetpoint() == 0) {
+            if (setpoint == 0) {
                 totalError = 0;
             }
             else {
-                totalError += error;
+                // Integrate the error over the time step so that the
+                // integral gain does not depend on the loop rate
+                totalError += error * timeStep;
 
                 double integralOutput = totalError * kI;
 
@@ -133,8 +140,7 @@ public class TSpeedPID extends PIDController {
     @Override
     public void disable() {
         super.disable();
-        totalError = 0;
-        output = 0;
+        error = 0;
     }
 
     /**
@@ -142,8 +148,6 @@ public class TSpeedPID extends PIDController {
      * <p>
      * The setpoint for a TSpeedPid must be between -1.0 and 1.0 (full range for a
      * speed controller).
-     * <p>
-     * Inherits: {@inheritDoc}
      */
     @Override
     public void setSetpoint(double setpoint) {
@@ -163,8 +167,4 @@ public class TSpeedPID extends PIDController {
         super.setSetpoint(setpoint);
     }
 
-    @Override
-    public double get() {
-        return output;
-    }
 }
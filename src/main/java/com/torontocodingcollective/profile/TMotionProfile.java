@@ -0,0 +1,312 @@
+package com.torontocodingcollective.profile;
+
+/**
+ * Motion Profile
+ * <p>
+ * A one dimensional motion profile from rest to rest over a distance with
+ * velocity, acceleration and jerk limits. The profile is precomputed into
+ * primitive arrays of position, velocity and acceleration at a fixed time step
+ * when it is constructed, so following the profile is only an array lookup.
+ * <p>
+ * The profile is generated as a trapezoidal velocity profile (accelerate,
+ * cruise, decelerate). If a jerk limit is given, the trapezoidal profile is
+ * smoothed with a moving average over the time it takes to reach the max
+ * acceleration at the max jerk, which gives an S-curve profile with the same
+ * distance. The S-curve profile is longer than the trapezoidal profile by the
+ * moving average time.
+ * <p>
+ * All units are the same as the units of the distance (for example inches,
+ * inches/second, inches/second^2, inches/second^3).
+ */
+public class TMotionProfile {
+
+    /** Default time step (the robot loop period) */
+    public static final double DEFAULT_TIME_STEP = 0.02;
+
+    private final double       distance;
+    private final double       maxVelocity;
+    private final double       maxAcceleration;
+    private final double       maxJerk;
+    private final double       timeStep;
+
+    private final double []    position;
+    private final double []    velocity;
+    private final double []    acceleration;
+
+    /**
+     * Trapezoidal Motion Profile
+     * <p>
+     * The profile is generated at the {@link #DEFAULT_TIME_STEP}.
+     *
+     * @param distance
+     *            to travel. Negative distances are supported.
+     * @param maxVelocity
+     *            the maximum velocity (must be {@code > 0})
+     * @param maxAcceleration
+     *            the maximum acceleration and deceleration (must be {@code > 0})
+     */
+    public TMotionProfile(double distance, double maxVelocity, double maxAcceleration) {
+        this(distance, maxVelocity, maxAcceleration, 0, DEFAULT_TIME_STEP);
+    }
+
+    /**
+     * S-Curve Motion Profile
+     * <p>
+     * The profile is generated at the {@link #DEFAULT_TIME_STEP}.
+     *
+     * @param distance
+     *            to travel. Negative distances are supported.
+     * @param maxVelocity
+     *            the maximum velocity (must be {@code > 0})
+     * @param maxAcceleration
+     *            the maximum acceleration and deceleration (must be {@code > 0})
+     * @param maxJerk
+     *            the maximum jerk, or {@code 0} for a trapezoidal profile
+     */
+    public TMotionProfile(double distance, double maxVelocity, double maxAcceleration, double maxJerk) {
+        this(distance, maxVelocity, maxAcceleration, maxJerk, DEFAULT_TIME_STEP);
+    }
+
+    /**
+     * S-Curve Motion Profile
+     *
+     * @param distance
+     *            to travel. Negative distances are supported.
+     * @param maxVelocity
+     *            the maximum velocity (must be {@code > 0})
+     * @param maxAcceleration
+     *            the maximum acceleration and deceleration (must be {@code > 0})
+     * @param maxJerk
+     *            the maximum jerk, or {@code 0} for a trapezoidal profile
+     * @param timeStep
+     *            time between the profile points in seconds
+     */
+    public TMotionProfile(double distance, double maxVelocity, double maxAcceleration, double maxJerk,
+            double timeStep) {
+
+        this.distance        = distance;
+        this.maxVelocity     = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.maxJerk         = maxJerk;
+        this.timeStep        = timeStep;
+
+        // An invalid profile holds a single point at rest
+        if (maxVelocity <= 0 || maxAcceleration <= 0 || maxJerk < 0 || timeStep <= 0) {
+            System.out.println("Invalid motion profile: velocity " + maxVelocity
+                    + ", acceleration " + maxAcceleration + ", jerk " + maxJerk
+                    + ", time step " + timeStep + ". The profile will not move.");
+            position     = new double[] { 0 };
+            velocity     = new double[] { 0 };
+            acceleration = new double[] { 0 };
+            return;
+        }
+
+        double sign          = distance < 0 ? -1.0 : 1.0;
+        double totalDistance = Math.abs(distance);
+
+        // The moving average window that limits the jerk
+        int    window           = 1;
+        if (maxJerk > 0) {
+            window = Math.max(1, (int) Math.round(maxAcceleration / maxJerk / timeStep));
+        }
+        double windowTime       = window > 1 ? window * timeStep : 0;
+
+        // Trapezoidal profile. If the distance is too short to reach the
+        // max velocity, the profile is triangular.
+        double peakVelocity     = Math.min(maxVelocity, Math.sqrt(totalDistance * maxAcceleration));
+        double cruiseTime       = peakVelocity == 0 ? 0
+                : totalDistance / peakVelocity - peakVelocity / maxAcceleration;
+
+        // The acceleration cannot change directly from accelerating to
+        // decelerating without exceeding the jerk limit, so cruise for
+        // at least the moving average window at a lower peak velocity.
+        if (cruiseTime < windowTime) {
+            peakVelocity = 0.5 * (-maxAcceleration * windowTime
+                    + Math.sqrt(maxAcceleration * maxAcceleration * windowTime * windowTime
+                            + 4 * maxAcceleration * totalDistance));
+            cruiseTime   = peakVelocity == 0 ? 0 : windowTime;
+        }
+
+        double accelTime        = peakVelocity / maxAcceleration;
+        double accelDistance    = 0.5 * maxAcceleration * accelTime * accelTime;
+        double trapezoidTime    = 2 * accelTime + cruiseTime;
+
+        int    trapezoidPoints  = (int) Math.ceil(trapezoidTime / timeStep) + 1;
+
+        int    points           = trapezoidPoints + window - 1;
+
+        position     = new double[points];
+        velocity     = new double[points];
+        acceleration = new double[points];
+
+        // Sample the trapezoidal profile
+        double [] trapezoidPosition     = new double[trapezoidPoints];
+        double [] trapezoidVelocity     = new double[trapezoidPoints];
+        double [] trapezoidAcceleration = new double[trapezoidPoints];
+
+        for (int i = 0; i < trapezoidPoints; i++) {
+
+            double t = Math.min(i * timeStep, trapezoidTime);
+
+            if (t < accelTime) {
+                trapezoidAcceleration[i] = maxAcceleration;
+                trapezoidVelocity[i]     = maxAcceleration * t;
+                trapezoidPosition[i]     = 0.5 * maxAcceleration * t * t;
+            }
+            else if (t < accelTime + cruiseTime) {
+                trapezoidAcceleration[i] = 0;
+                trapezoidVelocity[i]     = peakVelocity;
+                trapezoidPosition[i]     = accelDistance + peakVelocity * (t - accelTime);
+            }
+            else {
+                double remainingTime = trapezoidTime - t;
+                trapezoidAcceleration[i] = remainingTime > 0 ? -maxAcceleration : 0;
+                trapezoidVelocity[i]     = maxAcceleration * remainingTime;
+                trapezoidPosition[i]     = totalDistance - 0.5 * maxAcceleration * remainingTime * remainingTime;
+            }
+        }
+
+        // Smooth the trapezoidal profile with a moving average over the
+        // window. Before the start, the profile is at rest at 0, and after
+        // the end the profile is at rest at the total distance.
+        double positionSum     = 0;
+        double velocitySum     = 0;
+        double accelerationSum = 0;
+
+        for (int i = 0; i < points; i++) {
+
+            positionSum     += i < trapezoidPoints ? trapezoidPosition[i]     : totalDistance;
+            velocitySum     += i < trapezoidPoints ? trapezoidVelocity[i]     : 0;
+            accelerationSum += i < trapezoidPoints ? trapezoidAcceleration[i] : 0;
+
+            int dropped = i - window;
+            if (dropped >= 0) {
+                positionSum     -= trapezoidPosition[dropped];
+                velocitySum     -= trapezoidVelocity[dropped];
+                accelerationSum -= trapezoidAcceleration[dropped];
+            }
+
+            position[i]     = sign * positionSum     / window;
+            velocity[i]     = sign * velocitySum     / window;
+            acceleration[i] = sign * accelerationSum / window;
+        }
+
+        // The profile always ends exactly at the distance, at rest.
+        position    [points - 1] = distance;
+        velocity    [points - 1] = 0;
+        acceleration[points - 1] = 0;
+    }
+
+    /**
+     * Get the acceleration at the given profile point
+     *
+     * @param index
+     *            of the point {@code 0 <= index < }{@link #getLength()}
+     * @return acceleration
+     */
+    public double getAcceleration(int index) {
+        return acceleration[index];
+    }
+
+    /**
+     * Get the total distance of the profile
+     *
+     * @return distance
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * Get the time from the start of the profile until the profile comes to
+     * rest at the distance
+     *
+     * @return duration in seconds
+     */
+    public double getDuration() {
+        return (position.length - 1) * timeStep;
+    }
+
+    /**
+     * Get the index of the profile point at the given time since the start of
+     * the profile
+     *
+     * @param time
+     *            in seconds since the start of the profile
+     * @return index of the profile point. Times before the start of the profile
+     *         return the first point and times after the end of the profile
+     *         return the last point.
+     */
+    public int getIndex(double time) {
+
+        int index = (int) Math.round(time / timeStep);
+
+        if (index < 0) {
+            return 0;
+        }
+        if (index >= position.length) {
+            return position.length - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Get the number of points in the profile
+     *
+     * @return the number of points
+     */
+    public int getLength() {
+        return position.length;
+    }
+
+    public double getMaxAcceleration() {
+        return maxAcceleration;
+    }
+
+    public double getMaxJerk() {
+        return maxJerk;
+    }
+
+    public double getMaxVelocity() {
+        return maxVelocity;
+    }
+
+    /**
+     * Get the position at the given profile point
+     *
+     * @param index
+     *            of the point {@code 0 <= index < }{@link #getLength()}
+     * @return position
+     */
+    public double getPosition(int index) {
+        return position[index];
+    }
+
+    /**
+     * Get the time between the profile points
+     *
+     * @return time step in seconds
+     */
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    /**
+     * Get the velocity at the given profile point
+     *
+     * @param index
+     *            of the point {@code 0 <= index < }{@link #getLength()}
+     * @return velocity
+     */
+    public double getVelocity(int index) {
+        return velocity[index];
+    }
+
+    @Override
+    public String toString() {
+        return "dist " + distance
+                + ", vel " + maxVelocity
+                + ", accel " + maxAcceleration
+                + ", jerk " + maxJerk;
+    }
+}
@@ -0,0 +1,144 @@
+package com.torontocodingcollective.recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Flight Log
+ * <p>
+ * Read only view of a file written by the {@link TFlightRecorder}. The file is
+ * memory mapped, and the records are read directly from the mapped file.
+ */
+public class TFlightLog {
+
+    private final String     fileName;
+    private final String []  fieldNames;
+    private final ByteBuffer records;
+    private final int        recordBytes;
+    private final int        recordCount;
+
+    private TFlightLog(String fileName, String[] fieldNames, ByteBuffer records, int recordCount) {
+        this.fileName    = fileName;
+        this.fieldNames  = fieldNames;
+        this.records     = records;
+        this.recordBytes = (fieldNames.length + 1) * Double.BYTES;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * Load a flight recorder log file
+     *
+     * @param fileName
+     *            the file to load
+     * @return the flight log or {@code null} if the file cannot be loaded
+     */
+    public static TFlightLog load(String fileName) {
+
+        File file = new File(fileName);
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+
+            ByteBuffer buffer = randomAccessFile.getChannel()
+                    .map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+
+            if (buffer.getInt() != TFlightRecorder.FILE_MAGIC) {
+                System.out.println(fileName + " is not a flight recorder file");
+                return null;
+            }
+
+            int version = buffer.getInt();
+            if (version != TFlightRecorder.FILE_VERSION) {
+                System.out.println(fileName + " has unsupported flight recorder version " + version);
+                return null;
+            }
+
+            int  fieldCount  = buffer.getInt();
+            int  headerSize  = buffer.getInt();
+            long recordCount = buffer.getLong();
+
+            String[] fieldNames = new String[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                byte[] nameBytes = new byte[buffer.getShort()];
+                buffer.get(nameBytes);
+                fieldNames[i] = new String(nameBytes, StandardCharsets.UTF_8);
+            }
+
+            // Limit the records to the data actually in the file
+            // in case the file was not closed properly.
+            int  recordBytes = (fieldCount + 1) * Double.BYTES;
+            long maxRecords  = (buffer.capacity() - headerSize) / recordBytes;
+            if (recordCount > maxRecords) {
+                recordCount = maxRecords;
+            }
+
+            buffer.position(headerSize);
+            ByteBuffer records = buffer.slice();
+
+            return new TFlightLog(fileName, fieldNames, records, (int) recordCount);
+
+        } catch (IOException e) {
+            System.out.println("Cannot load flight log " + fileName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public int getFieldCount() {
+        return fieldNames.length;
+    }
+
+    public String getFieldName(int fieldId) {
+        return fieldNames[fieldId];
+    }
+
+    /**
+     * Get the field id for the given field name
+     *
+     * @param name
+     *            field name
+     * @return field id or -1 if the field is not in this log
+     */
+    public int getFieldId(String name) {
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Get the timestamp of a record
+     *
+     * @param record
+     *            record index
+     * @return timestamp in seconds
+     */
+    public double getTimestamp(int record) {
+        return records.getDouble(record * recordBytes);
+    }
+
+    /**
+     * Get the value of a field in a record
+     *
+     * @param record
+     *            record index
+     * @param fieldId
+     *            field id
+     * @return field value
+     */
+    public double get(int record, int fieldId) {
+        return records.getDouble(record * recordBytes + (fieldId + 1) * Double.BYTES);
+    }
+}
@@ -0,0 +1,449 @@
+package com.torontocodingcollective.recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Flight Recorder
+ * <p>
+ * Records a fixed schema binary record on every robot loop so that the state
+ * of the robot can be reconstructed after a match.
+ * <p>
+ * The schema is a timestamp followed by a list of named double values. All
+ * fields are added using {@link #addField(String)} before the recorder is
+ * started. On each loop, the values are set using {@link #set(int, double)},
+ * and the record is committed using {@link #commit(double)}.
+ * <p>
+ * Committed records are copied into a preallocated direct (off heap) ring
+ * buffer. A background thread drains the ring buffer into memory mapped files.
+ * The robot loop never waits for the disk. If the writer falls behind and the
+ * ring buffer is full, the record is dropped and counted.
+ * <p>
+ * The files are rotated when they are full, and the oldest files are deleted
+ * so that only the configured number of files are kept.
+ * <p>
+ * File format (big endian):
+ * <ul>
+ * <li>int magic number {@link #FILE_MAGIC}</li>
+ * <li>int file version {@link #FILE_VERSION}</li>
+ * <li>int field count (not including the timestamp)</li>
+ * <li>int header size in bytes (offset of the first record)</li>
+ * <li>long record count (updated as records are written)</li>
+ * <li>for each field, a short length followed by the UTF-8 field name</li>
+ * <li>records: double timestamp followed by a double for each field</li>
+ * </ul>
+ * The files are created at their full size. Use the record count in the header
+ * to determine the number of valid records.
+ */
+public class TFlightRecorder {
+
+    /** File magic number "TFDR" */
+    public static final int     FILE_MAGIC          = 0x54464452;
+    /** File format version */
+    public static final int     FILE_VERSION        = 1;
+
+    /** Offset of the record count in the file header */
+    public static final int     RECORD_COUNT_OFFSET = 16;
+
+    /** File name prefix and suffix */
+    public static final String  FILE_PREFIX         = "flight_";
+    public static final String  FILE_SUFFIX         = ".tfr";
+
+    /** Time the writer thread waits when there are no records to write */
+    private static final long   WRITER_IDLE_NANOS   = 20000000L;
+    /** Time between forcing the mapped file to disk */
+    private static final long   FORCE_PERIOD_NANOS  = 1000000000L;
+
+    private final File          directory;
+    private final int           ringCapacity;
+    private final long          maxFileBytes;
+    private final int           maxFiles;
+
+    private final List<String>  fieldNameLs         = new ArrayList<String>();
+
+    // Set when the recorder is started
+    private double []           values;
+    private int                 recordBytes;
+    private ByteBuffer          ring;
+    private String              fileTimestamp;
+    private Thread              writerThread;
+
+    // Single producer (robot loop) single consumer (writer thread) ring indexes
+    private final AtomicLong    writeCount          = new AtomicLong(0);
+    private final AtomicLong    readCount           = new AtomicLong(0);
+
+    private volatile boolean    running             = false;
+    private volatile boolean    newFileRequested    = false;
+
+    private long                droppedCount        = 0;
+
+    // Writer thread state
+    private RandomAccessFile    randomAccessFile;
+    private MappedByteBuffer    file;
+    private long                fileRecordCount;
+    private int                 fileIndex           = 0;
+
+    /**
+     * Flight Recorder
+     *
+     * @param directory
+     *            directory for the recorded files (typically
+     *            /home/lvuser/flightlog)
+     * @param ringCapacity
+     *            number of records that can be buffered in memory before
+     *            records are dropped
+     * @param maxFileBytes
+     *            size of each recorded file
+     * @param maxFiles
+     *            number of files to keep. The oldest files are deleted when this
+     *            number is exceeded.
+     */
+    public TFlightRecorder(String directory, int ringCapacity, long maxFileBytes, int maxFiles) {
+        this.directory    = new File(directory);
+        this.ringCapacity = ringCapacity;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles     = maxFiles;
+    }
+
+    /**
+     * Add a field to the record schema
+     * <p>
+     * All fields must be added before the recorder is started.
+     *
+     * @param name
+     *            field name
+     * @return the field id used to set the value, or -1 if the recorder is
+     *         already started
+     */
+    public int addField(String name) {
+
+        if (values != null) {
+            System.out.println("Cannot add field " + name + " to a started flight recorder");
+            return -1;
+        }
+
+        fieldNameLs.add(name);
+        return fieldNameLs.size() - 1;
+    }
+
+    /**
+     * Get the field id for the given field name
+     *
+     * @param name
+     *            field name
+     * @return field id or -1 if there is no field with the given name
+     */
+    public int getFieldId(String name) {
+        return fieldNameLs.indexOf(name);
+    }
+
+    /**
+     * Get the value of a field in the current record
+     *
+     * @param fieldId
+     *            the id returned from {@link #addField(String)}
+     * @return the field value
+     */
+    public double get(int fieldId) {
+        if (values == null || fieldId < 0) {
+            return 0;
+        }
+        return values[fieldId];
+    }
+
+    /**
+     * Get the number of records that were dropped because the ring buffer was
+     * full
+     *
+     * @return dropped record count
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start the recorder
+     * <p>
+     * Allocate the ring buffer and start the writer thread. The schema cannot
+     * be changed after the recorder is started.
+     */
+    public void start() {
+
+        if (values != null) {
+            return;
+        }
+
+        values      = new double[fieldNameLs.size()];
+        recordBytes = (values.length + 1) * Double.BYTES;
+        ring        = ByteBuffer.allocateDirect(ringCapacity * recordBytes);
+
+        fileTimestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+
+        running = true;
+
+        writerThread = new Thread(this::writeLoop, "FlightRecorder");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.MIN_PRIORITY);
+        writerThread.start();
+
+        System.out.println("Flight recorder started: " + values.length + " fields, "
+                + recordBytes + " bytes per record, writing to " + directory);
+    }
+
+    /**
+     * Start the recorder in capture mode
+     * <p>
+     * In capture mode only the current record is kept in memory, and it can be
+     * read using {@link #get(int)}. Records are not committed, and nothing is
+     * written to disk. This is used to capture the values of
+     * {@link TRecordable} classes when replaying a recorded log.
+     */
+    public void startCapture() {
+
+        if (values != null) {
+            return;
+        }
+
+        values = new double[fieldNameLs.size()];
+    }
+
+    /**
+     * Stop the recorder
+     * <p>
+     * The writer thread writes all buffered records and closes the file.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Start a new file
+     * <p>
+     * The next record is written to a new file. This is useful to start each
+     * match in a new file.
+     */
+    public void newFile() {
+        newFileRequested = true;
+    }
+
+    /**
+     * Set the value of a field in the current record
+     *
+     * @param fieldId
+     *            the id returned from {@link #addField(String)}
+     * @param value
+     *            the field value
+     */
+    public void set(int fieldId, double value) {
+        if (values != null && fieldId >= 0) {
+            values[fieldId] = value;
+        }
+    }
+
+    /**
+     * Set the value of a boolean field in the current record
+     * <p>
+     * Boolean values are recorded as 1.0 for {@code true} and 0.0 for
+     * {@code false}.
+     *
+     * @param fieldId
+     *            the id returned from {@link #addField(String)}
+     * @param value
+     *            the field value
+     */
+    public void set(int fieldId, boolean value) {
+        set(fieldId, value ? 1.0 : 0.0);
+    }
+
+    /**
+     * Commit the current record to the ring buffer
+     * <p>
+     * This routine never blocks. If the ring buffer is full, the record is
+     * dropped.
+     *
+     * @param timestamp
+     *            record timestamp in seconds
+     */
+    public void commit(double timestamp) {
+
+        if (!running) {
+            return;
+        }
+
+        long write = writeCount.get();
+
+        if (write - readCount.get() >= ringCapacity) {
+            droppedCount++;
+            return;
+        }
+
+        int offset = (int) (write % ringCapacity) * recordBytes;
+
+        ring.putDouble(offset, timestamp);
+        for (int i = 0; i < values.length; i++) {
+            ring.putDouble(offset + (i + 1) * Double.BYTES, values[i]);
+        }
+
+        // Publish the record to the writer thread
+        writeCount.lazySet(write + 1);
+    }
+
+    /*
+     * Writer thread routines
+     */
+    private void writeLoop() {
+
+        // The writer uses its own view of the ring so that the
+        // position and limit are not shared with the robot loop.
+        ByteBuffer ringView = ring.duplicate();
+
+        long lastForceTime = System.nanoTime();
+
+        while (running || readCount.get() < writeCount.get()) {
+
+            if (newFileRequested) {
+                newFileRequested = false;
+                closeFile();
+            }
+
+            long read  = readCount.get();
+            long write = writeCount.get();
+
+            if (read == write) {
+
+                if (file != null && System.nanoTime() - lastForceTime > FORCE_PERIOD_NANOS) {
+                    file.force();
+                    lastForceTime = System.nanoTime();
+                }
+
+                LockSupport.parkNanos(WRITER_IDLE_NANOS);
+                continue;
+            }
+
+            while (read < write) {
+
+                if (file == null || file.remaining() < recordBytes) {
+                    closeFile();
+                    if (!openNextFile()) {
+                        System.out.println("Flight recorder stopped, cannot open a file in " + directory);
+                        running = false;
+                        return;
+                    }
+                }
+
+                int offset = (int) (read % ringCapacity) * recordBytes;
+
+                ringView.clear();
+                ringView.position(offset);
+                ringView.limit(offset + recordBytes);
+
+                file.put(ringView);
+                fileRecordCount++;
+
+                read++;
+                readCount.lazySet(read);
+            }
+
+            file.putLong(RECORD_COUNT_OFFSET, fileRecordCount);
+        }
+
+        closeFile();
+    }
+
+    private boolean openNextFile() {
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return false;
+        }
+
+        deleteOldFiles();
+
+        File newFile = new File(directory,
+                FILE_PREFIX + fileTimestamp + "_" + String.format("%03d", fileIndex++) + FILE_SUFFIX);
+
+        try {
+            randomAccessFile = new RandomAccessFile(newFile, "rw");
+            file = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, maxFileBytes);
+        } catch (IOException e) {
+            System.out.println("Flight recorder cannot open " + newFile + ": " + e.getMessage());
+            closeFile();
+            return false;
+        }
+
+        // Write the header
+        file.putInt(FILE_MAGIC);
+        file.putInt(FILE_VERSION);
+        file.putInt(fieldNameLs.size());
+        int headerSizePosition = file.position();
+        file.putInt(0);
+        file.putLong(0);
+
+        for (String fieldName : fieldNameLs) {
+            byte[] nameBytes = fieldName.getBytes(StandardCharsets.UTF_8);
+            file.putShort((short) nameBytes.length);
+            file.put(nameBytes);
+        }
+
+        file.putInt(headerSizePosition, file.position());
+
+        fileRecordCount = 0;
+
+        return true;
+    }
+
+    private void closeFile() {
+
+        if (file != null) {
+            file.putLong(RECORD_COUNT_OFFSET, fileRecordCount);
+            file.force();
+            file = null;
+        }
+
+        if (randomAccessFile != null) {
+            try {
+                randomAccessFile.close();
+            } catch (IOException e) {
+                System.out.println("Flight recorder error closing file: " + e.getMessage());
+            }
+            randomAccessFile = null;
+        }
+    }
+
+    /**
+     * Delete the oldest recorded files, leaving room for one new file
+     */
+    private void deleteOldFiles() {
+
+        File[] files = directory.listFiles(
+                (dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+
+        if (files == null || files.length < maxFiles) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        for (int i = 0; i <= files.length - maxFiles; i++) {
+            if (!files[i].delete()) {
+                System.out.println("Flight recorder cannot delete " + files[i]);
+            }
+        }
+    }
+}
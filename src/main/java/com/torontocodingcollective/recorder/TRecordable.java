@@ -0,0 +1,34 @@
+package com.torontocodingcollective.recorder;
+
+/**
+ * Recordable
+ * <p>
+ * Interface for classes (typically subsystems) that write state into the
+ * {@link TFlightRecorder} record on every loop.
+ */
+public interface TRecordable {
+
+    /**
+     * Add the fields recorded by this class to the recorder schema.
+     * <p>
+     * This routine is called once, before the recorder is started. The field ids
+     * returned from {@link TFlightRecorder#addField(String)} should be saved
+     * for use in {@link #record(TFlightRecorder)}.
+     *
+     * @param recorder
+     *            the flight recorder
+     */
+    void addRecordFields(TFlightRecorder recorder);
+
+    /**
+     * Set the current values of all fields added in
+     * {@link #addRecordFields(TFlightRecorder)}.
+     * <p>
+     * This routine is called on every loop and must not allocate memory or
+     * block.
+     *
+     * @param recorder
+     *            the flight recorder
+     */
+    void record(TFlightRecorder recorder);
+}
@@ -0,0 +1,214 @@
+package com.torontocodingcollective.replay;
+
+import com.torontocodingcollective.recorder.TFlightLog;
+import com.torontocodingcollective.recorder.TFlightRecorder;
+import com.torontocodingcollective.subsystem.TGyroDriveSubsystem.Mode;
+
+/**
+ * Drive Replay
+ * <p>
+ * Replays a {@link TFlightLog} through a {@link TReplayDriveSubsystem} and
+ * compares the recomputed drive and PID outputs with the recorded outputs.
+ * <p>
+ * For each record:
+ * <ul>
+ * <li>the replay time, encoders and gyro are set from the recorded timestamp
+ * and sensor values</li>
+ * <li>the speed adjust is set from the recorded speed adjust, if it was
+ * recorded</li>
+ * <li>the recorded commands are applied to the drive subsystem (speed PID
+ * enable, gyro mode, heading and speed setpoints, or the commanded speeds when
+ * the gyro PID is not used)</li>
+ * <li>the drive subsystem updatePeriodic is run</li>
+ * <li>the drive subsystem record values are captured and compared with the
+ * recorded values</li>
+ * </ul>
+ * The replay does not wait between records, so a log replays many times faster
+ * than real time.
+ */
+public class TDriveReplay {
+
+    /** The default fields compared with the recorded log */
+    public static final String [] DEFAULT_COMPARE_FIELDS = {
+            "L Speed Cmd", "R Speed Cmd",
+            "L Pid Output", "R Pid Output",
+            "L Output", "R Output",
+            "Gyro Pid Error", "Gyro Pid Output" };
+
+    private final TReplayDriveSubsystem drive;
+    private final TFlightRecorder       capture = new TFlightRecorder("", 0, 0, 0);
+
+    /**
+     * Drive Replay
+     * 
+     * @param drive
+     *            replay drive subsystem configured with the gains and settings
+     *            to be tested
+     */
+    public TDriveReplay(TReplayDriveSubsystem drive) {
+
+        this.drive = drive;
+
+        drive.addRecordFields(capture);
+        capture.startCapture();
+    }
+
+    /**
+     * Replay the log comparing the {@link #DEFAULT_COMPARE_FIELDS}
+     * 
+     * @param log
+     *            the recorded log
+     * @param tolerance
+     *            the maximum difference before a value is considered to have
+     *            diverged
+     * @return the replay result, or {@code null} if the log does not contain
+     *         the required fields
+     */
+    public TReplayResult replay(TFlightLog log, double tolerance) {
+        return replay(log, tolerance, DEFAULT_COMPARE_FIELDS);
+    }
+
+    /**
+     * Replay the log
+     * 
+     * @param log
+     *            the recorded log
+     * @param tolerance
+     *            the maximum difference before a value is considered to have
+     *            diverged
+     * @param compareFields
+     *            the names of the fields to compare
+     * @return the replay result, or {@code null} if the log does not contain
+     *         the required fields
+     */
+    public TReplayResult replay(TFlightLog log, double tolerance, String[] compareFields) {
+
+        // Input fields
+        int leftCount         = getLogFieldId(log, "L Enc Count");
+        int leftRate          = getLogFieldId(log, "L Enc Rate");
+        int rightCount        = getLogFieldId(log, "R Enc Count");
+        int rightRate         = getLogFieldId(log, "R Enc Rate");
+        int gyroAngle         = getLogFieldId(log, "Gyro Angle");
+        int gyroRate          = getLogFieldId(log, "Gyro Rate");
+        int speedPidsEnabled  = getLogFieldId(log, "Speed Pids Enabled");
+        int gyroMode          = getLogFieldId(log, "Gyro Mode");
+        int gyroSpeedSetpoint = getLogFieldId(log, "Gyro Speed Setpoint");
+        int gyroPidSetpoint   = getLogFieldId(log, "Gyro Pid Setpoint");
+        int leftSpeedCmd      = getLogFieldId(log, "L Speed Cmd");
+        int rightSpeedCmd     = getLogFieldId(log, "R Speed Cmd");
+
+        // Optional fields. Logs recorded before the speed adjust was recorded
+        // use the speed adjust set on the replay drive subsystem.
+        int leftSpeedAdjust   = log.getFieldId("L Speed Adjust");
+        int rightSpeedAdjust  = log.getFieldId("R Speed Adjust");
+
+        if (   leftCount < 0 || leftRate < 0 || rightCount < 0 || rightRate < 0
+            || gyroAngle < 0 || gyroRate < 0 || speedPidsEnabled < 0
+            || gyroMode < 0 || gyroSpeedSetpoint < 0 || gyroPidSetpoint < 0
+            || leftSpeedCmd < 0 || rightSpeedCmd < 0) {
+            return null;
+        }
+
+        // Compared fields
+        int [] logCompareIds     = new int[compareFields.length];
+        int [] captureCompareIds = new int[compareFields.length];
+
+        for (int i = 0; i < compareFields.length; i++) {
+            logCompareIds[i] = getLogFieldId(log, compareFields[i]);
+            captureCompareIds[i] = capture.getFieldId(compareFields[i]);
+            if (logCompareIds[i] < 0) {
+                return null;
+            }
+            if (captureCompareIds[i] < 0) {
+                System.out.println("Replay drive subsystem does not record " + compareFields[i]);
+                return null;
+            }
+        }
+
+        TReplayResult result = new TReplayResult(log.getFileName(), compareFields, tolerance);
+
+        // Start from a stopped robot with all PIDs disabled
+        drive.disableGyroPid();
+        drive.disableSpeedPids();
+        drive.setSpeed(0, 0);
+
+        Mode[] modes = Mode.values();
+
+        long startTime = System.nanoTime();
+
+        for (int record = 0; record < log.getRecordCount(); record++) {
+
+            double timestamp = log.getTimestamp(record);
+
+            drive.setTime(timestamp);
+            drive.setSensors(
+                    (int) log.get(record, leftCount),  log.get(record, leftRate),
+                    (int) log.get(record, rightCount), log.get(record, rightRate),
+                    log.get(record, gyroAngle), log.get(record, gyroRate));
+
+            if (leftSpeedAdjust >= 0 && rightSpeedAdjust >= 0) {
+                drive.setSpeedAdjust(log.get(record, leftSpeedAdjust), log.get(record, rightSpeedAdjust));
+            }
+
+            // Apply the recorded commands
+            if (log.get(record, speedPidsEnabled) != 0) {
+                drive.enableSpeedPids();
+            }
+            else {
+                drive.disableSpeedPids();
+            }
+
+            Mode mode = modes[(int) log.get(record, gyroMode)];
+
+            switch (mode) {
+
+            case DRIVE_ON_HEADING:
+                drive.driveOnHeading(log.get(record, gyroSpeedSetpoint), log.get(record, gyroPidSetpoint));
+                break;
+
+            case ROTATE_TO_HEADING:
+                drive.rotateToHeading(log.get(record, gyroPidSetpoint), log.get(record, gyroSpeedSetpoint));
+                break;
+
+            default:
+                if (drive.getGyroMode() != Mode.DISABLED) {
+                    drive.disableGyroPid();
+                }
+                drive.setSpeed(log.get(record, leftSpeedCmd), log.get(record, rightSpeedCmd));
+                break;
+            }
+
+            drive.updatePeriodic();
+
+            // Capture and compare the outputs
+            drive.record(capture);
+
+            for (int i = 0; i < compareFields.length; i++) {
+                result.compare(i, record, timestamp,
+                        log.get(record, logCompareIds[i]), capture.get(captureCompareIds[i]));
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        double recordedSeconds = 0;
+        if (log.getRecordCount() > 0) {
+            recordedSeconds = log.getTimestamp(log.getRecordCount() - 1) - log.getTimestamp(0);
+        }
+
+        result.setReplayTime(log.getRecordCount(), recordedSeconds, elapsedNanos);
+
+        return result;
+    }
+
+    private int getLogFieldId(TFlightLog log, String fieldName) {
+
+        int fieldId = log.getFieldId(fieldName);
+
+        if (fieldId < 0) {
+            System.out.println("Cannot replay " + log.getFileName() + ", missing field " + fieldName);
+        }
+
+        return fieldId;
+    }
+}
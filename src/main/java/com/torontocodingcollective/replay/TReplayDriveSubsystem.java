@@ -0,0 +1,120 @@
+package com.torontocodingcollective.replay;
+
+import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
+
+/**
+ * Replay Drive Subsystem
+ * <p>
+ * A {@link TGyroDriveSubsystem} built from replay sensors and speed
+ * controllers. The sensor values are set from a recorded log on each replay
+ * step, and the drive and PID logic is run exactly as it is on the robot.
+ * <p>
+ * The encoder and gyro values in the log are recorded after any inversion, so
+ * the replay sensors and speed controllers are never inverted.
+ * <p>
+ * The PIDs use the replay time set with {@link #setTime(double)} so that the
+ * integral is calculated over the recorded time steps.
+ */
+public class TReplayDriveSubsystem extends TGyroDriveSubsystem {
+
+    private final TReplayEncoder leftEncoder;
+    private final TReplayEncoder rightEncoder;
+    private final TReplayGyro    gyro;
+
+    private double               replayTime = 0;
+
+    /**
+     * Replay drive subsystem using the same constants as the robot drive
+     * subsystem
+     * 
+     * @param encoderCountsPerInch
+     *            encoder counts per inch
+     * @param speedKP
+     *            speed PID proportional gain
+     * @param speedKI
+     *            speed PID integral gain
+     * @param maxEncoderSpeed
+     *            max encoder speed used to normalize the speed PID input
+     * @param gyroKP
+     *            gyro PID proportional gain
+     * @param gyroKI
+     *            gyro PID integral gain
+     * @param maxRotationOutput
+     *            max rotation output
+     */
+    public TReplayDriveSubsystem(
+            double encoderCountsPerInch, double speedKP, double speedKI, double maxEncoderSpeed,
+            double gyroKP, double gyroKI, double maxRotationOutput) {
+
+        this(new TReplayGyro(), 
+                encoderCountsPerInch, speedKP, speedKI, maxEncoderSpeed, 
+                gyroKP, gyroKI, maxRotationOutput);
+    }
+
+    private TReplayDriveSubsystem(TReplayGyro gyro,
+            double encoderCountsPerInch, double speedKP, double speedKI, double maxEncoderSpeed,
+            double gyroKP, double gyroKI, double maxRotationOutput) {
+
+        super(new TReplaySpeedController(), new TReplaySpeedController(), 
+                gyro, gyroKP, gyroKI, maxRotationOutput);
+
+        this.gyro         = gyro;
+        this.leftEncoder  = new TReplayEncoder();
+        this.rightEncoder = new TReplayEncoder();
+
+        setEncoders(
+                leftEncoder,  TConst.NOT_INVERTED, 
+                rightEncoder, TConst.NOT_INVERTED, 
+                encoderCountsPerInch, speedKP, speedKI, maxEncoderSpeed);
+
+        setPidTimeSource(() -> replayTime);
+    }
+
+    /**
+     * Set the time for the next replay step
+     * 
+     * @param timestamp
+     *            recorded timestamp in seconds
+     */
+    public void setTime(double timestamp) {
+        this.replayTime = timestamp;
+    }
+
+    /**
+     * Set the sensor values for the next replay step
+     * 
+     * @param leftCount
+     *            left encoder counts
+     * @param leftRate
+     *            left encoder rate
+     * @param rightCount
+     *            right encoder counts
+     * @param rightRate
+     *            right encoder rate
+     * @param gyroAngle
+     *            gyro angle
+     * @param gyroRate
+     *            gyro rate
+     */
+    public void setSensors(int leftCount, double leftRate, int rightCount, double rightRate, 
+            double gyroAngle, double gyroRate) {
+
+        leftEncoder .setReplayValues(leftCount,  leftRate);
+        rightEncoder.setReplayValues(rightCount, rightRate);
+        gyro        .setReplayValues(gyroAngle,  gyroRate);
+
+        // Sample the replay sensors as the sensor frame does on the robot
+        leftEncoder .sample(replayTime);
+        rightEncoder.sample(replayTime);
+        gyro        .sample(replayTime);
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    protected void initDefaultCommand() {
+    }
+}
@@ -0,0 +1,41 @@
+package com.torontocodingcollective.replay;
+
+import com.torontocodingcollective.sensors.encoder.TEncoder;
+
+/**
+ * Replay Encoder
+ * <p>
+ * Encoder that returns the values set from a recorded log.
+ */
+public class TReplayEncoder extends TEncoder {
+
+    private int    count = 0;
+    private double rate  = 0;
+
+    public TReplayEncoder() {
+        super(false);
+    }
+
+    /**
+     * Set the values to be returned by this encoder
+     * 
+     * @param count
+     *            encoder counts
+     * @param rate
+     *            encoder rate in counts/second
+     */
+    public void setReplayValues(int count, double rate) {
+        this.count = count;
+        this.rate  = rate;
+    }
+
+    @Override
+    public int get() {
+        return super.get(count);
+    }
+
+    @Override
+    public double getRate() {
+        return super.getRate(rate);
+    }
+}
@@ -0,0 +1,46 @@
+package com.torontocodingcollective.replay;
+
+import com.torontocodingcollective.sensors.gyro.TGyro;
+
+/**
+ * Replay Gyro
+ * <p>
+ * Gyro that returns the values set from a recorded log.
+ */
+public class TReplayGyro extends TGyro {
+
+    private double angle = 0;
+    private double rate  = 0;
+
+    public TReplayGyro() {
+        super(false);
+    }
+
+    /**
+     * Set the values to be returned by this gyro
+     * 
+     * @param angle
+     *            gyro angle in degrees
+     * @param rate
+     *            gyro rate in degrees/second
+     */
+    public void setReplayValues(double angle, double rate) {
+        this.angle = angle;
+        this.rate  = rate;
+    }
+
+    @Override
+    public void calibrate() {
+        // Nothing to calibrate
+    }
+
+    @Override
+    public double getAngle() {
+        return super.getAngle(angle);
+    }
+
+    @Override
+    public double getRate() {
+        return super.getRate(rate);
+    }
+}
@@ -0,0 +1,150 @@
+package com.torontocodingcollective.replay;
+
+/**
+ * Replay Result
+ * <p>
+ * Summary of the differences between the recorded and the replayed values for
+ * each compared field.
+ */
+public class TReplayResult {
+
+    private final String    logName;
+    private final String [] fieldNames;
+    private final double    tolerance;
+
+    private final int []    divergenceCount;
+    private final double [] maxDifference;
+    private final int []    firstRecord;
+    private final double [] firstTimestamp;
+    private final double [] firstRecordedValue;
+    private final double [] firstReplayedValue;
+
+    private int             recordCount = 0;
+    private long            elapsedNanos;
+    private double          recordedSeconds;
+
+    TReplayResult(String logName, String[] fieldNames, double tolerance) {
+
+        this.logName    = logName;
+        this.fieldNames = fieldNames;
+        this.tolerance  = tolerance;
+
+        divergenceCount    = new int   [fieldNames.length];
+        maxDifference      = new double[fieldNames.length];
+        firstRecord        = new int   [fieldNames.length];
+        firstTimestamp     = new double[fieldNames.length];
+        firstRecordedValue = new double[fieldNames.length];
+        firstReplayedValue = new double[fieldNames.length];
+
+        for (int i = 0; i < fieldNames.length; i++) {
+            firstRecord[i] = -1;
+        }
+    }
+
+    /**
+     * Compare a recorded and replayed value
+     */
+    void compare(int field, int record, double timestamp, double recordedValue, double replayedValue) {
+
+        double difference = Math.abs(replayedValue - recordedValue);
+
+        if (difference > maxDifference[field]) {
+            maxDifference[field] = difference;
+        }
+
+        if (difference <= tolerance) {
+            return;
+        }
+
+        if (firstRecord[field] < 0) {
+            firstRecord       [field] = record;
+            firstTimestamp    [field] = timestamp;
+            firstRecordedValue[field] = recordedValue;
+            firstReplayedValue[field] = replayedValue;
+        }
+
+        divergenceCount[field]++;
+    }
+
+    void setReplayTime(int recordCount, double recordedSeconds, long elapsedNanos) {
+        this.recordCount     = recordCount;
+        this.recordedSeconds = recordedSeconds;
+        this.elapsedNanos    = elapsedNanos;
+    }
+
+    /**
+     * Get the number of records replayed
+     * 
+     * @return record count
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Determine if any compared field diverged from the recorded value by more
+     * than the tolerance
+     * 
+     * @return {@code true} if there was a divergence, {@code false} otherwise
+     */
+    public boolean hasDivergence() {
+        for (int count : divergenceCount) {
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the index of the first record where the field diverged
+     * 
+     * @param fieldName
+     *            the compared field name
+     * @return record index or -1 if the field did not diverge (or was not
+     *         compared)
+     */
+    public int getFirstDivergence(String fieldName) {
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].equals(fieldName)) {
+                return firstRecord[i];
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        double elapsedSeconds = elapsedNanos / 1000000000.0;
+
+        sb.append("Replay of ").append(logName).append(": ")
+          .append(recordCount).append(" records, ")
+          .append(String.format("%.1f", recordedSeconds)).append("s recorded replayed in ")
+          .append(String.format("%.3f", elapsedSeconds)).append("s");
+
+        if (elapsedSeconds > 0) {
+            sb.append(String.format(" (%.0fx real time)", recordedSeconds / elapsedSeconds));
+        }
+        sb.append('\n');
+
+        for (int i = 0; i < fieldNames.length; i++) {
+
+            sb.append(String.format("  %-16s max diff %.6f", fieldNames[i], maxDifference[i]));
+
+            if (divergenceCount[i] == 0) {
+                sb.append("  ok\n");
+                continue;
+            }
+
+            sb.append(String.format("  DIVERGED in %d records, first at record %d (t=%.3f)"
+                    + " recorded %.6f replayed %.6f\n",
+                    divergenceCount[i], firstRecord[i], firstTimestamp[i],
+                    firstRecordedValue[i], firstReplayedValue[i]));
+        }
+
+        return sb.toString();
+    }
+}
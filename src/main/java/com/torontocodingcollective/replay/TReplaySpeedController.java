@@ -0,0 +1,29 @@
+package com.torontocodingcollective.replay;
+
+import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.speedcontroller.TSpeedController;
+
+/**
+ * Replay Speed Controller
+ * <p>
+ * Speed controller that only remembers the speed that was set so that it can
+ * be compared with a recorded log.
+ */
+public class TReplaySpeedController extends TSpeedController {
+
+    private double speed = 0;
+
+    public TReplaySpeedController() {
+        super(TConst.NOT_INVERTED);
+    }
+
+    @Override
+    public double get() {
+        return speed;
+    }
+
+    @Override
+    public void set(double speed) {
+        this.speed = speed;
+    }
+}
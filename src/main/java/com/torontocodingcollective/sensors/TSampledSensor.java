@@ -0,0 +1,20 @@
+package com.torontocodingcollective.sensors;
+
+/**
+ * Sampled Sensor
+ * <p>
+ * A sensor that is read once per robot loop by the {@link TSensorFrame}. The
+ * sampled values are held by the sensor until the next sample so that all of
+ * the code running in a loop sees the same sensor values, and each hardware
+ * value is only read once per loop.
+ */
+public interface TSampledSensor {
+
+    /**
+     * Read the sensor and hold the values until the next sample
+     *
+     * @param timestamp
+     *            FPGA timestamp of the sensor frame in seconds
+     */
+    void sample(double timestamp);
+}
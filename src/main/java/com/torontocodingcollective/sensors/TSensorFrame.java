@@ -0,0 +1,105 @@
+package com.torontocodingcollective.sensors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Sensor Frame
+ * <p>
+ * Samples a set of sensors once at the start of each robot loop.
+ * <p>
+ * The robot (or a simulation) owns the frame, and each subsystem adds its
+ * sensors ({@code TEncoder}, {@code TGyro}, {@code TUltrasonicSensor} and
+ * {@code TLimitSwitch}) to the frame using
+ * {@link com.torontocodingcollective.subsystem.TSubsystem#addSensors(TSensorFrame)}.
+ * Sensors built for a replay, a test or a benchmark are not sampled unless
+ * they are added to a frame. Calling {@link #sample()} at the start of the
+ * loop reads every sensor once and stamps the values with the FPGA timestamp.
+ * The commands, PIDs and telemetry then use the sampled values for the rest of
+ * the loop instead of reading the hardware (for example a CAN read for a Talon
+ * encoder) each time a value is needed.
+ * <p>
+ * Sensors that have never been sampled return the live hardware values.
+ */
+public class TSensorFrame {
+
+    private final List<TSampledSensor> sensorLs   = new ArrayList<TSampledSensor>();
+
+    private double                     timestamp  = 0;
+    private long                       frameCount = 0;
+
+    /**
+     * Add a sensor to the frame
+     * <p>
+     * A sensor that is already in the frame is not added again.
+     *
+     * @param sensor
+     *            to sample on each frame, or {@code null} for no sensor
+     */
+    public void add(TSampledSensor sensor) {
+        if (sensor != null && !sensorLs.contains(sensor)) {
+            sensorLs.add(sensor);
+        }
+    }
+
+    /**
+     * Remove a sensor from the frame
+     *
+     * @param sensor
+     *            to stop sampling
+     */
+    public void remove(TSampledSensor sensor) {
+        sensorLs.remove(sensor);
+    }
+
+    /**
+     * Get the number of frames sampled
+     *
+     * @return frame count
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Get the timestamp of the current frame
+     *
+     * @return FPGA timestamp in seconds when the frame was sampled
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Sample all of the sensors
+     * <p>
+     * This routine should be called once at the start of each robot loop before
+     * the commands are run.
+     */
+    public void sample() {
+        sample(Timer.getFPGATimestamp());
+    }
+
+    /**
+     * Sample all of the sensors and stamp the values with the given time
+     * <p>
+     * This routine is used when the loop runs on its own clock (for example
+     * the warm up), and should not be mixed with {@link #sample()} on the same
+     * frame.
+     *
+     * @param timestamp
+     *            time of the frame in seconds
+     */
+    public void sample(double timestamp) {
+
+        this.timestamp = timestamp;
+
+        for (int i = 0; i < sensorLs.size(); i++) {
+            sensorLs.get(i).sample(timestamp);
+        }
+
+        frameCount++;
+    }
+}
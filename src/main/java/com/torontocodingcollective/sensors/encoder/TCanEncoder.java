@@ -10,7 +10,10 @@ import com.ctre.phoenix.motorcontrol.can.TalonSRX;
  */
 public class TCanEncoder extends TEncoder {
 
-    private TalonSRX talonSRX;
+    private TalonSRX         talonSRX;
+
+    /** The TalonSRX sensor phase is flipped for the velocity closed loop */
+    private volatile boolean sensorPhase = false;
 
     /**
      * Encoder constructor. Construct a Encoder given a TalonSRX device. 
@@ -27,16 +30,33 @@ public class TCanEncoder extends TEncoder {
         talonSRX.setSelectedSensorPosition(0, 0, 0);
     }
 
+    /**
+     * Set the sensor phase of the TalonSRX
+     * <p>
+     * The sensor phase is set on the TalonSRX when the onboard velocity closed
+     * loop is configured, and flips the position and velocity read from the
+     * TalonSRX. The raw values are flipped back so that the encoder readings
+     * do not depend on the sensor phase.
+     * 
+     * @param sensorPhase
+     *            the sensor phase set on the TalonSRX
+     */
+    public void setSensorPhase(boolean sensorPhase) {
+        this.sensorPhase = sensorPhase;
+    }
+
     @Override
     public int get() {
         // Convert the raw counts
-        return super.get(talonSRX.getSelectedSensorPosition(0));
+        int rawDistance = talonSRX.getSelectedSensorPosition(0);
+        return super.get(sensorPhase ? -rawDistance : rawDistance);
     }
 
     @Override
     public double getRate() {
         // Convert the raw rate
-        return super.getRate(talonSRX.getSelectedSensorVelocity(0));
+        double rawRate = talonSRX.getSelectedSensorVelocity(0);
+        return super.getRate(sensorPhase ? -rawRate : rawRate);
     }
 
 }
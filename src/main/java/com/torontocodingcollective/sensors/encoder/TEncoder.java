@@ -1,5 +1,8 @@
 package com.torontocodingcollective.sensors.encoder;
 
+import com.torontocodingcollective.sensors.TSampledSensor;
+import com.torontocodingcollective.sensors.TSensorFrame;
+
 /**
  * TEncoder class used as the base for all TEncoders
  * <p>
@@ -8,12 +11,26 @@ package com.torontocodingcollective.sensors.encoder;
  * <p>
  * Known implementations: {@link TCanEncoder}, {@link TDioQuadEncoder},
  * {@link TDioCounterEncoder}
+ * <p>
+ * The encoder is sampled once per loop by the {@link TSensorFrame}. Use
+ * {@link #getSampledCount()} and {@link #getSampledRate()} to get the values
+ * from the current frame without reading the hardware.
  */
-public abstract class TEncoder {
+public abstract class TEncoder implements TSampledSensor {
 
     boolean isInverted = false;
     int     offset     = 0;
 
+    // Values from the last sensor frame
+    private boolean sampled      = false;
+    private int     sampledCount = 0;
+    private double  sampledRate  = 0;
+    private double  sampleTime   = 0;
+
+    // Incremented before and after the offset is changed, so that a
+    // reader on another thread can detect a reset (odd while resetting)
+    private volatile int resetSequence = 0;
+
     /**
      * TEncoder default constructor
      * <p>
@@ -71,6 +88,49 @@ public abstract class TEncoder {
         return rawRate;
     }
 
+    /**
+     * Get the distance from the current sensor frame
+     * 
+     * @return distance in encoder counts, or the current distance if the encoder
+     *         has not been sampled
+     */
+    public int getSampledCount() {
+        return sampled ? sampledCount : get();
+    }
+
+    /**
+     * Get the rate from the current sensor frame
+     * 
+     * @return speed in encoder counts/second, or the current speed if the encoder
+     *         has not been sampled
+     */
+    public double getSampledRate() {
+        return sampled ? sampledRate : getRate();
+    }
+
+    /**
+     * Get the reset sequence of this encoder
+     * <p>
+     * The reset sequence changes each time the encoder count is reset or set,
+     * and is odd while the count is being changed. Code that tracks the change
+     * in the count on another thread (for example odometry) uses the reset
+     * sequence to detect a jump in the count.
+     * 
+     * @return reset sequence
+     */
+    public int getResetSequence() {
+        return resetSequence;
+    }
+
+    /**
+     * Get the time the encoder was sampled
+     * 
+     * @return FPGA timestamp in seconds
+     */
+    public double getSampleTime() {
+        return sampleTime;
+    }
+
     /**
      * Returns whether the current speed controller is 
      * inverted
@@ -84,6 +144,8 @@ public abstract class TEncoder {
      * Reset the encoder counts for this encoder
      */
     public void reset() {
+        resetSequence++;
+
         // set the offset for this encoder in order to
         // get the distance to zero
         // clear the previous offset
@@ -92,6 +154,18 @@ public abstract class TEncoder {
         // set the offset to the current encoder counts
         // in order to zero the output.
         offset = -get();
+
+        updateSampledCount();
+
+        resetSequence++;
+    }
+
+    @Override
+    public void sample(double timestamp) {
+        sampledCount = get();
+        sampledRate  = getRate();
+        sampleTime   = timestamp;
+        sampled      = true;
     }
 
     /**
@@ -101,9 +175,15 @@ public abstract class TEncoder {
      *            to set the encoder to
      */
     public void set(int encoderCount) {
+
+        resetSequence++;
+
         offset = 0;
         offset = -get() + encoderCount;
 
+        updateSampledCount();
+
+        resetSequence++;
     }
 
     /**
@@ -123,4 +203,14 @@ public abstract class TEncoder {
         }
     }
 
+    /**
+     * Update the sampled count after the offset is changed so that the current
+     * frame reflects the reset.
+     */
+    private void updateSampledCount() {
+        if (sampled) {
+            sampledCount = get();
+        }
+    }
+
 }
@@ -1,6 +1,8 @@
 package com.torontocodingcollective.sensors.gyro;
 
 import com.torontocodingcollective.TUtil;
+import com.torontocodingcollective.sensors.TSampledSensor;
+import com.torontocodingcollective.sensors.TSensorFrame;
 import edu.wpi.first.wpilibj.GyroBase;
 import edu.wpi.first.wpilibj.interfaces.Gyro;
 
@@ -12,12 +14,24 @@ import edu.wpi.first.wpilibj.interfaces.Gyro;
  * <p>
  * The TGyro class supports for clarity the methods of {@link Gyro} except for
  * the {@link #free()} method.
+ * <p>
+ * The gyro is sampled once per loop by the {@link TSensorFrame}. Use
+ * {@link #getSampledAngle()}, {@link #getSampledRate()} and
+ * {@link #getSampledPitch()} to get the values from the current frame without
+ * reading the gyro.
  */
-public abstract class TGyro extends GyroBase {
+public abstract class TGyro extends GyroBase implements TSampledSensor {
 
     private boolean isInverted;
     private double  offset = 0;
 
+    // Values from the last sensor frame
+    private boolean sampled      = false;
+    private double  sampledAngle = 0;
+    private double  sampledRate  = 0;
+    private double  sampledPitch = 0;
+    private double  sampleTime   = 0;
+
     /**
      * Construct a gyro with the specified inversion
      * 
@@ -159,6 +173,59 @@ public abstract class TGyro extends GyroBase {
         // of zero. Add the passed in angle
         // to make the desired angle
         offset += angle;
+
+        // Update the current frame to the new angle
+        if (sampled) {
+            sampledAngle = getAngle();
+        }
+    }
+
+    /**
+     * Get the angle from the current sensor frame
+     * 
+     * @return angle in degrees (0 <= angle < 360), or the current angle if the
+     *         gyro has not been sampled
+     */
+    public double getSampledAngle() {
+        return sampled ? sampledAngle : getAngle();
+    }
+
+    /**
+     * Get the pitch from the current sensor frame
+     * 
+     * @return pitch in degrees, or the current pitch if the gyro has not been
+     *         sampled
+     */
+    public double getSampledPitch() {
+        return sampled ? sampledPitch : getPitch();
+    }
+
+    /**
+     * Get the rate from the current sensor frame
+     * 
+     * @return rate in degrees/second, or the current rate if the gyro has not
+     *         been sampled
+     */
+    public double getSampledRate() {
+        return sampled ? sampledRate : getRate();
+    }
+
+    /**
+     * Get the time the gyro was sampled
+     * 
+     * @return FPGA timestamp in seconds
+     */
+    public double getSampleTime() {
+        return sampleTime;
+    }
+
+    @Override
+    public void sample(double timestamp) {
+        sampledAngle = getAngle();
+        sampledRate  = getRate();
+        sampledPitch = supportsPitch() ? getPitch() : 0;
+        sampleTime   = timestamp;
+        sampled      = true;
     }
 
     /**
@@ -1,11 +1,16 @@
 package com.torontocodingcollective.sensors.limitSwitch;
 
+import com.torontocodingcollective.sensors.TSampledSensor;
+import com.torontocodingcollective.sensors.TSensorFrame;
+
 import edu.wpi.first.wpilibj.DigitalInput;
 
 /**
  * TLimitSwitch implements a limit switch with the supplied default state
+ * <p>
+ * The switch is read once per loop by the {@link TSensorFrame}.
  */
-public class TLimitSwitch {
+public class TLimitSwitch implements TSampledSensor {
 
     public enum DefaultState {
         /** Digital input with {@code true} as the default state */
@@ -18,6 +23,11 @@ public class TLimitSwitch {
 
     public final DigitalInput limitSwitch;
 
+    // State from the last sensor frame
+    private boolean           sampled        = false;
+    private boolean           sampledAtLimit = false;
+    private double            sampleTime     = 0;
+
     public TLimitSwitch(int port, DefaultState defaultState) {
 
         limitSwitch = new DigitalInput(port);
@@ -30,7 +40,26 @@ public class TLimitSwitch {
     }
 
     public boolean atLimit() {
+        if (sampled) {
+            return sampledAtLimit;
+        }
         return limitSwitch.get() != defaultState;
     }
 
+    /**
+     * Get the time the switch was sampled
+     * 
+     * @return FPGA timestamp in seconds
+     */
+    public double getSampleTime() {
+        return sampleTime;
+    }
+
+    @Override
+    public void sample(double timestamp) {
+        sampledAtLimit = limitSwitch.get() != defaultState;
+        sampleTime     = timestamp;
+        sampled        = true;
+    }
+
 }
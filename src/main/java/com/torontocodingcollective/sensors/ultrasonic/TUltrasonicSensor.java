@@ -1,8 +1,11 @@
 package com.torontocodingcollective.sensors.ultrasonic;
 
+import com.torontocodingcollective.sensors.TSampledSensor;
+import com.torontocodingcollective.sensors.TSensorFrame;
+
 import edu.wpi.first.wpilibj.AnalogInput;
 
-public class TUltrasonicSensor {
+public class TUltrasonicSensor implements TSampledSensor {
 
     private double            v40;            // Use this voltage to determine "far" and "close" distance
 
@@ -10,6 +13,11 @@ public class TUltrasonicSensor {
 
     private final AnalogInput analogInput;
 
+    // Voltage from the last sensor frame
+    private boolean           sampled        = false;
+    private double            sampledVoltage = 0;
+    private double            sampleTime     = 0;
+
     public TUltrasonicSensor(int analogInputPort) {
         analogInput = new AnalogInput(analogInputPort);
     }
@@ -41,10 +49,28 @@ public class TUltrasonicSensor {
      * Get the underlying voltage for the ultrasonic distance sensor.
      * <p>
      * This voltage will help with calibration of the sensor.
+     * <p>
+     * The voltage is read once per loop by the {@link TSensorFrame}.
      * @return double Raw voltage of the sensor.
      */
     public double getRawVoltage() {
-    	return analogInput.getVoltage();
+    	return sampled ? sampledVoltage : analogInput.getVoltage();
+    }
+
+    /**
+     * Get the time the sensor was sampled
+     * 
+     * @return FPGA timestamp in seconds
+     */
+    public double getSampleTime() {
+        return sampleTime;
+    }
+
+    @Override
+    public void sample(double timestamp) {
+        sampledVoltage = analogInput.getVoltage();
+        sampleTime     = timestamp;
+        sampled        = true;
     }
     
     /***
@@ -55,7 +81,7 @@ public class TUltrasonicSensor {
     public double getDistance() {
 
         double distance = 0;
-        double voltage = analogInput.getVoltage();
+        double voltage = getRawVoltage();
 
         // The voltage is not really linear, so for far and close distance we have two
         // equations
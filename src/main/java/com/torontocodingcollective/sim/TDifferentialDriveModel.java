@@ -0,0 +1,193 @@
+package com.torontocodingcollective.sim;
+
+/**
+ * Differential Drive Model
+ * <p>
+ * Simple physics model of a left/right (skid steer) drive train.
+ * <p>
+ * Each side of the drive is driven by a DC motor with a linear torque/speed
+ * curve. The force on a side falls from full force at stall to zero at the
+ * free speed for the applied output. The forces accelerate the robot mass
+ * (linear inertia) and turn the robot (rotational inertia). Turning a skid
+ * steer robot drags the wheels sideways across the carpet, and this wheel
+ * scrub is modeled as a friction that opposes the rotation. The robot will not
+ * start to turn until the difference between the sides overcomes the scrub.
+ * <p>
+ * The heading follows the gyro convention where a positive rotation is
+ * clockwise (turning right).
+ */
+public class TDifferentialDriveModel {
+
+    private final double freeSpeed;
+    private final double linearTimeConstant;
+    private final double angularTimeConstant;
+    private final double trackWidth;
+    private final double scrubFactor;
+
+    // Wheel speeds and distances in inches
+    private double       leftVelocity  = 0;
+    private double       rightVelocity = 0;
+    private double       leftDistance  = 0;
+    private double       rightDistance = 0;
+
+    // Heading in degrees (clockwise positive) and position in inches
+    private double       heading       = 0;
+    private double       headingRate   = 0;
+    private double       x             = 0;
+    private double       y             = 0;
+
+    /**
+     * Differential Drive Model
+     * 
+     * @param freeSpeed
+     *            the free speed of each side in inches/second at full output
+     * @param linearTimeConstant
+     *            the time in seconds for the robot to reach 63% of the free
+     *            speed from a stop at full output (models the robot mass)
+     * @param angularTimeConstant
+     *            the time in seconds for the robot to reach 63% of the free
+     *            rotation speed from a stop when pivoting at full output (models
+     *            the rotational inertia)
+     * @param trackWidth
+     *            distance between the left and right wheels in inches
+     * @param scrubFactor
+     *            wheel scrub as a fraction of the full motor force (0 to 1). A
+     *            value of 0 is a robot that turns with no friction.
+     */
+    public TDifferentialDriveModel(double freeSpeed, double linearTimeConstant, double angularTimeConstant,
+            double trackWidth, double scrubFactor) {
+
+        this.freeSpeed           = freeSpeed;
+        this.linearTimeConstant  = linearTimeConstant;
+        this.angularTimeConstant = angularTimeConstant;
+        this.trackWidth          = trackWidth;
+        this.scrubFactor         = scrubFactor;
+    }
+
+    /**
+     * Update the model
+     * 
+     * @param dt
+     *            time step in seconds
+     * @param leftOutput
+     *            left motor output (-1.0 to 1.0)
+     * @param rightOutput
+     *            right motor output (-1.0 to 1.0)
+     */
+    public void update(double dt, double leftOutput, double rightOutput) {
+
+        leftOutput  = limit(leftOutput);
+        rightOutput = limit(rightOutput);
+
+        // Normalized motor force on each side from the motor curve
+        double leftForce  = leftOutput  - leftVelocity  / freeSpeed;
+        double rightForce = rightOutput - rightVelocity / freeSpeed;
+
+        // Split the wheel speeds into the forward speed and the turning speed
+        // (half the difference between the sides, positive clockwise)
+        double velocity     = (leftVelocity + rightVelocity) / 2.0;
+        double turnVelocity = (leftVelocity - rightVelocity) / 2.0;
+
+        velocity += freeSpeed / linearTimeConstant * (leftForce + rightForce) / 2.0 * dt;
+
+        // Wheel scrub opposes the rotation. When the robot is not turning,
+        // it does not start to turn until the turning force is larger than
+        // the scrub.
+        double turnForce = (leftForce - rightForce) / 2.0;
+
+        if (turnVelocity == 0 && Math.abs(turnForce) <= scrubFactor) {
+            turnForce = 0;
+        }
+        else {
+            double scrub = scrubFactor * Math.signum(turnVelocity != 0 ? turnVelocity : turnForce);
+
+            double newTurnVelocity = turnVelocity
+                    + freeSpeed / angularTimeConstant * (turnForce - scrub) * dt;
+
+            // Scrub can stop the rotation, but cannot reverse it
+            if (Math.signum(newTurnVelocity) != Math.signum(turnVelocity)
+                    && turnVelocity != 0
+                    && Math.abs(turnForce) <= scrubFactor) {
+                newTurnVelocity = 0;
+            }
+
+            turnVelocity = newTurnVelocity;
+        }
+
+        leftVelocity  = velocity + turnVelocity;
+        rightVelocity = velocity - turnVelocity;
+
+        leftDistance  += leftVelocity  * dt;
+        rightDistance += rightVelocity * dt;
+
+        headingRate = Math.toDegrees(2.0 * turnVelocity / trackWidth);
+        heading    += headingRate * dt;
+
+        x += velocity * Math.cos(Math.toRadians(heading)) * dt;
+        y += velocity * Math.sin(Math.toRadians(heading)) * dt;
+    }
+
+    private double limit(double output) {
+        if (output > 1.0) {
+            return 1.0;
+        }
+        if (output < -1.0) {
+            return -1.0;
+        }
+        return output;
+    }
+
+    /**
+     * Reset the model to a stopped robot at the origin with a heading of zero
+     */
+    public void reset() {
+        leftVelocity  = 0;
+        rightVelocity = 0;
+        leftDistance  = 0;
+        rightDistance = 0;
+        heading       = 0;
+        headingRate   = 0;
+        x             = 0;
+        y             = 0;
+    }
+
+    /** @return left side distance in inches */
+    public double getLeftDistance() {
+        return leftDistance;
+    }
+
+    /** @return right side distance in inches */
+    public double getRightDistance() {
+        return rightDistance;
+    }
+
+    /** @return left side speed in inches/second */
+    public double getLeftVelocity() {
+        return leftVelocity;
+    }
+
+    /** @return right side speed in inches/second */
+    public double getRightVelocity() {
+        return rightVelocity;
+    }
+
+    /** @return heading in degrees (clockwise positive, not normalized) */
+    public double getHeading() {
+        return heading;
+    }
+
+    /** @return heading rate in degrees/second (clockwise positive) */
+    public double getHeadingRate() {
+        return headingRate;
+    }
+
+    /** @return x position in inches (forward at a heading of zero) */
+    public double getX() {
+        return x;
+    }
+
+    /** @return y position in inches (right at a heading of zero) */
+    public double getY() {
+        return y;
+    }
+}
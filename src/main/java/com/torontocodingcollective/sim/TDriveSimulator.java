@@ -0,0 +1,144 @@
+package com.torontocodingcollective.sim;
+
+import java.util.List;
+
+import com.torontocodingcollective.oi.TOi;
+import com.torontocodingcollective.sensors.TSensorFrame;
+import com.torontocodingcollective.subsystem.TSubsystem;
+
+import edu.wpi.first.hal.sim.DriverStationSim;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Scheduler;
+
+/**
+ * Drive Simulator
+ * <p>
+ * Runs the robot loop (sensor frame, OI, scheduler, subsystems) against a
+ * {@link TSimDriveSubsystem} on a {@link TSimClock}. Each step runs one robot
+ * loop, applies the motor outputs to the drive model and advances the virtual
+ * clock.
+ * <p>
+ * The HAL must be initialized (using the desktop simulation HAL) before the
+ * simulator is used.
+ */
+public class TDriveSimulator {
+
+    private final TSimClock          clock;
+    private final TSimDriveSubsystem drive;
+    private final List<TSubsystem>   subsystemLs;
+    private final TOi                oi;
+
+    private final TSensorFrame       sensorFrame      = new TSensorFrame();
+
+    private final DriverStationSim   driverStationSim = new DriverStationSim();
+
+    /**
+     * Drive Simulator
+     * 
+     * @param clock
+     *            the virtual clock
+     * @param drive
+     *            the simulated drive subsystem
+     * @param subsystemLs
+     *            all of the subsystems to update on each loop (including the
+     *            drive subsystem)
+     * @param oi
+     *            the OI to update on each loop, or {@code null} if there is no
+     *            OI
+     */
+    public TDriveSimulator(TSimClock clock, TSimDriveSubsystem drive, List<TSubsystem> subsystemLs, TOi oi) {
+        this.clock       = clock;
+        this.drive       = drive;
+        this.subsystemLs = subsystemLs;
+        this.oi          = oi;
+
+        // Only the sensors of the simulated subsystems are sampled
+        for (TSubsystem subsystem : subsystemLs) {
+            subsystem.addSensors(sensorFrame);
+        }
+    }
+
+    /**
+     * Set the simulated robot mode
+     * <p>
+     * Commands only run when the robot is enabled.
+     * 
+     * @param enabled
+     *            {@code true} to enable the robot
+     * @param autonomous
+     *            {@code true} for autonomous, {@code false} for teleop
+     */
+    public void setEnabled(boolean enabled, boolean autonomous) {
+        driverStationSim.setDsAttached(true);
+        driverStationSim.setAutonomous(autonomous);
+        driverStationSim.setEnabled(enabled);
+        driverStationSim.notifyNewData();
+    }
+
+    /**
+     * Run one robot loop and advance the virtual clock
+     */
+    public void step() {
+
+        sensorFrame.sample();
+
+        if (oi != null) {
+            oi.updatePeriodic();
+        }
+
+        Scheduler.getInstance().run();
+
+        for (int i = 0; i < subsystemLs.size(); i++) {
+            subsystemLs.get(i).updatePeriodic();
+        }
+
+        drive.updateModel(clock.getStepSeconds());
+
+        clock.step();
+    }
+
+    /**
+     * Run the robot loop for the given time
+     * 
+     * @param seconds
+     *            virtual time to run
+     */
+    public void run(double seconds) {
+        double endTime = clock.getTime() + seconds;
+        while (clock.getTime() < endTime) {
+            step();
+        }
+    }
+
+    /**
+     * Start a command and run the robot loop until the command finishes
+     * 
+     * @param command
+     *            the command to run
+     * @param timeoutSeconds
+     *            the maximum virtual time to run
+     * @return {@code true} if the command finished, {@code false} if the timeout
+     *         expired before the command finished
+     */
+    public boolean runCommand(Command command, double timeoutSeconds) {
+
+        double endTime = clock.getTime() + timeoutSeconds;
+
+        // The command is running after the first scheduler run
+        command.start();
+        step();
+
+        while (command.isRunning()) {
+
+            if (clock.getTime() >= endTime) {
+                command.cancel();
+                step();
+                return false;
+            }
+
+            step();
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package com.torontocodingcollective.sim;
+
+import edu.wpi.first.hal.sim.SimHooks;
+
+/**
+ * Simulation Clock
+ * <p>
+ * Fixed step virtual clock used to run the robot code off the roboRIO.
+ * <p>
+ * When started, the simulated FPGA clock is paused, and it only advances when
+ * {@link #step()} is called. All code that uses the FPGA time (command
+ * timeouts, {@code Timer.getFPGATimestamp()}) runs on the virtual clock, so a
+ * simulation runs as fast as the computer can run the robot loop, and the
+ * results do not depend on the speed of the computer.
+ */
+public class TSimClock {
+
+    private final long stepMicros;
+
+    private long       timeMicros = 0;
+
+    /**
+     * Simulation clock
+     * 
+     * @param stepSeconds
+     *            the time to advance on every step (typically the robot loop
+     *            period of 0.02 seconds)
+     */
+    public TSimClock(double stepSeconds) {
+        this.stepMicros = Math.round(stepSeconds * 1000000.0);
+    }
+
+    /**
+     * Start the virtual clock by pausing the simulated FPGA clock
+     */
+    public void start() {
+        SimHooks.pauseTiming();
+    }
+
+    /**
+     * Advance the virtual clock by one step
+     */
+    public void step() {
+        timeMicros += stepMicros;
+        SimHooks.stepTiming(stepMicros);
+    }
+
+    /**
+     * Get the step time
+     * 
+     * @return step time in seconds
+     */
+    public double getStepSeconds() {
+        return stepMicros / 1000000.0;
+    }
+
+    /**
+     * Get the virtual time since the clock was created
+     * 
+     * @return time in seconds
+     */
+    public double getTime() {
+        return timeMicros / 1000000.0;
+    }
+}
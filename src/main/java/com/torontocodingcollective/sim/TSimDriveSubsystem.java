@@ -0,0 +1,83 @@
+package com.torontocodingcollective.sim;
+
+import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
+
+/**
+ * Simulated Drive Subsystem
+ * <p>
+ * A {@link TGyroDriveSubsystem} built from simulated speed controllers,
+ * encoders and gyro that are connected to a {@link TDifferentialDriveModel}.
+ * All of the drive subsystem and PID logic runs exactly as it does on the
+ * robot.
+ * <p>
+ * Call {@link #updateModel(double)} after the subsystem updatePeriodic to apply
+ * the motor outputs to the model.
+ */
+public class TSimDriveSubsystem extends TGyroDriveSubsystem {
+
+    private final TDifferentialDriveModel model;
+
+    /**
+     * Simulated drive subsystem
+     * 
+     * @param model
+     *            drive model
+     * @param encoderCountsPerInch
+     *            encoder counts per inch
+     * @param encoderRateScale
+     *            scale applied to the encoder rate in counts/second to match
+     *            the units of the robot encoders
+     * @param speedKP
+     *            speed PID proportional gain
+     * @param speedKI
+     *            speed PID integral gain
+     * @param maxEncoderSpeed
+     *            max encoder speed used to normalize the speed PID input
+     * @param gyroKP
+     *            gyro PID proportional gain
+     * @param gyroKI
+     *            gyro PID integral gain
+     * @param maxRotationOutput
+     *            max rotation output
+     */
+    public TSimDriveSubsystem(TDifferentialDriveModel model,
+            double encoderCountsPerInch, double encoderRateScale,
+            double speedKP, double speedKI, double maxEncoderSpeed,
+            double gyroKP, double gyroKI, double maxRotationOutput) {
+
+        super(new TSimSpeedController(), new TSimSpeedController(), 
+                new TSimGyro(model), gyroKP, gyroKI, maxRotationOutput);
+
+        this.model = model;
+
+        setEncoders(
+                new TSimEncoder(model, TSide.LEFT,  encoderCountsPerInch, encoderRateScale), TConst.NOT_INVERTED,
+                new TSimEncoder(model, TSide.RIGHT, encoderCountsPerInch, encoderRateScale), TConst.NOT_INVERTED,
+                encoderCountsPerInch, speedKP, speedKI, maxEncoderSpeed);
+    }
+
+    public TDifferentialDriveModel getModel() {
+        return model;
+    }
+
+    /**
+     * Apply the current motor outputs to the drive model
+     * 
+     * @param dt
+     *            time step in seconds
+     */
+    public void updateModel(double dt) {
+        model.update(dt, 
+                getSpeedController(TSide.LEFT).get(), 
+                getSpeedController(TSide.RIGHT).get());
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    protected void initDefaultCommand() {
+    }
+}
@@ -0,0 +1,53 @@
+package com.torontocodingcollective.sim;
+
+import com.torontocodingcollective.sensors.encoder.TEncoder;
+import com.torontocodingcollective.subsystem.TDriveSubsystem.TSide;
+
+/**
+ * Simulated Encoder
+ * <p>
+ * Encoder that reads the wheel distance and speed of one side of a
+ * {@link TDifferentialDriveModel}.
+ */
+public class TSimEncoder extends TEncoder {
+
+    private final TDifferentialDriveModel model;
+    private final TSide                   side;
+    private final double                  countsPerInch;
+    private final double                  rateScale;
+
+    /**
+     * Simulated Encoder
+     * 
+     * @param model
+     *            drive model
+     * @param side
+     *            side of the drive for this encoder
+     * @param countsPerInch
+     *            encoder counts per inch of travel
+     * @param rateScale
+     *            scale applied to the rate in counts/second to match the units
+     *            of the real encoder. For example, encoders attached to a
+     *            TalonSRX report the rate in counts/100ms so the rate scale is
+     *            0.1.
+     */
+    public TSimEncoder(TDifferentialDriveModel model, TSide side, double countsPerInch, double rateScale) {
+        super(false);
+        this.model         = model;
+        this.side          = side;
+        this.countsPerInch = countsPerInch;
+        this.rateScale     = rateScale;
+    }
+
+    @Override
+    public int get() {
+        double distance = side == TSide.LEFT ? model.getLeftDistance() : model.getRightDistance();
+        return super.get((int) Math.round(distance * countsPerInch));
+    }
+
+    @Override
+    public double getRate() {
+        double velocity = side == TSide.LEFT ? model.getLeftVelocity() : model.getRightVelocity();
+        return super.getRate(velocity * countsPerInch * rateScale);
+    }
+}
@@ -0,0 +1,33 @@
+package com.torontocodingcollective.sim;
+
+import com.torontocodingcollective.sensors.gyro.TGyro;
+
+/**
+ * Simulated Gyro
+ * <p>
+ * Gyro that reads the heading of a {@link TDifferentialDriveModel}.
+ */
+public class TSimGyro extends TGyro {
+
+    private final TDifferentialDriveModel model;
+
+    public TSimGyro(TDifferentialDriveModel model) {
+        super(false);
+        this.model = model;
+    }
+
+    @Override
+    public void calibrate() {
+        // Nothing to calibrate
+    }
+
+    @Override
+    public double getAngle() {
+        return super.getAngle(model.getHeading());
+    }
+
+    @Override
+    public double getRate() {
+        return super.getRate(model.getHeadingRate());
+    }
+}
@@ -0,0 +1,30 @@
+package com.torontocodingcollective.sim;
+
+import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.speedcontroller.TSpeedController;
+
+/**
+ * Simulated Speed Controller
+ * <p>
+ * Holds the output set by the robot code so that it can be applied to a
+ * {@link TDifferentialDriveModel}. Simulated motors are always mounted in the
+ * forward direction, so the controller is never inverted.
+ */
+public class TSimSpeedController extends TSpeedController {
+
+    private double speed = 0;
+
+    public TSimSpeedController() {
+        super(TConst.NOT_INVERTED);
+    }
+
+    @Override
+    public double get() {
+        return speed;
+    }
+
+    @Override
+    public void set(double speed) {
+        this.speed = speed;
+    }
+}
@@ -5,6 +5,7 @@ import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.VictorSPX;
 import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.pid.TSpeedPID;
 import com.torontocodingcollective.sensors.encoder.TCanEncoder;
 import com.torontocodingcollective.sensors.encoder.TEncoder;
 
@@ -32,6 +33,31 @@ public class TCanSpeedController extends TSpeedController {
 
     private double                    speedSetpoint = 0;
 
+    /** PID slot used for the onboard velocity closed loop */
+    private static final int          VELOCITY_SLOT        = 0;
+
+    /**
+     * Timeout used when first configuring the onboard closed loop. Changes to
+     * the gains while the robot is running are sent without waiting (timeout
+     * of 0) so that the robot loop is not blocked.
+     */
+    private static final int          CONFIG_TIMEOUT_MS    = 10;
+
+    /** Full output in the units used by the TalonSRX closed loop */
+    private static final double       TALON_FULL_OUTPUT    = 1023.0;
+
+    /**
+     * The TalonSRX closed loop runs every 1ms, and the {@link TSpeedPID}
+     * integral gain is tuned for the 20ms robot loop
+     */
+    private static final double       TALON_LOOPS_PER_ROBOT_LOOP = 20.0;
+
+    private volatile double           maxEncoderSpeed      = 0;
+    private volatile boolean          velocityClosedLoop   = false;
+
+    /** The encoder attached to the TalonSRX */
+    private TCanEncoder               encoder              = null;
+
     /**
      * CAN Speed Controller
      * <p>
@@ -168,11 +194,15 @@ public class TCanSpeedController extends TSpeedController {
      * 
      * @return TEncoder attached to this TalonSRX, or {@code null} if this is not a
      *         TalonSRX device. The encoder is assumed to be a quadrature encoder.
+     *         The same encoder is returned on each call.
      */
     @Override
     public TEncoder getEncoder() {
         if (this.canSpeedController instanceof TalonSRX) {
-            return new TCanEncoder((TalonSRX) canSpeedController, getInverted());
+            if (encoder == null) {
+                encoder = new TCanEncoder((TalonSRX) canSpeedController, getInverted());
+            }
+            return encoder;
         }
         return null;
     }
@@ -198,6 +228,88 @@ public class TCanSpeedController extends TSpeedController {
         }
     }
 
+    /**
+     * Configure the TalonSRX velocity closed loop using the {@link TSpeedPID}
+     * gains.
+     * <p>
+     * The TalonSRX closed loop uses the native encoder units (counts/100ms) and
+     * an output of 1023 for full output. The {@link TSpeedPID} uses a normalized
+     * speed (rate/maxEncoderSpeed) with a feed forward of 1.0, so the gains are
+     * converted as follows: <br>
+     * kF = 1023 * feedForward / maxEncoderSpeed <br>
+     * kP = 1023 * kP / maxEncoderSpeed <br>
+     * kI = 1023 * kI / (20 * maxEncoderSpeed) <br>
+     * The integral accumulator is limited to full output to avoid wind-up.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean configVelocityClosedLoop(double kP, double kI, double feedForward,
+            double maxEncoderSpeed, boolean sensorOutOfPhase) {
+
+        if (!supportsVelocityClosedLoop()) {
+            return super.configVelocityClosedLoop(kP, kI, feedForward, maxEncoderSpeed, sensorOutOfPhase);
+        }
+
+        if (maxEncoderSpeed <= 0) {
+            System.out.println("Cannot configure velocity closed loop with max encoder speed " + maxEncoderSpeed);
+            return false;
+        }
+
+        double talonKP = TALON_FULL_OUTPUT * kP / maxEncoderSpeed;
+        double talonKI = TALON_FULL_OUTPUT * kI / (TALON_LOOPS_PER_ROBOT_LOOP * maxEncoderSpeed);
+        double talonKF = TALON_FULL_OUTPUT * feedForward / maxEncoderSpeed;
+
+        // Only wait for the TalonSRX to confirm the first configuration
+        int timeoutMs = this.maxEncoderSpeed > 0 ? 0 : CONFIG_TIMEOUT_MS;
+
+        canSpeedController.config_kF(VELOCITY_SLOT, talonKF, timeoutMs);
+        canSpeedController.config_kP(VELOCITY_SLOT, talonKP, timeoutMs);
+        canSpeedController.config_kI(VELOCITY_SLOT, talonKI, timeoutMs);
+        canSpeedController.config_kD(VELOCITY_SLOT, 0, timeoutMs);
+        canSpeedController.configMaxIntegralAccumulator(VELOCITY_SLOT,
+                talonKI == 0 ? 0 : TALON_FULL_OUTPUT / talonKI, timeoutMs);
+        canSpeedController.selectProfileSlot(VELOCITY_SLOT, 0);
+
+        // The encoder inversion is done in software, the TalonSRX
+        // must see the sensor moving in the same direction as the output.
+        // The sensor phase also flips the encoder readings, which the
+        // encoder flips back.
+        setSensorPhase(sensorOutOfPhase);
+
+        this.maxEncoderSpeed = maxEncoderSpeed;
+        velocityClosedLoop   = true;
+
+        return true;
+    }
+
+    /**
+     * Restore the TalonSRX sensor phase so that the sensor reads the same as
+     * before the velocity closed loop was configured.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void disableVelocityClosedLoop() {
+
+        if (!velocityClosedLoop) {
+            return;
+        }
+
+        velocityClosedLoop = false;
+
+        setSensorPhase(false);
+    }
+
+    private void setSensorPhase(boolean sensorPhase) {
+
+        canSpeedController.setSensorPhase(sensorPhase);
+
+        if (encoder != null) {
+            encoder.setSensorPhase(sensorPhase);
+        }
+    }
+
     @Override
     public void set(double speed) {
 
@@ -209,4 +321,39 @@ public class TCanSpeedController extends TSpeedController {
         canSpeedController.set(ControlMode.PercentOutput, speed);
     }
 
+    /**
+     * Set the speed using the TalonSRX velocity closed loop.
+     * <p>
+     * The closed loop must be configured using
+     * {@link #configVelocityClosedLoop(double, double, double, double, boolean)}
+     * before it is used, otherwise the speed is used as the motor output.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void setVelocity(double speed) {
+
+        if (!velocityClosedLoop) {
+            set(speed);
+            return;
+        }
+
+        speedSetpoint = speed;
+
+        if (getInverted()) {
+            speed = -speed;
+        }
+        canSpeedController.set(ControlMode.Velocity, speed * maxEncoderSpeed);
+    }
+
+    /**
+     * Only a TalonSRX has an encoder input for the velocity closed loop
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsVelocityClosedLoop() {
+        return canSpeedController instanceof TalonSRX;
+    }
+
 }
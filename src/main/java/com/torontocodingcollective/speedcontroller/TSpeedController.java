@@ -33,7 +33,8 @@ public abstract class TSpeedController implements SpeedController {
      * NOTE: This routine is not used in the TorontoFramework but is provided for
      * compile reasons to support the {@link SpeedController} interface and in case
      * a TSpeedController is used in a wpilib {@link PIDController}. It is
-     * recommended instead to use the TorontoJar {@link TSpeedPID} instead
+     * recommended instead to use the TorontoJar {@link TSpeedPID}, which does
+     * not start a control loop thread
      */
     @Override
     public void pidWrite(double output) {
@@ -53,6 +54,65 @@ public abstract class TSpeedController implements SpeedController {
         set(0);
     }
 
+    /**
+     * Configure the onboard velocity closed loop on this speed controller.
+     * <p>
+     * The gains are the {@link TSpeedPID} gains, which are converted to the
+     * units used by the speed controller.
+     * 
+     * @param kP
+     *            proportional gain of the {@link TSpeedPID}
+     * @param kI
+     *            integral gain of the {@link TSpeedPID} (tuned for the 20ms loop)
+     * @param feedForward
+     *            the output for a normalized speed of 1.0 (the {@link TSpeedPID}
+     *            feed forward of 1.0 multiplied by any speed adjustment)
+     * @param maxEncoderSpeed
+     *            the max encoder rate used to normalize the speed
+     * @param sensorOutOfPhase
+     *            {@code true} if the attached encoder counts down when the motor
+     *            is driven forward
+     * @return {@code true} if the closed loop was configured, {@code false} if
+     *         this device does not support an onboard velocity closed loop
+     */
+    public boolean configVelocityClosedLoop(double kP, double kI, double feedForward,
+            double maxEncoderSpeed, boolean sensorOutOfPhase) {
+        System.out.println("Velocity closed loop is not supported for " + this.getClass().getName());
+        return false;
+    }
+
+    /**
+     * Set the speed using the onboard velocity closed loop.
+     * <p>
+     * If the onboard velocity closed loop is not supported, the speed is used
+     * as the motor output.
+     * 
+     * @param speed
+     *            normalized speed setpoint (-1.0 to 1.0)
+     */
+    public void setVelocity(double speed) {
+        set(speed);
+    }
+
+    /**
+     * Stop using the onboard velocity closed loop.
+     * <p>
+     * Any settings changed on the device for the closed loop (for example the
+     * sensor phase) are restored.
+     */
+    public void disableVelocityClosedLoop() {
+    }
+
+    /**
+     * Determine if this speed controller has an onboard velocity closed loop
+     * 
+     * @return {@code true} if {@link #configVelocityClosedLoop} is supported,
+     *         {@code false} otherwise
+     */
+    public boolean supportsVelocityClosedLoop() {
+        return false;
+    }
+
     /**
      * Get the encoder attached to this TSpeedController
      * <p>
@@ -12,4 +12,22 @@ public class TSpeeds {
         this.left = leftSpeed;
         this.right = rightSpeed;
     }
+
+    /**
+     * Set the left and right speeds
+     * <p>
+     * Used to reuse a TSpeeds object instead of allocating a new one on each
+     * loop.
+     * 
+     * @param leftSpeed
+     *            left speed
+     * @param rightSpeed
+     *            right speed
+     * @return this TSpeeds object
+     */
+    public TSpeeds set(double leftSpeed, double rightSpeed) {
+        this.left = leftSpeed;
+        this.right = rightSpeed;
+        return this;
+    }
 }
@@ -0,0 +1,115 @@
+package com.torontocodingcollective.subsystem;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Double Buffer
+ * <p>
+ * Lock free hand off of a group of values from one writer thread to one or
+ * more reader threads. The writer always writes into the buffer that is not
+ * currently published, and then publishes it by incrementing a volatile
+ * sequence number.
+ * <p>
+ * The reader copies the published buffer and then checks that the sequence
+ * number has not changed. If the writer published twice during the copy (which
+ * would overwrite the buffer being copied), the copy is retried. The writer
+ * never waits for a reader.
+ * <p>
+ * Only one thread may call {@link #publish(Copyable)}.
+ * <p>
+ * Nothing is allocated after construction.
+ *
+ * @param <T>
+ *            type of values held in the buffer
+ */
+public class TDoubleBuffer<T extends TDoubleBuffer.Copyable<T>> {
+
+    /**
+     * Values that can be held in a {@link TDoubleBuffer}
+     *
+     * @param <T>
+     *            the implementing type
+     */
+    public interface Copyable<T> {
+
+        /**
+         * Copy all values from the source into this object
+         *
+         * @param source
+         *            values to copy
+         */
+        void copyFrom(T source);
+    }
+
+    private final T       buffer0;
+    private final T       buffer1;
+
+    /** The buffer with the same parity as the sequence is the published buffer */
+    private volatile long sequence = 0;
+
+    /**
+     * Double Buffer
+     * <p>
+     * The values in the first buffer are the initially published values.
+     *
+     * @param buffer0
+     *            first buffer
+     * @param buffer1
+     *            second buffer (must be a different object)
+     */
+    public TDoubleBuffer(T buffer0, T buffer1) {
+        this.buffer0 = buffer0;
+        this.buffer1 = buffer1;
+    }
+
+    /**
+     * Get the number of times the values were published
+     *
+     * @return publish count
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Publish a copy of the values
+     * <p>
+     * This routine must only be called from the single writer thread.
+     *
+     * @param values
+     *            values to publish
+     */
+    public void publish(T values) {
+
+        long next = sequence + 1;
+
+        // Write into the unpublished buffer, then publish it
+        ((next & 1) == 0 ? buffer0 : buffer1).copyFrom(values);
+
+        sequence = next;
+    }
+
+    /**
+     * Copy the most recently published values
+     *
+     * @param target
+     *            object that receives a copy of the values
+     * @return the sequence number of the copied values
+     */
+    public long read(T target) {
+
+        while (true) {
+
+            long seq = sequence;
+
+            target.copyFrom((seq & 1) == 0 ? buffer0 : buffer1);
+
+            // The copy must complete before the sequence is checked
+            VarHandle.loadLoadFence();
+
+            if (sequence == seq) {
+                return seq;
+            }
+        }
+    }
+}
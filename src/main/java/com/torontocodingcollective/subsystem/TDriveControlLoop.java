@@ -0,0 +1,125 @@
+package com.torontocodingcollective.subsystem;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+/**
+ * Drive Control Loop
+ * <p>
+ * Runs the drive speed and gyro PIDs on a {@link Notifier} thread at a higher
+ * rate than the 50Hz command scheduler.
+ * <p>
+ * The commands on the main robot thread set the drive setpoints, which are
+ * handed to the control thread through a {@link TDoubleBuffer}. On each
+ * control update, the control thread applies the latest setpoints, runs the
+ * PIDs, writes the speed controller outputs and publishes a
+ * {@link TDriveStatus} back to the main robot thread through a second
+ * {@link TDoubleBuffer}. Neither thread ever waits for the other.
+ * <p>
+ * The control loop is created and started using
+ * {@link TDriveSubsystem#startControlLoop(double)}.
+ */
+public class TDriveControlLoop {
+
+    private final TDriveSubsystem               drive;
+    private final double                        periodSeconds;
+    private final Notifier                      notifier;
+
+    private final TDoubleBuffer<TDriveSetpoints> setpointBuffer =
+            new TDoubleBuffer<>(new TDriveSetpoints(), new TDriveSetpoints());
+    private final TDoubleBuffer<TDriveStatus>    statusBuffer   =
+            new TDoubleBuffer<>(new TDriveStatus(), new TDriveStatus());
+
+    // Control thread copies
+    private final TDriveSetpoints               loopSetpoints  = new TDriveSetpoints();
+    private final TDriveStatus                  loopStatus     = new TDriveStatus();
+
+    private volatile boolean                    running        = false;
+
+    TDriveControlLoop(TDriveSubsystem drive, double periodSeconds) {
+        this.drive         = drive;
+        this.periodSeconds = periodSeconds;
+        this.notifier      = new Notifier(this::update);
+    }
+
+    /**
+     * Get the control loop period
+     *
+     * @return period in seconds
+     */
+    public double getPeriod() {
+        return periodSeconds;
+    }
+
+    /**
+     * Get the number of control updates since the loop was started
+     *
+     * @return update count
+     */
+    public long getUpdateCount() {
+        return statusBuffer.getSequence();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Publish new setpoints to the control thread
+     * <p>
+     * This routine must only be called from the main robot thread.
+     *
+     * @param setpoints
+     *            the setpoints to copy
+     */
+    void publishSetpoints(TDriveSetpoints setpoints) {
+        setpointBuffer.publish(setpoints);
+    }
+
+    /**
+     * Copy the latest status published by the control thread
+     *
+     * @param status
+     *            receives a copy of the status
+     */
+    void readStatus(TDriveStatus status) {
+        statusBuffer.read(status);
+    }
+
+    void start(TDriveSetpoints setpoints) {
+
+        if (running) {
+            return;
+        }
+
+        publishSetpoints(setpoints);
+
+        running = true;
+        notifier.startPeriodic(periodSeconds);
+
+        System.out.println("Drive control loop started at " + Math.round(1.0 / periodSeconds) + "Hz");
+    }
+
+    void stop() {
+
+        if (!running) {
+            return;
+        }
+
+        notifier.stop();
+        running = false;
+    }
+
+    /*
+     * Control thread
+     */
+    private void update() {
+
+        setpointBuffer.read(loopSetpoints);
+
+        drive.applySetpoints(loopSetpoints);
+        drive.updateControl();
+        drive.updateStatus(loopStatus);
+
+        statusBuffer.publish(loopStatus);
+    }
+}
@@ -0,0 +1,53 @@
+package com.torontocodingcollective.subsystem;
+
+import com.torontocodingcollective.subsystem.TDriveSubsystem.SpeedPidMode;
+import com.torontocodingcollective.subsystem.TGyroDriveSubsystem.Mode;
+
+/**
+ * Drive Setpoints
+ * <p>
+ * The setpoints requested by the commands running on the main robot thread.
+ * When the drive control loop is running, the setpoints are handed to the
+ * control loop thread through a {@link TDoubleBuffer}.
+ */
+public class TDriveSetpoints implements TDoubleBuffer.Copyable<TDriveSetpoints> {
+
+    /** Left and right speed set using {@link TDriveSubsystem#setSpeed(double, double)} */
+    public double  leftSpeed        = 0;
+    public double  rightSpeed       = 0;
+
+    /** Speed adjust set using {@link TDriveSubsystem#setSpeedAdjust(double, double)} */
+    public double  leftSpeedAdjust  = 1.0;
+    public double  rightSpeedAdjust = 1.0;
+
+    public boolean speedPidsEnabled = false;
+
+    /** Where the speed PIDs are run */
+    public SpeedPidMode speedPidMode = SpeedPidMode.ROBORIO;
+
+    /** Gyro PID mode, heading and speed (only used by a {@link TGyroDriveSubsystem}) */
+    public Mode    gyroMode         = Mode.DISABLED;
+    public double  gyroHeading      = 0;
+    public double  gyroSpeed        = 0;
+
+    /** Odometry position set using {@link TGyroDriveSubsystem#setPosition(double, double)} */
+    public int     positionSequence = 0;
+    public double  positionX        = 0;
+    public double  positionY        = 0;
+
+    @Override
+    public void copyFrom(TDriveSetpoints source) {
+        leftSpeed        = source.leftSpeed;
+        rightSpeed       = source.rightSpeed;
+        leftSpeedAdjust  = source.leftSpeedAdjust;
+        rightSpeedAdjust = source.rightSpeedAdjust;
+        speedPidsEnabled = source.speedPidsEnabled;
+        speedPidMode     = source.speedPidMode;
+        gyroMode         = source.gyroMode;
+        gyroHeading      = source.gyroHeading;
+        gyroSpeed        = source.gyroSpeed;
+        positionSequence = source.positionSequence;
+        positionX        = source.positionX;
+        positionY        = source.positionY;
+    }
+}
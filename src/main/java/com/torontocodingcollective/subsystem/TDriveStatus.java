@@ -0,0 +1,55 @@
+package com.torontocodingcollective.subsystem;
+
+/**
+ * Drive Status
+ * <p>
+ * A snapshot of the drive PID and output values taken at the end of a control
+ * update. When the drive control loop is running, the status is handed back to
+ * the main robot thread through a {@link TDoubleBuffer} and is used for the
+ * telemetry and the flight recorder.
+ */
+public class TDriveStatus implements TDoubleBuffer.Copyable<TDriveStatus> {
+
+    /** The last speeds set on the motors (before the speed PIDs) */
+    public double  leftSpeedCmd      = 0;
+    public double  rightSpeedCmd     = 0;
+
+    public boolean speedPidsEnabled  = false;
+    public double  leftPidSetpoint   = 0;
+    public double  leftPidError      = 0;
+    public double  leftPidOutput     = 0;
+    public double  rightPidSetpoint  = 0;
+    public double  rightPidError     = 0;
+    public double  rightPidOutput    = 0;
+
+    /** Speed controller outputs */
+    public double  leftOutput        = 0;
+    public double  rightOutput       = 0;
+
+    /** Gyro PID values (only used by a {@link TGyroDriveSubsystem}) */
+    public boolean gyroPidEnabled    = false;
+    public double  gyroPidSetpoint   = 0;
+    public double  gyroPidError      = 0;
+    public double  gyroPidOutput     = 0;
+    public double  steering          = 0;
+
+    @Override
+    public void copyFrom(TDriveStatus source) {
+        leftSpeedCmd     = source.leftSpeedCmd;
+        rightSpeedCmd    = source.rightSpeedCmd;
+        speedPidsEnabled = source.speedPidsEnabled;
+        leftPidSetpoint  = source.leftPidSetpoint;
+        leftPidError     = source.leftPidError;
+        leftPidOutput    = source.leftPidOutput;
+        rightPidSetpoint = source.rightPidSetpoint;
+        rightPidError    = source.rightPidError;
+        rightPidOutput   = source.rightPidOutput;
+        leftOutput       = source.leftOutput;
+        rightOutput      = source.rightOutput;
+        gyroPidEnabled   = source.gyroPidEnabled;
+        gyroPidSetpoint  = source.gyroPidSetpoint;
+        gyroPidError     = source.gyroPidError;
+        gyroPidOutput    = source.gyroPidOutput;
+        steering         = source.steering;
+    }
+}
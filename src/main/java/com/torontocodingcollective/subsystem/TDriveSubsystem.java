@@ -1,11 +1,24 @@
 package com.torontocodingcollective.subsystem;
 
+import java.util.function.DoubleSupplier;
+
 import com.torontocodingcollective.TUtil;
+import com.torontocodingcollective.pid.TPIDGains;
+import com.torontocodingcollective.pid.TPIDSendable;
 import com.torontocodingcollective.pid.TSpeedPID;
+import com.torontocodingcollective.recorder.TFlightRecorder;
+import com.torontocodingcollective.recorder.TRecordable;
+import com.torontocodingcollective.sensors.TSensorFrame;
 import com.torontocodingcollective.sensors.encoder.TEncoder;
 import com.torontocodingcollective.speedcontroller.TSpeedController;
 import com.torontocodingcollective.speedcontroller.TSpeeds;
+import com.torontocodingcollective.telemetry.TTelemetry;
+import com.torontocodingcollective.telemetry.TTelemetryBoolean;
+import com.torontocodingcollective.telemetry.TTelemetryNumber;
+import com.torontocodingcollective.telemetry.TTelemetryRate;
+import com.torontocodingcollective.telemetry.TTelemetryString;
 
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
@@ -13,10 +26,28 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
  * <p>
  * The DriveSubsystem is a left right drive with encoders on each side of the
  * drive train. The DriveSubsystm can be used with drive PIDs on or off.
+ * <p>
+ * By default, the drive PIDs are updated in {@link #updatePeriodic()} on the
+ * main robot thread. The PIDs can optionally be run at a higher rate on a
+ * separate thread using {@link #startControlLoop(double)}. When the control
+ * loop is running, the setpoints set by the commands are handed to the control
+ * loop, and the control loop owns the PIDs and the speed controller outputs.
+ * <p>
+ * The speed PIDs can be calculated on the RoboRio, or can be run on the speed
+ * controllers (TalonSRX velocity closed loop) using
+ * {@link #setSpeedPidMode(SpeedPidMode)}. The same {@link #setSpeed(TSpeeds)}
+ * interface is used in both modes.
  */
-public abstract class TDriveSubsystem extends TSubsystem {
+public abstract class TDriveSubsystem extends TSubsystem implements TRecordable {
 
     public enum TSide { LEFT, RIGHT }
+
+    public enum SpeedPidMode {
+        /** Speed PIDs are calculated on the RoboRio */
+        ROBORIO,
+        /** Speed PIDs run on the speed controllers (onboard velocity closed loop) */
+        MOTOR_CONTROLLER
+    }
     
     protected final TSpeedController leftSpeedController;
     protected final TSpeedController rightSpeedController;
@@ -33,9 +64,51 @@ public abstract class TDriveSubsystem extends TSubsystem {
     private double                   leftSpeedAdjust = 1.0;
     private double                   rightSpeedAdjust = 1.0;
 
+    /** Speed adjust used on the thread that owns the PIDs */
+    private double                   controlLeftSpeedAdjust  = 1.0;
+    private double                   controlRightSpeedAdjust = 1.0;
+
     boolean                          speedPidsEnabled     = false;
+
+    private SpeedPidMode             speedPidMode         = SpeedPidMode.ROBORIO;
+    private SpeedPidMode             rejectedSpeedPidMode = null;
+
+    /** Speed PID mode used on the thread that owns the PIDs */
+    private SpeedPidMode             controlSpeedPidMode  = SpeedPidMode.ROBORIO;
+
+    /** The gains last sent to the speed controllers */
+    private TPIDGains                configuredLeftGains  = null;
+    private TPIDGains                configuredRightGains = null;
+    private double                   configuredMaxEncoderSpeed = 0;
+    private double                   configuredLeftSpeedAdjust = 1.0;
+    private double                   configuredRightSpeedAdjust = 1.0;
     
-    long                             robotStoppedInstant  = -1;
+    double                           robotStoppedInstant  = -1;
+
+    /** The last speeds set on this subsystem */
+    private final TSpeeds            commandedSpeeds      = new TSpeeds();
+
+    /** Setpoints set by the commands on the main robot thread */
+    final TDriveSetpoints            setpoints            = new TDriveSetpoints();
+
+    /** The drive status used by the telemetry and the flight recorder */
+    protected final TDriveStatus     status               = new TDriveStatus();
+
+    private TDriveControlLoop        controlLoop          = null;
+
+    // Telemetry
+    private final TTelemetryNumber   leftEncDistTelemetry;
+    private final TTelemetryNumber   leftEncSpeedTelemetry;
+    private final TTelemetryNumber   rightEncDistTelemetry;
+    private final TTelemetryNumber   rightEncSpeedTelemetry;
+    private final TTelemetryNumber   avgEncDistTelemetry;
+    private final TTelemetryNumber   avgEncSpeedTelemetry;
+    private final TTelemetryNumber   distInchesTelemetry;
+    private final TTelemetryBoolean  speedPidsActiveTelemetry;
+    private final TTelemetryString   speedPidModeTelemetry;
+    private final TTelemetryNumber   leftOutputTelemetry;
+    private final TTelemetryNumber   rightOutputTelemetry;
+    private final TTelemetryNumber   stoppedTimeTelemetry;
 
     /**
      * Drive subsystem with left/right drive.
@@ -97,6 +170,244 @@ public abstract class TDriveSubsystem extends TSubsystem {
         rightSpeedPid = new TSpeedPID(kP, kI);
 
         speedPidsEnabled = false;
+
+        // The PID sendables are updated by the SmartDashboard on every
+        // loop once they are added, so they only need to be put once.
+        SmartDashboard.putData("LeftPid", new TPIDSendable(leftSpeedPid));
+        SmartDashboard.putData("RightPid", new TPIDSendable(rightSpeedPid));
+
+        leftEncDistTelemetry     = TTelemetry.addNumber("L Enc Dist",   TTelemetryRate.DIAGNOSTIC, 0);
+        leftEncSpeedTelemetry    = TTelemetry.addNumber("L Enc Speed",  TTelemetryRate.DIAGNOSTIC, 1);
+        rightEncDistTelemetry    = TTelemetry.addNumber("R Enc Dist",   TTelemetryRate.DIAGNOSTIC, 0);
+        rightEncSpeedTelemetry   = TTelemetry.addNumber("R Enc Speed",  TTelemetryRate.DIAGNOSTIC, 1);
+        avgEncDistTelemetry      = TTelemetry.addNumber("AvgEnc Dist",  TTelemetryRate.DEBUG,      0);
+        avgEncSpeedTelemetry     = TTelemetry.addNumber("AvgEnc Speed", TTelemetryRate.DEBUG,      1);
+        distInchesTelemetry      = TTelemetry.addNumber("Dist Inches",  TTelemetryRate.DIAGNOSTIC, .01);
+        speedPidsActiveTelemetry = TTelemetry.addBoolean("Speed PIDs Active", TTelemetryRate.DIAGNOSTIC);
+        speedPidModeTelemetry    = TTelemetry.addString ("Speed PID Mode",    TTelemetryRate.DIAGNOSTIC);
+        leftOutputTelemetry      = TTelemetry.addNumber("Left Output",  TTelemetryRate.CONTROL,    .005);
+        rightOutputTelemetry     = TTelemetry.addNumber("Right Output", TTelemetryRate.CONTROL,    .005);
+        stoppedTimeTelemetry     = TTelemetry.addNumber("Stopped Time", TTelemetryRate.DIAGNOSTIC, .05);
+    }
+
+    // Flight recorder field ids
+    private int leftEncCountField;
+    private int leftEncRateField;
+    private int rightEncCountField;
+    private int rightEncRateField;
+    private int leftSpeedCmdField;
+    private int rightSpeedCmdField;
+    private int speedPidsEnabledField;
+    private int leftPidSetpointField;
+    private int leftPidErrorField;
+    private int leftPidOutputField;
+    private int rightPidSetpointField;
+    private int rightPidErrorField;
+    private int rightPidOutputField;
+    private int leftOutputField;
+    private int rightOutputField;
+    private int leftSpeedAdjustField;
+    private int rightSpeedAdjustField;
+
+    @Override
+    public void addRecordFields(TFlightRecorder recorder) {
+        leftEncCountField     = recorder.addField("L Enc Count");
+        leftEncRateField      = recorder.addField("L Enc Rate");
+        rightEncCountField    = recorder.addField("R Enc Count");
+        rightEncRateField     = recorder.addField("R Enc Rate");
+        leftSpeedCmdField     = recorder.addField("L Speed Cmd");
+        rightSpeedCmdField    = recorder.addField("R Speed Cmd");
+        speedPidsEnabledField = recorder.addField("Speed Pids Enabled");
+        leftPidSetpointField  = recorder.addField("L Pid Setpoint");
+        leftPidErrorField     = recorder.addField("L Pid Error");
+        leftPidOutputField    = recorder.addField("L Pid Output");
+        rightPidSetpointField = recorder.addField("R Pid Setpoint");
+        rightPidErrorField    = recorder.addField("R Pid Error");
+        rightPidOutputField   = recorder.addField("R Pid Output");
+        leftOutputField       = recorder.addField("L Output");
+        rightOutputField      = recorder.addField("R Output");
+        leftSpeedAdjustField  = recorder.addField("L Speed Adjust");
+        rightSpeedAdjustField = recorder.addField("R Speed Adjust");
+    }
+
+    @Override
+    public void record(TFlightRecorder recorder) {
+
+        if (leftEncoder != null && rightEncoder != null) {
+            recorder.set(leftEncCountField,  leftEncoder.getSampledCount());
+            recorder.set(leftEncRateField,   leftEncoder.getSampledRate());
+            recorder.set(rightEncCountField, rightEncoder.getSampledCount());
+            recorder.set(rightEncRateField,  rightEncoder.getSampledRate());
+        }
+
+        // When the control loop is not running, the status is
+        // taken from the PIDs on this thread.
+        if (!isControlLoopRunning()) {
+            updateStatus(status);
+        }
+
+        recorder.set(leftSpeedCmdField,     status.leftSpeedCmd);
+        recorder.set(rightSpeedCmdField,    status.rightSpeedCmd);
+
+        recorder.set(speedPidsEnabledField, status.speedPidsEnabled);
+        recorder.set(leftPidSetpointField,  status.leftPidSetpoint);
+        recorder.set(leftPidErrorField,     status.leftPidError);
+        recorder.set(leftPidOutputField,    status.leftPidOutput);
+        recorder.set(rightPidSetpointField, status.rightPidSetpoint);
+        recorder.set(rightPidErrorField,    status.rightPidError);
+        recorder.set(rightPidOutputField,   status.rightPidOutput);
+
+        recorder.set(leftOutputField,       status.leftOutput);
+        recorder.set(rightOutputField,      status.rightOutput);
+
+        // The speed adjust is recorded so that a log can be replayed
+        // with the settings of the robot that recorded it
+        recorder.set(leftSpeedAdjustField,  leftSpeedAdjust);
+        recorder.set(rightSpeedAdjustField, rightSpeedAdjust);
+    }
+
+    /**
+     * Apply the setpoints on the control loop thread.
+     * <p>
+     * Enable or disable the speed PIDs if required, and set the speeds.
+     * 
+     * @param setpoints
+     *            the latest setpoints published by the main robot thread
+     */
+    protected void applySetpoints(TDriveSetpoints setpoints) {
+
+        applySpeedPidSetpoints(setpoints);
+
+        applySpeed(setpoints.leftSpeed, setpoints.rightSpeed);
+    }
+
+    /**
+     * Apply the speed PID mode, the speed PID enable and the speed adjust on
+     * the control loop thread without setting the speeds.
+     * <p>
+     * Subclasses that set the speeds from their own controllers use this
+     * routine so that the motors are only written once per control update.
+     * 
+     * @param setpoints
+     *            the latest setpoints published by the main robot thread
+     */
+    protected void applySpeedPidSetpoints(TDriveSetpoints setpoints) {
+
+        controlLeftSpeedAdjust  = setpoints.leftSpeedAdjust;
+        controlRightSpeedAdjust = setpoints.rightSpeedAdjust;
+
+        applySpeedPidMode(setpoints.speedPidMode);
+
+        if (setpoints.speedPidsEnabled != leftSpeedPid.isEnabled()) {
+            if (setpoints.speedPidsEnabled) {
+                leftSpeedPid.enable();
+                rightSpeedPid.enable();
+            }
+            else {
+                leftSpeedPid.disable();
+                rightSpeedPid.disable();
+            }
+        }
+    }
+
+    /**
+     * Set the speeds on the motors or the speed PID setpoints.
+     * <p>
+     * This routine is called on the thread that owns the PIDs (the control loop
+     * thread when the control loop is running).
+     * 
+     * @param leftSpeedSetpoint
+     * @param rightSpeedSetpoint
+     */
+    protected void applySpeed(double leftSpeedSetpoint, double rightSpeedSetpoint) {
+
+        commandedSpeeds.left  = leftSpeedSetpoint;
+        commandedSpeeds.right = rightSpeedSetpoint;
+
+        if (leftSpeedPid.isEnabled()) {
+
+            // If the PIDs are enabled, then only change the setpoint
+            // and allow the periodic update to set the speed controller output
+            leftSpeedPid.setSetpoint(leftSpeedSetpoint);
+            rightSpeedPid.setSetpoint(rightSpeedSetpoint);
+
+            // The onboard closed loop is given the new setpoint directly.
+            // The speed adjust is configured in the feed forward, the
+            // velocity setpoint is not adjusted.
+            if (controlSpeedPidMode == SpeedPidMode.MOTOR_CONTROLLER) {
+                leftSpeedController.setVelocity(leftSpeedPid.getSetpoint());
+                rightSpeedController.setVelocity(rightSpeedPid.getSetpoint());
+            }
+
+        } else {
+
+            // If the speed PIDs are disabled, then drive the motors
+            // with the setpoint.
+            leftSpeedController.set(leftSpeedSetpoint * controlLeftSpeedAdjust);
+            rightSpeedController.set(rightSpeedSetpoint * controlRightSpeedAdjust);
+
+        }
+    }
+
+    /**
+     * Set the speed PID mode on the thread that owns the PIDs.
+     * <p>
+     * The RoboRio PIDs are reset when the mode changes so that the integral
+     * does not carry over between the modes.
+     * 
+     * @param mode
+     *            the requested speed PID mode
+     */
+    private void applySpeedPidMode(SpeedPidMode mode) {
+
+        if (mode == controlSpeedPidMode) {
+            return;
+        }
+
+        controlSpeedPidMode = mode;
+
+        leftSpeedPid.reset();
+        rightSpeedPid.reset();
+    }
+
+    /**
+     * Send the speed PID gains to the speed controllers.
+     * <p>
+     * The speed adjust for each side scales the feed forward, the same as it
+     * scales the output of the RoboRio speed PIDs.
+     * 
+     * @return {@code true} if both speed controllers were configured,
+     *         {@code false} otherwise
+     */
+    private boolean configVelocityClosedLoop() {
+
+        if (leftEncoder == null || rightEncoder == null) {
+            return false;
+        }
+
+        if (   !leftSpeedController.supportsVelocityClosedLoop()
+            || !rightSpeedController.supportsVelocityClosedLoop()) {
+            return false;
+        }
+
+        TPIDGains leftGains  = leftSpeedPid.getGains();
+        TPIDGains rightGains = rightSpeedPid.getGains();
+
+        boolean configured =
+                   leftSpeedController.configVelocityClosedLoop(leftGains.kP, leftGains.kI,
+                        leftSpeedAdjust, maxEncoderSpeed,
+                        leftEncoder.isInverted() != leftSpeedController.getInverted())
+                && rightSpeedController.configVelocityClosedLoop(rightGains.kP, rightGains.kI,
+                        rightSpeedAdjust, maxEncoderSpeed,
+                        rightEncoder.isInverted() != rightSpeedController.getInverted());
+
+        configuredLeftGains        = leftGains;
+        configuredRightGains       = rightGains;
+        configuredMaxEncoderSpeed  = maxEncoderSpeed;
+        configuredLeftSpeedAdjust  = leftSpeedAdjust;
+        configuredRightSpeedAdjust = rightSpeedAdjust;
+
+        return configured;
     }
 
     /**
@@ -111,9 +422,12 @@ public abstract class TDriveSubsystem extends TSubsystem {
     public void disableSpeedPids() {
 
         if (speedPidsEnabled) {
-            leftSpeedPid.disable();
-            rightSpeedPid.disable();
             speedPidsEnabled = false;
+            setpoints.speedPidsEnabled = false;
+            if (!publishSetpoints()) {
+                leftSpeedPid.disable();
+                rightSpeedPid.disable();
+            }
         }
     }
 
@@ -144,12 +458,25 @@ public abstract class TDriveSubsystem extends TSubsystem {
         }
 
         if (!speedPidsEnabled) {
-            leftSpeedPid.enable();
-            rightSpeedPid.enable();
             speedPidsEnabled = true;
+            setpoints.speedPidsEnabled = true;
+            if (!publishSetpoints()) {
+                leftSpeedPid.enable();
+                rightSpeedPid.enable();
+            }
         }
     }
 
+    /**
+     * Get the drive control loop
+     * 
+     * @return the control loop or {@code null} if the control loop was never
+     *         started
+     */
+    public TDriveControlLoop getControlLoop() {
+        return controlLoop;
+    }
+
     /**
      * Get the distance in inches
      * <p>
@@ -170,6 +497,15 @@ public abstract class TDriveSubsystem extends TSubsystem {
         return TUtil.round(getEncoderDistance() / encoderCountsPerInch, 2);
     }
 
+    /**
+     * Get the encoder counts per inch
+     * 
+     * @return encoder counts per inch, or 0 if not set
+     */
+    public double getEncoderCountsPerInch() {
+        return encoderCountsPerInch;
+    }
+
     /** 
      * Get the speed controller on the specified side.
      * <p>
@@ -212,7 +548,7 @@ public abstract class TDriveSubsystem extends TSubsystem {
             return -1;
         }
 
-        return rightEncoder.get(); //(leftEncoder.get() + rightEncoder.get()) / 2;
+        return rightEncoder.getSampledCount(); //(leftEncoder.get() + rightEncoder.get()) / 2;
     }
 
     /**
@@ -227,7 +563,7 @@ public abstract class TDriveSubsystem extends TSubsystem {
             return -1;
         }
 
-        return (leftEncoder.getRate() + rightEncoder.getRate()) / 2.0d;
+        return (leftEncoder.getSampledRate() + rightEncoder.getSampledRate()) / 2.0d;
     }
 
     /**
@@ -245,7 +581,7 @@ public abstract class TDriveSubsystem extends TSubsystem {
         if (robotStoppedInstant == -1) {
             return -1.0;
         }
-        return ((double) (System.currentTimeMillis() - robotStoppedInstant)) / 1000.0;
+        return Timer.getFPGATimestamp() - robotStoppedInstant;
     }
     
     /**
@@ -394,21 +730,14 @@ public abstract class TDriveSubsystem extends TSubsystem {
      */
     public void setSpeed(double leftSpeedSetpoint, double rightSpeedSetpoint) {
 
-        if (speedPidsEnabled) {
-
-            // If the PIDs are enabled, then only change the setpoint
-            // and allow the periodic update to set the speed controller output
-            leftSpeedPid.setSetpoint(leftSpeedSetpoint);
-            rightSpeedPid.setSetpoint(rightSpeedSetpoint);
-
-        } else {
-
-            // If the speed PIDs are disabled, then drive the motors
-            // with the setpoint.
-            leftSpeedController.set(leftSpeedSetpoint * leftSpeedAdjust);
-            rightSpeedController.set(rightSpeedSetpoint * rightSpeedAdjust);
+        setpoints.leftSpeed  = leftSpeedSetpoint;
+        setpoints.rightSpeed = rightSpeedSetpoint;
 
+        if (publishSetpoints()) {
+            return;
         }
+
+        applySpeed(leftSpeedSetpoint, rightSpeedSetpoint);
     }
 
     /**
@@ -431,6 +760,9 @@ public abstract class TDriveSubsystem extends TSubsystem {
      * will be adjusted by the speed adjust before being applied to the motors using
      * the formula motorSpeed = speedSetpoint * speedAdjust
      * <br>
+     * When the speed PIDs run on the motor controllers, the speed adjust scales
+     * the feed forward of the closed loop instead of the velocity setpoint.
+     * <br>
      * Speed adjustments are a double value and set to 1.0 by default.
      * <p>
      * If the speed adjust is greater than 1.0, the robot may not be able to drive
@@ -443,6 +775,28 @@ public abstract class TDriveSubsystem extends TSubsystem {
     public void setSpeedAdjust(double leftAdjust, double rightAdjust) {
     	this.leftSpeedAdjust = leftAdjust;
     	this.rightSpeedAdjust = rightAdjust;
+
+        setpoints.leftSpeedAdjust  = leftAdjust;
+        setpoints.rightSpeedAdjust = rightAdjust;
+        if (!publishSetpoints()) {
+            controlLeftSpeedAdjust  = leftAdjust;
+            controlRightSpeedAdjust = rightAdjust;
+        }
+    }
+
+    /**
+     * Set the time source used by the drive PIDs to measure the time between
+     * calculations.
+     * <p>
+     * The default time source is the FPGA timestamp. A replay uses the recorded
+     * timestamps.
+     * 
+     * @param timeSource
+     *            monotonic time in seconds
+     */
+    public void setPidTimeSource(DoubleSupplier timeSource) {
+        leftSpeedPid.setTimeSource(timeSource);
+        rightSpeedPid.setTimeSource(timeSource);
     }
 
     /**
@@ -453,86 +807,315 @@ public abstract class TDriveSubsystem extends TSubsystem {
      */
     public void setSpeedPidGain(double kP, double kI) {
 
-        leftSpeedPid.setP(kP);
-        leftSpeedPid.setI(kI);
-
-        rightSpeedPid.setP(kP);
-        rightSpeedPid.setI(kI);
+        leftSpeedPid.setPI(kP, kI);
+        rightSpeedPid.setPI(kP, kI);
 
         if (kP == 0 && kI == 0) {
             disableSpeedPids();
         }
     }
 
+    /**
+     * Set where the speed PIDs are run.
+     * <p>
+     * In {@link SpeedPidMode#MOTOR_CONTROLLER} mode, the speed PID gains are
+     * converted and sent to the speed controllers, and the speed setpoints are
+     * sent to the speed controller velocity closed loop when the speed PIDs are
+     * enabled. Any changes to the gains (including changes from the
+     * SmartDashboard) are sent to the speed controllers in
+     * {@link #updatePeriodic()}.
+     * <p>
+     * When the mode changes back from {@link SpeedPidMode#MOTOR_CONTROLLER},
+     * the speed controller settings for the onboard closed loop are restored.
+     * <p>
+     * NOTE: If the speed controllers or encoders do not support an onboard
+     * velocity closed loop, the mode is not changed.
+     * 
+     * @param mode
+     *            {@link SpeedPidMode}
+     */
+    public void setSpeedPidMode(SpeedPidMode mode) {
+
+        if (mode == null || mode == speedPidMode) {
+            rejectedSpeedPidMode = null;
+            return;
+        }
+
+        // Only report an unsupported mode once
+        if (mode == rejectedSpeedPidMode) {
+            return;
+        }
+
+        if (mode == SpeedPidMode.MOTOR_CONTROLLER && !configVelocityClosedLoop()) {
+            System.out.println("Speed PID mode " + mode + " is not supported by this drive subsystem");
+            rejectedSpeedPidMode = mode;
+            return;
+        }
+
+        rejectedSpeedPidMode = null;
+
+        // Restore the speed controller settings for the onboard closed loop
+        // (the sensor phase). The speed controllers use the motor output
+        // until the control thread applies the new mode.
+        if (speedPidMode == SpeedPidMode.MOTOR_CONTROLLER) {
+            leftSpeedController.disableVelocityClosedLoop();
+            rightSpeedController.disableVelocityClosedLoop();
+        }
+
+        speedPidMode = mode;
+        setpoints.speedPidMode = mode;
+        if (!publishSetpoints()) {
+            applySpeedPidMode(mode);
+        }
+    }
+
+    /**
+     * Get the speed PID mode
+     * 
+     * @return {@link SpeedPidMode}
+     */
+    public SpeedPidMode getSpeedPidMode() {
+        return speedPidMode;
+    }
+
     public boolean speedPidsEnabled() {
         return speedPidsEnabled;
     }
 
+    /**
+     * Start running the drive PIDs on a separate control loop thread.
+     * <p>
+     * Once the control loop is started, the speed controller outputs are only
+     * written by the control loop thread, and the setpoints set on this
+     * subsystem are handed to the control loop without locking. The telemetry
+     * and flight recorder values are copied from the control loop once per
+     * call to {@link #updatePeriodic()}.
+     * <p>
+     * NOTE: The subsystem must only be used from the main robot thread.
+     * 
+     * @param periodSeconds
+     *            control loop period (for example 0.005 for 200Hz)
+     */
+    public void startControlLoop(double periodSeconds) {
+
+        if (isControlLoopRunning()) {
+            return;
+        }
+
+        if (periodSeconds <= 0) {
+            System.out.println("Cannot start the drive control loop with period " + periodSeconds);
+            return;
+        }
+
+        if (controlLoop == null || controlLoop.getPeriod() != periodSeconds) {
+            controlLoop = new TDriveControlLoop(this, periodSeconds);
+        }
+
+        controlLoop.start(setpoints);
+    }
+
+    /**
+     * Stop the drive control loop.
+     * <p>
+     * The drive PIDs are updated on the main robot thread in
+     * {@link #updatePeriodic()} after the control loop is stopped.
+     */
+    public void stopControlLoop() {
+
+        if (controlLoop != null) {
+            controlLoop.stop();
+        }
+    }
+
+    /**
+     * Determine if the drive PIDs are running on the control loop thread
+     * 
+     * @return {@code true} if the control loop is running, {@code false} otherwise
+     */
+    public boolean isControlLoopRunning() {
+        return controlLoop != null && controlLoop.isRunning();
+    }
+
+    /**
+     * Update the drive PIDs and set the speed controller outputs
+     * <p>
+     * This routine is called on the thread that owns the PIDs (the control loop
+     * thread when the control loop is running).
+     */
+    protected void updateControl() {
+
+        if (leftEncoder != null && rightEncoder != null && leftSpeedPid.isEnabled()
+                && controlSpeedPidMode == SpeedPidMode.ROBORIO) {
+
+            // Speed PID calculations require a normalized rate
+            leftSpeedPid.calculate(getControlRate(leftEncoder) / maxEncoderSpeed);
+            rightSpeedPid.calculate(getControlRate(rightEncoder) / maxEncoderSpeed);
+
+            leftSpeedController.set(leftSpeedPid.get() * controlLeftSpeedAdjust);
+            rightSpeedController.set(rightSpeedPid.get() * controlRightSpeedAdjust);
+        }
+    }
+
+    /**
+     * Get the encoder count used on the thread that owns the PIDs
+     * <p>
+     * The control loop thread reads the encoder on every control update. When
+     * the PIDs are updated on the main robot thread, the count from the current
+     * sensor frame is used.
+     * 
+     * @param encoder
+     * @return encoder count
+     */
+    int getControlCount(TEncoder encoder) {
+        return isControlLoopRunning() ? encoder.get() : encoder.getSampledCount();
+    }
+
+    /**
+     * Get the time of the sensor values used on the thread that owns the PIDs
+     * 
+     * @return the current FPGA time when the control loop is running, otherwise
+     *         the time the encoders were sampled
+     */
+    double getControlTime() {
+        if (isControlLoopRunning() || leftEncoder == null) {
+            return Timer.getFPGATimestamp();
+        }
+        return leftEncoder.getSampleTime();
+    }
+
+    /**
+     * Get the encoder rate used by the speed PIDs
+     * <p>
+     * The control loop thread reads the encoder on every control update. When
+     * the PIDs are updated on the main robot thread, the rate from the current
+     * sensor frame is used.
+     * 
+     * @param encoder
+     * @return encoder rate in counts/second
+     */
+    private double getControlRate(TEncoder encoder) {
+        return isControlLoopRunning() ? encoder.getRate() : encoder.getSampledRate();
+    }
+
+    /**
+     * Fill in the drive status from the PIDs and speed controllers
+     * <p>
+     * This routine is called on the thread that owns the PIDs (the control loop
+     * thread when the control loop is running).
+     * 
+     * @param status
+     *            to fill in
+     */
+    protected void updateStatus(TDriveStatus status) {
+
+        status.leftSpeedCmd     = commandedSpeeds.left;
+        status.rightSpeedCmd    = commandedSpeeds.right;
+
+        status.speedPidsEnabled = leftSpeedPid.isEnabled();
+        status.leftPidSetpoint  = leftSpeedPid.getSetpoint();
+        status.leftPidError     = leftSpeedPid.getError();
+        status.leftPidOutput    = leftSpeedPid.get();
+        status.rightPidSetpoint = rightSpeedPid.getSetpoint();
+        status.rightPidError    = rightSpeedPid.getError();
+        status.rightPidOutput   = rightSpeedPid.get();
+
+        status.leftOutput       = leftSpeedController.get();
+        status.rightOutput      = rightSpeedController.get();
+    }
+
+    /**
+     * Publish the setpoints to the control loop if it is running
+     * 
+     * @return {@code true} if the setpoints were handed to the control loop,
+     *         {@code false} if the setpoints must be applied on this thread
+     */
+    boolean publishSetpoints() {
+
+        if (isControlLoopRunning()) {
+            controlLoop.publishSetpoints(setpoints);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void addSensors(TSensorFrame sensorFrame) {
+        sensorFrame.add(leftEncoder);
+        sensorFrame.add(rightEncoder);
+    }
+
     @Override
     public void updatePeriodic() {
 
+        // Send any changes in the speed PID gains to the speed controllers
+        if (speedPidMode == SpeedPidMode.MOTOR_CONTROLLER
+                && (   leftSpeedPid.getGains()  != configuredLeftGains
+                    || rightSpeedPid.getGains() != configuredRightGains
+                    || maxEncoderSpeed          != configuredMaxEncoderSpeed
+                    || leftSpeedAdjust          != configuredLeftSpeedAdjust
+                    || rightSpeedAdjust         != configuredRightSpeedAdjust)) {
+            configVelocityClosedLoop();
+        }
+
+        // Update the PIDs on this thread, or get the latest
+        // status from the control loop thread
+        if (isControlLoopRunning()) {
+            controlLoop.readStatus(status);
+        }
+        else {
+            updateControl();
+            updateStatus(status);
+        }
+
         // Only update the encoders and pids if there are encoders.
         if (leftEncoder != null && rightEncoder != null) {
 
             // Calculate the duration that the robot has been stopped
-            if (   Math.abs(rightEncoder.getRate()) > 2
-                || Math.abs(leftEncoder.getRate())  > 2) {
+            if (   Math.abs(rightEncoder.getSampledRate()) > 2
+                || Math.abs(leftEncoder.getSampledRate())  > 2) {
                 // Robot is moving
                 robotStoppedInstant = -1;
             }
             else {
                 // Robot is stopped
                 if (robotStoppedInstant == -1) {
-                    robotStoppedInstant = System.currentTimeMillis();
+                    robotStoppedInstant = Timer.getFPGATimestamp();
                 }
             }
-            
-            // Update all of the PIDS
-            if (speedPidsEnabled) {
-
-                // Speed PID calculations require a normalized rate
-                leftSpeedPid.calculate(leftEncoder.getRate() / maxEncoderSpeed);
-                rightSpeedPid.calculate(rightEncoder.getRate() / maxEncoderSpeed);
-
-                leftSpeedController.set(leftSpeedPid.get() * leftSpeedAdjust);
-                rightSpeedController.set(rightSpeedPid.get() * rightSpeedAdjust);
-
-            }
-
-            // Update all SmartDashboard values
-            SmartDashboard.putNumber("L Enc Dist", leftEncoder.get());
-            SmartDashboard.putNumber("L Enc Speed", leftEncoder.getRate());
-            SmartDashboard.putNumber("R Enc Dist", rightEncoder.get());
-            SmartDashboard.putNumber("R Enc Speed", rightEncoder.getRate());
-            SmartDashboard.putNumber("AvgEnc Dist", getEncoderDistance());
-            SmartDashboard.putNumber("AvgEnc Speed", getEncoderSpeed());
-            SmartDashboard.putNumber("Dist Inches", getDistanceInches());
 
-            SmartDashboard.putBoolean("Speed PIDs Active", speedPidsEnabled);
-            SmartDashboard.putData("LeftPid", leftSpeedPid);
-            SmartDashboard.putData("RightPid", rightSpeedPid);
+            // Update all telemetry values
+            leftEncDistTelemetry  .set(leftEncoder.getSampledCount());
+            leftEncSpeedTelemetry .set(leftEncoder.getSampledRate());
+            rightEncDistTelemetry .set(rightEncoder.getSampledCount());
+            rightEncSpeedTelemetry.set(rightEncoder.getSampledRate());
+            avgEncDistTelemetry   .set(getEncoderDistance());
+            avgEncSpeedTelemetry  .set(getEncoderSpeed());
+            distInchesTelemetry   .set(getDistanceInches());
+
+            speedPidsActiveTelemetry.set(speedPidsEnabled);
+            speedPidModeTelemetry   .set(speedPidMode.toString());
         }
         else {
             // If there are no encoders, then update the robotStoppedTime
             // based on the output to the drive motors
-            if (   leftSpeedController .get() > 0 
-                || rightSpeedController.get() > 0) {
+            if (   status.leftOutput  > 0 
+                || status.rightOutput > 0) {
                 // Robot is moving
                 robotStoppedInstant = -1;
             }
             else {
                 // Robot is stopped
                 if (robotStoppedInstant == -1) {
-                    robotStoppedInstant = System.currentTimeMillis();
+                    robotStoppedInstant = Timer.getFPGATimestamp();
                 }
             }
 
         }
 
         // Always print the current motor set speeds.
-        SmartDashboard.putNumber("Left Output", leftSpeedController.get());
-        SmartDashboard.putNumber("Right Output", rightSpeedController.get());
-        SmartDashboard.putNumber("Stopped Time", getStoppedTime());
+        leftOutputTelemetry .set(status.leftOutput);
+        rightOutputTelemetry.set(status.rightOutput);
+        stoppedTimeTelemetry.set(getStoppedTime());
     }
 
 }
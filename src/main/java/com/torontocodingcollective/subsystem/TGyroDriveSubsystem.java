@@ -1,14 +1,27 @@
 package com.torontocodingcollective.subsystem;
 
+import java.util.function.DoubleSupplier;
+
+import com.torontocodingcollective.odometry.TOdometry;
+import com.torontocodingcollective.odometry.TPose;
+import com.torontocodingcollective.odometry.TPoseHistory;
 import com.torontocodingcollective.pid.TGyroPID;
+import com.torontocodingcollective.pid.TPIDSendable;
+import com.torontocodingcollective.recorder.TFlightRecorder;
+import com.torontocodingcollective.sensors.TSensorFrame;
 import com.torontocodingcollective.sensors.encoder.TEncoder;
 import com.torontocodingcollective.sensors.gyro.TGyro;
 import com.torontocodingcollective.speedcontroller.TSpeedController;
+import com.torontocodingcollective.telemetry.TTelemetry;
+import com.torontocodingcollective.telemetry.TTelemetryNumber;
+import com.torontocodingcollective.telemetry.TTelemetryRate;
+
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
 
-    private enum Mode {
+    /** Gyro PID control mode */
+    public enum Mode {
         DRIVE_ON_HEADING, ROTATE_TO_HEADING, DISABLED
     };
 
@@ -16,8 +29,34 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
     private TGyroPID gyroPid;
 
     private double   maxRotationOutput;
-    private double   speedSetpoint = 0;
-    private Mode     mode;
+
+    // Gyro mode and speed applied to the gyro PID. These values are
+    // owned by the control loop thread when the control loop is running.
+    private double   controlSpeedSetpoint = 0;
+    private Mode     controlMode          = Mode.DISABLED;
+    private double   steering             = 0;
+
+    /** Poses kept in the odometry history (over 1 second at 200Hz) */
+    private static final int ODOMETRY_HISTORY_SIZE = 256;
+
+    // Odometry updated on the thread that owns the PIDs. The encoder
+    // counts and reset sequences are from the last odometry update.
+    private final TOdometry odometry                = new TOdometry(ODOMETRY_HISTORY_SIZE);
+    private int             leftOdometryCount       = 0;
+    private int             rightOdometryCount      = 0;
+    private int             leftOdometryReset       = -1;
+    private int             rightOdometryReset      = -1;
+    private int             controlPositionSequence = 0;
+
+    /** Pose used for the telemetry and flight recorder on the main thread */
+    private final TPose     pose                    = new TPose();
+
+    // Telemetry
+    private final TTelemetryNumber steeringTelemetry  = TTelemetry.addNumber("Gyro Steering", TTelemetryRate.CONTROL,    .005);
+    private final TTelemetryNumber gyroAngleTelemetry = TTelemetry.addNumber("Gyro Angle",    TTelemetryRate.CONTROL,    .01);
+    private final TTelemetryNumber gyroPitchTelemetry = TTelemetry.addNumber("Gyro Pitch",    TTelemetryRate.DIAGNOSTIC, .1);
+    private final TTelemetryNumber poseXTelemetry     = TTelemetry.addNumber("Pose X",        TTelemetryRate.DIAGNOSTIC, .1);
+    private final TTelemetryNumber poseYTelemetry     = TTelemetry.addNumber("Pose Y",        TTelemetryRate.DIAGNOSTIC, .1);
 
     /**
      * Drive subsystem with left/right drive and gyro.
@@ -54,6 +93,8 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
         this.gyro = gyro;
         gyroPid = new TGyroPID(gyroKP, gyroKI);
         this.maxRotationOutput = maxRotationOutput;
+
+        putSendables();
     }
 
     /**
@@ -112,7 +153,8 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
         this.gyro = gyro;
         gyroPid = new TGyroPID(gyroKP, gyroKI);
         this.maxRotationOutput = maxRotationOutput;
-        this.mode = Mode.DISABLED;
+
+        putSendables();
     }
 
     /**
@@ -121,9 +163,13 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
      * NOTE: If the angle PIDs is not currently enabled, this routine has no effect
      */
     public void disableGyroPid() {
-        gyroPid.disable();
-        this.speedSetpoint = 0;
-        this.mode = Mode.DISABLED;
+
+        setpoints.gyroMode  = Mode.DISABLED;
+        setpoints.gyroSpeed = 0;
+
+        if (!publishSetpoints()) {
+            applyGyroSetpoints(setpoints);
+        }
     }
 
     /**
@@ -148,11 +194,73 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
             return;
         }
 
-        this.mode = Mode.DRIVE_ON_HEADING;
+        setGyroSetpoints(Mode.DRIVE_ON_HEADING, heading, speedSetpoint);
+    }
+
+    /**
+     * Set the gyro setpoints and apply them to the gyro PID, or hand them to the
+     * control loop if it is running.
+     */
+    private void setGyroSetpoints(Mode mode, double heading, double speedSetpoint) {
+
+        setpoints.gyroMode    = mode;
+        setpoints.gyroHeading = heading;
+        setpoints.gyroSpeed   = speedSetpoint;
+
+        if (!publishSetpoints()) {
+            applyGyroSetpoints(setpoints);
+        }
+    }
+
+    /**
+     * Apply the gyro setpoints to the gyro PID
+     * <p>
+     * This routine is called on the thread that owns the PIDs.
+     */
+    private void applyGyroSetpoints(TDriveSetpoints setpoints) {
 
-        this.speedSetpoint = speedSetpoint;
+        if (setpoints.gyroMode == Mode.DISABLED) {
+            if (controlMode != Mode.DISABLED || gyroPid.isEnabled()) {
+                gyroPid.disable();
+            }
+        }
+        else {
+            enableGyroPid(setpoints.gyroHeading);
+        }
 
-        enableGyroPid(heading);
+        controlMode          = setpoints.gyroMode;
+        controlSpeedSetpoint = setpoints.gyroSpeed;
+    }
+
+    /**
+     * Set the odometry position on the thread that owns the PIDs if a new
+     * position was requested
+     * 
+     * @param setpoints
+     */
+    private void applyPosition(TDriveSetpoints setpoints) {
+
+        if (setpoints.positionSequence != controlPositionSequence) {
+            controlPositionSequence = setpoints.positionSequence;
+            odometry.setPosition(setpoints.positionX, setpoints.positionY);
+        }
+    }
+
+    @Override
+    protected void applySetpoints(TDriveSetpoints setpoints) {
+
+        applyPosition(setpoints);
+
+        applySpeedPidSetpoints(setpoints);
+
+        applyGyroSetpoints(setpoints);
+
+        // When the gyro PID is enabled, the speeds are set from the gyro PID
+        // in updateControl. Only set the requested speeds when the gyro PID
+        // is not driving so that the motors are written once per update.
+        if (!gyroPid.isEnabled()) {
+            applySpeed(setpoints.leftSpeed, setpoints.rightSpeed);
+        }
     }
 
     /**
@@ -167,11 +275,32 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
         if (!gyroPid.isEnabled()) {
             gyroPid.enable();
             // Initialize the error
-            gyroPid.calculate(gyro.getAngle());
+            gyroPid.calculate(getControlAngle());
         }
 
     }
 
+    /**
+     * Get the gyro PID control mode
+     * 
+     * @return the current {@link Mode}
+     */
+    public Mode getGyroMode() {
+        return setpoints.gyroMode;
+    }
+
+    /**
+     * Get the gyro speed setpoint
+     * <p>
+     * The speed setpoint is set by {@link #driveOnHeading(double, double)} and
+     * {@link #rotateToHeading(double, double)}.
+     * 
+     * @return speed setpoint
+     */
+    public double getGyroSpeedSetpoint() {
+        return setpoints.gyroSpeed;
+    }
+
     /**
      * Get the current gyro angle
      * <p>
@@ -182,7 +311,7 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
      */
     public double getGyroAngle() {
 
-        return gyro.getAngle();
+        return gyro.getSampledAngle();
     }
 
     /**
@@ -196,10 +325,16 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
      */
     public double getGyroHeadingError() {
 
+        // When the control loop is running, use the error
+        // from the last control loop update
+        if (isControlLoopRunning()) {
+            return status.gyroPidEnabled ? status.gyroPidError : 0;
+        }
+
         if (!gyroPid.isEnabled()) {
             return 0;
         }
-        return gyroPid.getError(gyro.getAngle());
+        return gyroPid.getError(gyro.getSampledAngle());
     }
 
     /**
@@ -210,7 +345,7 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
      * @return rate in degress/second
      */
     public double getGyroRate() {
-        return gyro.getRate();
+        return gyro.getSampledRate();
     }
 
     /**
@@ -261,11 +396,7 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
             speedSetpoint = maxRotationOutput;
         }
 
-        this.mode = Mode.ROTATE_TO_HEADING;
-
-        this.speedSetpoint = speedSetpoint;
-
-        enableGyroPid(heading);
+        setGyroSetpoints(Mode.ROTATE_TO_HEADING, heading, speedSetpoint);
     }
 
     /**
@@ -280,10 +411,11 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
      */
     private double setDriveOnHeadingSpeeds() {
 
-        double angleError = gyroPid.getError(gyro.getAngle());
+        // Error from the last gyro PID calculation
+        double angleError = gyroPid.getError();
 
-        double leftSpeed = speedSetpoint;
-        double rightSpeed = speedSetpoint;
+        double leftSpeed = controlSpeedSetpoint;
+        double rightSpeed = controlSpeedSetpoint;
 
         double steering = 0;
 
@@ -309,7 +441,7 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
 
             // Drive the motors in the opposite direction to get close
             // to the setpoint
-            setSpeed(leftSpeed, -leftSpeed);
+            applySpeed(leftSpeed, -leftSpeed);
 
             return steering;
         }
@@ -326,7 +458,7 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
             leftSpeed = rightSpeed * (1.0 + steering);
         }
 
-        setSpeed(leftSpeed, rightSpeed);
+        applySpeed(leftSpeed, rightSpeed);
 
         return steering;
     }
@@ -344,10 +476,15 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
         gyro.setGyroAngle(angle);
     }
 
+    @Override
+    public void setPidTimeSource(DoubleSupplier timeSource) {
+        super.setPidTimeSource(timeSource);
+        gyroPid.setTimeSource(timeSource);
+    }
+
     public void setGyroPidGain(double kP, double kI) {
 
-        this.gyroPid.setP(kP);
-        this.gyroPid.setI(kI);
+        this.gyroPid.setPI(kP, kI);
 
         // If the gain is set to zero, the pid cannot be enabled
         if (kP == 0 && kI == 0) {
@@ -377,9 +514,10 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
 
     private double setRotateToHeadingSpeeds() {
 
-        double angleError = gyroPid.getError(gyro.getAngle());
+        // Error from the last gyro PID calculation
+        double angleError = gyroPid.getError();
 
-        double leftSpeed = speedSetpoint;
+        double leftSpeed = controlSpeedSetpoint;
 
         double steering = 0;
 
@@ -400,7 +538,7 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
 
             // Drive the motors in the opposite direction to get close
             // to the setpoint
-            setSpeed(leftSpeed, -leftSpeed);
+            applySpeed(leftSpeed, -leftSpeed);
 
             return steering;
         }
@@ -412,48 +550,248 @@ public abstract class TGyroDriveSubsystem extends TDriveSubsystem {
 
         leftSpeed = steering;
 
-        if (Math.abs(steering) > speedSetpoint) {
-            leftSpeed = Math.signum(steering) * speedSetpoint;
+        if (Math.abs(steering) > controlSpeedSetpoint) {
+            leftSpeed = Math.signum(steering) * controlSpeedSetpoint;
         }
 
         // Drive the motors in the opposite direction to get
         // to the setpoint
-        setSpeed(leftSpeed, -leftSpeed);
+        applySpeed(leftSpeed, -leftSpeed);
 
         return steering;
     }
 
+    /**
+     * Get the current pose of the robot from the odometry
+     * <p>
+     * This routine can be called from any thread.
+     * 
+     * @param pose
+     *            filled in with the newest pose
+     * @return {@code true} if the pose was filled in, {@code false} if the
+     *         odometry has not been updated
+     */
+    public boolean getPose(TPose pose) {
+        return odometry.getHistory().getLatest(pose);
+    }
+
+    /**
+     * Get the pose of the robot at a time in the past
+     * <p>
+     * This routine can be called from any thread. The pose is interpolated from
+     * the odometry pose history.
+     * 
+     * @param timestamp
+     *            FPGA time in seconds
+     * @param pose
+     *            filled in with the pose at the time
+     * @return {@code true} if the pose was filled in, {@code false} if the time
+     *         is older than the pose history
+     */
+    public boolean getPose(double timestamp, TPose pose) {
+        return odometry.getHistory().getPose(timestamp, pose);
+    }
+
+    /**
+     * Get the odometry pose history
+     * 
+     * @return TPoseHistory
+     */
+    public TPoseHistory getPoseHistory() {
+        return odometry.getHistory();
+    }
+
+    /**
+     * Set the position of the robot on the field
+     * <p>
+     * The heading of the robot is always the gyro angle. Use
+     * {@link #setGyroAngle(double)} to set the heading.
+     * 
+     * @param x
+     *            in inches
+     * @param y
+     *            in inches
+     */
+    public void setPosition(double x, double y) {
+
+        setpoints.positionX = x;
+        setpoints.positionY = y;
+        setpoints.positionSequence++;
+
+        if (!publishSetpoints()) {
+            applyPosition(setpoints);
+        }
+    }
+
+    /**
+     * Update the odometry with the encoder and gyro values
+     * <p>
+     * The encoders can be reset by commands on the main robot thread. A reset
+     * is detected using the encoder reset sequence, and the count after the
+     * reset is used as the starting count for that encoder.
+     */
+    private void updateOdometry() {
+
+        if (leftEncoder == null || rightEncoder == null) {
+            return;
+        }
+
+        int leftReset  = leftEncoder.getResetSequence();
+        int rightReset = rightEncoder.getResetSequence();
+
+        int leftCount  = getControlCount(leftEncoder);
+        int rightCount = getControlCount(rightEncoder);
+
+        // Skip this update if an encoder was being reset
+        if (   (leftReset & 1) != 0 || leftReset != leftEncoder.getResetSequence()
+            || (rightReset & 1) != 0 || rightReset != rightEncoder.getResetSequence()) {
+            return;
+        }
+
+        double leftDelta  = leftReset  == leftOdometryReset  ? leftCount  - leftOdometryCount  : 0;
+        double rightDelta = rightReset == rightOdometryReset ? rightCount - rightOdometryCount : 0;
+
+        leftOdometryCount  = leftCount;
+        rightOdometryCount = rightCount;
+        leftOdometryReset  = leftReset;
+        rightOdometryReset = rightReset;
+
+        double countsPerInch = getEncoderCountsPerInch();
+        if (countsPerInch != 0) {
+            leftDelta  /= countsPerInch;
+            rightDelta /= countsPerInch;
+        }
+
+        odometry.update(getControlTime(), leftDelta, rightDelta, getControlAngle());
+    }
+
+    /**
+     * Get the gyro angle used by the gyro PID
+     * <p>
+     * The control loop thread reads the gyro on every control update. When the
+     * PIDs are updated on the main robot thread, the angle from the current
+     * sensor frame is used.
+     */
+    private double getControlAngle() {
+        return isControlLoopRunning() ? gyro.getAngle() : gyro.getSampledAngle();
+    }
+
     @Override
-    public void updatePeriodic() {
+    protected void updateControl() {
 
-        // Set the speed from the gyroPID before udpating the super
-        double steering = 0;
+        updateOdometry();
+
+        // Set the speed from the gyroPID before updating the speed PIDs
+        steering = 0;
 
         if (gyroPid.isEnabled()) {
 
-            gyroPid.calculate(gyro.getAngle());
+            gyroPid.calculate(getControlAngle());
 
-            if (mode == Mode.DRIVE_ON_HEADING) {
+            if (controlMode == Mode.DRIVE_ON_HEADING) {
                 steering = setDriveOnHeadingSpeeds();
             } else {
                 steering = setRotateToHeadingSpeeds();
             }
         }
 
-        SmartDashboard.putNumber("Gyro Steering", steering);
+        super.updateControl();
+    }
+
+    @Override
+    protected void updateStatus(TDriveStatus status) {
+
+        super.updateStatus(status);
+
+        status.gyroPidEnabled  = gyroPid.isEnabled();
+        status.gyroPidSetpoint = gyroPid.getSetpoint();
+        status.gyroPidError    = gyroPid.getError();
+        status.gyroPidOutput   = gyroPid.get();
+        status.steering        = steering;
+    }
+
+    @Override
+    public void addSensors(TSensorFrame sensorFrame) {
+        super.addSensors(sensorFrame);
+        sensorFrame.add(gyro);
+    }
+
+    @Override
+    public void updatePeriodic() {
 
         super.updatePeriodic();
 
-        // Update all SmartDashboard values
-        SmartDashboard.putData("Gyro", gyro);
-        SmartDashboard.putNumber("Gyro Angle", getGyroAngle());
+        steeringTelemetry.set(status.steering);
 
-        SmartDashboard.putData("Gyro PID", gyroPid);
+        // Update all telemetry values
+        gyroAngleTelemetry.set(getGyroAngle());
 
         if (gyro.supportsPitch()) {
-            SmartDashboard.putNumber("Gyro Pitch", gyro.getPitch());
+            gyroPitchTelemetry.set(gyro.getSampledPitch());
+        }
+
+        if (getPose(pose)) {
+            poseXTelemetry.set(pose.x);
+            poseYTelemetry.set(pose.y);
         }
 
     }
 
+    // Flight recorder field ids
+    private int gyroAngleField;
+    private int gyroRateField;
+    private int gyroModeField;
+    private int gyroSpeedSetpointField;
+    private int gyroPidSetpointField;
+    private int gyroPidErrorField;
+    private int gyroPidOutputField;
+    private int poseXField;
+    private int poseYField;
+
+    @Override
+    public void addRecordFields(TFlightRecorder recorder) {
+
+        super.addRecordFields(recorder);
+
+        gyroAngleField         = recorder.addField("Gyro Angle");
+        gyroRateField          = recorder.addField("Gyro Rate");
+        gyroModeField          = recorder.addField("Gyro Mode");
+        gyroSpeedSetpointField = recorder.addField("Gyro Speed Setpoint");
+        gyroPidSetpointField   = recorder.addField("Gyro Pid Setpoint");
+        gyroPidErrorField      = recorder.addField("Gyro Pid Error");
+        gyroPidOutputField     = recorder.addField("Gyro Pid Output");
+        poseXField             = recorder.addField("Pose X");
+        poseYField             = recorder.addField("Pose Y");
+    }
+
+    @Override
+    public void record(TFlightRecorder recorder) {
+
+        super.record(recorder);
+
+        recorder.set(gyroAngleField,         gyro.getSampledAngle());
+        recorder.set(gyroRateField,          gyro.getSampledRate());
+        recorder.set(gyroModeField,          setpoints.gyroMode.ordinal());
+        recorder.set(gyroSpeedSetpointField, setpoints.gyroSpeed);
+        recorder.set(gyroPidSetpointField,   status.gyroPidSetpoint);
+        recorder.set(gyroPidErrorField,      status.gyroPidError);
+        recorder.set(gyroPidOutputField,     status.gyroPidOutput);
+
+        if (getPose(pose)) {
+            recorder.set(poseXField,         pose.x);
+            recorder.set(poseYField,         pose.y);
+        }
+    }
+
+    /**
+     * Put the gyro and gyro PID on the SmartDashboard.
+     * <p>
+     * The sendables are updated by the SmartDashboard on every loop once
+     * they are added, so they only need to be put once.
+     */
+    private void putSendables() {
+        SmartDashboard.putData("Gyro", gyro);
+        SmartDashboard.putData("Gyro PID", new TPIDSendable(gyroPid));
+    }
+
 }
@@ -1,5 +1,7 @@
 package com.torontocodingcollective.subsystem;
 
+import com.torontocodingcollective.sensors.TSensorFrame;
+
 import edu.wpi.first.wpilibj.command.Subsystem;
 
 /**
@@ -22,4 +24,16 @@ public abstract class TSubsystem extends Subsystem {
      */
     public abstract void updatePeriodic();
 
+    /**
+     * Add the sensors used by this subsystem to the sensor frame that is
+     * sampled at the start of each loop.
+     * <p>
+     * Subsystems with sensors override this routine.
+     * 
+     * @param sensorFrame
+     *            the frame to add the sensors to
+     */
+    public void addSensors(TSensorFrame sensorFrame) {
+    }
+
 }
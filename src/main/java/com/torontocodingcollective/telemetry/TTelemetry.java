@@ -0,0 +1,159 @@
+package com.torontocodingcollective.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Telemetry
+ * <p>
+ * Batched, rate limited publishing of SmartDashboard values.
+ * <p>
+ * Telemetry entries are created once (typically in a constructor) using
+ * {@link #addNumber(String, TTelemetryRate, double)},
+ * {@link #addBoolean(String, TTelemetryRate)} or
+ * {@link #addString(String, TTelemetryRate)}. The values are set on the entries
+ * during the loop, and all changed values that are due are written to the
+ * NetworkTables by a single call to {@link #flush()} at the end of each robot
+ * loop.
+ * <p>
+ * When the competition profile is active, {@link TTelemetryRate#DEBUG} entries
+ * are not published.
+ */
+public class TTelemetry {
+
+    private static final List<TTelemetryEntry> entryLs            = new ArrayList<TTelemetryEntry>();
+
+    private static boolean                     competitionProfile = false;
+    private static boolean                     publishNewEntries  = true;
+
+    /**
+     * Add a numeric telemetry value
+     *
+     * @param key
+     *            SmartDashboard key
+     * @param rate
+     *            maximum publish rate
+     * @param deadband
+     *            minimum change in the value before it is published again
+     * @return the telemetry entry used to set the value
+     */
+    public static TTelemetryNumber addNumber(String key, TTelemetryRate rate, double deadband) {
+        TTelemetryNumber entry = new TTelemetryNumber(key, rate, deadband);
+        add(entry);
+        return entry;
+    }
+
+    /**
+     * Add a boolean telemetry value
+     *
+     * @param key
+     *            SmartDashboard key
+     * @param rate
+     *            maximum publish rate
+     * @return the telemetry entry used to set the value
+     */
+    public static TTelemetryBoolean addBoolean(String key, TTelemetryRate rate) {
+        TTelemetryBoolean entry = new TTelemetryBoolean(key, rate);
+        add(entry);
+        return entry;
+    }
+
+    /**
+     * Add a string telemetry value
+     *
+     * @param key
+     *            SmartDashboard key
+     * @param rate
+     *            maximum publish rate
+     * @return the telemetry entry used to set the value
+     */
+    public static TTelemetryString addString(String key, TTelemetryRate rate) {
+        TTelemetryString entry = new TTelemetryString(key, rate);
+        add(entry);
+        return entry;
+    }
+
+    /**
+     * Set whether new entries are published
+     * <p>
+     * Entries added while publishing is off can be set, but are never written
+     * to the NetworkTables. This is used for objects that are built in
+     * addition to the robot objects (for example the drive subsystem used by
+     * the warm up) so that they do not publish over the robot values with the
+     * same keys.
+     *
+     * @param publish
+     *            {@code true} to publish the entries added after this call
+     */
+    public static void setPublishNewEntries(boolean publish) {
+        publishNewEntries = publish;
+    }
+
+    /**
+     * Set the competition profile
+     * <p>
+     * In the competition profile, debug values are not published in order to
+     * save loop time and network bandwidth.
+     *
+     * @param competitionProfile
+     *            {@code true} to use the competition profile, {@code false} to
+     *            publish all values
+     */
+    public static void setCompetitionProfile(boolean competitionProfile) {
+
+        if (TTelemetry.competitionProfile != competitionProfile) {
+            System.out.println("Telemetry competition profile " + (competitionProfile ? "on" : "off"));
+        }
+
+        TTelemetry.competitionProfile = competitionProfile;
+    }
+
+    public static boolean isCompetitionProfile() {
+        return competitionProfile;
+    }
+
+    /**
+     * Determine if values at the given rate are published in the current
+     * profile
+     *
+     * @param rate
+     *            telemetry rate
+     * @return {@code true} if published, {@code false} if dropped
+     */
+    public static boolean isPublished(TTelemetryRate rate) {
+        return !(competitionProfile && rate.debug);
+    }
+
+    private static void add(TTelemetryEntry entry) {
+        if (publishNewEntries) {
+            entryLs.add(entry);
+        }
+    }
+
+    /**
+     * Flush the telemetry
+     * <p>
+     * This routine should be called once at the end of each robot loop. All
+     * entries that are due and have changed are written to the NetworkTables.
+     * If any control values were written, the NetworkTables are flushed so
+     * that the control values are sent at the loop rate.
+     */
+    public static void flush() {
+
+        long    now            = System.nanoTime();
+        boolean controlChanged = false;
+
+        for (int i = 0; i < entryLs.size(); i++) {
+            TTelemetryEntry entry = entryLs.get(i);
+            if (entry.flush(now) && entry.rate == TTelemetryRate.CONTROL) {
+                controlChanged = true;
+            }
+        }
+
+        if (controlChanged) {
+            NetworkTableInstance.getDefault().flush();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.torontocodingcollective.telemetry;
+
+/**
+ * Telemetry Boolean
+ * <p>
+ * A boolean telemetry value that is published when it changes.
+ */
+public class TTelemetryBoolean extends TTelemetryEntry {
+
+    private boolean value          = false;
+    private boolean publishedValue = false;
+
+    TTelemetryBoolean(String key, TTelemetryRate rate) {
+        super(key, rate);
+    }
+
+    /**
+     * Set the value to be published at the next flush
+     *
+     * @param value
+     *            the new value
+     */
+    public void set(boolean value) {
+        this.value = value;
+    }
+
+    @Override
+    boolean hasChanged() {
+        return value != publishedValue;
+    }
+
+    @Override
+    void publish() {
+        ntEntry.setBoolean(value);
+        publishedValue = value;
+    }
+}
@@ -0,0 +1,106 @@
+package com.torontocodingcollective.telemetry;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Telemetry Entry
+ * <p>
+ * Base class for all telemetry values. The SmartDashboard NetworkTableEntry is
+ * resolved once when the entry is created so that publishing a value does not
+ * require a string keyed lookup.
+ * <p>
+ * Values are set on the entry at any time during the loop, and are only
+ * written to the NetworkTable when {@link TTelemetry#flush()} is called, the
+ * publish period for the entry's rate has expired, and the value has changed.
+ */
+public abstract class TTelemetryEntry {
+
+    protected final String            key;
+    protected final TTelemetryRate    rate;
+    protected final NetworkTableEntry ntEntry;
+
+    private boolean                   published        = false;
+    private long                      lastPublishNanos = 0;
+
+    TTelemetryEntry(String key, TTelemetryRate rate) {
+        this.key     = key;
+        this.rate    = rate;
+        this.ntEntry = SmartDashboard.getEntry(key);
+    }
+
+    /**
+     * Get the SmartDashboard key for this entry
+     *
+     * @return key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Is this entry due to be published at the next flush
+     * <p>
+     * This routine can be used to skip calculating values that are expensive
+     * to build (for example strings) when the value will not be published.
+     *
+     * @return {@code true} if a value set now would be published, {@code false}
+     *         if the entry is dropped by the current profile or was published
+     *         too recently
+     */
+    public boolean isDue() {
+
+        if (!TTelemetry.isPublished(rate)) {
+            return false;
+        }
+
+        if (!published) {
+            return true;
+        }
+
+        return System.nanoTime() - lastPublishNanos >= rate.minPublishNanos;
+    }
+
+    /**
+     * Publish the value if it is due and has changed since the last publish
+     *
+     * @param nowNanos
+     *            the flush time
+     * @return {@code true} if the value was written to the NetworkTable
+     */
+    boolean flush(long nowNanos) {
+
+        if (!TTelemetry.isPublished(rate)) {
+            return false;
+        }
+
+        if (published) {
+            if (nowNanos - lastPublishNanos < rate.minPublishNanos) {
+                return false;
+            }
+            if (!hasChanged()) {
+                return false;
+            }
+        }
+
+        publish();
+
+        published        = true;
+        lastPublishNanos = nowNanos;
+
+        return true;
+    }
+
+    /**
+     * Has the value changed enough since it was last published
+     *
+     * @return {@code true} if the value should be published
+     */
+    abstract boolean hasChanged();
+
+    /**
+     * Write the current value to the NetworkTable entry and remember it as the
+     * last published value.
+     */
+    abstract void publish();
+}
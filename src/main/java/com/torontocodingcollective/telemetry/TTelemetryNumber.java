@@ -0,0 +1,41 @@
+package com.torontocodingcollective.telemetry;
+
+/**
+ * Telemetry Number
+ * <p>
+ * A numeric telemetry value that is published when it changes by more than
+ * its deadband.
+ */
+public class TTelemetryNumber extends TTelemetryEntry {
+
+    private final double deadband;
+
+    private double       value          = 0;
+    private double       publishedValue = 0;
+
+    TTelemetryNumber(String key, TTelemetryRate rate, double deadband) {
+        super(key, rate);
+        this.deadband = deadband;
+    }
+
+    /**
+     * Set the value to be published at the next flush
+     *
+     * @param value
+     *            the new value
+     */
+    public void set(double value) {
+        this.value = value;
+    }
+
+    @Override
+    boolean hasChanged() {
+        return Math.abs(value - publishedValue) > deadband;
+    }
+
+    @Override
+    void publish() {
+        ntEntry.setDouble(value);
+        publishedValue = value;
+    }
+}
@@ -0,0 +1,41 @@
+package com.torontocodingcollective.telemetry;
+
+/**
+ * Telemetry Rate
+ * <p>
+ * The maximum rate at which a telemetry value is published to the
+ * SmartDashboard.
+ */
+public enum TTelemetryRate {
+
+    /** Control critical values published every loop (50Hz) */
+    CONTROL(50, false),
+    /** Diagnostic values published at 5Hz */
+    DIAGNOSTIC(5, false),
+    /**
+     * Debug values published at 5Hz. Debug values are not published when the
+     * competition profile is active.
+     */
+    DEBUG(5, true);
+
+    /**
+     * Half of the robot loop period. Flushes are timed by the robot loop, and a
+     * loop that runs slightly early must not delay the value by a whole loop.
+     */
+    private static final long LOOP_SLACK_NANOS = 10000000L;
+
+    /** Time between publishing a value */
+    public final long    periodNanos;
+    /**
+     * Minimum time between publishing a value, allowing for loop jitter
+     */
+    public final long    minPublishNanos;
+    /** Debug values are dropped in the competition profile */
+    public final boolean debug;
+
+    TTelemetryRate(double hz, boolean debug) {
+        this.periodNanos     = (long) (1000000000L / hz);
+        this.minPublishNanos = periodNanos - LOOP_SLACK_NANOS;
+        this.debug           = debug;
+    }
+}
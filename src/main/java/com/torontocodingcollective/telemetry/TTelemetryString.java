@@ -0,0 +1,40 @@
+package com.torontocodingcollective.telemetry;
+
+/**
+ * Telemetry String
+ * <p>
+ * A string telemetry value that is published when it changes.
+ * <p>
+ * Use {@link #isDue()} to avoid building the string when it will not be
+ * published.
+ */
+public class TTelemetryString extends TTelemetryEntry {
+
+    private String value          = "";
+    private String publishedValue = "";
+
+    TTelemetryString(String key, TTelemetryRate rate) {
+        super(key, rate);
+    }
+
+    /**
+     * Set the value to be published at the next flush
+     *
+     * @param value
+     *            the new value
+     */
+    public void set(String value) {
+        this.value = value == null ? "" : value;
+    }
+
+    @Override
+    boolean hasChanged() {
+        return !value.equals(publishedValue);
+    }
+
+    @Override
+    void publish() {
+        ntEntry.setString(value);
+        publishedValue = value;
+    }
+}
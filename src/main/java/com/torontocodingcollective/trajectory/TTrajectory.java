@@ -0,0 +1,239 @@
+package com.torontocodingcollective.trajectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Trajectory
+ * <p>
+ * A path for the robot to follow, as a list of points spaced evenly along the
+ * path. Each point has a position, heading, distance along the path, target
+ * velocity and path curvature.
+ * <p>
+ * Trajectories are generated before the robot code is deployed (see
+ * {@link TTrajectoryGenerator}) and are read from a memory mapped file. The
+ * point values are read directly from the file mapping and are not copied.
+ * <p>
+ * File format (big endian):
+ * <ul>
+ * <li>int magic number {@link #FILE_MAGIC}</li>
+ * <li>int file version {@link #FILE_VERSION}</li>
+ * <li>int point count</li>
+ * <li>int reserved (0)</li>
+ * <li>for each point, floats x (inches), y (inches), heading (degrees),
+ * distance (inches), velocity (inches/second), curvature (1/inches)</li>
+ * </ul>
+ * Headings and curvatures use the gyro convention (clockwise is positive). A
+ * heading of 0 points along the x axis and a heading of 90 points along the y
+ * axis, and a positive curvature turns clockwise.
+ */
+public class TTrajectory {
+
+    /** File magic number "TTRJ" */
+    public static final int    FILE_MAGIC     = 0x5454524A;
+    /** File format version */
+    public static final int    FILE_VERSION   = 1;
+
+    /** File name suffix */
+    public static final String FILE_SUFFIX    = ".traj";
+
+    /** Size of the file header in bytes */
+    public static final int    HEADER_BYTES   = 16;
+    /** Number of float values in each point */
+    public static final int    POINT_FIELDS   = 6;
+    /** Size of each point in bytes */
+    public static final int    POINT_BYTES    = POINT_FIELDS * Float.BYTES;
+
+    private static final int   X              = 0;
+    private static final int   Y              = 1 * Float.BYTES;
+    private static final int   HEADING        = 2 * Float.BYTES;
+    private static final int   DISTANCE       = 3 * Float.BYTES;
+    private static final int   VELOCITY       = 4 * Float.BYTES;
+    private static final int   CURVATURE      = 5 * Float.BYTES;
+
+    private final String       name;
+    private final ByteBuffer   buffer;
+    private final int          length;
+
+    /**
+     * Load a trajectory from a file
+     * <p>
+     * The file is memory mapped and read into memory so that the points can
+     * be read on the robot loop without waiting for the disk.
+     *
+     * @param file
+     *            the trajectory file
+     * @return the trajectory, or {@code null} if the file could not be read or
+     *         is not a valid trajectory file
+     */
+    public static TTrajectory load(File file) {
+
+        MappedByteBuffer buffer;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catch (IOException e) {
+            System.out.println("Trajectory " + file + " could not be read. " + e.getMessage());
+            return null;
+        }
+
+        // Page in the whole file now, and not on the first loop that uses it
+        buffer.load();
+
+        String name = file.getName();
+        if (name.endsWith(FILE_SUFFIX)) {
+            name = name.substring(0, name.length() - FILE_SUFFIX.length());
+        }
+
+        return wrap(name, buffer);
+    }
+
+    /**
+     * Read a trajectory from a buffer in the trajectory file format
+     *
+     * @param name
+     *            the trajectory name
+     * @param buffer
+     *            the buffer starting at the file header
+     * @return the trajectory, or {@code null} if the buffer is not a valid
+     *         trajectory
+     */
+    public static TTrajectory wrap(String name, ByteBuffer buffer) {
+
+        if (buffer.capacity() < HEADER_BYTES
+                || buffer.getInt(0) != FILE_MAGIC) {
+            System.out.println("Trajectory " + name + " is not a trajectory file");
+            return null;
+        }
+
+        if (buffer.getInt(4) != FILE_VERSION) {
+            System.out.println("Trajectory " + name + " version " + buffer.getInt(4)
+                    + " is not supported. Expected version " + FILE_VERSION);
+            return null;
+        }
+
+        int length = buffer.getInt(8);
+
+        if (length < 2 || buffer.capacity() < HEADER_BYTES + (long) length * POINT_BYTES) {
+            System.out.println("Trajectory " + name + " has an invalid length " + length);
+            return null;
+        }
+
+        return new TTrajectory(name, buffer, length);
+    }
+
+    private TTrajectory(String name, ByteBuffer buffer, int length) {
+        this.name   = name;
+        this.buffer = buffer;
+        this.length = length;
+    }
+
+    /**
+     * Get the name of the trajectory (the file name without the suffix)
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of points in the trajectory
+     *
+     * @return number of points
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the total length of the path
+     *
+     * @return distance in inches
+     */
+    public double getTotalDistance() {
+        return getDistance(length - 1);
+    }
+
+    /**
+     * Get the x position at a point
+     *
+     * @param index
+     *            point index (0 to length - 1)
+     * @return x in inches
+     */
+    public double getX(int index) {
+        return get(index, X);
+    }
+
+    /**
+     * Get the y position at a point
+     *
+     * @param index
+     *            point index (0 to length - 1)
+     * @return y in inches
+     */
+    public double getY(int index) {
+        return get(index, Y);
+    }
+
+    /**
+     * Get the heading at a point
+     *
+     * @param index
+     *            point index (0 to length - 1)
+     * @return heading in degrees (0 <= heading < 360)
+     */
+    public double getHeading(int index) {
+        return get(index, HEADING);
+    }
+
+    /**
+     * Get the distance along the path from the first point at a point
+     *
+     * @param index
+     *            point index (0 to length - 1)
+     * @return distance in inches
+     */
+    public double getDistance(int index) {
+        return get(index, DISTANCE);
+    }
+
+    /**
+     * Get the target velocity at a point
+     *
+     * @param index
+     *            point index (0 to length - 1)
+     * @return velocity in inches/second
+     */
+    public double getVelocity(int index) {
+        return get(index, VELOCITY);
+    }
+
+    /**
+     * Get the path curvature (clockwise is positive) at a point
+     *
+     * @param index
+     *            point index (0 to length - 1)
+     * @return curvature in 1/inches
+     */
+    public double getCurvature(int index) {
+        return get(index, CURVATURE);
+    }
+
+    private double get(int index, int offset) {
+        return buffer.getFloat(HEADER_BYTES + index * POINT_BYTES + offset);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + length + " points, " + Math.round(getTotalDistance()) + " inches)";
+    }
+}
@@ -0,0 +1,271 @@
+package com.torontocodingcollective.trajectory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Trajectory Generator
+ * <p>
+ * Generates a {@link TTrajectory} file from a list of waypoints. This class is
+ * used by the generateTrajectories build task and is not used on the robot.
+ * <p>
+ * The path between each pair of waypoints is a quintic Hermite spline that
+ * leaves and enters the waypoints on the waypoint headings with zero
+ * curvature, so the curvature is continuous along the whole path. The path is
+ * sampled at evenly spaced points.
+ * <p>
+ * The velocity at each point is limited by:
+ * <ul>
+ * <li>the maximum velocity</li>
+ * <li>the curvature, so that the outside wheels do not go faster than the
+ * maximum velocity</li>
+ * <li>the maximum acceleration from a stop at the start of the path, and to a
+ * stop at the end of the path</li>
+ * </ul>
+ */
+public class TTrajectoryGenerator {
+
+    /** Default distance between the points in inches */
+    public static final double DEFAULT_POINT_SPACING = 1.0;
+
+    /** Number of samples on each spline used to measure the length */
+    private static final int   SPLINE_SAMPLES        = 1000;
+
+    /** Tangent length at each waypoint as a fraction of the segment length */
+    private static final double TANGENT_SCALE        = 1.2;
+
+    private final double       maxVelocity;
+    private final double       maxAcceleration;
+    private final double       trackWidth;
+    private final double       pointSpacing;
+
+    /**
+     * Trajectory Generator
+     *
+     * @param maxVelocity
+     *            in inches/second
+     * @param maxAcceleration
+     *            in inches/second^2
+     * @param trackWidth
+     *            distance between the left and right wheels in inches
+     */
+    public TTrajectoryGenerator(double maxVelocity, double maxAcceleration, double trackWidth) {
+        this(maxVelocity, maxAcceleration, trackWidth, DEFAULT_POINT_SPACING);
+    }
+
+    /**
+     * Trajectory Generator
+     *
+     * @param maxVelocity
+     *            in inches/second
+     * @param maxAcceleration
+     *            in inches/second^2
+     * @param trackWidth
+     *            distance between the left and right wheels in inches
+     * @param pointSpacing
+     *            distance between the trajectory points in inches
+     */
+    public TTrajectoryGenerator(double maxVelocity, double maxAcceleration, double trackWidth,
+            double pointSpacing) {
+        this.maxVelocity     = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.trackWidth      = trackWidth;
+        this.pointSpacing    = pointSpacing;
+    }
+
+    /**
+     * Generate a trajectory through the waypoints
+     *
+     * @param waypoints
+     *            at least two waypoints
+     * @return a buffer containing the trajectory in the {@link TTrajectory} file
+     *         format
+     */
+    public ByteBuffer generate(TWaypoint... waypoints) {
+
+        if (waypoints.length < 2) {
+            throw new IllegalArgumentException("At least two waypoints are required");
+        }
+
+        int segments = waypoints.length - 1;
+
+        // Spline coefficients for x and y of each segment
+        double[][] xCoeffs = new double[segments][];
+        double[][] yCoeffs = new double[segments][];
+
+        // Sample each spline to measure the distance along the path at
+        // each sample
+        double[] sampleDistance = new double[segments * SPLINE_SAMPLES + 1];
+        double   distance       = 0;
+
+        for (int s = 0; s < segments; s++) {
+
+            TWaypoint p0 = waypoints[s];
+            TWaypoint p1 = waypoints[s + 1];
+
+            double tangent = Math.hypot(p1.x - p0.x, p1.y - p0.y) * TANGENT_SCALE;
+
+            double h0 = Math.toRadians(p0.heading);
+            double h1 = Math.toRadians(p1.heading);
+
+            xCoeffs[s] = quinticHermite(p0.x, tangent * Math.cos(h0), p1.x, tangent * Math.cos(h1));
+            yCoeffs[s] = quinticHermite(p0.y, tangent * Math.sin(h0), p1.y, tangent * Math.sin(h1));
+
+            double lastX = p0.x;
+            double lastY = p0.y;
+
+            for (int i = 1; i <= SPLINE_SAMPLES; i++) {
+                double t = i / (double) SPLINE_SAMPLES;
+                double x = evaluate(xCoeffs[s], t, 0);
+                double y = evaluate(yCoeffs[s], t, 0);
+                distance += Math.hypot(x - lastX, y - lastY);
+                sampleDistance[s * SPLINE_SAMPLES + i] = distance;
+                lastX = x;
+                lastY = y;
+            }
+        }
+
+        int length = (int) Math.ceil(distance / pointSpacing) + 1;
+
+        double[] x         = new double[length];
+        double[] y         = new double[length];
+        double[] heading   = new double[length];
+        double[] pointDist = new double[length];
+        double[] velocity  = new double[length];
+        double[] curvature = new double[length];
+
+        // Find the spline parameter at each evenly spaced point
+        int sample = 0;
+
+        for (int i = 0; i < length; i++) {
+
+            double d = Math.min(i * pointSpacing, distance);
+
+            while (sample < sampleDistance.length - 2 && sampleDistance[sample + 1] < d) {
+                sample++;
+            }
+
+            double sampleLength = sampleDistance[sample + 1] - sampleDistance[sample];
+            double fraction     = sampleLength > 0 ? (d - sampleDistance[sample]) / sampleLength : 0;
+
+            int    s = Math.min(sample / SPLINE_SAMPLES, segments - 1);
+            double t = ((sample - s * SPLINE_SAMPLES) + fraction) / SPLINE_SAMPLES;
+
+            double dx  = evaluate(xCoeffs[s], t, 1);
+            double dy  = evaluate(yCoeffs[s], t, 1);
+            double ddx = evaluate(xCoeffs[s], t, 2);
+            double ddy = evaluate(yCoeffs[s], t, 2);
+
+            x[i]         = evaluate(xCoeffs[s], t, 0);
+            y[i]         = evaluate(yCoeffs[s], t, 0);
+            heading[i]   = normalize(Math.toDegrees(Math.atan2(dy, dx)));
+            pointDist[i] = d;
+            curvature[i] = (dx * ddy - dy * ddx) / Math.pow(Math.hypot(dx, dy), 3);
+
+            // Limit the speed of the outside wheels on a curve
+            velocity[i]  = maxVelocity / (1.0 + Math.abs(curvature[i]) * trackWidth / 2.0);
+        }
+
+        // Accelerate from a stop at the start, and stop at the end
+        velocity[0]          = 0;
+        velocity[length - 1] = 0;
+
+        for (int i = 1; i < length; i++) {
+            double ds = pointDist[i] - pointDist[i - 1];
+            velocity[i] = Math.min(velocity[i],
+                    Math.sqrt(velocity[i - 1] * velocity[i - 1] + 2 * maxAcceleration * ds));
+        }
+
+        for (int i = length - 2; i >= 0; i--) {
+            double ds = pointDist[i + 1] - pointDist[i];
+            velocity[i] = Math.min(velocity[i],
+                    Math.sqrt(velocity[i + 1] * velocity[i + 1] + 2 * maxAcceleration * ds));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(TTrajectory.HEADER_BYTES + length * TTrajectory.POINT_BYTES);
+
+        buffer.putInt(TTrajectory.FILE_MAGIC);
+        buffer.putInt(TTrajectory.FILE_VERSION);
+        buffer.putInt(length);
+        buffer.putInt(0);
+
+        for (int i = 0; i < length; i++) {
+            buffer.putFloat((float) x[i]);
+            buffer.putFloat((float) y[i]);
+            buffer.putFloat((float) heading[i]);
+            buffer.putFloat((float) pointDist[i]);
+            buffer.putFloat((float) velocity[i]);
+            buffer.putFloat((float) curvature[i]);
+        }
+
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /**
+     * Generate a trajectory through the waypoints and write it to a file
+     *
+     * @param file
+     *            the trajectory file
+     * @param waypoints
+     *            at least two waypoints
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void write(File file, TWaypoint... waypoints) throws IOException {
+
+        ByteBuffer buffer = generate(waypoints);
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.getChannel().write(buffer);
+        }
+    }
+
+    /**
+     * Quintic Hermite spline coefficients (c0 + c1 t + ... + c5 t^5) with zero
+     * second derivative at both ends
+     */
+    private static double[] quinticHermite(double p0, double v0, double p1, double v1) {
+        return new double[] {
+                p0,
+                v0,
+                0,
+                -10 * p0 -  6 * v0 + 10 * p1 -  4 * v1,
+                 15 * p0 +  8 * v0 - 15 * p1 +  7 * v1,
+                 -6 * p0 -  3 * v0 +  6 * p1 -  3 * v1 };
+    }
+
+    /**
+     * Evaluate a polynomial or its derivative
+     */
+    private static double evaluate(double[] c, double t, int derivative) {
+
+        double value = 0;
+
+        for (int i = c.length - 1; i >= derivative; i--) {
+
+            double coefficient = c[i];
+            for (int k = 0; k < derivative; k++) {
+                coefficient *= i - k;
+            }
+
+            value = value * t + coefficient;
+        }
+
+        return value;
+    }
+
+    private static double normalize(double heading) {
+
+        heading %= 360;
+
+        if (heading < 0) {
+            heading += 360;
+        }
+
+        return heading;
+    }
+}
@@ -0,0 +1,39 @@
+package com.torontocodingcollective.trajectory;
+
+/**
+ * Waypoint
+ * <p>
+ * A position and heading that a generated path passes through.
+ */
+public class TWaypoint {
+
+    /** x position in inches */
+    public final double x;
+
+    /** y position in inches */
+    public final double y;
+
+    /** heading in degrees (the direction of travel through the waypoint) */
+    public final double heading;
+
+    /**
+     * Waypoint
+     *
+     * @param x
+     *            in inches
+     * @param y
+     *            in inches
+     * @param heading
+     *            in degrees using the gyro convention (clockwise is positive)
+     */
+    public TWaypoint(double x, double y, double heading) {
+        this.x       = x;
+        this.y       = y;
+        this.heading = heading;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ", " + heading + ")";
+    }
+}
@@ -0,0 +1,221 @@
+package com.torontocodingcollective.vision;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.opencv.core.Mat;
+
+import edu.wpi.cscore.CvSink;
+import edu.wpi.cscore.VideoSource;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * OpenCV Vision Source
+ * <p>
+ * Runs a {@link TVisionPipeline} on the robot using the images from a camera,
+ * instead of running the pipeline off the robot and receiving the results
+ * through the NetworkTables.
+ * <p>
+ * The images are grabbed from the camera using a {@link CvSink} into a single
+ * preallocated image on a low priority vision thread. The results of each
+ * frame are published as a {@link TVisionFrame} that can be read from any
+ * thread.
+ * <p>
+ * Each frame is given a fixed time budget. After a frame is processed the
+ * vision thread sleeps for the rest of the budget, so that the pipeline never
+ * runs faster than one frame per budget period and leaves processor time for
+ * the robot loop. Frames that take longer than the budget to process are
+ * counted as overruns.
+ */
+public class TCvVisionSource implements TVisionSource {
+
+    /** Maximum number of targets in a frame */
+    public static final int                     MAX_TARGETS      = 32;
+
+    /** Time to wait for a camera image in seconds */
+    private static final double                 GRAB_TIMEOUT     = 0.5;
+
+    private final CvSink                        cvSink;
+    private final TVisionPipeline               pipeline;
+    private final double                        frameBudget;
+    private final double                        latency;
+
+    private final AtomicReference<TVisionFrame> frame            = new AtomicReference<TVisionFrame>();
+
+    // Vision thread state
+    private final Mat                           image            = new Mat();
+    private final double []                     centerX          = new double[MAX_TARGETS];
+    private final double []                     centerY          = new double[MAX_TARGETS];
+    private long                                sequence         = 0;
+    private String                              lastError        = null;
+
+    private volatile double                     processTime      = 0;
+    private volatile long                       overrunCount     = 0;
+
+    private volatile boolean                    running          = false;
+    private Thread                              visionThread     = null;
+
+    /**
+     * OpenCV Vision Source
+     *
+     * @param source
+     *            the camera that supplies the images
+     * @param pipeline
+     *            the pipeline used to find the targets
+     * @param frameBudget
+     *            the time budget for each frame in seconds
+     * @param latency
+     *            the time in seconds from the image capture until the image is
+     *            grabbed from the camera (exposure and USB transfer)
+     */
+    public TCvVisionSource(VideoSource source, TVisionPipeline pipeline, double frameBudget,
+            double latency) {
+
+        this.pipeline    = pipeline;
+        this.frameBudget = frameBudget;
+        this.latency     = latency;
+
+        cvSink = new CvSink("Vision Pipeline");
+        cvSink.setSource(source);
+        cvSink.setEnabled(false);
+    }
+
+    @Override
+    public TVisionFrame getFrame() {
+        return frame.get();
+    }
+
+    /**
+     * The frames are stamped with the time the image was grabbed, so the
+     * latency does not include the processing time.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public double getLatency() {
+        return latency;
+    }
+
+    /**
+     * Get the time taken to process the last frame
+     *
+     * @return time in seconds
+     */
+    public double getProcessTime() {
+        return processTime;
+    }
+
+    /**
+     * Get the number of frames that took longer than the frame budget to
+     * process
+     *
+     * @return overrun count
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Set the camera that supplies the images
+     * <p>
+     * This routine can be called from any thread.
+     *
+     * @param source
+     *            the camera
+     */
+    public void setSource(VideoSource source) {
+        cvSink.setSource(source);
+    }
+
+    @Override
+    public synchronized void start() {
+
+        if (running) {
+            return;
+        }
+
+        // Wait for a previous vision thread to finish with the image
+        if (visionThread != null) {
+            try {
+                visionThread.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        running = true;
+
+        cvSink.setEnabled(true);
+
+        visionThread = new Thread(this::visionLoop, "Vision");
+        visionThread.setDaemon(true);
+        visionThread.setPriority(Thread.MIN_PRIORITY);
+        visionThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+
+        if (!running) {
+            return;
+        }
+
+        // The vision thread stops after the current frame
+        running = false;
+        cvSink.setEnabled(false);
+    }
+
+    /**
+     * Grab and process the camera images until the source is stopped
+     */
+    private void visionLoop() {
+
+        while (running) {
+
+            double frameStartTime = Timer.getFPGATimestamp();
+
+            if (cvSink.grabFrame(image, GRAB_TIMEOUT) == 0) {
+
+                // Only report each error once
+                String error = cvSink.getError();
+                if (!error.equals(lastError)) {
+                    System.out.println("Vision camera error: " + error);
+                    lastError = error;
+                }
+                continue;
+            }
+
+            lastError = null;
+
+            double grabTime = Timer.getFPGATimestamp();
+
+            int count = pipeline.process(image, centerX, centerY);
+
+            double now = Timer.getFPGATimestamp();
+
+            // The targets are where they were when the image was grabbed
+            frame.set(new TVisionFrame(
+                    Arrays.copyOf(centerX, count),
+                    Arrays.copyOf(centerY, count),
+                    ++sequence, grabTime));
+
+            processTime = now - grabTime;
+            if (processTime > frameBudget) {
+                overrunCount++;
+            }
+
+            // Sleep for the rest of the frame budget
+            long sleepMillis = Math.round((frameBudget - (now - frameStartTime)) * 1000);
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                }
+                catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.torontocodingcollective.vision;
+
+/**
+ * Heading Tracker
+ * <p>
+ * An alpha-beta tracking filter for the heading of a vision target. Each vision
+ * frame updates the tracker with the measured target heading at the time the
+ * image was captured. The tracker smooths the heading, estimates the rate that
+ * the heading is changing, and predicts the heading between frames and through
+ * short dropouts.
+ * <p>
+ * The tracker keeps a confidence value from 0 to 1. The confidence rises on
+ * each frame with a target and falls on each frame without a target, so that
+ * one noisy or missing frame does not lose the target. The confidence drops to
+ * zero when there has been no target for the maximum coast time.
+ * <p>
+ * The measurement times are the times the images were captured. The coast
+ * time is measured in the same time base, so callers that receive the frames
+ * some time after the capture should take the latency off of the current time
+ * when getting the confidence, so that the latency is not counted as coast
+ * time.
+ * <p>
+ * A measurement that is further than the gate from the predicted heading is
+ * treated as a missed frame. If two measurements in a row are outside the
+ * gate, the target is assumed to have changed and the tracker restarts at the
+ * new measurement.
+ * <p>
+ * Headings are in degrees (0 &lt;= heading &lt; 360) and wrap around at 360.
+ * The tracker must only be used by one thread.
+ */
+public class THeadingTracker {
+
+    /** Fraction of the remaining confidence gained or lost on each frame */
+    private static final double CONFIDENCE_GAIN = 0.5;
+
+    private final double        alpha;
+    private final double        beta;
+    private final double        gate;
+    private final double        maxCoastTime;
+
+    private boolean             valid           = false;
+    private double              heading         = 0;
+    private double              rate            = 0;
+    private double              time            = 0;
+    private double              confidence      = 0;
+    private int                 outlierCount    = 0;
+
+    /**
+     * Heading Tracker
+     *
+     * @param alpha
+     *            heading gain (0 to 1). Higher values follow the measurements
+     *            more closely, lower values smooth the measurements more.
+     * @param beta
+     *            heading rate gain (0 to 1). Use 0 for a target that does not
+     *            move.
+     * @param gate
+     *            the largest difference between a measurement and the predicted
+     *            heading in degrees that is used to update the tracker
+     * @param maxCoastTime
+     *            the time in seconds after the last measurement that the
+     *            target is lost
+     */
+    public THeadingTracker(double alpha, double beta, double gate, double maxCoastTime) {
+        this.alpha        = alpha;
+        this.beta         = beta;
+        this.gate         = gate;
+        this.maxCoastTime = maxCoastTime;
+    }
+
+    /**
+     * Lose the target
+     * <p>
+     * The next measurement restarts the tracker.
+     */
+    public void reset() {
+        valid        = false;
+        rate         = 0;
+        confidence   = 0;
+        outlierCount = 0;
+    }
+
+    /**
+     * Update the tracker with a frame that contains the target
+     *
+     * @param measurementTime
+     *            the time the image was captured in seconds
+     * @param measuredHeading
+     *            the measured heading of the target in degrees
+     */
+    public void update(double measurementTime, double measuredHeading) {
+
+        if (!valid || measurementTime - time > maxCoastTime) {
+            restart(measurementTime, measuredHeading);
+            return;
+        }
+
+        double dt       = measurementTime - time;
+        double residual = wrap(measuredHeading - predict(measurementTime));
+
+        if (Math.abs(residual) > gate) {
+
+            outlierCount++;
+
+            if (outlierCount >= 2) {
+                restart(measurementTime, measuredHeading);
+            }
+            else {
+                miss();
+            }
+            return;
+        }
+
+        outlierCount = 0;
+
+        heading = normalize(predict(measurementTime) + alpha * residual);
+        if (dt > 0) {
+            rate += beta * residual / dt;
+        }
+        time = Math.max(time, measurementTime);
+
+        confidence += (1.0 - confidence) * CONFIDENCE_GAIN;
+    }
+
+    /**
+     * Update the tracker with a frame that does not contain the target
+     */
+    public void miss() {
+        confidence *= 1.0 - CONFIDENCE_GAIN;
+    }
+
+    /**
+     * Get the confidence that the target is being tracked
+     *
+     * @param now
+     *            the current time in seconds, in the time base of the
+     *            measurement times
+     * @return confidence from 0 (no target) to 1, or 0 if there has been no
+     *         target for the maximum coast time
+     */
+    public double getConfidence(double now) {
+
+        if (!valid || now - time >= maxCoastTime) {
+            return 0;
+        }
+
+        return confidence;
+    }
+
+    /**
+     * Get the predicted heading of the target
+     * <p>
+     * Check the confidence before using the heading.
+     *
+     * @param now
+     *            the current time in seconds
+     * @return heading in degrees (0 &lt;= heading &lt; 360)
+     */
+    public double getHeading(double now) {
+        return normalize(predict(now));
+    }
+
+    /**
+     * Get the estimated rate of change of the target heading
+     *
+     * @return rate in degrees per second
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    private void restart(double measurementTime, double measuredHeading) {
+        valid        = true;
+        heading      = normalize(measuredHeading);
+        rate         = 0;
+        time         = measurementTime;
+        outlierCount = 0;
+        confidence   = CONFIDENCE_GAIN;
+    }
+
+    private double predict(double now) {
+
+        // Do not predict past the coast time
+        double dt = Math.max(0, Math.min(now - time, maxCoastTime));
+
+        return heading + rate * dt;
+    }
+
+    private static double wrap(double degrees) {
+
+        degrees %= 360;
+
+        if (degrees > 180) {
+            degrees -= 360;
+        }
+        if (degrees <= -180) {
+            degrees += 360;
+        }
+
+        return degrees;
+    }
+
+    private static double normalize(double heading) {
+
+        heading %= 360;
+
+        if (heading < 0) {
+            heading += 360;
+        }
+
+        return heading;
+    }
+}
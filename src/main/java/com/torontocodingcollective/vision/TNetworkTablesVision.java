@@ -0,0 +1,154 @@
+package com.torontocodingcollective.vision;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.EntryNotification;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableValue;
+
+/**
+ * NetworkTables Vision Source
+ * <p>
+ * Receives the target center X and Y arrays published to the NetworkTables by
+ * an off robot vision pipeline (for example a GRIP contours report) using
+ * entry listeners, instead of polling the entries on every robot loop.
+ * <p>
+ * The X and Y arrays are published as separate entries. On each change, both
+ * entries are read and a new {@link TVisionFrame} is published only when both
+ * entries have been updated since the last published frame and the arrays are
+ * the same length. A new X array is never paired with the Y array of the
+ * previous pipeline frame. The NetworkTables do not send a value that has not
+ * changed, so a pipeline frame where only one of the arrays changed is not
+ * published (the target centers are measured to a fraction of a pixel, so
+ * this is rare while a target is in view).
+ * <p>
+ * The listener callbacks are run on the NetworkTables listener thread. The
+ * latest frame is swapped in atomically and can be read from any thread.
+ */
+public class TNetworkTablesVision implements TVisionSource {
+
+    private static final double[]               NO_TARGETS = new double[0];
+
+    private final NetworkTableEntry             centerXEntry;
+    private final NetworkTableEntry             centerYEntry;
+    private final double                        latency;
+
+    private final AtomicReference<TVisionFrame> frame      = new AtomicReference<TVisionFrame>();
+
+    // Listener thread state
+    private long                                sequence   = 0;
+    private long                                lastXTime  = -1;
+    private long                                lastYTime  = -1;
+
+    private int                                 xListener  = 0;
+    private int                                 yListener  = 0;
+    private boolean                             started    = false;
+
+    /**
+     * NetworkTables Vision Source
+     *
+     * @param table
+     *            the table that contains the target arrays
+     * @param centerXKey
+     *            key of the target center X array
+     * @param centerYKey
+     *            key of the target center Y array
+     * @param latency
+     *            the time in seconds from the image capture until the results
+     *            are published to the NetworkTables (camera stream and off
+     *            robot processing)
+     */
+    public TNetworkTablesVision(NetworkTable table, String centerXKey, String centerYKey,
+            double latency) {
+        centerXEntry = table.getEntry(centerXKey);
+        centerYEntry = table.getEntry(centerYKey);
+        this.latency = latency;
+    }
+
+    @Override
+    public TVisionFrame getFrame() {
+        return frame.get();
+    }
+
+    @Override
+    public double getLatency() {
+        return latency;
+    }
+
+    @Override
+    public void start() {
+
+        if (started) {
+            return;
+        }
+
+        int flags = EntryListenerFlags.kImmediate | EntryListenerFlags.kNew | EntryListenerFlags.kUpdate;
+
+        xListener = centerXEntry.addListener(this::valueChanged, flags);
+        yListener = centerYEntry.addListener(this::valueChanged, flags);
+
+        started = true;
+    }
+
+    @Override
+    public void stop() {
+
+        if (!started) {
+            return;
+        }
+
+        centerXEntry.removeListener(xListener);
+        centerYEntry.removeListener(yListener);
+
+        started = false;
+    }
+
+    /**
+     * Publish a new frame from the current values of both entries
+     *
+     * @param notification
+     *            the change notification for either entry
+     */
+    private void valueChanged(EntryNotification notification) {
+
+        NetworkTableValue xValue = centerXEntry.getValue();
+        NetworkTableValue yValue = centerYEntry.getValue();
+
+        if (xValue == null || yValue == null
+                || !xValue.isDoubleArray() || !yValue.isDoubleArray()) {
+            return;
+        }
+
+        long xTime = xValue.getTime();
+        long yTime = yValue.getTime();
+
+        // Wait until both values from the next pipeline frame have arrived
+        if (xTime == lastXTime || yTime == lastYTime) {
+            return;
+        }
+
+        double [] centerX = xValue.getDoubleArray();
+        double [] centerY = yValue.getDoubleArray();
+
+        if (centerX == null) {
+            centerX = NO_TARGETS;
+        }
+        if (centerY == null) {
+            centerY = NO_TARGETS;
+        }
+
+        // The other array from this pipeline frame has not arrived yet
+        if (centerX.length != centerY.length) {
+            return;
+        }
+
+        lastXTime = xTime;
+        lastYTime = yTime;
+
+        // The NetworkTables value time is in microseconds using the
+        // same clock as the FPGA timestamp
+        frame.set(new TVisionFrame(centerX, centerY, ++sequence, Math.max(xTime, yTime) / 1000000.0));
+    }
+}
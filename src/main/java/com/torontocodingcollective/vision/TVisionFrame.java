@@ -0,0 +1,56 @@
+package com.torontocodingcollective.vision;
+
+/**
+ * Vision Frame
+ * <p>
+ * The target centers found in one frame of a vision pipeline. A vision frame
+ * is immutable once it is published, so a reader always sees the X and Y
+ * values from the same frame.
+ * <p>
+ * NOTE: The arrays must not be modified after the frame is constructed.
+ */
+public final class TVisionFrame {
+
+    /** Target center X values */
+    public final double [] centerX;
+
+    /** Target center Y values (same length as centerX) */
+    public final double [] centerY;
+
+    /** Frame sequence number, incremented for each frame from a source */
+    public final long      sequence;
+
+    /**
+     * FPGA time in seconds that the source received the frame. The image was
+     * captured {@link TVisionSource#getLatency()} seconds before this time.
+     */
+    public final double    timestamp;
+
+    /**
+     * Vision Frame
+     *
+     * @param centerX
+     *            target center X values
+     * @param centerY
+     *            target center Y values (must be the same length as centerX)
+     * @param sequence
+     *            frame sequence number
+     * @param timestamp
+     *            FPGA time in seconds that the source received the frame
+     */
+    public TVisionFrame(double[] centerX, double[] centerY, long sequence, double timestamp) {
+        this.centerX   = centerX;
+        this.centerY   = centerY;
+        this.sequence  = sequence;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Get the number of targets in this frame
+     *
+     * @return target count
+     */
+    public int getTargetCount() {
+        return centerX.length;
+    }
+}
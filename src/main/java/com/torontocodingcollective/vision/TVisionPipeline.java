@@ -0,0 +1,27 @@
+package com.torontocodingcollective.vision;
+
+import org.opencv.core.Mat;
+
+/**
+ * Vision Pipeline
+ * <p>
+ * Finds the targets in a camera image. A pipeline is run on a single vision
+ * thread, and should reuse its working images between frames instead of
+ * allocating new images for each frame.
+ */
+public interface TVisionPipeline {
+
+    /**
+     * Find the targets in a camera image
+     *
+     * @param frame
+     *            the camera image (BGR). The image must not be modified.
+     * @param centerX
+     *            filled in with the target center X values
+     * @param centerY
+     *            filled in with the target center Y values
+     * @return the number of targets found. The count is limited to the length
+     *         of the center arrays.
+     */
+    int process(Mat frame, double[] centerX, double[] centerY);
+}
@@ -0,0 +1,40 @@
+package com.torontocodingcollective.vision;
+
+/**
+ * Vision Source
+ * <p>
+ * A source of {@link TVisionFrame}s. The source publishes each new frame on
+ * its own thread, and the robot loop reads the latest frame.
+ */
+public interface TVisionSource {
+
+    /**
+     * Get the most recent vision frame
+     * <p>
+     * This routine can be called from any thread and does not block.
+     *
+     * @return the latest {@link TVisionFrame}, or {@code null} if no frame has
+     *         been received
+     */
+    TVisionFrame getFrame();
+
+    /**
+     * Get the latency of this source
+     * <p>
+     * The time from the image capture until the frame timestamp. The image for a
+     * frame was captured at {@code frame.timestamp - getLatency()}.
+     *
+     * @return latency in seconds
+     */
+    double getLatency();
+
+    /**
+     * Start receiving vision frames
+     */
+    void start();
+
+    /**
+     * Stop receiving vision frames
+     */
+    void stop();
+}
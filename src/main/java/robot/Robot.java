@@ -4,14 +4,28 @@ package robot;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.torontocodingcollective.diagnostics.TLoopProfiler;
+import com.torontocodingcollective.diagnostics.TWarmUp;
+import com.torontocodingcollective.recorder.TFlightRecorder;
+import com.torontocodingcollective.recorder.TRecordable;
+import com.torontocodingcollective.sensors.TSensorFrame;
+import com.torontocodingcollective.subsystem.TDriveSubsystem.TSide;
 import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
 import com.torontocodingcollective.subsystem.TSubsystem;
+import com.torontocodingcollective.telemetry.TTelemetry;
+import com.torontocodingcollective.telemetry.TTelemetryNumber;
+import com.torontocodingcollective.telemetry.TTelemetryRate;
 
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.Scheduler;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import robot.commands.AutonomousCommand;
+import robot.commands.auto.AutoPaths;
+import robot.commands.auto.AutoRoutineCache;
 import robot.oi.AutoSelector;
 import robot.oi.OI;
 import robot.subsystems.CameraSubsystem;
@@ -19,6 +33,7 @@ import robot.subsystems.CanDriveSubsystem;
 import robot.subsystems.CargoSubsystem;
 import robot.subsystems.HatchSubsystem;
 import robot.subsystems.PwmDriveSubsystem;
+import robot.subsystems.SimDriveSubsystem;
 import robot.subsystems.WedgeSubsystem;
 
 /**
@@ -33,6 +48,7 @@ public class Robot extends TimedRobot {
     public static final List<TSubsystem>    subsystemLs         = new ArrayList<TSubsystem>();
 
     public static final TGyroDriveSubsystem driveSubsystem      = 
+            RobotBase.isSimulation() ? new SimDriveSubsystem() :
     		RobotConst.robot.equals(RobotConst.PROD_ROBOT) ? new CanDriveSubsystem() : new PwmDriveSubsystem();
 
     public static final HatchSubsystem      hatchSubsystem      = new HatchSubsystem();
@@ -44,6 +60,40 @@ public class Robot extends TimedRobot {
 
     private Command                         autoCommand;
 
+    // Auto start latency from the time auto is enabled to the first
+    // drive output, not including the selected delay
+    private final TTelemetryNumber          autoStartLatency    = 
+            TTelemetry.addNumber("Auto Start Latency", TTelemetryRate.DIAGNOSTIC, .001);
+    private double                          autoEnableTime      = 0;
+    private double                          autoDelayTime       = 0;
+    private boolean                         autoFirstOutput     = false;
+
+    // Sensors sampled once at the start of each loop
+    private final TSensorFrame              sensorFrame         = new TSensorFrame();
+
+    // Loop profiler used to find which phase of the periodic loop
+    // is causing loop time overruns
+    private final TLoopProfiler             loopProfiler        = new TLoopProfiler("Loop", kDefaultPeriod);
+    private int                             sensorPhase;
+    private int                             oiPhase;
+    private int                             schedulerPhase;
+    private int                             autoRoutinePhase;
+    private int                             telemetryPhase;
+    private int                             warmUpPhase;
+    private int                             recorderPhase;
+    private final int []                    subsystemPhases     = new int[subsystemLs.size()];
+
+    // Warm up the drive and vision calculations while disabled
+    private final TWarmUp                   warmUp              = 
+            RobotConst.WARM_UP_ENABLED ? RobotWarmUp.create() : null;
+
+    // Flight recorder used to record the robot state on every enabled loop
+    private final TFlightRecorder           flightRecorder      = new TFlightRecorder(
+            RobotConst.FLIGHT_RECORDER_DIRECTORY,
+            RobotConst.FLIGHT_RECORDER_RING_RECORDS,
+            RobotConst.FLIGHT_RECORDER_FILE_BYTES,
+            RobotConst.FLIGHT_RECORDER_MAX_FILES);
+
     // Add all of the subsystems to the subsystem list
     static {
         subsystemLs.add(driveSubsystem);
@@ -59,21 +109,51 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotInit() {
+
+        sensorPhase      = loopProfiler.addPhase("Sensors");
+        oiPhase          = loopProfiler.addPhase("OI");
+        schedulerPhase   = loopProfiler.addPhase("Scheduler");
+        autoRoutinePhase = loopProfiler.addPhase("Auto Routines");
+        for (int i = 0; i < subsystemLs.size(); i++) {
+            subsystemPhases[i] = loopProfiler.addPhase(subsystemLs.get(i).getClass().getSimpleName());
+        }
+        telemetryPhase   = loopProfiler.addPhase("Telemetry");
+        warmUpPhase      = loopProfiler.addPhase("Warm Up");
+        recorderPhase    = loopProfiler.addPhase("Recorder");
+
         oi.init();
         
         for (TSubsystem subsystem : subsystemLs) {
             subsystem.init();
+            subsystem.addSensors(sensorFrame);
         }
         
+        // Load the auto path trajectories before the auto commands are built
+        AutoPaths.load();
+
         AutoSelector.init();
         Robot.oi.setAutoAlign(false);
+
+        // The simulated drive is stepped on the robot loop
+        if (RobotConst.DRIVE_CONTROL_LOOP_ENABLED && !isSimulation()) {
+            driveSubsystem.startControlLoop(RobotConst.DRIVE_CONTROL_LOOP_PERIOD);
+        }
+
+        if (RobotConst.FLIGHT_RECORDER_ENABLED) {
+            for (TSubsystem subsystem : subsystemLs) {
+                if (subsystem instanceof TRecordable) {
+                    ((TRecordable) subsystem).addRecordFields(flightRecorder);
+                }
+            }
+            flightRecorder.start();
+        }
         
     	SmartDashboard.putBoolean("Driver Controlling", false);
-    	// Create an auto command but do nothing with it... 
-    	// We are having a problem with the robot starting late in
-    	// auto the first time after power up.  Not sure if it 
-    	// is an issue of needing to pre-load the classes
-    	autoCommand = new AutonomousCommand();
+
+    	// Build all of the auto routines so that the classes are loaded
+    	// and the commands are constructed before auto starts.
+    	// The robot was starting late in auto the first time after power up.
+    	AutoRoutineCache.buildAll();
     }
 
     /**
@@ -83,16 +163,36 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void disabledInit() {
-
+        updateTelemetryProfile();
     }
 
     @Override
     public void disabledPeriodic() {
 
+        loopProfiler.startLoop();
+
+        // Sample all sensors once at the start of the loop
+        sensorFrame.sample();
+        loopProfiler.endPhase(sensorPhase);
+
         oi.updatePeriodic();
+        loopProfiler.endPhase(oiPhase);
 
         Scheduler.getInstance().run();
+        loopProfiler.endPhase(schedulerPhase);
+
+        // Track the auto selection and rebuild any used auto routines
+        AutoRoutineCache.update();
+        loopProfiler.endPhase(autoRoutinePhase);
+
         updatePeriodic();
+
+        if (warmUp != null) {
+            warmUp.update();
+            loopProfiler.endPhase(warmUpPhase);
+        }
+
+        loopProfiler.endLoop();
     }
 
     /**
@@ -109,7 +209,11 @@ public class Robot extends TimedRobot {
     @Override
     public void autonomousInit() {
 
+        autoEnableTime = Timer.getFPGATimestamp();
+
     	System.out.println("AutoInit: " + System.currentTimeMillis());
+    	updateTelemetryProfile();
+
         // Turn off the drive pids for auto
         Robot.oi.setSpeedPidEnabled(false);
         driveSubsystem.disableSpeedPids();
@@ -125,9 +229,17 @@ public class Robot extends TimedRobot {
 
         Robot.oi.setAutoAlign(false);
 
-        // Initialize the robot command after initializing the game data
-        // because the game data will be used in the auto command.
-        autoCommand = new AutonomousCommand();
+        // Start each match in a new flight recorder file
+        if (RobotConst.FLIGHT_RECORDER_ENABLED) {
+            flightRecorder.newFile();
+        }
+
+        // Start the auto routine built for the current selection
+        AutonomousCommand autonomousCommand = AutoRoutineCache.take();
+        autoDelayTime   = autonomousCommand.getDelayTime();
+        autoFirstOutput = false;
+
+        autoCommand = autonomousCommand;
         autoCommand.start();
 
         System.out.println("AutoInit Complete: " + System.currentTimeMillis());
@@ -139,22 +251,37 @@ public class Robot extends TimedRobot {
     @Override
     public void autonomousPeriodic() {
 
+        loopProfiler.startLoop();
+
+        // Sample all sensors once at the start of the loop
+        sensorFrame.sample();
+        loopProfiler.endPhase(sensorPhase);
+
         // Update the OI before running the commands
         oi.updatePeriodic();
+        loopProfiler.endPhase(oiPhase);
 
         if (oi.isOperatorDriving() || oi.isDriverDriving()) {
             autoCommand.cancel();
         }
         Scheduler.getInstance().run();
+        loopProfiler.endPhase(schedulerPhase);
+
 
+        updateAutoStartLatency();
 
         // Update all subsystems after running commands
         updatePeriodic();
+        recordFlightData();
+
+        loopProfiler.endLoop();
     }
 
     @Override
     public void teleopInit() {
 
+        updateTelemetryProfile();
+
         if (autoCommand != null) {
             autoCommand.cancel();
         }
@@ -170,13 +297,24 @@ public class Robot extends TimedRobot {
     @Override
     public void teleopPeriodic() {
 
+        loopProfiler.startLoop();
+
+        // Sample all sensors once at the start of the loop
+        sensorFrame.sample();
+        loopProfiler.endPhase(sensorPhase);
+
         // Update the OI before running the commands
         oi.updatePeriodic();
+        loopProfiler.endPhase(oiPhase);
 
         Scheduler.getInstance().run();
+        loopProfiler.endPhase(schedulerPhase);
 
         // Update all subsystems after running commands
         updatePeriodic();
+        recordFlightData();
+
+        loopProfiler.endLoop();
     }
 
     /**
@@ -184,6 +322,9 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void testPeriodic() {
+
+        // Sample all sensors so that the sampled values are current in test mode
+        sensorFrame.sample();
     }
 
     /**
@@ -191,9 +332,69 @@ public class Robot extends TimedRobot {
      */
     private void updatePeriodic() {
 
-        // Update all subsystems
-        for (TSubsystem subsystem : subsystemLs) {
-            subsystem.updatePeriodic();
+        // Update all subsystems, timing each one
+        for (int i = 0; i < subsystemLs.size(); i++) {
+            subsystemLs.get(i).updatePeriodic();
+            loopProfiler.endPhase(subsystemPhases[i]);
         }
+
+        // Publish all of the telemetry values set in this loop
+        TTelemetry.flush();
+        loopProfiler.endPhase(telemetryPhase);
+    }
+
+    /**
+     * Measure the time from auto enable to the first drive output
+     * <p>
+     * The selected auto delay is not included in the latency.
+     */
+    private void updateAutoStartLatency() {
+
+        if (autoFirstOutput) {
+            return;
+        }
+
+        if (driveSubsystem.getSpeedController(TSide.LEFT).get() == 0
+                && driveSubsystem.getSpeedController(TSide.RIGHT).get() == 0) {
+            return;
+        }
+
+        autoFirstOutput = true;
+
+        double latency = Timer.getFPGATimestamp() - autoEnableTime - autoDelayTime;
+
+        autoStartLatency.set(latency);
+        System.out.println("Auto start latency " + Math.round(latency * 1000) + "ms");
+    }
+
+    /**
+     * Record the state of all recordable subsystems
+     */
+    private void recordFlightData() {
+
+        if (!flightRecorder.isRunning()) {
+            return;
+        }
+
+        for (int i = 0; i < subsystemLs.size(); i++) {
+            TSubsystem subsystem = subsystemLs.get(i);
+            if (subsystem instanceof TRecordable) {
+                ((TRecordable) subsystem).record(flightRecorder);
+            }
+        }
+
+        // Stamp the record with the time the sensors were sampled
+        flightRecorder.commit(sensorFrame.getTimestamp());
+        loopProfiler.endPhase(recorderPhase);
+    }
+
+    /**
+     * Use the competition telemetry profile if configured, or if the
+     * robot is connected to the FMS.
+     */
+    private void updateTelemetryProfile() {
+        TTelemetry.setCompetitionProfile(
+                   RobotConst.TELEMETRY_COMPETITION_PROFILE
+                || DriverStation.getInstance().isFMSAttached());
     }
 }
@@ -19,9 +19,16 @@ public class RobotConst {
 
     public static final double  DRIVE_SPEED_PID_KP;
     public static final double  DRIVE_SPEED_PID_KI;
+
+    // Speed multipliers used to balance the left and right sides
+    public static final double  DRIVE_LEFT_SPEED_ADJUST;
+    public static final double  DRIVE_RIGHT_SPEED_ADJUST;
     
     public static final double  ENCODER_COUNTS_PER_INCH;
 
+    /** Speed of the robot in inches/second at full drive speed */
+    public static final double  DRIVE_MAX_SPEED_INCHES;
+
     // *********************************************************
     // For Ultrasonic Calibration
     // *********************************************************
@@ -42,6 +49,149 @@ public class RobotConst {
     
     public static final double  CAMERA_FIELD_OF_VIEW_ANGLE = 51;
 
+    // Time from the camera image capture until the GRIP results arrive
+    // in the NetworkTables (exposure, MJPEG stream and GRIP processing).
+    // The vision targets are corrected using the robot heading at the
+    // capture time.
+    // XXX: Measure this value
+    public static final double  VISION_LATENCY = 0.1;
+
+    // Vision target tracking filter (alpha-beta) on the target heading.
+    // The tracker smooths the target heading between frames and keeps the
+    // target through short dropouts.
+    public static final double  VISION_TRACK_ALPHA          = 0.5;
+    public static final double  VISION_TRACK_BETA           = 0.1;
+    /** Measurements further than this from the tracked heading (degrees) are ignored */
+    public static final double  VISION_TRACK_GATE           = 10.0;
+    /** Time after the last target frame arrived that the target is lost */
+    public static final double  VISION_TRACK_MAX_COAST_TIME = 0.5;
+    /** Tracker confidence (0-1) required for the targets to be found */
+    public static final double  VISION_TRACK_MIN_CONFIDENCE = 0.4;
+
+    // The GRIP contours report is not resent when the targets do not
+    // change. While the robot does not rotate, the last targets are used
+    // as a new measurement at this period so that the targets are not lost.
+    public static final double  VISION_STATIONARY_REFRESH_PERIOD = 0.1;
+    /** Robot rotation since the target capture (degrees) that makes the last targets stale */
+    public static final double  VISION_STATIONARY_MAX_ROTATION   = 0.5;
+    /**
+     * Time after the last frame arrived that the last targets are no longer
+     * used, so that the targets are lost if the vision processing stops
+     */
+    public static final double  VISION_STATIONARY_MAX_AGE        = 4 * VISION_TRACK_MAX_COAST_TIME;
+
+    // Once the robot is aligned within the VISION_AVG_X_ERROR_MARGIN, 
+    // alignment is not needed again until the robot is off by more than
+    // the margin plus this hysteresis (degrees).
+    public static final double  VISION_ALIGN_HYSTERESIS = 1.0;
+
+    // Total bandwidth for the selected camera stream to the driver station
+    // in megabits per second. The FMS limits the robot radio to 4 Mbps.
+    // The stream frame rate is reduced to stay within the budget.
+    public static final double  CAMERA_BANDWIDTH_BUDGET_MBPS = 3.0;
+
+    // Run the reflective tape pipeline on the robot instead of using the
+    // GRIP contours report from the driver station.
+    public static final boolean VISION_ON_ROBOT_PIPELINE = false;
+
+    // Time budget for each frame of the on robot pipeline in seconds.
+    // The pipeline does not run faster than one frame per budget period.
+    public static final double  VISION_FRAME_BUDGET = 1.0 / 15.0;
+
+    // Time from the camera image capture until the on robot pipeline
+    // grabs the image (exposure and USB transfer).
+    // XXX: Measure this value
+    public static final double  VISION_CAMERA_LATENCY = 0.05;
+
+    // *********************************************************
+    // Auto Motion Profiles
+    // *********************************************************
+    // Limits used for the profiled drive distance segments in auto
+    /** Cruise speed (same as the previous .5 drive speed) in inches/second */
+    public static final double  AUTO_PROFILE_MAX_VELOCITY;
+    /** Acceleration in inches/second^2 */
+    public static final double  AUTO_PROFILE_MAX_ACCELERATION = 150.0;
+    /** Jerk in inches/second^3 (reaches the max acceleration in 0.1s) */
+    public static final double  AUTO_PROFILE_MAX_JERK         = 1500.0;
+
+    // *********************************************************
+    // Auto Paths
+    // *********************************************************
+    // Limits used to generate the auto path trajectories. The trajectories
+    // are generated by the generateTrajectories build task, so the code must
+    // be redeployed after these values are changed.
+    /** Path speed (same as the previous .8 drive speed) in inches/second */
+    public static final double  AUTO_PATH_MAX_VELOCITY;
+    /** Acceleration in inches/second^2 */
+    public static final double  AUTO_PATH_MAX_ACCELERATION    = 150.0;
+    /** Distance between the left and right wheels */
+    public static final double  DRIVE_TRACK_WIDTH_INCHES      = 24.0;
+    /** Pure pursuit look ahead distance in inches */
+    public static final double  AUTO_PATH_LOOKAHEAD           = 18.0;
+    /** Directory of the trajectory files in the deploy directory */
+    public static final String  AUTO_PATH_DIRECTORY           = "paths";
+
+    // *********************************************************
+    // Drive Control Loop
+    // *********************************************************
+    // Run the drive speed and gyro PIDs on a separate thread at a
+    // higher rate than the 50Hz robot loop.
+    public static final boolean DRIVE_CONTROL_LOOP_ENABLED    = false;
+    /** Drive control loop period (200Hz) */
+    public static final double  DRIVE_CONTROL_LOOP_PERIOD     = 0.005;
+
+    // *********************************************************
+    // JIT Warm Up
+    // *********************************************************
+    // Run the drive and vision calculations while the robot is disabled
+    // so that they are compiled before the match. No outputs are set.
+    public static final boolean WARM_UP_ENABLED               = false;
+    /** Iterations of each warm up task */
+    public static final int     WARM_UP_ITERATIONS            = 20000;
+    /** Maximum warm up time in each disabled loop */
+    public static final double  WARM_UP_LOOP_BUDGET           = 0.005;
+
+    // *********************************************************
+    // Telemetry
+    // *********************************************************
+    // Drop the debug SmartDashboard values. The competition profile is
+    // always used when the robot is connected to the FMS.
+    public static final boolean TELEMETRY_COMPETITION_PROFILE = false;
+
+    // *********************************************************
+    // Flight Recorder
+    // *********************************************************
+    // Record the drive, PID and vision state on every enabled loop
+    public static final boolean FLIGHT_RECORDER_ENABLED       = true;
+    public static final String  FLIGHT_RECORDER_DIRECTORY     = "/home/lvuser/flightlog";
+    /** Records buffered in memory (500 records = 10 seconds) */
+    public static final int     FLIGHT_RECORDER_RING_RECORDS  = 500;
+    /**
+     * Each file is preallocated on the roboRIO flash. A record is about 300
+     * bytes (15KB/s), so a 4MB file holds about 4 minutes of enabled time.
+     */
+    public static final long    FLIGHT_RECORDER_FILE_BYTES    = 4 * 1024 * 1024;
+    /** Keep the last 5 files (20MB of flash) */
+    public static final int     FLIGHT_RECORDER_MAX_FILES     = 5;
+
+    // *********************************************************
+    // Simulation
+    // *********************************************************
+    // Drive model used when the robot code runs on the desktop
+    /** Time to reach 63% of full speed from a stop (robot mass) */
+    public static final double  SIM_LINEAR_TIME_CONSTANT      = 0.3;
+    /** Time to reach 63% of full rotation speed when pivoting */
+    public static final double  SIM_ANGULAR_TIME_CONSTANT     = 0.2;
+    public static final double  SIM_TRACK_WIDTH_INCHES        = 24.0;
+    /** Wheel scrub as a fraction of the full motor force */
+    public static final double  SIM_SCRUB_FACTOR              = 0.15;
+    /** Simulated loop period (same as the robot loop) */
+    public static final double  SIM_LOOP_PERIOD               = 0.02;
+    /** Scale from counts/second to the units of the drive encoder rate */
+    public static final double  SIM_ENCODER_RATE_SCALE;
+    /** Free speed of the simulated drive in inches/second */
+    public static final double  SIM_FREE_SPEED;
+
     public enum Direction {
         FORWARD, BACKWARD
     };
@@ -72,12 +222,19 @@ public class RobotConst {
             //DRIVE_SPEED_PID_KI = DRIVE_SPEED_PID_KP / 20.0;
             DRIVE_SPEED_PID_KI = 0.0375;
 
+            // Reduce the speed on the right side to balance with the left
+            DRIVE_LEFT_SPEED_ADJUST  = 1.2;
+            DRIVE_RIGHT_SPEED_ADJUST = 1.0;
+
             ENCODER_COUNTS_PER_INCH = 54;
 
             ULTRASONIC_VOLTAGE_20IN       = 0.18;
             ULTRASONIC_VOLTAGE_40IN       = 0.38;
             ULTRASONIC_VOLTAGE_80IN       = 0.76;
             ULTRASONIC_RECESS             = 10.0;
+
+            // The TalonSRX encoder rates are in counts/100ms
+            SIM_ENCODER_RATE_SCALE        = 0.1;
             
             break;
             
@@ -100,15 +257,28 @@ public class RobotConst {
             //DRIVE_SPEED_PID_KI = DRIVE_SPEED_PID_KP / 20.0;
             DRIVE_SPEED_PID_KI = 0.001;
 
+            // Left side is faster than right side on the practice bot
+            DRIVE_LEFT_SPEED_ADJUST  = 0.92;
+            DRIVE_RIGHT_SPEED_ADJUST = 1.0;
+
             ENCODER_COUNTS_PER_INCH = 28.52;
 
             ULTRASONIC_VOLTAGE_20IN       = 0.45;
             ULTRASONIC_VOLTAGE_40IN       = 0.96;
             ULTRASONIC_VOLTAGE_80IN       = 1.85;
             ULTRASONIC_RECESS             = 8.0;
+
+            SIM_ENCODER_RATE_SCALE        = 1.0;
             
             break;
         }
 
+        // The max low gear speed is just below the loaded speed of the robot
+        SIM_FREE_SPEED = MAX_LOW_GEAR_SPEED / SIM_ENCODER_RATE_SCALE / ENCODER_COUNTS_PER_INCH * 1.1;
+
+        DRIVE_MAX_SPEED_INCHES    = MAX_LOW_GEAR_SPEED / SIM_ENCODER_RATE_SCALE / ENCODER_COUNTS_PER_INCH;
+        AUTO_PROFILE_MAX_VELOCITY = DRIVE_MAX_SPEED_INCHES * .5;
+        AUTO_PATH_MAX_VELOCITY    = DRIVE_MAX_SPEED_INCHES * .8;
+
     }
 }
@@ -0,0 +1,302 @@
+package robot;
+
+import java.util.Random;
+
+import com.torontocodingcollective.TConst;
+import com.torontocodingcollective.commands.TDifferentialDrive;
+import com.torontocodingcollective.commands.gyroDrive.TDriveOnHeadingCommand;
+import com.torontocodingcollective.commands.gyroDrive.TRotateToHeadingCommand;
+import com.torontocodingcollective.diagnostics.TWarmUp;
+import com.torontocodingcollective.oi.TOi;
+import com.torontocodingcollective.oi.TStick;
+import com.torontocodingcollective.oi.TStickPosition;
+import com.torontocodingcollective.pid.TPID;
+import com.torontocodingcollective.sensors.TSensorFrame;
+import com.torontocodingcollective.sim.TDifferentialDriveModel;
+import com.torontocodingcollective.sim.TSimDriveSubsystem;
+import com.torontocodingcollective.speedcontroller.TSpeeds;
+import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
+import com.torontocodingcollective.telemetry.TTelemetry;
+
+import robot.subsystems.CameraSubsystem;
+
+/**
+ * Robot JIT Warm Up
+ * <p>
+ * Builds the {@link TWarmUp} tasks for the calculations that run on every
+ * loop in autonomous and teleop: the drive stick calculations, the gyro drive
+ * commands, the speed and gyro PIDs, the odometry and the vision target
+ * filtering.
+ * <p>
+ * The drive commands steer a simulated drive subsystem instead of the robot
+ * drive subsystem so that no speed controller is ever set during the warm up.
+ */
+public class RobotWarmUp {
+
+    /**
+     * Create the robot warm up
+     * 
+     * @return TWarmUp with all of the robot tasks added
+     */
+    public static TWarmUp create() {
+
+        TWarmUp warmUp = new TWarmUp(RobotConst.WARM_UP_LOOP_BUDGET);
+
+        warmUp.addTask("Differential Drive", RobotConst.WARM_UP_ITERATIONS, new DriveTask());
+        warmUp.addTask("Drive PIDs",         RobotConst.WARM_UP_ITERATIONS, new PidTask());
+        warmUp.addTask("Vision",             RobotConst.WARM_UP_ITERATIONS, CameraSubsystem.createWarmUpTask());
+
+        return warmUp;
+    }
+
+    /**
+     * Run the stick positions through the differential drive calculations
+     */
+    private static class DriveTask implements Runnable {
+
+        private static final int       POSITION_COUNT    = 64;
+
+        private final TDifferentialDrive differentialDrive = new TDifferentialDrive();
+        private final TSpeeds          motorSpeeds       = new TSpeeds();
+        private final TStickPosition[] leftPositions     = new TStickPosition[POSITION_COUNT];
+        private final TStickPosition[] rightPositions    = new TStickPosition[POSITION_COUNT];
+
+        private int                    index             = 0;
+
+        DriveTask() {
+
+            Random random = new Random(854);
+
+            for (int i = 0; i < POSITION_COUNT; i++) {
+                leftPositions[i]  = new TStickPosition(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+                rightPositions[i] = new TStickPosition(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+            }
+        }
+
+        @Override
+        public void run() {
+
+            index = (index + 1) % POSITION_COUNT;
+
+            differentialDrive.arcadeDrive(leftPositions[index], motorSpeeds);
+            differentialDrive.arcadeDrive(leftPositions[index], rightPositions[index], motorSpeeds);
+            differentialDrive.tankDrive(leftPositions[index], rightPositions[index], motorSpeeds);
+        }
+    }
+
+    /**
+     * Drive a simulated robot with the gyro drive commands
+     * <p>
+     * The rotate to heading and drive on heading commands steer a
+     * {@link TSimDriveSubsystem}, so the same command, gyro PID, speed PID and
+     * odometry code that runs in autonomous is warmed up. The commands are run
+     * directly instead of through the Scheduler, and the simulated drive is
+     * not connected to any motors.
+     * <p>
+     * Each run is one 20ms loop. A new heading and speed are used every few
+     * seconds so that the PIDs see large and small errors in both directions.
+     */
+    private static class PidTask implements Runnable {
+
+        /** Loops between setpoint changes (3 seconds) */
+        private static final int           SETPOINT_LOOPS = 150;
+
+        private final TSensorFrame         sensorFrame    = new TSensorFrame();
+        private final TOi                  oi             = new WarmUpOi();
+        private final WarmUpDriveSubsystem drive;
+        private final RotateCommand        rotateCommand;
+
+        private final Random               random         = new Random(854);
+
+        private WarmUpCommand              command        = null;
+        private int                        loopCount      = 0;
+        private double                     time           = 0;
+
+        PidTask() {
+
+            // The warm up drive uses the same telemetry keys as the robot drive
+            TTelemetry.setPublishNewEntries(false);
+            drive = new WarmUpDriveSubsystem();
+            TTelemetry.setPublishNewEntries(true);
+
+            drive.addSensors(sensorFrame);
+
+            // Run the PIDs on the warm up time
+            drive.setPidTimeSource(() -> time);
+            drive.enableSpeedPids();
+
+            rotateCommand = new RotateCommand(oi, drive);
+        }
+
+        @Override
+        public void run() {
+
+            time += TPID.NOMINAL_PERIOD;
+
+            sensorFrame.sample(time);
+
+            // Alternate between rotating and driving on a heading
+            if (loopCount % SETPOINT_LOOPS == 0) {
+
+                if (command != null) {
+                    command.endWarmUp();
+                }
+
+                if ((loopCount / SETPOINT_LOOPS) % 2 == 0) {
+                    rotateCommand.setHeading(random.nextInt(360));
+                    command = rotateCommand;
+                } else {
+                    command = new DriveOnHeadingCommand(random.nextInt(360), random.nextDouble(), oi, drive);
+                }
+
+                command.initializeWarmUp();
+            }
+
+            loopCount++;
+
+            if (command != null && !command.executeWarmUp()) {
+                command.endWarmUp();
+                command = null;
+            }
+
+            drive.update();
+            drive.updateModel(TPID.NOMINAL_PERIOD);
+        }
+    }
+
+    /**
+     * Simulated drive with the robot constants that is updated by the warm up
+     */
+    private static class WarmUpDriveSubsystem extends TSimDriveSubsystem {
+
+        WarmUpDriveSubsystem() {
+            super(
+                    new TDifferentialDriveModel(
+                            RobotConst.SIM_FREE_SPEED,
+                            RobotConst.SIM_LINEAR_TIME_CONSTANT,
+                            RobotConst.SIM_ANGULAR_TIME_CONSTANT,
+                            RobotConst.SIM_TRACK_WIDTH_INCHES,
+                            RobotConst.SIM_SCRUB_FACTOR),
+
+                    RobotConst.ENCODER_COUNTS_PER_INCH,
+                    RobotConst.SIM_ENCODER_RATE_SCALE,
+                    RobotConst.DRIVE_SPEED_PID_KP,
+                    RobotConst.DRIVE_SPEED_PID_KI,
+                    RobotConst.MAX_LOW_GEAR_SPEED,
+                    RobotConst.DRIVE_GYRO_PID_KP,
+                    RobotConst.DRIVE_GYRO_PID_KI,
+                    RobotConst.DRIVE_MAX_ROTATION_OUTPUT);
+        }
+
+        /**
+         * Update the odometry and the gyro and speed PIDs without publishing
+         * the drive telemetry
+         */
+        void update() {
+            updateControl();
+        }
+    }
+
+    /**
+     * Command lifecycle called directly by the warm up
+     */
+    private interface WarmUpCommand {
+
+        void initializeWarmUp();
+
+        /**
+         * Execute the command for one loop
+         * 
+         * @return {@code true} if the command is still running
+         */
+        boolean executeWarmUp();
+
+        void endWarmUp();
+    }
+
+    /**
+     * Rotate to heading command with no timeout and no messages
+     * <p>
+     * The warm up runs many commands, so the command messages are not printed.
+     */
+    private static class RotateCommand extends TRotateToHeadingCommand implements WarmUpCommand {
+
+        RotateCommand(TOi oi, TGyroDriveSubsystem drive) {
+            super(0, TConst.NO_COMMAND_TIMEOUT, oi, drive);
+        }
+
+        @Override
+        protected void logMessage(String message) {
+        }
+
+        @Override
+        public void initializeWarmUp() {
+            initialize();
+        }
+
+        @Override
+        public boolean executeWarmUp() {
+            execute();
+            return !isFinished();
+        }
+
+        @Override
+        public void endWarmUp() {
+            end();
+        }
+    }
+
+    /**
+     * Drive on heading command with no timeout and no messages
+     */
+    private static class DriveOnHeadingCommand extends TDriveOnHeadingCommand implements WarmUpCommand {
+
+        DriveOnHeadingCommand(double heading, double speed, TOi oi, TGyroDriveSubsystem drive) {
+            super(heading, speed, TConst.NO_COMMAND_TIMEOUT, oi, drive);
+        }
+
+        @Override
+        protected void logMessage(String message) {
+        }
+
+        @Override
+        public void initializeWarmUp() {
+            initialize();
+        }
+
+        @Override
+        public boolean executeWarmUp() {
+            execute();
+            return !isFinished();
+        }
+
+        @Override
+        public void endWarmUp() {
+            end();
+        }
+    }
+
+    /** OI with no driver input */
+    private static class WarmUpOi extends TOi {
+
+        @Override
+        public boolean getCancelCommand() {
+            return false;
+        }
+
+        @Override
+        public TStickPosition getDriveStickPosition(TStick stick) {
+            return new TStickPosition(0, 0);
+        }
+
+        @Override
+        public boolean getReset() {
+            return false;
+        }
+
+        @Override
+        public boolean getSpeedPidEnabled() {
+            return true;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package robot.commands;
 
 import com.torontocodingcollective.commands.gyroDrive.TDriveOnHeadingDistanceCommand;
+import com.torontocodingcollective.commands.gyroDrive.TProfiledDriveDistanceCommand;
 import com.torontocodingcollective.commands.gyroDrive.TRotateToHeadingCommand;
+import com.torontocodingcollective.profile.TMotionProfile;
 
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import robot.Robot;
+import robot.RobotConst;
 import robot.commands.auto.AutoDelay;
+import robot.commands.auto.AutoPaths;
 import robot.commands.auto.DriveToUltrasonicDistance;
 import robot.commands.hatch.DropHatchCommand;
 import robot.oi.AutoSelector;
@@ -19,6 +23,13 @@ import robot.commands.auto.WaitForVisionTarget;
  */
 public class AutonomousCommand extends CommandGroup {
 
+    private final String robotStartPosition;
+    private final String pattern;
+    private final double delayTime;
+
+    // Set when the pattern added drive commands for the start position
+    private boolean      patternBuilt = false;
+
     /**
      * Autonomous Command
      * <p>
@@ -42,21 +53,32 @@ public class AutonomousCommand extends CommandGroup {
      * sensor information relevant to when the command is run.
      */
     public AutonomousCommand() {
+        this(AutoSelector.getRobotStartPosition(), 
+             AutoSelector.getPattern(), 
+             AutoSelector.getDelayTime());
+    }
+
+    /**
+     * Autonomous Command
+     * <p>
+     * Construct the Autonomous Command for a start position, pattern and 
+     * delay. The auto routines are built ahead of time for every selection
+     * (see {@link robot.commands.auto.AutoRoutineCache}).
+     * 
+     * @param robotStartPosition
+     *            one of the AutoSelector robot positions
+     * @param pattern
+     *            one of the AutoSelector patterns
+     * @param delayTime
+     *            delay before the pattern in seconds
+     */
+    public AutonomousCommand(String robotStartPosition, String pattern, double delayTime) {
 
         boolean deliver = true;
         
-        // getting info
-        String robotStartPosition = AutoSelector.getRobotStartPosition();
-        String pattern            = AutoSelector.getPattern();
-        double delayTime          = AutoSelector.getDelayTime();
-
-        // Print out the user selection and Game config for debug later
-        System.out.println("Auto Command Configuration");
-        System.out.println("--------------------------");
-        System.out.println("Robot Position : " + robotStartPosition);
-        System.out.println("Pattern        : " + pattern);
-        System.out.println("Delay Time     : " + delayTime);
-
+        this.robotStartPosition = robotStartPosition;
+        this.pattern            = pattern;
+        this.delayTime          = delayTime;
         
         // Delay before pattern
 		if (delayTime > 0) {
@@ -74,34 +96,44 @@ public class AutonomousCommand extends CommandGroup {
         	case AutoSelector.ROBOT_RIGHT:
         		
                 addParallel(new DropHatchCommand());
-                addSequential(new TDriveOnHeadingDistanceCommand(40, 0, .5, 5, true, 
-                Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.1));
-                addSequential(new TRotateToHeadingCommand(330, 3, Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.1));
-                addSequential(new TDriveOnHeadingDistanceCommand(35, 330, .5, 5, true, 
-                Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.1));
-                addSequential(new TRotateToHeadingCommand(0, 3, Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.5));
+                
+                // Follow the path without stopping to turn if it was
+                // loaded, otherwise drive and turn to the same position
+                if (AutoPaths.get(AutoPaths.FRONT_HATCH_RIGHT) != null) {
+                    addSequential(AutoPaths.follow(AutoPaths.FRONT_HATCH_RIGHT, 5));
+                }
+                else {
+                    addSequential(new TProfiledDriveDistanceCommand(profile(40), 0, 
+                    RobotConst.DRIVE_MAX_SPEED_INCHES, 5, true, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new TRotateToHeadingCommand(330, 3, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new TProfiledDriveDistanceCommand(profile(35), 330, 
+                    RobotConst.DRIVE_MAX_SPEED_INCHES, 5, true, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new TRotateToHeadingCommand(0, 3, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new AutoDelay(0.5));
+                }
                 addSequential(new WaitForVisionTarget(deliver));
+                patternBuilt = true;
 
                 break;
                 
             case AutoSelector.ROBOT_LEFT:
             
                 addParallel(new DropHatchCommand());
-                addSequential(new TDriveOnHeadingDistanceCommand(40, 0, .5, 5, true, 
-                Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.1));
-                addSequential(new TRotateToHeadingCommand(30, 3, Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.1));
-                addSequential(new TDriveOnHeadingDistanceCommand(35, 30, .5, 5, true, 
-                Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.1));
-                addSequential(new TRotateToHeadingCommand(0, 3, Robot.oi, Robot.driveSubsystem) );
-                addSequential(new AutoDelay(0.5));
+                
+                if (AutoPaths.get(AutoPaths.FRONT_HATCH_LEFT) != null) {
+                    addSequential(AutoPaths.follow(AutoPaths.FRONT_HATCH_LEFT, 5));
+                }
+                else {
+                    addSequential(new TProfiledDriveDistanceCommand(profile(40), 0, 
+                    RobotConst.DRIVE_MAX_SPEED_INCHES, 5, true, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new TRotateToHeadingCommand(30, 3, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new TProfiledDriveDistanceCommand(profile(35), 30, 
+                    RobotConst.DRIVE_MAX_SPEED_INCHES, 5, true, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new TRotateToHeadingCommand(0, 3, Robot.oi, Robot.driveSubsystem) );
+                    addSequential(new AutoDelay(0.5));
+                }
                 addSequential(new WaitForVisionTarget(deliver));
+                patternBuilt = true;
             
         		break;
             
@@ -128,6 +160,7 @@ public class AutonomousCommand extends CommandGroup {
                     addSequential(new TRotateToHeadingCommand(270, 2.0, Robot.oi, Robot.driveSubsystem) );
                     addSequential(new AutoDelay(1.0));
                     addSequential(new WaitForVisionTarget(deliver));
+                    patternBuilt = true;
                         
                     break;
                     
@@ -141,6 +174,7 @@ public class AutonomousCommand extends CommandGroup {
                     addSequential(new TRotateToHeadingCommand(90, 2.0, Robot.oi, Robot.driveSubsystem) );
                     addSequential(new AutoDelay(1.0));
                     addSequential(new WaitForVisionTarget(deliver));
+                    patternBuilt = true;
 
                     break;
                 
@@ -154,5 +188,47 @@ public class AutonomousCommand extends CommandGroup {
         	break;*/
         }
     }
-}
 
+    @Override
+    protected void initialize() {
+
+        // Print out the user selection and Game config for debug later
+        System.out.println("Auto Command Configuration");
+        System.out.println("--------------------------");
+        System.out.println("Robot Position : " + robotStartPosition);
+        System.out.println("Pattern        : " + pattern);
+        System.out.println("Delay Time     : " + delayTime);
+    }
+
+    /**
+     * Get the delay before the pattern starts
+     * 
+     * @return delay time in seconds
+     */
+    public double getDelayTime() {
+        return delayTime;
+    }
+
+    /**
+     * Check that the pattern drives the robot from the start position
+     * 
+     * @return {@code true} if the pattern built any drive commands, 
+     *         {@code false} if the pattern does nothing for this start position
+     */
+    public boolean isPatternBuilt() {
+        return patternBuilt;
+    }
+
+    /**
+     * Build the motion profile for an auto drive segment
+     * 
+     * @param distanceInches
+     * @return TMotionProfile using the auto profile limits
+     */
+    private static TMotionProfile profile(double distanceInches) {
+        return new TMotionProfile(distanceInches,
+                RobotConst.AUTO_PROFILE_MAX_VELOCITY,
+                RobotConst.AUTO_PROFILE_MAX_ACCELERATION,
+                RobotConst.AUTO_PROFILE_MAX_JERK);
+    }
+}
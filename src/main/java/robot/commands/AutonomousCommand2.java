@@ -6,6 +6,7 @@ import com.torontocodingcollective.commands.gyroDrive.TRotateToHeadingCommand;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.command.WaitCommand;
 import robot.Robot;
+import robot.commands.auto.AutoPaths;
 import robot.commands.auto.WaitForVisionTarget;
 import robot.oi.AutoSelector;
 
@@ -37,19 +38,26 @@ public class AutonomousCommand2 extends CommandGroup {
 			addSequential(new TRotateToHeadingCommand(195, 1,
 					Robot.oi, Robot.driveSubsystem) );
 
-			// Drive on the heading for the requested distance at the requested speed
-			// The command shoud time out in about driveTimeout seconds if the distance is not 
-			// reached.
-			addSequential(new TDriveOnHeadingDistanceCommand(200, 195, .8, 4, true, 
-					Robot.oi, Robot.driveSubsystem) );
-
-			// Rotate to the required heading.  Allow only visionTimeout seconds to get there.
-			// If this is used with vision targeting, it should not take more than 0.5 seconds
-			// to align.
-			addSequential(new TRotateToHeadingCommand(180, 1,
-					Robot.oi, Robot.driveSubsystem) );
-
-			addSequential(new WaitCommand(0.5));
+			// Follow the path that curves onto the 180 heading without 
+			// stopping to turn, if it was loaded.
+			if (AutoPaths.get(AutoPaths.PART2_LEFT) != null) {
+				addSequential(AutoPaths.follow(AutoPaths.PART2_LEFT, 4));
+			}
+			else {
+				// Drive on the heading for the requested distance at the requested speed
+				// The command shoud time out in about driveTimeout seconds if the distance is not 
+				// reached.
+				addSequential(new TDriveOnHeadingDistanceCommand(200, 195, .8, 4, true, 
+						Robot.oi, Robot.driveSubsystem) );
+
+				// Rotate to the required heading.  Allow only visionTimeout seconds to get there.
+				// If this is used with vision targeting, it should not take more than 0.5 seconds
+				// to align.
+				addSequential(new TRotateToHeadingCommand(180, 1,
+						Robot.oi, Robot.driveSubsystem) );
+
+				addSequential(new WaitCommand(0.5));
+			}
 
 			addSequential(new WaitForVisionTarget(true));
 
@@ -63,19 +71,26 @@ public class AutonomousCommand2 extends CommandGroup {
 			addSequential(new TRotateToHeadingCommand(165, 1,
 					Robot.oi, Robot.driveSubsystem) );
 
-			// Drive on the heading for the requested distance at the requested speed
-			// The command shoud time out in about driveTimeout seconds if the distance is not 
-			// reached.
-			addSequential(new TDriveOnHeadingDistanceCommand(200, 165, .8, 4, true, 
-					Robot.oi, Robot.driveSubsystem) );
-
-			// Rotate to the required heading.  Allow only visionTimeout seconds to get there.
-			// If this is used with vision targeting, it should not take more than 0.5 seconds
-			// to align.
-			addSequential(new TRotateToHeadingCommand(180, 1,
-					Robot.oi, Robot.driveSubsystem) );
-
-			addSequential(new WaitCommand(0.5));
+			// Follow the path that curves onto the 180 heading without 
+			// stopping to turn, if it was loaded.
+			if (AutoPaths.get(AutoPaths.PART2_RIGHT) != null) {
+				addSequential(AutoPaths.follow(AutoPaths.PART2_RIGHT, 4));
+			}
+			else {
+				// Drive on the heading for the requested distance at the requested speed
+				// The command shoud time out in about driveTimeout seconds if the distance is not 
+				// reached.
+				addSequential(new TDriveOnHeadingDistanceCommand(200, 165, .8, 4, true, 
+						Robot.oi, Robot.driveSubsystem) );
+
+				// Rotate to the required heading.  Allow only visionTimeout seconds to get there.
+				// If this is used with vision targeting, it should not take more than 0.5 seconds
+				// to align.
+				addSequential(new TRotateToHeadingCommand(180, 1,
+						Robot.oi, Robot.driveSubsystem) );
+
+				addSequential(new WaitCommand(0.5));
+			}
 
 			addSequential(new WaitForVisionTarget(true));
 
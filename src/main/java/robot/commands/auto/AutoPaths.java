@@ -0,0 +1,92 @@
+package robot.commands.auto;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.torontocodingcollective.commands.gyroDrive.TPurePursuitCommand;
+import com.torontocodingcollective.trajectory.TTrajectory;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import robot.Robot;
+import robot.RobotConst;
+
+/**
+ * Auto Paths
+ * <p>
+ * The trajectories used by the auto commands. The trajectory files are
+ * generated from the waypoints by the generateTrajectories build task into
+ * src/main/deploy/paths, and are deployed with the robot code.
+ * <p>
+ * The trajectories are loaded once when the robot starts. If a trajectory
+ * is not loaded, the auto commands use the drive and rotate commands
+ * instead.
+ */
+public class AutoPaths {
+
+    // Trajectory names (the file names without the suffix)
+    public static final String FRONT_HATCH_LEFT  = "front_hatch_left";
+    public static final String FRONT_HATCH_RIGHT = "front_hatch_right";
+    public static final String PART2_LEFT        = "part2_left";
+    public static final String PART2_RIGHT       = "part2_right";
+
+    public static final String[] NAMES = {
+            FRONT_HATCH_LEFT, FRONT_HATCH_RIGHT, PART2_LEFT, PART2_RIGHT };
+
+    private static final Map<String, TTrajectory> trajectories = new HashMap<String, TTrajectory>();
+
+    /**
+     * Load all of the auto trajectories from the deploy directory
+     * <p>
+     * This routine should be called once when the robot starts.
+     */
+    public static void load() {
+
+        File directory = new File(Filesystem.getDeployDirectory(), RobotConst.AUTO_PATH_DIRECTORY);
+
+        for (String name : NAMES) {
+
+            TTrajectory trajectory = TTrajectory.load(new File(directory, name + TTrajectory.FILE_SUFFIX));
+
+            if (trajectory != null) {
+                trajectories.put(name, trajectory);
+                System.out.println("Loaded auto path " + trajectory);
+            }
+        }
+    }
+
+    /**
+     * Get a loaded trajectory
+     *
+     * @param name
+     *            the trajectory name
+     * @return the trajectory, or {@code null} if it was not loaded
+     */
+    public static TTrajectory get(String name) {
+        return trajectories.get(name);
+    }
+
+    /**
+     * Build a command to follow a loaded trajectory
+     *
+     * @param name
+     *            the trajectory name
+     * @param timeout
+     *            command timeout in seconds
+     * @return the command, or {@code null} if the trajectory was not loaded
+     */
+    public static TPurePursuitCommand follow(String name, double timeout) {
+
+        TTrajectory trajectory = get(name);
+
+        if (trajectory == null) {
+            return null;
+        }
+
+        return new TPurePursuitCommand(trajectory,
+                RobotConst.AUTO_PATH_LOOKAHEAD,
+                RobotConst.DRIVE_MAX_SPEED_INCHES,
+                RobotConst.DRIVE_TRACK_WIDTH_INCHES,
+                timeout, true, Robot.oi, Robot.driveSubsystem);
+    }
+}
@@ -0,0 +1,168 @@
+package robot.commands.auto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import robot.commands.AutonomousCommand;
+import robot.oi.AutoSelector;
+
+/**
+ * Auto Routine Cache
+ * <p>
+ * Builds the {@link AutonomousCommand} for every start position, pattern and
+ * delay when the robot starts, so that all of the auto command classes are
+ * loaded and the commands are constructed before the match. When auto starts,
+ * the routine for the current selection is looked up and started.
+ * <p>
+ * While the robot is disabled, the selection is checked on every loop, and a
+ * routine that was used is rebuilt. A command group can be started again, but
+ * the commands in the routine keep the state of the last run in their fields,
+ * so a new routine is built for the next auto. Only one routine is built on
+ * each loop.
+ * <p>
+ * All routines must be called from the main robot thread.
+ */
+public class AutoRoutineCache {
+
+    private static final Map<String, AutonomousCommand> routines = new HashMap<String, AutonomousCommand>();
+
+    // The current selection
+    private static String            selectedStart   = null;
+    private static String            selectedPattern = null;
+    private static String            selectedDelay   = null;
+    private static String            selectedKey     = null;
+
+    /**
+     * Build the routines for all of the selections
+     * <p>
+     * This routine should be called once when the robot starts.
+     */
+    public static void buildAll() {
+
+        long startTime = System.nanoTime();
+
+        for (String start : AutoSelector.ROBOT_START_POSITIONS) {
+            for (String pattern : AutoSelector.PATTERNS) {
+                for (String delay : AutoSelector.DELAY_TIMES) {
+
+                    AutonomousCommand routine = build(start, pattern, delay);
+
+                    // Delays are the same pattern, so only report a 
+                    // pattern once for each start position
+                    if (!routine.isPatternBuilt() && delay.equals(AutoSelector.DELAY_TIME_0)) {
+                        System.out.println("Auto pattern " + pattern 
+                                + " does not drive from " + start);
+                    }
+                }
+            }
+        }
+
+        updateSelection();
+
+        System.out.println("Built " + routines.size() + " auto routines in " 
+                + (System.nanoTime() - startTime) / 1000000 + "ms");
+    }
+
+    /**
+     * Update the selected routine and rebuild any routines that were used
+     * <p>
+     * This routine should be called on each disabled loop.
+     */
+    public static void update() {
+
+        updateSelection();
+
+        // The selected routine is built first
+        if (!routines.containsKey(selectedKey)) {
+            build(selectedStart, selectedPattern, selectedDelay);
+            return;
+        }
+
+        // Rebuild one routine that was used
+        if (routines.size() < AutoSelector.ROBOT_START_POSITIONS.length 
+                * AutoSelector.PATTERNS.length * AutoSelector.DELAY_TIMES.length) {
+
+            for (String start : AutoSelector.ROBOT_START_POSITIONS) {
+                for (String pattern : AutoSelector.PATTERNS) {
+                    for (String delay : AutoSelector.DELAY_TIMES) {
+                        if (!routines.containsKey(key(start, pattern, delay))) {
+                            build(start, pattern, delay);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the routine for the current selection
+     * <p>
+     * The routine is removed from the cache and will be rebuilt when the robot
+     * is disabled. If the routine is not built, it is built now.
+     *
+     * @return AutonomousCommand for the current selection
+     */
+    public static AutonomousCommand take() {
+
+        updateSelection();
+
+        AutonomousCommand routine = routines.remove(selectedKey);
+
+        if (routine == null) {
+            System.out.println("Auto routine " + selectedKey + " was not built before auto");
+            routine = new AutonomousCommand(selectedStart, selectedPattern, Double.valueOf(selectedDelay));
+        }
+
+        return routine;
+    }
+
+    /**
+     * Read the selection from the choosers
+     */
+    private static void updateSelection() {
+
+        String start   = getSelected(AutoSelector.robotStartPosition, AutoSelector.ROBOT_LEFT);
+        String pattern = getSelected(AutoSelector.pattern,            AutoSelector.PATTERN_FRONT_HATCH);
+        String delay   = getSelected(AutoSelector.delayTime,          AutoSelector.DELAY_TIME_0);
+
+        if (start.equals(selectedStart) && pattern.equals(selectedPattern) && delay.equals(selectedDelay)) {
+            return;
+        }
+
+        selectedStart   = start;
+        selectedPattern = pattern;
+        selectedDelay   = delay;
+        selectedKey     = key(start, pattern, delay);
+
+        System.out.println("Auto routine selected: " + selectedKey);
+    }
+
+    /**
+     * Get the chooser selection, or the default if nothing is selected
+     * <p>
+     * The AutoSelector routines print a message when nothing is selected, so
+     * the choosers are read directly on each disabled loop.
+     */
+    private static String getSelected(SendableChooser<String> chooser, String defaultSelection) {
+
+        String selected = chooser.getSelected();
+
+        return selected == null ? defaultSelection : selected;
+    }
+
+    private static AutonomousCommand build(String start, String pattern, String delay) {
+
+        AutonomousCommand routine = new AutonomousCommand(start, pattern, Double.valueOf(delay));
+
+        routines.put(key(start, pattern, delay), routine);
+
+        return routine;
+    }
+
+    private static String key(String start, String pattern, String delay) {
+        return start + ", " + pattern + ", delay " + delay;
+    }
+
+}
@@ -9,11 +9,11 @@ import com.torontocodingcollective.speedcontroller.TSpeeds;
 import com.torontocodingcollective.subsystem.TGyroDriveSubsystem;
 
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.command.Scheduler;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import robot.Robot;
 import robot.RobotConst;
 import robot.commands.AutonomousCommand2;
+import robot.oi.AutoSelector;
 import robot.oi.OI;
 import robot.subsystems.CameraSubsystem;
 import robot.subsystems.CameraSubsystem.Camera;
@@ -27,6 +27,8 @@ public class DefaultDriveCommand extends TDefaultDriveCommand {
     OI                          oi                  = Robot.oi;
     TGyroDriveSubsystem         driveSubsystem      = Robot.driveSubsystem;
     TDifferentialDrive          differentialDrive   = new TDifferentialDrive();
+    // Reused on every loop to avoid allocating new motor speeds
+    final TSpeeds               motorSpeeds         = new TSpeeds();
     CameraSubsystem             cameraSubsystem     = Robot.cameraSubsystem;
     boolean                     operatorControlling;
     TRotateToHeadingCommand     rotateToHeadingCommand = null;
@@ -68,12 +70,17 @@ public class DefaultDriveCommand extends TDefaultDriveCommand {
         // Check the driver controller buttons
     	super.execute();
     	
+    	// The button commands are reused on each press, and are not
+    	// started again if they are already running
     	if (Robot.oi.getAutoPart2()) {
-    		Scheduler.getInstance().add(new AutonomousCommand2());
+    		// The part 2 pattern depends on the start position
+    		getCommandRegistry().start(
+    				AutonomousCommand2.class.getSimpleName() + " " + AutoSelector.getRobotStartPosition(),
+    				AutonomousCommand2::new);
     	}
     	
         if(Robot.oi.getHopUp()){
-            Scheduler.getInstance().add(new HopUpCommand());
+            getCommandRegistry().start(HopUpCommand.class.getSimpleName(), HopUpCommand::new);
         }
 
         
@@ -121,8 +128,6 @@ public class DefaultDriveCommand extends TDefaultDriveCommand {
         // operator input.
         TStick singleStickSide = oi.getSelectedSingleStickSide();
 
-        TSpeeds motorSpeeds;
-
         switch (oi.getSelectedDriveType()) {
 
         case SINGLE_STICK:
@@ -130,16 +135,16 @@ public class DefaultDriveCommand extends TDefaultDriveCommand {
             if (singleStickSide == TStick.LEFT) {
                 singleStickPosition = leftStickPosition;
             }
-            motorSpeeds = differentialDrive.arcadeDrive(singleStickPosition);
+            differentialDrive.arcadeDrive(singleStickPosition, motorSpeeds);
             break;
 
         case TANK:
-            motorSpeeds = differentialDrive.tankDrive(leftStickPosition, rightStickPosition);
+            differentialDrive.tankDrive(leftStickPosition, rightStickPosition, motorSpeeds);
             break;
 
         case ARCADE:
         default:
-            motorSpeeds = differentialDrive.arcadeDrive(leftStickPosition, rightStickPosition);
+            differentialDrive.arcadeDrive(leftStickPosition, rightStickPosition, motorSpeeds);
             break;
         }
 
@@ -165,16 +170,24 @@ public class DefaultDriveCommand extends TDefaultDriveCommand {
         // It also makes sure that no one is driving at the time
         // XXX: Only check operator left stick because the right one might be moving from pressing in
         if (oi.getAutoAlignSelected() && cameraSubsystem.alignmentNeeded() && !(oi.isDriverDriving() || oi.isOperatorDriving())) {
-            // Calculate required rotate heading and make use it's >=0 and < 360
-            double heading = driveSubsystem.getGyroAngle() + cameraSubsystem.getDegreesOff();
-            heading = heading % 360;
-            if (heading < 0) {
-                heading += 360;
+
+            AutoAlignCommand autoAlignCommand = getCommandRegistry().get(
+                    AutoAlignCommand.class.getSimpleName(), () -> new AutoAlignCommand(0));
+
+            // Only start the alignment if it is not already running
+            if (!autoAlignCommand.isRunning()) {
+                // Calculate required rotate heading and make use it's >=0 and < 360
+                double heading = driveSubsystem.getGyroAngle() + cameraSubsystem.getDegreesOff();
+                heading = heading % 360;
+                if (heading < 0) {
+                    heading += 360;
+                }
+                // XXX: Has a default timeout of 5 secs, we'll see if we need to change it
+                // Use the following to start a command through the scheduler
+                System.out.println("*** Auto Align "+heading+" ***");
+                autoAlignCommand.setHeading(heading);
+                getCommandRegistry().start(autoAlignCommand);
             }
-            // XXX: Has a default timeout of 5 secs, we'll see if we need to change it
-            // Use the following to start a command through the scheduler
-            System.out.println("*** Auto Align "+heading+" ***");
-            Scheduler.getInstance().add(new AutoAlignCommand(heading));
         }
 
         driveSubsystem.setSpeed(motorSpeeds);
@@ -35,7 +35,8 @@ public class HopUpCommand extends TSafeCommand{
 
     @Override
     protected void initialize() {
-        // Do nothing
+        // The command is reused, so reset the state on each start
+        currentState = State.BACK;
         Robot.driveSubsystem.resetEncoders();
         
     }
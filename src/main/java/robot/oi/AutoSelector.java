@@ -28,6 +28,11 @@ public class AutoSelector {
     public static final String            DELAY_TIME_5        = "5";
     public static final String            DELAY_TIME_9        = "9";
 
+    // All of the selections, used to build the auto routines ahead of time
+    public static final String []         ROBOT_START_POSITIONS = { ROBOT_LEFT, ROBOT_RIGHT };
+    public static final String []         PATTERNS              = { PATTERN_FRONT_HATCH, PATTERN_SIDE_HATCH, PATTERN_STRAIGHT };
+    public static final String []         DELAY_TIMES           = { DELAY_TIME_0, DELAY_TIME_3, DELAY_TIME_5, DELAY_TIME_9 };
+
     static {
 
         // Robot Position Options
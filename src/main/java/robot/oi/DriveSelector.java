@@ -1,6 +1,7 @@
 package robot.oi;
 
 import com.torontocodingcollective.oi.TStick;
+import com.torontocodingcollective.subsystem.TDriveSubsystem.SpeedPidMode;
 
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -9,6 +10,7 @@ public class DriveSelector {
 
     public SendableChooser<String> driveControlType;
     public SendableChooser<String> singleStickSide;
+    public SendableChooser<String> speedPidMode;
 
     public static final String     DRIVE_CONTROL_TYPE_ARCADE       = "Arcade";
     public static final String     DRIVE_CONTROL_TYPE_TANK         = "Tank";
@@ -17,6 +19,9 @@ public class DriveSelector {
     public static final String     SINGLE_STICK_LEFT               = "Left";
     public static final String     SINGLE_STICK_RIGHT              = "Right";
 
+    public static final String     SPEED_PID_MODE_ROBORIO          = "RoboRio";
+    public static final String     SPEED_PID_MODE_TALON            = "Talon SRX";
+
     {
         // Drive Type
         driveControlType = new SendableChooser<>();
@@ -32,6 +37,13 @@ public class DriveSelector {
         singleStickSide.addOption(SINGLE_STICK_LEFT, SINGLE_STICK_LEFT);
 
         SmartDashboard.putData("Single Stick Side", singleStickSide);
+
+        // Speed PID Mode
+        speedPidMode = new SendableChooser<>();
+        speedPidMode.setDefaultOption(SPEED_PID_MODE_ROBORIO, SPEED_PID_MODE_ROBORIO);
+        speedPidMode.addOption(SPEED_PID_MODE_TALON, SPEED_PID_MODE_TALON);
+
+        SmartDashboard.putData("Speed PID Mode", speedPidMode);
     }
 
     /**
@@ -64,6 +76,20 @@ public class DriveSelector {
         }
     }
 
+    /**
+     * Get the Speed PID Mode
+     */
+    public SpeedPidMode getSpeedPidMode() {
+
+        switch (speedPidMode.getSelected()) {
+        case SPEED_PID_MODE_TALON:
+            return SpeedPidMode.MOTOR_CONTROLLER;
+        case SPEED_PID_MODE_ROBORIO:
+        default:
+            return SpeedPidMode.ROBORIO;
+        }
+    }
+
     public void updatePeriodic() {
         SmartDashboard.putString("Drive Control", String.valueOf(getDriveControlType()));
         SmartDashboard.putString("Single Stick Side", String.valueOf(getSingleStickSide()));
@@ -1,16 +1,22 @@
 package robot.oi;
 
 import com.torontocodingcollective.oi.TButton;
+import com.torontocodingcollective.oi.TButtonPressDetector;
 import com.torontocodingcollective.oi.TGameController;
 import com.torontocodingcollective.oi.TGameController_Logitech;
 import com.torontocodingcollective.oi.TOi;
+import com.torontocodingcollective.oi.TPOVPressDetector;
 import com.torontocodingcollective.oi.TRumbleManager;
 import com.torontocodingcollective.oi.TStick;
 import com.torontocodingcollective.oi.TStickPosition;
 import com.torontocodingcollective.oi.TToggle;
 import com.torontocodingcollective.oi.TTrigger;
+import com.torontocodingcollective.subsystem.TDriveSubsystem.SpeedPidMode;
+import com.torontocodingcollective.telemetry.TTelemetry;
+import com.torontocodingcollective.telemetry.TTelemetryBoolean;
+import com.torontocodingcollective.telemetry.TTelemetryRate;
+import com.torontocodingcollective.telemetry.TTelemetryString;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import robot.subsystems.CameraSubsystem.Camera;
 
 /**
@@ -57,6 +63,24 @@ public class OI extends TOi {
 
     private TToggle         autoAlignToggle             = new TToggle();
 
+    // Buttons that start commands only start the command once per press.
+    // The presses are detected once per loop in updatePeriodic.
+    private final TButtonPressDetector hopUpPress          = new TButtonPressDetector(driverController, TButton.B);
+    private final TButtonPressDetector autoPart2Press      = new TButtonPressDetector(operatorController, TButton.BACK);
+    private final TPOVPressDetector    driverPovPress      = new TPOVPressDetector(driverController);
+    private final TPOVPressDetector    operatorPovPress    = new TPOVPressDetector(operatorController);
+
+    private boolean         hopUpPressed                = false;
+    private boolean         autoPart2Pressed            = false;
+    private int             rotateToHeadingPressed      = -1;
+
+    // Telemetry
+    private final TTelemetryString  driverControllerTelemetry   = TTelemetry.addString ("Driver Controller",   TTelemetryRate.DEBUG);
+    private final TTelemetryString  operatorControllerTelemetry = TTelemetry.addString ("Operator Controller", TTelemetryRate.DEBUG);
+    private final TTelemetryBoolean cargoHeightToggleTelemetry  = TTelemetry.addBoolean("cargoHeightToggle",   TTelemetryRate.DIAGNOSTIC);
+    private final TTelemetryString  cameraToggleTelemetry       = TTelemetry.addString ("CameraToggle",        TTelemetryRate.DIAGNOSTIC);
+    private final TTelemetryBoolean autoAlignToggleTelemetry    = TTelemetry.addBoolean("AutoAlignToggle",     TTelemetryRate.DIAGNOSTIC);
+
     /* ***************************************************************************************
      * Rumble commands
      *****************************************************************************************/
@@ -103,24 +127,15 @@ public class OI extends TOi {
     
     public boolean getHopUp(){
      
-        return driverController.getButton(TButton.B);
+        // Only true on the loop the button is pressed
+        return hopUpPressed;
     }
 
     @Override
     public int getRotateToHeading() {
     	
-    	int operatorControllerPOV = operatorController.getPOV();
-    	int driverControllerPOV = driverController.getPOV();
-    	
-    	if (driverControllerPOV != -1) {
-    		return driverControllerPOV;
-    	}
-
-    	if (operatorControllerPOV != -1) {
-    		return operatorControllerPOV;
-    	}
-    	
-        return -1;
+    	// Only returned on the loop the POV is pressed
+        return rotateToHeadingPressed;
     }
 
     /**
@@ -148,6 +163,17 @@ public class OI extends TOi {
         return speedPidToggle.get();
     }
 
+    /**
+     * Get the selected speed PID mode
+     * 
+     * @return {@link SpeedPidMode} selected on the SmartDashboard. The default
+     *         speed PID mode is {@link SpeedPidMode#ROBORIO}
+     */
+    @Override
+    public SpeedPidMode getSpeedPidMode() {
+        return driveSelector.getSpeedPidMode();
+    }
+
     public void setSpeedPidEnabled(boolean state) {
         speedPidToggle.set(state);
     }
@@ -191,7 +217,8 @@ public class OI extends TOi {
     }
 
     public boolean getAutoPart2() {
-    	return operatorController.getButton(TButton.BACK);
+    	// Only true on the loop the button is pressed
+    	return autoPart2Pressed;
     }
     
     public boolean getDeployWedge() {
@@ -284,6 +311,11 @@ public class OI extends TOi {
     @Override
     public void updatePeriodic() {
 
+        // Capture the controller inputs once for this loop so that
+        // all commands and toggles see the same inputs
+        driverController.updateSnapshot();
+        operatorController.updateSnapshot();
+
     	// Update the Controller Rumbles
         driverRumble.updatePeriodic();
         operatorRumble.updatePeriodic();
@@ -297,6 +329,15 @@ public class OI extends TOi {
 
         autoAlignToggle.updatePeriodic(operatorController.getButton(TStick.RIGHT));
 
+        // Update the button presses that start commands
+        hopUpPressed     = hopUpPress.get();
+        autoPart2Pressed = autoPart2Press.get();
+
+        // The driver POV is used before the operator POV
+        int driverPov   = driverPovPress.get();
+        int operatorPov = operatorPovPress.get();
+        rotateToHeadingPressed = driverPov != -1 ? driverPov : operatorPov;
+
         // ********************
         // Update dual toggles
         // ********************
@@ -313,11 +354,16 @@ public class OI extends TOi {
             hatchGrabberToggle.set(GRABBER_CLOSED);  // XXX: Assumes false = closed/released
         }
 
-        // Update all SmartDashboard values
-        SmartDashboard.putString("Driver Controller", driverController.toString());
-        SmartDashboard.putString("Operator Controller", operatorController.toString());
-        SmartDashboard.putBoolean("cargoHeightToggle", cargoHeightToggle.get());
-        SmartDashboard.putString("CameraToggle", getCamera().toString());
-        SmartDashboard.putBoolean("AutoAlignToggle", autoAlignToggle.get());
+        // Update all telemetry values
+        // The controller strings are only built when they will be published
+        if (driverControllerTelemetry.isDue()) {
+            driverControllerTelemetry.set(driverController.toString());
+        }
+        if (operatorControllerTelemetry.isDue()) {
+            operatorControllerTelemetry.set(operatorController.toString());
+        }
+        cargoHeightToggleTelemetry.set(cargoHeightToggle.get());
+        cameraToggleTelemetry     .set(getCamera().name());
+        autoAlignToggleTelemetry  .set(autoAlignToggle.get());
     }
 }
@@ -0,0 +1,68 @@
+package robot.replay;
+
+import com.torontocodingcollective.recorder.TFlightLog;
+import com.torontocodingcollective.replay.TDriveReplay;
+import com.torontocodingcollective.replay.TReplayDriveSubsystem;
+import com.torontocodingcollective.replay.TReplayResult;
+
+import robot.RobotConst;
+
+/**
+ * Drive Log Replay
+ * <p>
+ * Replays flight recorder logs copied from the robot (/home/lvuser/flightlog)
+ * through the drive subsystem using the current {@link RobotConst} gains, and
+ * prints where the replayed outputs diverge from the recorded outputs.
+ * <p>
+ * Usage: DriveLogReplay [-tolerance value] file...
+ */
+public class DriveLogReplay {
+
+    private static final double DEFAULT_TOLERANCE = 0.001;
+
+    public static void main(String[] args) {
+
+        double tolerance = DEFAULT_TOLERANCE;
+        int    firstFile = 0;
+
+        if (args.length >= 2 && args[0].equals("-tolerance")) {
+            tolerance = Double.parseDouble(args[1]);
+            firstFile = 2;
+        }
+
+        if (args.length <= firstFile) {
+            System.out.println("Usage: DriveLogReplay [-tolerance value] file...");
+            return;
+        }
+
+        // Build the replay drive subsystem with the same settings as
+        // the robot drive subsystem
+        TReplayDriveSubsystem drive = new TReplayDriveSubsystem(
+                RobotConst.ENCODER_COUNTS_PER_INCH,
+                RobotConst.DRIVE_SPEED_PID_KP,
+                RobotConst.DRIVE_SPEED_PID_KI,
+                RobotConst.MAX_LOW_GEAR_SPEED,
+                RobotConst.DRIVE_GYRO_PID_KP,
+                RobotConst.DRIVE_GYRO_PID_KI,
+                RobotConst.DRIVE_MAX_ROTATION_OUTPUT);
+
+        // The speed adjust of the configured robot is used for logs that
+        // do not record the speed adjust
+        drive.setSpeedAdjust(RobotConst.DRIVE_LEFT_SPEED_ADJUST, RobotConst.DRIVE_RIGHT_SPEED_ADJUST);
+
+        TDriveReplay replay = new TDriveReplay(drive);
+
+        for (int i = firstFile; i < args.length; i++) {
+
+            TFlightLog log = TFlightLog.load(args[i]);
+            if (log == null) {
+                continue;
+            }
+
+            TReplayResult result = replay.replay(log, tolerance);
+            if (result != null) {
+                System.out.println(result);
+            }
+        }
+    }
+}
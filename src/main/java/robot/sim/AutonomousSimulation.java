@@ -0,0 +1,123 @@
+package robot.sim;
+
+import com.torontocodingcollective.commands.gyroDrive.TDriveOnHeadingDistanceCommand;
+import com.torontocodingcollective.commands.gyroDrive.TRotateToHeadingCommand;
+import com.torontocodingcollective.sim.TDifferentialDriveModel;
+import com.torontocodingcollective.sim.TDriveSimulator;
+import com.torontocodingcollective.sim.TSimClock;
+import com.torontocodingcollective.sim.TSimDriveSubsystem;
+import com.torontocodingcollective.subsystem.TSubsystem;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.command.Command;
+import robot.Robot;
+import robot.RobotConst;
+import robot.commands.AutonomousCommand;
+import robot.oi.AutoSelector;
+
+/**
+ * Autonomous Simulation
+ * <p>
+ * Runs the drive commands and the autonomous command headless on the desktop
+ * against the simulated drive subsystem. The robot loop runs on a virtual
+ * clock as fast as the desktop allows, and the final pose of the robot is
+ * printed after each command so that changes to the drive code or the
+ * autonomous patterns can be checked without a robot.
+ * <p>
+ * Run with the desktop simulation HAL (includeDesktopSupport).
+ */
+public class AutonomousSimulation {
+
+    private static TDriveSimulator simulator;
+    private static TSimClock       clock;
+
+    public static void main(String[] args) {
+
+        if (!init()) {
+            return;
+        }
+
+        TSimDriveSubsystem drive = (TSimDriveSubsystem) Robot.driveSubsystem;
+
+        simulator.setEnabled(true, true);
+
+        run("Drive 60in on heading 0",
+                new TDriveOnHeadingDistanceCommand(60, 0, .6, 5, true, Robot.oi, drive), 6);
+
+        run("Rotate to heading 90",
+                new TRotateToHeadingCommand(90, Robot.oi, drive), 5);
+
+        run("Autonomous",
+                new AutonomousCommand(), 15);
+
+        simulator.setEnabled(false, true);
+    }
+
+    /**
+     * Initialize the simulation HAL, the virtual clock and the robot
+     * <p>
+     * The robot is only initialized once, subsequent calls return the result
+     * of the first initialization.
+     * 
+     * @return {@code true} if the robot is running on the simulated drive,
+     *         {@code false} otherwise
+     */
+    static boolean init() {
+
+        if (simulator != null) {
+            return true;
+        }
+
+        if (!HAL.initialize(500, 0)) {
+            System.out.println("Cannot initialize the simulation HAL");
+            return false;
+        }
+
+        clock = new TSimClock(RobotConst.SIM_LOOP_PERIOD);
+        clock.start();
+
+        if (!(Robot.driveSubsystem instanceof TSimDriveSubsystem)) {
+            System.out.println("The drive subsystem is not simulated");
+            return false;
+        }
+
+        Robot.oi.init();
+        for (TSubsystem subsystem : Robot.subsystemLs) {
+            subsystem.init();
+        }
+        AutoSelector.init();
+
+        simulator = new TDriveSimulator(clock, (TSimDriveSubsystem) Robot.driveSubsystem,
+                Robot.subsystemLs, Robot.oi);
+
+        return true;
+    }
+
+    static TDriveSimulator getSimulator() {
+        return simulator;
+    }
+
+    private static void run(String name, Command command, double timeout) {
+
+        TDifferentialDriveModel model = ((TSimDriveSubsystem) Robot.driveSubsystem).getModel();
+
+        double startTime = clock.getTime();
+        long   startNanos = System.nanoTime();
+
+        boolean finished = simulator.runCommand(command, timeout);
+
+        // Let the robot come to a stop
+        simulator.run(0.5);
+
+        double simTime  = clock.getTime() - startTime;
+        double wallTime = (System.nanoTime() - startNanos) / 1000000000.0;
+
+        System.out.println(name + (finished ? " finished" : " timed out")
+                + ": sim time " + Math.round(simTime * 1000) / 1000.0 + "s"
+                + ", wall time " + Math.round(wallTime * 1000) / 1000.0 + "s"
+                + ", speed " + Math.round(simTime / wallTime) + "x"
+                + ", pose (" + Math.round(model.getX() * 10) / 10.0
+                + ", " + Math.round(model.getY() * 10) / 10.0
+                + ") heading " + Math.round(model.getHeading() * 10) / 10.0);
+    }
+}
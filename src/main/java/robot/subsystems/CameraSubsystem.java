@@ -1,42 +1,166 @@
 package robot.subsystems;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Random;
 
+import com.torontocodingcollective.odometry.TPose;
+import com.torontocodingcollective.recorder.TFlightRecorder;
+import com.torontocodingcollective.recorder.TRecordable;
 import com.torontocodingcollective.subsystem.TSubsystem;
+import com.torontocodingcollective.telemetry.TTelemetry;
+import com.torontocodingcollective.telemetry.TTelemetryBoolean;
+import com.torontocodingcollective.telemetry.TTelemetryNumber;
+import com.torontocodingcollective.telemetry.TTelemetryRate;
+import com.torontocodingcollective.telemetry.TTelemetryString;
+import com.torontocodingcollective.vision.TCvVisionSource;
+import com.torontocodingcollective.vision.THeadingTracker;
+import com.torontocodingcollective.vision.TNetworkTablesVision;
+import com.torontocodingcollective.vision.TVisionFrame;
+import com.torontocodingcollective.vision.TVisionSource;
 
+import edu.wpi.cscore.CameraServerJNI;
+import edu.wpi.cscore.MjpegServer;
 import edu.wpi.cscore.UsbCamera;
 import edu.wpi.cscore.VideoMode.PixelFormat;
-import edu.wpi.cscore.VideoSink;
 import edu.wpi.first.cameraserver.CameraServer;
-import edu.wpi.first.networktables.NetworkTable;
-import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import robot.Robot;
 import robot.RobotConst;
 import robot.commands.camera.DefaultCameraCommand;
+import robot.vision.ReflectiveTapePipeline;
 
 /**
  *
  */
-public class CameraSubsystem extends TSubsystem {
+public class CameraSubsystem extends TSubsystem implements TRecordable {
 
 	public enum Camera { FRONT, REAR, NONE };
 	
-	private UsbCamera frontCamera;
-	private UsbCamera rearCamera;
-	private VideoSink cameraFeed;
+	/**
+	 * Camera stream profiles
+	 * <p>
+	 * Each profile sets the exposure of the selected camera, and the frame 
+	 * rate and compression of the selected camera stream. The camera that 
+	 * is not selected always uses the IDLE profile.
+	 * <p>
+	 * All of the profiles use the same camera video mode (see 
+	 * {@link CameraSubsystem#CAPTURE_WIDTH}), because changing the video 
+	 * mode restarts the USB camera.
+	 */
+	public enum StreamProfile {
+		
+		/** Vision alignment: dark exposure for the tape */
+		VISION (30, 40, NO_COMPRESSION),
+		/** Driver view */
+		DRIVER (30, AUTO_EXPOSURE, NO_COMPRESSION),
+		/** Robot disabled, or the camera is not selected */
+		IDLE   (10, AUTO_EXPOSURE, 30);
+		
+		/** Stream frame rate */
+		public final int fps;
+		/** Manual exposure, or {@link CameraSubsystem#AUTO_EXPOSURE} */
+		public final int exposure;
+		/** Stream JPEG quality (0-100), or {@link CameraSubsystem#NO_COMPRESSION} */
+		public final int compression;
+		
+		StreamProfile(int fps, int exposure, int compression) {
+			this.fps         = fps;
+			this.exposure    = exposure;
+			this.compression = compression;
+		}
+	};
+	
+	/** Use the camera automatic exposure */
+	public static final int AUTO_EXPOSURE  = -1;
+	/** Stream the camera images without recompressing them */
+	public static final int NO_COMPRESSION = -1;
+
+	// Camera video mode used by all of the stream profiles. The resolution
+	// is the one used by the vision pipeline.
+	public static final int CAPTURE_WIDTH  = 160;
+	public static final int CAPTURE_HEIGHT = 120;
+	public static final int CAPTURE_FPS    = 30;
+	
+	private UsbCamera   frontCamera;
+	private UsbCamera   rearCamera;
+	private MjpegServer cameraFeed;
 	
 	private Camera curCamera = Camera.NONE;
 
-	// NetworkTable stuff
-	private NetworkTableInstance    inst    = NetworkTableInstance.getDefault();
-	private NetworkTable            table   = inst.getTable("GRIP/myContoursReport");
-	private NetworkTableEntry       centerX	= table.getEntry("centerX");
-	private NetworkTableEntry       centerY	= table.getEntry("centerY");
-	private double[]				centerXArray;
+	// The stream profile and the camera it was applied to
+	private StreamProfile streamProfile       = null;
+	private Camera        streamProfileCamera = Camera.NONE;
+
+	// The exposure set on each camera, so that a camera is only changed
+	// when its exposure changes
+	private int           frontExposure       = 0;
+	private int           rearExposure        = 0;
+
+	// The stream frame rate is limited to the bandwidth budget using the
+	// measured camera frame size, updated about once per second.
+	private static final double     STREAM_BUDGET_PERIOD   = 1.0;
+	/** Estimated MJPEG bytes per pixel, used until the frame size is measured */
+	private static final double     MJPEG_BYTES_PER_PIXEL  = 0.5;
+	private double                  streamBudgetTime       = 0;
+	private int                     streamFps              = 0;
+	private double                  streamBandwidth        = 0;
+
+	// Vision frames from the GRIP contours report, received by
+	// NetworkTables listeners, or from the pipeline running on the robot
+	// (see RobotConst.VISION_ON_ROBOT_PIPELINE)
+	private final TVisionSource     visionSource;
+
+	// The on robot pipeline, or null if the GRIP contours report is used
+	private final TCvVisionSource   robotVision;
+
+	// The vision frame used in this loop
+	private TVisionFrame            visionFrame  = null;
+
+	// Vision frame rate measured over about one second
+	private static final double     VISION_FPS_PERIOD = 1.0;
+	private double                  fpsStartTime     = 0;
+	private long                    fpsStartSequence = 0;
+	private double                  visionFps        = 0;
+
+	// Selected vision targets (the two target X values) in the last frame
+	private final double[]          targetXArray = new double[2];
+	private boolean                 targetXValid = false;
+	private long                    targetSequence = -1;
+
+	// Time the selected targets were captured by the camera, and the
+	// heading to the targets from the robot heading at the capture time
+	private double                  targetCaptureTime = 0;
+	private final TPose             capturePose       = new TPose();
+
+	// Robot heading when the selected targets were captured, and the
+	// time of the last tracker update (see refreshTargetHeading())
+	private double                  targetCaptureHeading = 0;
+	private double                  targetMeasureTime    = 0;
+
+	// Tracks the target heading across frames. The tracked heading and
+	// confidence are updated once per loop.
+	private final THeadingTracker   targetTracker = createTargetTracker();
+	private double                  targetHeading    = 0;
+	private double                  targetConfidence = 0;
+
+	// Set when the robot is aligned with the targets, and cleared when
+	// the robot is off by more than the margin plus the hysteresis
+	private boolean                 onTarget = false;
+
+	// Telemetry
+	private final TTelemetryString  cameraTelemetry       = TTelemetry.addString ("Camera",        TTelemetryRate.DIAGNOSTIC);
+	private final TTelemetryString  profileTelemetry      = TTelemetry.addString ("Camera Profile", TTelemetryRate.DIAGNOSTIC);
+	private final TTelemetryNumber  streamFpsTelemetry    = TTelemetry.addNumber ("Stream FPS",    TTelemetryRate.DIAGNOSTIC, .5);
+	private final TTelemetryNumber  bandwidthTelemetry    = TTelemetry.addNumber ("Stream Mbps",   TTelemetryRate.DIAGNOSTIC, .05);
+	private final TTelemetryBoolean targetsFoundTelemetry = TTelemetry.addBoolean("Targets Found", TTelemetryRate.CONTROL);
+	private final TTelemetryNumber  targetCenterTelemetry = TTelemetry.addNumber ("Target Center", TTelemetryRate.CONTROL, .5);
+	private final TTelemetryBoolean onTargetTelemetry     = TTelemetry.addBoolean("On Target",     TTelemetryRate.CONTROL);
+	private final TTelemetryNumber  degreesOffTelemetry   = TTelemetry.addNumber ("Degrees Off",   TTelemetryRate.CONTROL, .05);
+	private final TTelemetryNumber  confidenceTelemetry   = TTelemetry.addNumber ("Target Confidence", TTelemetryRate.CONTROL, .05);
+	private final TTelemetryNumber  visionAgeTelemetry    = TTelemetry.addNumber ("Vision Age",    TTelemetryRate.DIAGNOSTIC, .01);
+	private final TTelemetryNumber  visionFpsTelemetry    = TTelemetry.addNumber ("Vision FPS",    TTelemetryRate.DIAGNOSTIC, .5);
+	private final TTelemetryNumber  visionTimeTelemetry   = TTelemetry.addNumber ("Vision Process Time", TTelemetryRate.DIAGNOSTIC, .005);
 	
     public CameraSubsystem() {
 
@@ -64,24 +188,44 @@ public class CameraSubsystem extends TSubsystem {
         //        as the source, and will return to port 1182 when the selection is set to 
         //        another camera.
         frontCamera = CameraServer.getInstance().startAutomaticCapture("Front Camera", 1);
-        frontCamera.setVideoMode(PixelFormat.kMJPEG, 120, 90, 50);
-        frontCamera.setExposureManual(40);
         
         // Start the Rear camera.
         // The URL of the front camera will be 
     	// http://roborio-team-frc.local:1183/?action=stream
         rearCamera  = CameraServer.getInstance().startAutomaticCapture("Rear Camera", 0);
-        rearCamera.setVideoMode(PixelFormat.kMJPEG, 120, 90, 50);
-        rearCamera.setExposureManual(40);
+
+        // Measure the camera frame rates and data rates used for the
+        // stream bandwidth budget
+        CameraServerJNI.setTelemetryPeriod(STREAM_BUDGET_PERIOD);
 
         // Set the starting feed to the front camera.
         cameraFeed.setSource(frontCamera);
 		curCamera = Camera.FRONT;
+
+		// The video mode is only set once. The stream profiles only
+		// change the exposure and the stream.
+		setCaptureMode(frontCamera);
+		setCaptureMode(rearCamera);
+		applyStreamProfile(StreamProfile.IDLE);
+
+		if (RobotConst.VISION_ON_ROBOT_PIPELINE) {
+			robotVision  = new TCvVisionSource(frontCamera, 
+					new ReflectiveTapePipeline(), RobotConst.VISION_FRAME_BUDGET,
+					RobotConst.VISION_CAMERA_LATENCY);
+			visionSource = robotVision;
+		}
+		else {
+			robotVision  = null;
+			visionSource = new TNetworkTablesVision(
+					NetworkTableInstance.getDefault().getTable("GRIP/myContoursReport"), "centerX", "centerY",
+					RobotConst.VISION_LATENCY);
+		}
     }
 
     @Override
     public void init() {
 		setCameraFeed(curCamera);
+		visionSource.start();
     }
 
     public void setCameraFeed(Camera camera) {
@@ -92,6 +236,10 @@ public class CameraSubsystem extends TSubsystem {
     			if (frontCamera != null) {
     				cameraFeed.setSource(frontCamera);
     				curCamera = Camera.FRONT;
+    				resetTargetTracking();
+    				if (robotVision != null) {
+    					robotVision.setSource(frontCamera);
+    				}
     			}
     		}
     		break;
@@ -100,6 +248,10 @@ public class CameraSubsystem extends TSubsystem {
     			if (rearCamera != null) {
 	    			cameraFeed.setSource(rearCamera);
 	    			curCamera = Camera.REAR;
+	    			resetTargetTracking();
+	    			if (robotVision != null) {
+	    				robotVision.setSource(rearCamera);
+	    			}
     			}
     		}
     		break;
@@ -112,36 +264,168 @@ public class CameraSubsystem extends TSubsystem {
 	public Camera getCurrentCamera() {
 		return curCamera;
 	}
+
+	public StreamProfile getStreamProfile() {
+		return streamProfile;
+	}
+
+	/**
+	 * Select the stream profile from the robot state
+	 * 
+	 * @return StreamProfile
+	 */
+	private StreamProfile selectStreamProfile() {
+
+		DriverStation driverStation = DriverStation.getInstance();
+
+		if (driverStation.isDisabled()) {
+			// Before a match, stay in the profile used at the start
+			// of auto so that the camera exposure has settled when
+			// auto starts.
+			if (driverStation.isFMSAttached()) {
+				return StreamProfile.VISION;
+			}
+			return StreamProfile.IDLE;
+		}
+
+		// The vision targets are used in auto, and in teleop when
+		// the auto alignment is selected (see DefaultDriveCommand).
+		if (driverStation.isAutonomous() || Robot.oi.getAutoAlignSelected()) {
+			return StreamProfile.VISION;
+		}
+
+		return StreamProfile.DRIVER;
+	}
+
+	/**
+	 * Apply the stream profile to the selected camera, and the
+	 * idle profile to the other camera
+	 * 
+	 * @param profile
+	 *            the profile for the selected camera
+	 */
+	private void applyStreamProfile(StreamProfile profile) {
+
+		StreamProfile frontProfile = curCamera == Camera.REAR ? StreamProfile.IDLE : profile;
+		StreamProfile rearProfile  = curCamera == Camera.REAR ? profile : StreamProfile.IDLE;
+
+		if (streamProfile == null || frontProfile.exposure != frontExposure) {
+			setExposure(frontCamera, frontProfile.exposure);
+			frontExposure = frontProfile.exposure;
+		}
+		if (streamProfile == null || rearProfile.exposure != rearExposure) {
+			setExposure(rearCamera, rearProfile.exposure);
+			rearExposure = rearProfile.exposure;
+		}
+
+		if (streamProfile == null || profile.compression != streamProfile.compression) {
+			cameraFeed.setCompression(profile.compression);
+		}
+
+		streamProfile       = profile;
+		streamProfileCamera = curCamera;
+
+		// Apply the bandwidth budget to the new profile on this loop
+		streamBudgetTime = 0;
+	}
+
+	private static void setCaptureMode(UsbCamera camera) {
+
+		if (camera == null) {
+			return;
+		}
+
+		camera.setVideoMode(PixelFormat.kMJPEG, CAPTURE_WIDTH, CAPTURE_HEIGHT, CAPTURE_FPS);
+	}
+
+	private static void setExposure(UsbCamera camera, int exposure) {
+
+		if (camera == null) {
+			return;
+		}
+
+		if (exposure == AUTO_EXPOSURE) {
+			camera.setExposureAuto();
+		}
+		else {
+			camera.setExposureManual(exposure);
+		}
+	}
+
+	/**
+	 * Limit the stream frame rate so that the selected camera stream
+	 * stays within the bandwidth budget
+	 */
+	private void updateStreamBudget() {
+
+		double now = Timer.getFPGATimestamp();
+
+		if (now - streamBudgetTime < STREAM_BUDGET_PERIOD) {
+			return;
+		}
+
+		streamBudgetTime = now;
+
+		UsbCamera selectedCamera = curCamera == Camera.REAR ? rearCamera : frontCamera;
+
+		// Use the measured frame size if the camera is streaming, 
+		// otherwise estimate the frame size from the resolution
+		double frameBytes = CAPTURE_WIDTH * CAPTURE_HEIGHT * MJPEG_BYTES_PER_PIXEL;
+
+		if (selectedCamera != null) {
+			double cameraFps = selectedCamera.getActualFPS();
+			if (cameraFps > 0) {
+				frameBytes = selectedCamera.getActualDataRate() / cameraFps;
+			}
+		}
+
+		double budgetBytes = RobotConst.CAMERA_BANDWIDTH_BUDGET_MBPS * 1000000 / 8;
+
+		int fps = streamProfile.fps;
+
+		if (frameBytes > 0) {
+			fps = (int) Math.max(1, Math.min(streamProfile.fps, Math.floor(budgetBytes / frameBytes)));
+		}
+
+		if (fps != streamFps) {
+			cameraFeed.setFPS(fps);
+			streamFps = fps;
+		}
+
+		streamBandwidth = frameBytes * fps * 8 / 1000000;
+	}
 	
 	public boolean targetsFound() {
 	    
-	    // NOTE: The targets cannot be found if the robot is moving.
+	    // NOTE: The camera lags behind the robot, so the targets
+	    //       are corrected using the robot heading when the 
+	    //       image was captured (see getDegreesOff()), and
+	    //       can be used while the robot is moving.
 	    //
-        //       Since the camera lags behind the robot,   
-        //       any targets found when the robot is moving will be 
-        //       in the wrong position.  
-        //
-        //       The robot must be still for about 200ms to guarantee
-        //       the targets.
-        if (Robot.driveSubsystem.getStoppedTime() < 0.2) {
-            return false;
-        }
+	    //       The targets are tracked across frames, so one noisy
+	    //       or missing frame does not lose the targets.
         
 		// Use alignmentNeeded() to check whether alignment should happen or not
-		if (centerXArray != null && centerXArray.length == 2) {
-			return true;
-		}
-		return false;
+		return targetsFound(targetConfidence);
+	}
+
+	/**
+	 * Get the confidence that the targets are being tracked
+	 * 
+	 * @return confidence from 0 (no targets) to 1
+	 */
+	public double getTargetConfidence() {
+		return targetConfidence;
 	}
 
 	private double getTargetAveragesX() {
 		
-		if (!targetsFound()) {
+		if (!targetXValid) {
 			return 0;
 		}
 		
-		// Check targetsFound() before using
-		return (centerXArray[0] + centerXArray[1]) / 2.0;
+		// The targets selected in the last frame
+		return (targetXArray[0] + targetXArray[1]) / 2.0;
 	}
 
 	private double getRawDegreesOff() {
@@ -160,7 +444,11 @@ public class CameraSubsystem extends TSubsystem {
 		Microsoft Skype LifeCam HD 3000
 		*/
 
-		return Math.toDegrees(Math.atan((((getTargetAveragesX()-RobotConst.VISION_CENTER_X)/320) * 146.25) / 307));
+		return getRawDegreesOff(getTargetAveragesX());
+	}
+
+	private static double getRawDegreesOff(double targetAverageX) {
+		return Math.toDegrees(Math.atan((((targetAverageX-RobotConst.VISION_CENTER_X)/320) * 146.25) / 307));
 	}
 
 	public double getDegreesOff() {
@@ -173,7 +461,160 @@ public class CameraSubsystem extends TSubsystem {
 			return 0;
         }
         
-		return getRawDegreesOff();
+		// The targets were seen from the heading at the capture time,
+		// so correct for any rotation of the robot since then.
+		double degreesOff = targetHeading - Robot.driveSubsystem.getGyroAngle();
+
+		if (degreesOff > 180) {
+			degreesOff -= 360;
+		}
+		if (degreesOff <= -180) {
+			degreesOff += 360;
+		}
+
+		return degreesOff;
+	}
+
+	/**
+	 * Get the gyro heading of the targets
+	 * <p>
+	 * The heading is calculated from the robot heading at the time the
+	 * camera image was captured, and is smoothed across frames.
+	 * 
+	 * @return heading 0 <= heading < 360, or the current gyro angle if
+	 *         the targets are not found
+	 */
+	public double getTargetHeading() {
+
+		if (!targetsFound()) {
+			return Robot.driveSubsystem.getGyroAngle();
+		}
+
+		return targetHeading;
+	}
+
+	/**
+	 * Get the time the targets were captured by the camera
+	 * 
+	 * @return FPGA timestamp in seconds
+	 */
+	public double getTargetCaptureTime() {
+		return targetCaptureTime;
+	}
+
+	/**
+	 * Update the target tracker with the target heading calculated from 
+	 * the robot heading when the image was captured.
+	 */
+	private void updateTargetHeading() {
+
+		targetCaptureTime = visionFrame.timestamp - visionSource.getLatency();
+
+		// If the capture time is older than the pose history, then the
+		// targets have not changed for a long time and the robot has
+		// not moved, so the current heading is used.
+		double captureHeading = Robot.driveSubsystem.getGyroAngle();
+
+		if (Robot.driveSubsystem.getPose(targetCaptureTime, capturePose)) {
+			captureHeading = capturePose.heading;
+		}
+
+		targetCaptureHeading = captureHeading;
+		targetMeasureTime    = targetCaptureTime;
+
+		double heading = (captureHeading + getRawDegreesOff()) % 360;
+		if (heading < 0) {
+			heading += 360;
+		}
+
+		targetTracker.update(targetCaptureTime, heading);
+	}
+
+	/**
+	 * Update the target tracker with the last targets when no new frame 
+	 * has arrived.
+	 * <p>
+	 * The NetworkTables do not resend a value that has not changed, so the 
+	 * GRIP contours report stops arriving when the robot and the targets 
+	 * are not moving. If the robot has not rotated since the targets were
+	 * captured, the unchanged targets are still a good measurement, and 
+	 * they are used to update the tracker so that the targets are not lost.
+	 * If the robot rotated, the targets would have moved in a new frame, 
+	 * so the last targets are stale and the tracker coasts.
+	 * <p>
+	 * The last targets are not used once the last frame is older than the 
+	 * {@link RobotConst#VISION_STATIONARY_MAX_AGE}, so that the targets are
+	 * lost if the vision processing stops.
+	 */
+	private void refreshTargetHeading() {
+
+		double now = Timer.getFPGATimestamp();
+
+		if (now - visionFrame.timestamp > RobotConst.VISION_STATIONARY_MAX_AGE) {
+			return;
+		}
+
+		double measureTime = now - visionSource.getLatency();
+
+		if (measureTime - targetMeasureTime < RobotConst.VISION_STATIONARY_REFRESH_PERIOD) {
+			return;
+		}
+
+		double gyroAngle = Robot.driveSubsystem.getGyroAngle();
+
+		double rotation = (gyroAngle - targetCaptureHeading) % 360;
+		if (rotation > 180) {
+			rotation -= 360;
+		}
+		if (rotation <= -180) {
+			rotation += 360;
+		}
+
+		if (Math.abs(rotation) > RobotConst.VISION_STATIONARY_MAX_ROTATION) {
+			return;
+		}
+
+		targetMeasureTime = measureTime;
+
+		double heading = (targetCaptureHeading + getRawDegreesOff()) % 360;
+		if (heading < 0) {
+			heading += 360;
+		}
+
+		targetTracker.update(measureTime, heading);
+	}
+
+	/**
+	 * Update the on target state using the hysteresis around the 
+	 * alignment error margin
+	 */
+	private void updateOnTarget() {
+
+		if (!targetsFound()) {
+			onTarget = false;
+			return;
+		}
+
+		double degreesOff = Math.abs(getDegreesOff());
+
+		if (onTarget) {
+			if (degreesOff > RobotConst.VISION_AVG_X_ERROR_MARGIN + RobotConst.VISION_ALIGN_HYSTERESIS) {
+				onTarget = false;
+			}
+		}
+		else if (degreesOff <= RobotConst.VISION_AVG_X_ERROR_MARGIN) {
+			onTarget = true;
+		}
+	}
+
+	/**
+	 * Lose the targets when the camera is switched
+	 */
+	private void resetTargetTracking() {
+		targetTracker.reset();
+		targetXValid     = false;
+		targetConfidence = 0;
+		onTarget         = false;
 	}
 
 	public boolean alignmentNeeded() {
@@ -185,7 +626,9 @@ public class CameraSubsystem extends TSubsystem {
             return false;
         }
 
-	    if (targetsFound() && Math.abs(getDegreesOff()) > RobotConst.VISION_AVG_X_ERROR_MARGIN) {
+	    // The robot is not on target until it is within the error margin
+	    // (see updateOnTarget())
+	    if (targetsFound() && !onTarget) {
 			return true;
 		}
 
@@ -196,108 +639,341 @@ public class CameraSubsystem extends TSubsystem {
     @Override
     public void updatePeriodic() {
         
-		// Setup the vision targets array so we use the same values each loop
-		if (centerX != null) {
-			centerXArray = centerX.getDoubleArray(new double[] {});
-			double[] centerYArray = centerY.getDoubleArray(new double[] {});
-			if (centerXArray.length != centerYArray.length) {
-				centerXArray = null;
-			}
-			else {
-				filterCenterXArray(centerYArray);
-				if (centerXArray != null) {
-					if (centerXArray.length == 0) {
-						centerXArray = null;
-					}
+		// Switch the stream profile when the robot state or the
+		// selected camera changes
+		StreamProfile profile = selectStreamProfile();
+		if (profile != streamProfile || curCamera != streamProfileCamera) {
+			applyStreamProfile(profile);
+		}
+		updateStreamBudget();
+
+		// Use the same vision frame for the whole loop
+		visionFrame = visionSource.getFrame();
+
+		// Select the vision targets and update the tracker once for
+		// each new frame
+		if (visionFrame != null) {
+			if (visionFrame.sequence != targetSequence) {
+
+				targetSequence = visionFrame.sequence;
+
+				targetXValid = selectTargets(
+						visionFrame.centerX, 
+						visionFrame.centerY, 
+						curCamera, targetXArray);
+
+				if (targetXValid) {
+					updateTargetHeading();
+				} else {
+					targetTracker.miss();
 				}
 			}
+			else if (targetXValid) {
+				refreshTargetHeading();
+			}
 		} else {
-			centerXArray = null;
+			targetXValid = false;
 		}
+
+		// Predict the target heading through to this loop
+		double now = Timer.getFPGATimestamp();
+		targetConfidence = getTrackedConfidence(targetTracker, now, visionSource.getLatency());
+		targetHeading    = targetTracker.getHeading(now);
+
+		updateOnTarget();
 		
-    	SmartDashboard.putString("Camera", curCamera.toString());
-    	SmartDashboard.putBoolean("Targets Found", targetsFound());
-    	SmartDashboard.putNumber("Target Center", getTargetAveragesX());
-    	SmartDashboard.putBoolean("On Target", targetsFound() && !alignmentNeeded());
-        SmartDashboard.putNumber("Degrees Off", getDegreesOff());
+    	cameraTelemetry      .set(curCamera.name());
+    	profileTelemetry     .set(streamProfile.name());
+    	streamFpsTelemetry   .set(streamFps);
+    	bandwidthTelemetry   .set(streamBandwidth);
+    	targetsFoundTelemetry.set(targetsFound());
+    	targetCenterTelemetry.set(getTargetAveragesX());
+    	onTargetTelemetry    .set(targetsFound() && !alignmentNeeded());
+        degreesOffTelemetry  .set(getDegreesOff());
+        confidenceTelemetry  .set(targetConfidence);
+
+        updateVisionFps();
+        visionAgeTelemetry   .set(visionFrame != null ? now - visionFrame.timestamp : -1);
+        visionFpsTelemetry   .set(visionFps);
+        visionTimeTelemetry  .set(robotVision != null ? robotVision.getProcessTime() : -1);
+    }
+
+    /**
+     * Measure the rate that the vision frames are received
+     */
+    private void updateVisionFps() {
+
+        double now      = Timer.getFPGATimestamp();
+        long   sequence = visionFrame != null ? visionFrame.sequence : 0;
+
+        if (now - fpsStartTime >= VISION_FPS_PERIOD) {
+            visionFps        = (sequence - fpsStartSequence) / (now - fpsStartTime);
+            fpsStartTime     = now;
+            fpsStartSequence = sequence;
+        }
     }
 
     @Override
     protected void initDefaultCommand() {
     	setDefaultCommand(new DefaultCameraCommand());
     }
+
+    // Flight recorder field ids
+    private int cameraField;
+    private int targetsFoundField;
+    private int targetX1Field;
+    private int targetX2Field;
+    private int degreesOffField;
+    private int targetHeadingField;
+    private int targetConfidenceField;
+
+    @Override
+    public void addRecordFields(TFlightRecorder recorder) {
+        cameraField        = recorder.addField("Camera");
+        targetsFoundField  = recorder.addField("Targets Found");
+        targetX1Field      = recorder.addField("Target X1");
+        targetX2Field      = recorder.addField("Target X2");
+        degreesOffField    = recorder.addField("Degrees Off");
+        targetHeadingField = recorder.addField("Target Heading");
+        targetConfidenceField = recorder.addField("Target Confidence");
+    }
+
+    @Override
+    public void record(TFlightRecorder recorder) {
+
+        boolean targetsFound = targetsFound();
+
+        recorder.set(cameraField,        curCamera.ordinal());
+        recorder.set(targetsFoundField,  targetsFound);
+        recorder.set(targetX1Field,      targetXValid ? targetXArray[0] : 0);
+        recorder.set(targetX2Field,      targetXValid ? targetXArray[1] : 0);
+        recorder.set(degreesOffField,    getDegreesOff());
+        recorder.set(targetHeadingField, getTargetHeading());
+        recorder.set(targetConfidenceField, targetConfidence);
+    }
     
-    private void filterCenterXArray(double[] centerYArray) {
+    /**
+     * Select the two vision targets closest to the center of the camera view
+     * <p>
+     * The targets are the target closest to {@link RobotConst#VISION_CENTER_X}
+     * and the target beside it (in X order) that is closest to the center. Only
+     * targets in the right part of the view (X &gt; 200) are used for the front
+     * camera.
+     * <p>
+     * The selection is done in place in two passes over the arrays without
+     * sorting, and does not allocate any memory.
+     * <p>
+     * Package visible so that the selection can be benchmarked without a
+     * camera.
+     * 
+     * @param centerXArray
+     *            the target center X values from the vision pipeline
+     * @param centerYArray
+     *            the target center Y values from the vision pipeline
+     * @param camera
+     *            the camera that supplied the targets
+     * @param targets
+     *            array of at least 2 values that is set to the two target X
+     *            values, the closest to the center first
+     * @return {@code true} if two targets were found, {@code false} otherwise
+     */
+    static boolean selectTargets(double[] centerXArray, double[] centerYArray, Camera camera, double[] targets) {
 
-    	if (centerXArray == null) {
-    		return;
-    	}
-    	
-    	if (centerXArray.length != centerYArray.length) {
-    		centerXArray = null;
-    		return;
-    	}
-    	
-    	// Filter the array to only use the values that are closest to the middle
-    	List<Double> xValues = new ArrayList<>();
-    	for (int i=0; i<centerXArray.length; i++) {
-    		if (curCamera == Camera.REAR || centerXArray[i] > 200) {
-    			xValues.add(centerXArray[i]);
-    		}
-    	}
-    	
-    	if (xValues.size() < 2) {
-    		centerXArray = null;
-    		return;
-    	}
-    	
-    	Collections.sort(xValues);
+        if (centerXArray == null || centerYArray == null
+                || centerXArray.length != centerYArray.length) {
+            return false;
+        }
 
-    	// Get the closest index to center
-    	double minDistance = 100000;
-    	int minIndex = -1;
-    	
-    	for (int i=0; i<xValues.size(); i++) {
-    		
-    		double distance = Math.abs(xValues.get(i) - RobotConst.VISION_CENTER_X);
+        // Find the target closest to the center. If two targets are the same
+        // distance from the center, use the lower X value.
+        int     count       = 0;
+        boolean centerFound = false;
+        double  center      = 0;
+        double  minDistance = 100000;
 
-    		if (distance < minDistance) {
-    			minDistance = distance;
-    			minIndex = i;
-    		}
-    	}
-    	
-    	// If the XArray contains bizarre values, make sure that the 
-    	// system does not throw an exception for index out of bounds.
-    	if (minIndex == -1) {
-    		centerXArray = null;
-    		return;
-    	}
-    	
-    	// Once the minimum is found, find the minimum distance of the index
-    	// over the min distance index, or the index under the min distance index.
-    	
-    	int nextClosestIndex = minIndex;
-    	
-    	if (minIndex == 0) {
-    		nextClosestIndex = 1;
-    	}
-    	else if (minIndex == xValues.size()-1) {
-    		nextClosestIndex = xValues.size()-2;
-    	}
-    	else {
-    		double dist1 = Math.abs(xValues.get(minIndex-1) - RobotConst.VISION_CENTER_X);
-    		double dist2 = Math.abs(xValues.get(minIndex+1) - RobotConst.VISION_CENTER_X);
-    		if (dist1 < dist2) {
-    			nextClosestIndex = minIndex - 1;
-    		}
-    		else {
-    			nextClosestIndex = minIndex + 1;
-    		}
-    	}
-    	
-    	centerXArray = new double[] {
-    			xValues.get(minIndex), xValues.get(nextClosestIndex) };
+        for (int i = 0; i < centerXArray.length; i++) {
+
+            double x = centerXArray[i];
+
+            if (!(camera == Camera.REAR || x > 200)) {
+                continue;
+            }
+
+            count++;
+
+            double distance = Math.abs(x - RobotConst.VISION_CENTER_X);
+
+            if (distance < minDistance
+                    || (centerFound && distance == minDistance && Double.compare(x, center) < 0)) {
+                minDistance = distance;
+                center      = x;
+                centerFound = true;
+            }
+        }
+
+        if (count < 2 || !centerFound) {
+            return false;
+        }
+
+        // Find the targets on either side of the center target in X order
+        int     centerCount = 0;
+        boolean lowerFound  = false;
+        boolean upperFound  = false;
+        double  lower       = 0;
+        double  upper       = 0;
+
+        for (int i = 0; i < centerXArray.length; i++) {
+
+            double x = centerXArray[i];
+
+            if (!(camera == Camera.REAR || x > 200)) {
+                continue;
+            }
+
+            int compare = Double.compare(x, center);
+
+            if (compare < 0) {
+                if (!lowerFound || Double.compare(x, lower) > 0) {
+                    lower      = x;
+                    lowerFound = true;
+                }
+            }
+            else if (compare > 0) {
+                if (!upperFound || Double.compare(x, upper) < 0) {
+                    upper      = x;
+                    upperFound = true;
+                }
+            }
+            else {
+                centerCount++;
+            }
+        }
+
+        // A duplicate of the center target is the next target above it
+        if (centerCount > 1) {
+            upper      = center;
+            upperFound = true;
+        }
+
+        double nextClosest;
+
+        if (!lowerFound) {
+            nextClosest = upper;
+        }
+        else if (!upperFound) {
+            nextClosest = lower;
+        }
+        else if (Math.abs(lower - RobotConst.VISION_CENTER_X) 
+                    < Math.abs(upper - RobotConst.VISION_CENTER_X)) {
+            nextClosest = lower;
+        }
+        else {
+            nextClosest = upper;
+        }
+
+        targets[0] = center;
+        targets[1] = nextClosest;
+
+        return true;
     }
 
+    /**
+     * Create a task that runs the target selection and tracking on generated
+     * vision frames
+     * <p>
+     * The task is used to warm up the vision calculations before the match.
+     * It uses its own tracker and does not change the camera or target state.
+     * 
+     * @return task that processes one generated frame on each run
+     */
+    public static Runnable createWarmUpTask() {
+
+        final int         frameCount = 64;
+        final double [][] centerX    = new double[frameCount][];
+        final double [][] centerY    = new double[frameCount][];
+
+        Random random = new Random(854);
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            int targetCount = random.nextInt(5);
+            centerX[frame] = new double[targetCount];
+            centerY[frame] = new double[targetCount];
+            for (int i = 0; i < targetCount; i++) {
+                centerX[frame][i] = random.nextDouble() * 640;
+                centerY[frame][i] = random.nextDouble() * 480;
+            }
+        }
+
+        final THeadingTracker tracker = createTargetTracker();
+
+        final double [] targets = new double[2];
+
+        return new Runnable() {
+
+            private int    frame = 0;
+            private double time  = 0;
+
+            @Override
+            public void run() {
+
+                frame = (frame + 1) % frameCount;
+                time += RobotConst.VISION_FRAME_BUDGET;
+
+                Camera camera = (frame & 1) == 0 ? Camera.FRONT : Camera.REAR;
+
+                if (selectTargets(centerX[frame], centerY[frame], camera, targets)) {
+                    double heading = (getRawDegreesOff((targets[0] + targets[1]) / 2.0) + 360) % 360;
+                    tracker.update(time, heading);
+                } else {
+                    tracker.miss();
+                }
+
+                targetsFound(getTrackedConfidence(tracker, time, RobotConst.VISION_LATENCY));
+                tracker.getHeading(time);
+            }
+        };
+    }
+
+    /**
+     * Create a target tracker with the robot tracking constants
+     *
+     * @return target heading tracker
+     */
+    static THeadingTracker createTargetTracker() {
+        return new THeadingTracker(
+                RobotConst.VISION_TRACK_ALPHA, RobotConst.VISION_TRACK_BETA,
+                RobotConst.VISION_TRACK_GATE,  RobotConst.VISION_TRACK_MAX_COAST_TIME);
+    }
+
+    /**
+     * Get the tracker confidence at the current time
+     * <p>
+     * The tracker is updated with the capture times of the frames, so the
+     * latency is taken off of the current time. The coast time is then
+     * measured from when the last frame arrived, and does not include the
+     * time the frame took to arrive.
+     *
+     * @param tracker
+     *            target tracker
+     * @param now
+     *            current time in seconds
+     * @param latency
+     *            time from the image capture until the frame arrived
+     * @return tracker confidence from 0 to 1
+     */
+    static double getTrackedConfidence(THeadingTracker tracker, double now, double latency) {
+        return tracker.getConfidence(now - latency);
+    }
+
+    /**
+     * Check whether the tracker confidence is high enough for the targets
+     * to be found
+     *
+     * @param confidence
+     *            tracker confidence from 0 to 1
+     * @return {@code true} if the targets are found
+     */
+    static boolean targetsFound(double confidence) {
+        return confidence >= RobotConst.VISION_TRACK_MIN_CONFIDENCE;
+    }
 }
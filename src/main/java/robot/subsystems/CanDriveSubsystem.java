@@ -1,5 +1,6 @@
 package robot.subsystems;
 
+import com.torontocodingcollective.sensors.TSensorFrame;
 import com.torontocodingcollective.sensors.encoder.TEncoder;
 import com.torontocodingcollective.sensors.gyro.TNavXGyro;
 import com.torontocodingcollective.sensors.ultrasonic.TUltrasonicSensor;
@@ -70,7 +71,13 @@ public class CanDriveSubsystem extends TGyroDriveSubsystem {
     			RobotConst.ULTRASONIC_VOLTAGE_80IN);
         
     	// Reduce the speed on the right side by 0.8 to balance with the left
-        setSpeedAdjust(1.2, 1.0);
+        setSpeedAdjust(RobotConst.DRIVE_LEFT_SPEED_ADJUST, RobotConst.DRIVE_RIGHT_SPEED_ADJUST);
+	}
+
+	@Override
+	public void addSensors(TSensorFrame sensorFrame) {
+		super.addSensors(sensorFrame);
+		sensorFrame.add(distanceSensor);
 	}
 
 	// Initialize the default command for the Chassis subsystem.
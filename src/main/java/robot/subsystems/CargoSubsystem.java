@@ -1,5 +1,6 @@
 package robot.subsystems;
 
+import com.torontocodingcollective.sensors.TSensorFrame;
 import com.torontocodingcollective.sensors.limitSwitch.TLimitSwitch;
 import com.torontocodingcollective.speedcontroller.TPwmSpeedController;
 import com.torontocodingcollective.speedcontroller.TPwmSpeedController.TPwmSpeedControllerType;
@@ -24,6 +25,11 @@ public class CargoSubsystem extends TSubsystem {
         //Empty for now
     };
 
+    @Override
+    public void addSensors(TSensorFrame sensorFrame) {
+        sensorFrame.add(limitSwitch);
+    }
+
     @Override
     protected void initDefaultCommand() {
         setDefaultCommand(new DefaultCargoCommand());
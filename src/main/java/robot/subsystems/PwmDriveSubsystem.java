@@ -1,5 +1,6 @@
 package robot.subsystems;
 
+import com.torontocodingcollective.sensors.TSensorFrame;
 import com.torontocodingcollective.sensors.encoder.TDioQuadEncoder;
 import com.torontocodingcollective.sensors.gyro.TAdis16448Gyro;
 import com.torontocodingcollective.sensors.ultrasonic.TUltrasonicSensor;
@@ -76,7 +77,13 @@ public class PwmDriveSubsystem extends TGyroDriveSubsystem {
     			RobotConst.ULTRASONIC_VOLTAGE_80IN);
     	
     	// Left side is faster than right side on the practice bot
-    	setSpeedAdjust(0.92, 1.0);
+    	setSpeedAdjust(RobotConst.DRIVE_LEFT_SPEED_ADJUST, RobotConst.DRIVE_RIGHT_SPEED_ADJUST);
+    }
+
+    @Override
+    public void addSensors(TSensorFrame sensorFrame) {
+        super.addSensors(sensorFrame);
+        sensorFrame.add(distanceSensor);
     }
 
     // Initialize the default command for the Chassis subsystem.
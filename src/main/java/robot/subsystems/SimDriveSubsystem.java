@@ -0,0 +1,42 @@
+package robot.subsystems;
+
+import com.torontocodingcollective.sim.TDifferentialDriveModel;
+import com.torontocodingcollective.sim.TSimDriveSubsystem;
+
+import robot.RobotConst;
+import robot.commands.drive.DefaultDriveCommand;
+
+/**
+ * Simulated Chassis Subsystem
+ * <p>
+ * Drive subsystem used when the robot code is run on the desktop. The motors
+ * and sensors are connected to a drive model using the simulation constants.
+ */
+public class SimDriveSubsystem extends TSimDriveSubsystem {
+
+    public SimDriveSubsystem() {
+
+        super(
+                new TDifferentialDriveModel(
+                        RobotConst.SIM_FREE_SPEED,
+                        RobotConst.SIM_LINEAR_TIME_CONSTANT,
+                        RobotConst.SIM_ANGULAR_TIME_CONSTANT,
+                        RobotConst.SIM_TRACK_WIDTH_INCHES,
+                        RobotConst.SIM_SCRUB_FACTOR),
+
+                RobotConst.ENCODER_COUNTS_PER_INCH,
+                RobotConst.SIM_ENCODER_RATE_SCALE,
+                RobotConst.DRIVE_SPEED_PID_KP,
+                RobotConst.DRIVE_SPEED_PID_KI,
+                RobotConst.MAX_LOW_GEAR_SPEED,
+                RobotConst.DRIVE_GYRO_PID_KP,
+                RobotConst.DRIVE_GYRO_PID_KI,
+                RobotConst.DRIVE_MAX_ROTATION_OUTPUT);
+    }
+
+    // Initialize the default command for the Chassis subsystem.
+    @Override
+    public void initDefaultCommand() {
+        setDefaultCommand(new DefaultDriveCommand());
+    }
+}
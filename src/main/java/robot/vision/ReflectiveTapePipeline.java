@@ -0,0 +1,139 @@
+package robot.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import com.torontocodingcollective.vision.TVisionPipeline;
+
+/**
+ * Reflective Tape Pipeline
+ * <p>
+ * A Java port of the GRIP pipeline in GRIP/reflective_tape_windows.grip, that
+ * can be run on the robot:
+ * <ol>
+ * <li>Resize the image to 640x480 (cubic)</li>
+ * <li>HSV threshold for the bright green reflective tape</li>
+ * <li>Find the contours (all contours, not only external contours)</li>
+ * <li>Filter the contours</li>
+ * <li>Report the center of the bounding box of each contour</li>
+ * </ol>
+ * The image is resized so that the target X values and the contour filter
+ * limits are the same as the GRIP contours report (see
+ * RobotConst.VISION_CENTER_X).
+ * <p>
+ * The working images are allocated once and reused for every frame. The
+ * contour point lists are released after each frame.
+ * <p>
+ * The GRIP minimum perimeter (0) and solidity (0 to 100%) filters accept every
+ * contour, so they are not calculated.
+ * <p>
+ * This class is not thread safe, and must only be used by one vision thread.
+ */
+public class ReflectiveTapePipeline implements TVisionPipeline {
+
+    // Resize
+    private static final Size        RESIZE_SIZE     = new Size(640, 480);
+
+    // HSV Threshold
+    private static final Scalar      HSV_MIN         = new Scalar(  0.0,  0.0, 252.25);
+    private static final Scalar      HSV_MAX         = new Scalar(176.93, 74.41, 255.0);
+
+    // Filter Contours
+    private static final double      MIN_AREA        = 500;
+    private static final double      MIN_WIDTH       = 0;
+    private static final double      MAX_WIDTH       = 100;
+    private static final double      MIN_HEIGHT      = 0;
+    private static final double      MAX_HEIGHT      = 1000;
+    private static final double      MIN_VERTICES    = 0;
+    private static final double      MAX_VERTICES    = 1000000;
+    private static final double      MIN_RATIO       = 0;
+    private static final double      MAX_RATIO       = 1000;
+
+    // Working images reused for every frame
+    private final Mat                resizeOutput    = new Mat();
+    private final Mat                hsvImage        = new Mat();
+    private final Mat                thresholdOutput = new Mat();
+    private final Mat                hierarchy       = new Mat();
+    private final List<MatOfPoint>   contours        = new ArrayList<MatOfPoint>();
+
+    @Override
+    public int process(Mat frame, double[] centerX, double[] centerY) {
+
+        Imgproc.resize(frame, resizeOutput, RESIZE_SIZE, 0, 0, Imgproc.INTER_CUBIC);
+
+        Imgproc.cvtColor(resizeOutput, hsvImage, Imgproc.COLOR_BGR2HSV);
+        Core.inRange(hsvImage, HSV_MIN, HSV_MAX, thresholdOutput);
+
+        // NOTE: findContours modifies the threshold image
+        Imgproc.findContours(thresholdOutput, contours, hierarchy,
+                Imgproc.RETR_LIST, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        int count = 0;
+
+        for (int i = 0; i < contours.size(); i++) {
+
+            MatOfPoint contour = contours.get(i);
+
+            if (count < centerX.length && count < centerY.length) {
+
+                Rect bb = Imgproc.boundingRect(contour);
+
+                if (accept(contour, bb)) {
+                    centerX[count] = bb.x + bb.width  / 2.0;
+                    centerY[count] = bb.y + bb.height / 2.0;
+                    count++;
+                }
+            }
+
+            contour.release();
+        }
+
+        contours.clear();
+
+        return count;
+    }
+
+    /**
+     * Apply the GRIP contour filter
+     *
+     * @param contour
+     *            the contour
+     * @param bb
+     *            the bounding box of the contour
+     * @return {@code true} if the contour is a target, {@code false} otherwise
+     */
+    private static boolean accept(MatOfPoint contour, Rect bb) {
+
+        if (bb.width < MIN_WIDTH || bb.width > MAX_WIDTH) {
+            return false;
+        }
+
+        if (bb.height < MIN_HEIGHT || bb.height > MAX_HEIGHT) {
+            return false;
+        }
+
+        if (Imgproc.contourArea(contour) < MIN_AREA) {
+            return false;
+        }
+
+        if (contour.rows() < MIN_VERTICES || contour.rows() > MAX_VERTICES) {
+            return false;
+        }
+
+        double ratio = bb.width / (double) bb.height;
+
+        if (ratio < MIN_RATIO || ratio > MAX_RATIO) {
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,135 @@
+package com.torontocodingcollective.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+import com.torontocodingcollective.oi.TStickPosition;
+import com.torontocodingcollective.speedcontroller.TSpeeds;
+
+/**
+ * Checks that the differential drive overloads that pass in the motor speeds
+ * do not allocate.
+ * <p>
+ * The bytes allocated by the test thread are read before and after a number of
+ * warmed up calls. The bytes allocated by reading the counter are measured
+ * first and taken off of the result.
+ */
+public class TDifferentialDriveTest {
+
+    private static final int       POSITION_COUNT = 1024;
+    private static final int       WARM_UP_CALLS  = 20000;
+    private static final int       CALLS          = 10000;
+
+    private final TDifferentialDrive differentialDrive = new TDifferentialDrive();
+    private final TSpeeds          motorSpeeds    = new TSpeeds();
+
+    private final ThreadMXBean     threadMXBean   =
+            (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long             threadId       = Thread.currentThread().getId();
+
+    private TStickPosition []      leftPositions;
+    private TStickPosition []      rightPositions;
+
+    /** Sum of the motor speeds so that the calls cannot be optimized away */
+    private double                 total          = 0;
+
+    @Before
+    public void setUp() {
+
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        Random random = new Random(854);
+
+        leftPositions  = new TStickPosition[POSITION_COUNT];
+        rightPositions = new TStickPosition[POSITION_COUNT];
+
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            leftPositions[i]  = new TStickPosition(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+            rightPositions[i] = new TStickPosition(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+        }
+    }
+
+    @Test
+    public void arcadeDriveSingleStickIntoSpeeds() {
+
+        arcadeDriveSingleStick(WARM_UP_CALLS);
+
+        long overhead = measurementOverhead();
+        long start    = allocatedBytes();
+
+        arcadeDriveSingleStick(CALLS);
+
+        assertEquals(0, allocatedBytes() - start - overhead);
+    }
+
+    @Test
+    public void arcadeDriveDualStickIntoSpeeds() {
+
+        arcadeDriveDualStick(WARM_UP_CALLS);
+
+        long overhead = measurementOverhead();
+        long start    = allocatedBytes();
+
+        arcadeDriveDualStick(CALLS);
+
+        assertEquals(0, allocatedBytes() - start - overhead);
+    }
+
+    @Test
+    public void tankDriveIntoSpeeds() {
+
+        tankDrive(WARM_UP_CALLS);
+
+        long overhead = measurementOverhead();
+        long start    = allocatedBytes();
+
+        tankDrive(CALLS);
+
+        assertEquals(0, allocatedBytes() - start - overhead);
+    }
+
+    private void arcadeDriveSingleStick(int calls) {
+        for (int i = 0; i < calls; i++) {
+            TSpeeds speeds = differentialDrive.arcadeDrive(
+                    leftPositions[i & (POSITION_COUNT - 1)], motorSpeeds);
+            total += speeds.left + speeds.right;
+        }
+    }
+
+    private void arcadeDriveDualStick(int calls) {
+        for (int i = 0; i < calls; i++) {
+            int index = i & (POSITION_COUNT - 1);
+            TSpeeds speeds = differentialDrive.arcadeDrive(
+                    leftPositions[index], rightPositions[index], motorSpeeds);
+            total += speeds.left + speeds.right;
+        }
+    }
+
+    private void tankDrive(int calls) {
+        for (int i = 0; i < calls; i++) {
+            int index = i & (POSITION_COUNT - 1);
+            TSpeeds speeds = differentialDrive.tankDrive(
+                    leftPositions[index], rightPositions[index], motorSpeeds);
+            total += speeds.left + speeds.right;
+        }
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean.getThreadAllocatedBytes(threadId);
+    }
+
+    private long measurementOverhead() {
+        // Warm up the counter before measuring it
+        allocatedBytes();
+        long start = allocatedBytes();
+        return allocatedBytes() - start;
+    }
+}
@@ -0,0 +1,224 @@
+package com.torontocodingcollective.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.torontocodingcollective.commands.gyroDrive.TDriveOnHeadingDistanceCommand;
+import com.torontocodingcollective.commands.gyroDrive.TPurePursuitCommand;
+import com.torontocodingcollective.commands.gyroDrive.TRotateToHeadingCommand;
+import com.torontocodingcollective.oi.TOi;
+import com.torontocodingcollective.oi.TStick;
+import com.torontocodingcollective.oi.TStickPosition;
+import com.torontocodingcollective.subsystem.TSubsystem;
+import com.torontocodingcollective.trajectory.TTrajectory;
+import com.torontocodingcollective.trajectory.TTrajectoryGenerator;
+import com.torontocodingcollective.trajectory.TWaypoint;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.command.Scheduler;
+
+/**
+ * Runs the gyro drive commands against the simulated drive on the virtual
+ * clock and checks where the robot ends up.
+ * <p>
+ * The drive is built from the production robot constants (TalonSRX encoder
+ * rates in counts/100ms).
+ * <p>
+ * The simulation speed is measured in the JMH TDriveSimulatorBenchmark.
+ */
+public class TDriveSimulatorTest {
+
+    private static final double LOOP_PERIOD             = 0.02;
+
+    private static final double ENCODER_COUNTS_PER_INCH = 54;
+    private static final double ENCODER_RATE_SCALE      = 0.1;
+    private static final double MAX_ENCODER_SPEED       = 925.0;
+    private static final double MAX_SPEED_INCHES        =
+            MAX_ENCODER_SPEED / ENCODER_RATE_SCALE / ENCODER_COUNTS_PER_INCH;
+    private static final double FREE_SPEED              = MAX_SPEED_INCHES * 1.1;
+    private static final double TRACK_WIDTH             = 24.0;
+
+    private static final double MAX_CROSS_TRACK_ERROR   = 8.0;
+    private static final double MAX_END_ERROR           = 8.0;
+
+    private TSimClock          clock;
+    private TSimDriveSubsystem drive;
+    private TDriveSimulator    simulator;
+    private TOi                oi = new SimOi();
+
+    /** OI with no driver input */
+    private static class SimOi extends TOi {
+
+        @Override
+        public boolean getCancelCommand() {
+            return false;
+        }
+
+        @Override
+        public TStickPosition getDriveStickPosition(TStick stick) {
+            return new TStickPosition(0, 0);
+        }
+
+        @Override
+        public boolean getReset() {
+            return false;
+        }
+
+        @Override
+        public boolean getSpeedPidEnabled() {
+            return true;
+        }
+    }
+
+    @BeforeClass
+    public static void initHal() {
+        assertTrue("Cannot initialize the simulation HAL", HAL.initialize(500, 0));
+    }
+
+    @Before
+    public void setUp() {
+
+        clock = new TSimClock(LOOP_PERIOD);
+        clock.start();
+
+        drive = new TSimDriveSubsystem(
+                new TDifferentialDriveModel(FREE_SPEED, 0.3, 0.2, TRACK_WIDTH, 0.15),
+                ENCODER_COUNTS_PER_INCH, ENCODER_RATE_SCALE,
+                0.75, 0.0375, MAX_ENCODER_SPEED,
+                .0015, .0005, 0.45);
+
+        List<TSubsystem> subsystemLs = new ArrayList<>();
+        subsystemLs.add(drive);
+
+        drive.init();
+
+        simulator = new TDriveSimulator(clock, drive, subsystemLs, oi);
+        simulator.setEnabled(true, true);
+    }
+
+    @After
+    public void tearDown() {
+        simulator.setEnabled(false, true);
+        Scheduler.getInstance().removeAll();
+    }
+
+    @Test
+    public void driveOnHeadingDistance() {
+
+        assertTrue(simulator.runCommand(
+                new TDriveOnHeadingDistanceCommand(60, 0, .6, 5, true, oi, drive), 6));
+
+        // The command ends on the first loop past the distance
+        double distance = drive.getDistanceInches();
+        assertTrue("distance " + distance, distance >= 60 && distance < 64);
+
+        TDifferentialDriveModel model = drive.getModel();
+
+        assertEquals(0, model.getHeading(), 1.0);
+        assertEquals(0, model.getY(), 1.0);
+    }
+
+    @Test
+    public void rotateToHeading() {
+
+        assertTrue(simulator.runCommand(
+                new TRotateToHeadingCommand(90, oi, drive), 5));
+
+        // Let the robot come to a stop
+        simulator.run(0.5);
+
+        assertEquals(90, drive.getModel().getHeading(), 3.0);
+
+        // Pivot in place
+        assertEquals(0, drive.getModel().getX(), 3.0);
+        assertEquals(0, drive.getModel().getY(), 3.0);
+    }
+
+    @Test
+    public void purePursuit() {
+        followPath(0);
+    }
+
+    @Test
+    public void purePursuitRotatedStart() {
+        // The path is rotated to start on the robot heading, so the robot
+        // follows the same path on the field in the gyro frame
+        followPath(45);
+    }
+
+    /**
+     * Follow an S curve (the front hatch path) from the given gyro heading
+     * and check the distance from the path and the end of the path.
+     * <p>
+     * The simulated robot always points along the field x axis. Setting the
+     * gyro angle puts the path in a rotated frame, so once the command rotates
+     * the path onto the robot heading the robot must follow the path on the
+     * field.
+     *
+     * @param startHeading
+     *            the gyro heading at the start of the path
+     */
+    private void followPath(double startHeading) {
+
+        TTrajectoryGenerator generator = new TTrajectoryGenerator(
+                MAX_SPEED_INCHES * .8, 150.0, TRACK_WIDTH);
+
+        double endX = 40 + 35 * Math.cos(Math.toRadians(30));
+        double endY = 35 * Math.sin(Math.toRadians(30));
+
+        TTrajectory trajectory = TTrajectory.wrap("S curve",
+                generator.generate(new TWaypoint(0, 0, 0), new TWaypoint(endX, endY, 0)));
+
+        // The speed PIDs are enabled by the default drive command on the robot
+        drive.enableSpeedPids();
+
+        TDifferentialDriveModel model = drive.getModel();
+
+        double startX = model.getX();
+        double startY = model.getY();
+
+        drive.setGyroAngle(startHeading);
+
+        TPurePursuitCommand command = new TPurePursuitCommand(trajectory, 18.0,
+                MAX_SPEED_INCHES, TRACK_WIDTH, 5, true, oi, drive);
+
+        command.start();
+        simulator.step();
+
+        double maxCrossTrackError = 0;
+
+        while (command.isRunning()) {
+
+            assertTrue("The path timed out", clock.getTime() < 20);
+
+            simulator.step();
+
+            // Distance from the robot to the closest point on the path
+            double x = model.getX() - startX;
+            double y = model.getY() - startY;
+
+            double crossTrackError = Double.MAX_VALUE;
+            for (int i = 0; i < trajectory.getLength(); i++) {
+                crossTrackError = Math.min(crossTrackError,
+                        Math.hypot(trajectory.getX(i) - x, trajectory.getY(i) - y));
+            }
+
+            maxCrossTrackError = Math.max(maxCrossTrackError, crossTrackError);
+        }
+
+        // The robot cuts inside the first curve and overshoots the second
+        // (about 7in) and ends when it passes the end of the path
+        assertTrue("cross track error " + maxCrossTrackError, maxCrossTrackError < MAX_CROSS_TRACK_ERROR);
+
+        assertEquals(endX, model.getX() - startX, MAX_END_ERROR);
+        assertEquals(endY, model.getY() - startY, MAX_END_ERROR);
+    }
+}
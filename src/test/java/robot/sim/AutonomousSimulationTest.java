@@ -0,0 +1,60 @@
+package robot.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.torontocodingcollective.sim.TDifferentialDriveModel;
+import com.torontocodingcollective.sim.TDriveSimulator;
+import com.torontocodingcollective.sim.TSimDriveSubsystem;
+
+import robot.Robot;
+import robot.commands.AutonomousCommand;
+import robot.oi.AutoSelector;
+
+/**
+ * Runs the autonomous command on the simulated robot and checks where the
+ * robot ends up.
+ */
+public class AutonomousSimulationTest {
+
+    @BeforeClass
+    public static void initRobot() {
+        assertTrue("The robot is not running on the simulated drive", AutonomousSimulation.init());
+    }
+
+    @Test
+    public void sideHatchLeft() {
+
+        TDriveSimulator simulator = AutonomousSimulation.getSimulator();
+
+        TDifferentialDriveModel model = ((TSimDriveSubsystem) Robot.driveSubsystem).getModel();
+
+        double startX        = model.getX();
+        double startDistance = (model.getLeftDistance() + model.getRightDistance()) / 2.0;
+
+        simulator.setEnabled(true, true);
+
+        // Drive 100in on heading 0, 60in on heading 335, rotate to 90 and
+        // wait for the vision target. There is no vision target in the
+        // simulation, so the wait ends on its timeout.
+        assertTrue(simulator.runCommand(new AutonomousCommand(
+                AutoSelector.ROBOT_LEFT, AutoSelector.PATTERN_SIDE_HATCH, 0), 15));
+
+        simulator.setEnabled(false, true);
+
+        // Both drive segments plus the distance to stop after each segment
+        double distance = (model.getLeftDistance() + model.getRightDistance()) / 2.0 - startDistance;
+        assertTrue("distance " + distance, distance >= 160 && distance < 200);
+
+        assertTrue("x " + (model.getX() - startX), model.getX() - startX >= 150);
+
+        double heading = model.getHeading() % 360;
+        if (heading < 0) {
+            heading += 360;
+        }
+        assertEquals(90, heading, 3.0);
+    }
+}
@@ -0,0 +1,216 @@
+package robot.subsystems;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.torontocodingcollective.vision.THeadingTracker;
+
+import robot.RobotConst;
+import robot.subsystems.CameraSubsystem.Camera;
+
+/**
+ * Checks that the vision target selection returns exactly the same targets as
+ * the original boxed list filter ({@link LegacyTargetFilter}), and that the
+ * target tracking keeps the targets through a single bad frame.
+ */
+public class CameraSubsystemTest {
+
+    private static final int         FRAME_COUNT = 256;
+
+    private static final double      LOOP_PERIOD  = 0.02;
+    private static final double      FRAME_PERIOD = 1.0 / 15.0;
+    private static final double      HEADING      = 20;
+
+    /** Frames in the tracking tests */
+    private enum Frame { TARGET, NO_TARGET, OUTLIER, DROPPED }
+
+    /** Edge case contour reports (centerX, centerY) */
+    private static final double [][] EDGE_CASE_FRAMES = {
+            {},                               {},
+            { 350 },                          { 100 },
+            { 300, 400 },                     { 100, 100 },
+            { 300, 400 },                     { 100 },
+            { 100, 150 },                     { 100, 100 },
+            { 100, 340, 360 },                { 100, 100, 100 },
+            { 340, 360, 250, 450 },           { 100, 100, 100, 100 },
+            { 350, 350, 300 },                { 100, 100, 100 },
+            { 360, 340, 360, 340 },           { 100, 100, 100, 100 },
+            { 201, 639, 350, 200 },           { 100, 100, 100, 100 },
+            { 0, -0.0, 640 },                 { 100, 100, 100 },
+            { 350, Double.NaN, 355 },         { 100, 100, 100 },
+            { Double.NaN, Double.NaN },       { 100, 100 },
+            { 200000, 300000 },               { 100, 100 },
+            { 200000, 350 },                  { 100, 100 },
+            { 330, 350, 370 },                { 100, 100, 100 },
+            { 345, 355, 340, 360, 320, 380 }, { 100, 100, 100, 100, 100, 100 },
+    };
+
+    private final double []          targets     = new double[2];
+
+    @Test
+    public void generatedFrames() {
+
+        Random random = new Random(854);
+
+        // Frames in the same range as the GRIP contour report (0 to 640
+        // pixels) with the number of contours found in the frame
+        for (int targetCount : new int[] { 2, 4, 8 }) {
+
+            for (int frame = 0; frame < FRAME_COUNT; frame++) {
+
+                double[] centerX = new double[targetCount];
+                double[] centerY = new double[targetCount];
+
+                for (int i = 0; i < targetCount; i++) {
+                    // Round some of the targets to whole pixels to generate ties
+                    double x = random.nextDouble() * 640;
+                    centerX[i] = random.nextBoolean() ? Math.rint(x) : x;
+                    centerY[i] = random.nextDouble() * 480;
+                }
+
+                for (Camera camera : Camera.values()) {
+                    checkEquivalent(centerX, centerY, camera);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void edgeCaseFrames() {
+
+        // Ties, duplicates, targets out of range and mismatched arrays
+        for (int frame = 0; frame < EDGE_CASE_FRAMES.length; frame += 2) {
+            for (Camera camera : Camera.values()) {
+                checkEquivalent(EDGE_CASE_FRAMES[frame], EDGE_CASE_FRAMES[frame + 1], camera);
+            }
+        }
+    }
+
+    @Test
+    public void targetsFoundOnFirstFrame() {
+
+        THeadingTracker tracker = CameraSubsystem.createTargetTracker();
+
+        double now = runFrames(tracker, 0, true, Frame.TARGET);
+
+        assertTrue("Targets not found after the first frame", targetsFound(tracker, now));
+    }
+
+    @Test
+    public void targetsKeptThroughOneFrameDropout() {
+
+        for (Frame badFrame : new Frame[] { Frame.NO_TARGET, Frame.OUTLIER, Frame.DROPPED }) {
+
+            THeadingTracker tracker = CameraSubsystem.createTargetTracker();
+
+            // Lock on to the targets, then one bad frame, then the targets
+            // again. The targets are checked in every loop.
+            runFrames(tracker, 0, true,
+                    Frame.TARGET, Frame.TARGET, Frame.TARGET, Frame.TARGET, Frame.TARGET,
+                    Frame.TARGET, Frame.TARGET, Frame.TARGET, Frame.TARGET, Frame.TARGET,
+                    badFrame,
+                    Frame.TARGET, Frame.TARGET);
+        }
+    }
+
+    @Test
+    public void targetsLostWhenFramesStop() {
+
+        THeadingTracker tracker = CameraSubsystem.createTargetTracker();
+
+        double now = runFrames(tracker, 0, true, Frame.TARGET, Frame.TARGET, Frame.TARGET);
+
+        // The last frame arrived in the last loop
+        now += RobotConst.VISION_TRACK_MAX_COAST_TIME + LOOP_PERIOD;
+
+        assertFalse("Targets found " + RobotConst.VISION_TRACK_MAX_COAST_TIME
+                + "s after the last frame", targetsFound(tracker, now));
+    }
+
+    @Test
+    public void targetsLostOnTwoMissedFrames() {
+
+        THeadingTracker tracker = CameraSubsystem.createTargetTracker();
+
+        double now = runFrames(tracker, 0, true,
+                Frame.TARGET, Frame.TARGET, Frame.TARGET, Frame.TARGET, Frame.TARGET,
+                Frame.NO_TARGET);
+
+        now = runFrames(tracker, now, false, Frame.NO_TARGET);
+
+        assertFalse("Targets found after two frames with no targets", targetsFound(tracker, now));
+    }
+
+    /**
+     * Run the robot loops while the frames arrive at the camera frame rate
+     * with the vision latency, updating the tracker as the camera subsystem
+     * does. When checked, the targets must be found in every loop after the
+     * first frame arrives.
+     *
+     * @return the time of the loop that processed the last frame
+     */
+    private double runFrames(THeadingTracker tracker, double startTime, boolean checkFound,
+            Frame... frames) {
+
+        double now = startTime;
+        int    frame = 0;
+
+        // The frames are captured at the frame rate starting just after the
+        // start time, and arrive in the first loop after the latency
+        double captureTime = startTime + LOOP_PERIOD / 2;
+
+        while (frame < frames.length) {
+
+            now += LOOP_PERIOD;
+
+            if (captureTime + RobotConst.VISION_LATENCY <= now) {
+
+                switch (frames[frame]) {
+                case TARGET:
+                    tracker.update(captureTime, HEADING);
+                    break;
+                case OUTLIER:
+                    tracker.update(captureTime, HEADING + 3 * RobotConst.VISION_TRACK_GATE);
+                    break;
+                case NO_TARGET:
+                    tracker.miss();
+                    break;
+                case DROPPED:
+                    break;
+                }
+
+                captureTime += FRAME_PERIOD;
+                frame++;
+            }
+
+            if (checkFound && frame > 0) {
+                assertTrue("Targets lost at " + now + "s after frame " + (frame - 1)
+                        + " " + Arrays.toString(frames), targetsFound(tracker, now));
+            }
+        }
+
+        return now;
+    }
+
+    private boolean targetsFound(THeadingTracker tracker, double now) {
+        return CameraSubsystem.targetsFound(
+                CameraSubsystem.getTrackedConfidence(tracker, now, RobotConst.VISION_LATENCY));
+    }
+
+    private void checkEquivalent(double[] centerXArray, double[] centerYArray, Camera camera) {
+
+        double[] expected = LegacyTargetFilter.filterCenterX(centerXArray, centerYArray, camera);
+        double[] actual   = CameraSubsystem.selectTargets(centerXArray, centerYArray, camera, targets)
+                ? new double[] { targets[0], targets[1] } : null;
+
+        // Compare the exact values (-0.0 is not the same target as 0)
+        assertTrue("Target selection for " + camera + " " + Arrays.toString(centerXArray)
+                + " returned " + Arrays.toString(actual) + ", expected " + Arrays.toString(expected),
+                Arrays.equals(expected, actual));
+    }
+}
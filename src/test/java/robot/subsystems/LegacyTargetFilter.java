@@ -0,0 +1,89 @@
+package robot.subsystems;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import robot.RobotConst;
+import robot.subsystems.CameraSubsystem.Camera;
+
+/**
+ * Legacy Target Filter
+ * <p>
+ * The original CameraSubsystem center X filter (boxed list and sort). Kept as
+ * the reference used to check that {@link CameraSubsystem#selectTargets}
+ * returns the same targets (see CameraSubsystemTest), and as the baseline for
+ * the CameraSubsystemBenchmark.
+ */
+class LegacyTargetFilter {
+
+    static double[] filterCenterX(double[] centerXArray, double[] centerYArray, Camera camera) {
+
+    	if (centerXArray == null) {
+    		return null;
+    	}
+    	
+    	if (centerXArray.length != centerYArray.length) {
+    		return null;
+    	}
+    	
+    	// Filter the array to only use the values that are closest to the middle
+    	List<Double> xValues = new ArrayList<>();
+    	for (int i=0; i<centerXArray.length; i++) {
+    		if (camera == Camera.REAR || centerXArray[i] > 200) {
+    			xValues.add(centerXArray[i]);
+    		}
+    	}
+    	
+    	if (xValues.size() < 2) {
+    		return null;
+    	}
+    	
+    	Collections.sort(xValues);
+
+    	// Get the closest index to center
+    	double minDistance = 100000;
+    	int minIndex = -1;
+    	
+    	for (int i=0; i<xValues.size(); i++) {
+    		
+    		double distance = Math.abs(xValues.get(i) - RobotConst.VISION_CENTER_X);
+
+    		if (distance < minDistance) {
+    			minDistance = distance;
+    			minIndex = i;
+    		}
+    	}
+    	
+    	// If the XArray contains bizarre values, make sure that the 
+    	// system does not throw an exception for index out of bounds.
+    	if (minIndex == -1) {
+    		return null;
+    	}
+    	
+    	// Once the minimum is found, find the minimum distance of the index
+    	// over the min distance index, or the index under the min distance index.
+    	
+    	int nextClosestIndex = minIndex;
+    	
+    	if (minIndex == 0) {
+    		nextClosestIndex = 1;
+    	}
+    	else if (minIndex == xValues.size()-1) {
+    		nextClosestIndex = xValues.size()-2;
+    	}
+    	else {
+    		double dist1 = Math.abs(xValues.get(minIndex-1) - RobotConst.VISION_CENTER_X);
+    		double dist2 = Math.abs(xValues.get(minIndex+1) - RobotConst.VISION_CENTER_X);
+    		if (dist1 < dist2) {
+    			nextClosestIndex = minIndex - 1;
+    		}
+    		else {
+    			nextClosestIndex = minIndex + 1;
+    		}
+    	}
+    	
+    	return new double[] {
+    			xValues.get(minIndex), xValues.get(nextClosestIndex) };
+    }
+}
@@ -0,0 +1,70 @@
+package robot.commands.auto;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.torontocodingcollective.trajectory.TTrajectory;
+import com.torontocodingcollective.trajectory.TTrajectoryGenerator;
+import com.torontocodingcollective.trajectory.TWaypoint;
+
+import robot.RobotConst;
+
+/**
+ * Generate Auto Paths
+ * <p>
+ * Generates the {@link AutoPaths} trajectory files. Run using the
+ * generateTrajectories build task, which is run before the robot code is
+ * built.
+ * <p>
+ * The paths start at (0, 0) at the position of the robot when the path
+ * command starts. The headings are gyro headings (the gyro is set to 0 at the
+ * start of auto). A heading of 0 drives along the x axis, and a heading of 90
+ * drives along the y axis (clockwise is positive).
+ */
+public class GenerateAutoPaths {
+
+    /**
+     * @param args
+     *            the output directory
+     */
+    public static void main(String[] args) throws IOException {
+
+        File directory = new File(args.length > 0 ? args[0] : "src/main/deploy/" + RobotConst.AUTO_PATH_DIRECTORY);
+        directory.mkdirs();
+
+        TTrajectoryGenerator generator = new TTrajectoryGenerator(
+                RobotConst.AUTO_PATH_MAX_VELOCITY,
+                RobotConst.AUTO_PATH_MAX_ACCELERATION,
+                RobotConst.DRIVE_TRACK_WIDTH_INCHES);
+
+        // Front hatch: replaces drive 40, rotate 30 (or 330), drive 35,
+        // rotate 0, with an S curve that ends facing the cargo ship.
+        write(generator, directory, AutoPaths.FRONT_HATCH_LEFT,
+                new TWaypoint(0, 0, 0),
+                new TWaypoint(40 + 35 * Math.cos(Math.toRadians(30)), 35 * Math.sin(Math.toRadians(30)), 0));
+
+        write(generator, directory, AutoPaths.FRONT_HATCH_RIGHT,
+                new TWaypoint(0, 0, 0),
+                new TWaypoint(40 + 35 * Math.cos(Math.toRadians(330)), 35 * Math.sin(Math.toRadians(330)), 0));
+
+        // Part 2: after turning around to 195 (or 165), replaces drive 200
+        // and rotate 180 with a curve that ends facing the loading station.
+        write(generator, directory, AutoPaths.PART2_LEFT,
+                new TWaypoint(0, 0, 195),
+                new TWaypoint(200 * Math.cos(Math.toRadians(195)), 200 * Math.sin(Math.toRadians(195)), 180));
+
+        write(generator, directory, AutoPaths.PART2_RIGHT,
+                new TWaypoint(0, 0, 165),
+                new TWaypoint(200 * Math.cos(Math.toRadians(165)), 200 * Math.sin(Math.toRadians(165)), 180));
+    }
+
+    private static void write(TTrajectoryGenerator generator, File directory, String name,
+            TWaypoint... waypoints) throws IOException {
+
+        File file = new File(directory, name + TTrajectory.FILE_SUFFIX);
+
+        generator.write(file, waypoints);
+
+        System.out.println("Generated " + TTrajectory.load(file));
+    }
+}